@@ -0,0 +1,224 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSUB/RSUB 를 따라가는 그림자 호출 스택으로 서브루틴별 비용을 모으는 호출 그래프 프로파일러.
+ * SicSimulator 의 실행 이벤트를 구독한다: 완료된 명령어마다 하나씩 세고, JSUB 면 enter(목표, 복귀 주소),
+ * RSUB 면 leave(목표 = L) 를 부르며, TD/RD/WD 는 장치 카운터에, 프로그램 적재는 reset 에 연결된다.
+ * 비용은 현재 스택 꼭대기의 호출 트리 노드에 쌓이고
+ * (JSUB 자신은 호출한 쪽, RSUB 자신은 불린 쪽 몫), 포함 비용은 내보낼 때 하위 트리를 더해 구한다.
+ * 이름은 내보낼 때 SymbolIndex(ESTAB)로 푼다.
+ *
+ * RSUB 의 복귀 주소가 스택 꼭대기와 다르면 스택을 아래로 찾아 맞는 프레임까지 한꺼번에 돌아간다
+ * (중간 서브루틴이 L 을 저장해 두었다가 바로 바깥으로 돌아가는 경우). 어디에도 없으면 무시하고 센다.
+ */
+public class CallProfiler implements ExecutionEvents.InstructionListener, ExecutionEvents.DeviceListener, ExecutionEvents.ProgramLoadListener {
+	public static final int INSTRUCTIONS = 0;
+	public static final int DEVICE_TESTS = 1;
+	public static final int DEVICE_READS = 2;   // RD 바이트 수
+	public static final int DEVICE_WRITES = 3;  // WD 바이트 수
+	private static final int COUNTERS = 4;
+	private static final int MAX_DEPTH = 1024;  // 이보다 깊은 호출은 부른 쪽에 합친다
+	private static final int OP_JSUB = 0x48, OP_RSUB = 0x4C;
+
+	/** 호출 트리 노드 하나: 루트부터 이 서브루틴까지 같은 경로로 불린 호출들의 비용 */
+	public static final class Node {
+		private final Node parent;
+		private final int entry;                      // 서브루틴 시작 주소 (JSUB 목표)
+		private final Map<Integer, Node> children = new LinkedHashMap<>();
+		private final long[] self = new long[COUNTERS];
+		private long calls;
+
+		Node(Node parent, int entry) { this.parent = parent; this.entry = entry; }
+
+		public Node getParent() { return parent; }
+		public int getEntry() { return entry; }
+		public long getCalls() { return calls; }
+		public long getSelf(int counter) { return self[counter]; }
+		public List<Node> getChildren() { return new ArrayList<>(children.values()); }
+
+		/** 하위 트리 전체의 합 */
+		public long getInclusive(int counter) {
+			long sum = self[counter];
+			for (Node child : children.values()) sum += child.getInclusive(counter);
+			return sum;
+		}
+
+		Node child(int entry) {
+			Node node = children.get(entry);
+			if (node == null) { node = new Node(this, entry); children.put(entry, node); }
+			return node;
+		}
+	}
+
+	/** 서브루틴별 합계 (호출 경로 무시). 재귀 호출은 포함 비용에 한 번만 센다 */
+	public static final class FunctionStats {
+		private final int entry;
+		private long calls;
+		private final long[] self = new long[COUNTERS];
+		private final long[] inclusive = new long[COUNTERS];
+
+		FunctionStats(int entry) { this.entry = entry; }
+
+		public int getEntry() { return entry; }
+		public long getCalls() { return calls; }
+		public long getSelf(int counter) { return self[counter]; }
+		public long getInclusive(int counter) { return inclusive[counter]; }
+	}
+
+	private final ResourceManager rMgr;
+	private Node root;
+	private final Node[] stack = new Node[MAX_DEPTH];
+	private final int[] returnAddresses = new int[MAX_DEPTH];
+	private int depth;          // stack[0..depth] 가 유효, stack[depth] 가 현재 노드
+	private long unmatchedReturns;
+	private long truncatedCalls;
+
+	public CallProfiler(ResourceManager rMgr) {
+		if (rMgr == null) throw new IllegalArgumentException("RM cannot be null for CallProfiler.");
+		this.rMgr = rMgr;
+		reset();
+	}
+
+	/** 모은 것을 모두 버리고 현재 프로그램의 첫 명령어 주소를 루트로 다시 시작한다 */
+	public void reset() {
+		root = new Node(null, rMgr.getFirstInstructionAddress());
+		root.calls = 1;
+		stack[0] = root;
+		depth = 0;
+		unmatchedReturns = 0;
+		truncatedCalls = 0;
+	}
+
+	// ---- 실행 이벤트 ----
+
+	@Override
+	public void instructionRetired(int pc, int opcodeByte, int length, int nextPc) {
+		stack[depth].self[INSTRUCTIONS]++;
+		int op = opcodeByte & 0xFC;
+		if (op == OP_JSUB) enter(nextPc, (pc + length) & 0xFFFFFF);
+		else if (op == OP_RSUB) leave(nextPc);
+	}
+
+	@Override
+	public void deviceAccess(int opcode, String device, int value) {
+		if (opcode == ExecutionEvents.OP_TD) stack[depth].self[DEVICE_TESTS]++;
+		else if (opcode == ExecutionEvents.OP_RD) stack[depth].self[DEVICE_READS]++;
+		else if (opcode == ExecutionEvents.OP_WD) stack[depth].self[DEVICE_WRITES]++;
+	}
+
+	@Override
+	public void programLoaded(String programName, int firstInstructionAddress) { reset(); }
+
+	public void enter(int target, int returnAddress) {
+		if (depth + 1 >= MAX_DEPTH) { truncatedCalls++; return; }
+		Node node = stack[depth].child(target);
+		node.calls++;
+		returnAddresses[++depth] = returnAddress;
+		stack[depth] = node;
+	}
+
+	public void leave(int returnAddress) {
+		for (int d = depth; d > 0; d--) {
+			if (returnAddresses[d] == returnAddress) { depth = d - 1; return; }
+		}
+		unmatchedReturns++;
+	}
+
+	// ---- 조회/내보내기 ----
+
+	public Node getRoot() { return root; }
+	public int getDepth() { return depth; }
+	public long getUnmatchedReturns() { return unmatchedReturns; }
+	public long getTruncatedCalls() { return truncatedCalls; }
+
+	/** 서브루틴 시작 주소 -> 합계. 첫 등장(전위 순회) 순서 */
+	public Map<Integer, FunctionStats> getFunctionStats() {
+		Map<Integer, FunctionStats> stats = new LinkedHashMap<>();
+		collect(root, stats, new HashMap<>());
+		return stats;
+	}
+
+	// onPath: 현재 경로에 그 서브루틴이 몇 번 있는지. 바깥쪽 호출에서 이미 포함 비용을 셌으면 다시 더하지 않는다
+	private static void collect(Node node, Map<Integer, FunctionStats> stats, Map<Integer, Integer> onPath) {
+		FunctionStats f = stats.computeIfAbsent(node.entry, FunctionStats::new);
+		f.calls += node.calls;
+		int outer = onPath.getOrDefault(node.entry, 0);
+		for (int c = 0; c < COUNTERS; c++) {
+			f.self[c] += node.self[c];
+			if (outer == 0) f.inclusive[c] += node.getInclusive(c);
+		}
+		onPath.put(node.entry, outer + 1);
+		for (Node child : node.children.values()) collect(child, stats, onPath);
+		if (outer == 0) onPath.remove(node.entry); else onPath.put(node.entry, outer);
+	}
+
+	public String name(int address) { return rMgr.getSymbolIndex().format(address); }
+
+	/** 들여쓴 호출 트리: 포함/자체 명령어 수, 호출 수, 장치 TD/RD/WD (자체) */
+	public String callTreeReport() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%10s %10s %8s %6s %6s %6s  %s%n", "incl", "self", "calls", "TD", "RD", "WD", "call path"));
+		appendTree(sb, root, 0);
+		if (unmatchedReturns > 0 || truncatedCalls > 0) {
+			sb.append(String.format("(unmatched RSUB %d, calls deeper than %d merged %d)%n", unmatchedReturns, MAX_DEPTH, truncatedCalls));
+		}
+		return sb.toString();
+	}
+
+	private void appendTree(StringBuilder sb, Node node, int level) {
+		sb.append(String.format("%10d %10d %8d %6d %6d %6d  ", node.getInclusive(INSTRUCTIONS), node.self[INSTRUCTIONS], node.calls,
+				node.self[DEVICE_TESTS], node.self[DEVICE_READS], node.self[DEVICE_WRITES]));
+		for (int i = 0; i < level; i++) sb.append("  ");
+		sb.append(name(node.entry)).append(System.lineSeparator());
+		for (Node child : node.children.values()) appendTree(sb, child, level + 1);
+	}
+
+	/** 서브루틴별 표: 포함 명령어 수가 큰 순서 */
+	public String functionReport() {
+		List<FunctionStats> list = new ArrayList<>(getFunctionStats().values());
+		list.sort((a, b) -> Long.compare(b.inclusive[INSTRUCTIONS], a.inclusive[INSTRUCTIONS]));
+		long total = Math.max(1, root.getInclusive(INSTRUCTIONS));
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-16s %8s %10s %6s %10s %6s %8s %8s %8s%n", "subroutine", "calls", "incl", "%", "self", "%", "incl TD", "incl RD", "incl WD"));
+		for (FunctionStats f : list) {
+			sb.append(String.format("%-16s %8d %10d %5.1f%% %10d %5.1f%% %8d %8d %8d%n", name(f.entry), f.calls,
+					f.inclusive[INSTRUCTIONS], 100.0 * f.inclusive[INSTRUCTIONS] / total,
+					f.self[INSTRUCTIONS], 100.0 * f.self[INSTRUCTIONS] / total,
+					f.inclusive[DEVICE_TESTS], f.inclusive[DEVICE_READS], f.inclusive[DEVICE_WRITES]));
+		}
+		return sb.toString();
+	}
+
+	/** flame graph 도구용 collapsed stack: "COPY;RDREC 57" 한 줄씩 (자체 명령어 수가 0인 경로는 뺀다) */
+	public List<String> collapsedStacks() {
+		List<String> lines = new ArrayList<>();
+		appendCollapsed(lines, root, new StringBuilder());
+		return lines;
+	}
+
+	private void appendCollapsed(List<String> lines, Node node, StringBuilder path) {
+		int mark = path.length();
+		if (mark > 0) path.append(';');
+		path.append(name(node.entry));
+		if (node.self[INSTRUCTIONS] > 0) lines.add(path + " " + node.self[INSTRUCTIONS]);
+		for (Node child : node.children.values()) appendCollapsed(lines, child, path);
+		path.setLength(mark);
+	}
+
+	public void saveCollapsedStacks(Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			for (String line : collapsedStacks()) out.println(line);
+		}
+	}
+}
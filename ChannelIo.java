@@ -0,0 +1,197 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * SIO/TIO/HIO 용 입출력 채널 (0..15). 채널 프로그램은 메모리에 이어 놓인 9바이트 채널 명령(CCW)들이다:
+ *   워드 0: 명령 바이트(0x00 끝, 0x01 읽기, 0x02 쓰기), 장치 번호 바이트, 예약 바이트
+ *   워드 1: 바이트 수. 읽기/쓰기가 끝나면 실제로 옮긴 바이트 수로 바뀐다 (장치가 EOF 면 더 작다)
+ *   워드 2: 메모리 주소
+ * 전송은 이산 사건 스케줄러가 시뮬레이션 시각(채널이 일하는 동안 실행된 명령어 수)에 맞춰 끝낸다:
+ * CCW 하나를 가져오는 데 commandCycles, 바이트마다 byteCycles 가 걸리고, 한 CCW 의 전송 결과는 완료 시각에
+ * 한꺼번에 메모리/장치에 반영된다. 그동안 프로그램은 계속 실행되고 TIO 의 조건 코드로 완료를 확인한다.
+ *
+ * 장치는 RD/WD 와 같은 ResourceManager 장치 맵을 쓴다. ResourceManager 마다 하나이며 SMP 모드에서는
+ * 모든 CPU 가 같은 채널과 시계를 공유한다 (시각은 어느 CPU 든 명령어 하나마다 1 씩 간다).
+ * CCW 읽기, DMA 전송, 바이트 수 갱신은 명령어의 메모리 접근처럼 ExecutionEvents 로 알리고, 메모리에 쓴 것은
+ * 트레이스에도 남긴다 (그 시각에 실행되는 명령어의 레코드에 붙는다). 둘 다 SicSimulator 가 끼워 준다.
+ */
+public class ChannelIo {
+	public static final int CHANNELS = 16;
+	public static final int CCW_SIZE = 9;
+	public static final int CMD_END = 0x00, CMD_READ = 0x01, CMD_WRITE = 0x02;
+	public static final int DEFAULT_COMMAND_CYCLES = 4;
+	public static final int DEFAULT_BYTE_CYCLES = 2;
+
+	/** 채널 상태. TIO 는 IDLE 이면 =, BUSY 면 <, ERROR/HALTED 면 > 로 조건 코드를 둔다 */
+	public enum Status { IDLE, BUSY, ERROR, HALTED }
+
+	// command < 0 이면 CCW 가져오기, 아니면 그 CCW 의 전송 완료
+	private static final class Event {
+		final long time, seq;
+		final int channel, generation, command, device, count, address;
+
+		Event(long time, long seq, int channel, int generation, int command, int device, int count, int address) {
+			this.time = time; this.seq = seq; this.channel = channel; this.generation = generation;
+			this.command = command; this.device = device; this.count = count; this.address = address;
+		}
+	}
+
+	private final ResourceManager rMgr;
+	// 같은 시각이면 먼저 예약한 사건부터 (seq)
+	private final PriorityQueue<Event> queue = new PriorityQueue<>((a, b) -> a.time != b.time ? Long.compare(a.time, b.time) : Long.compare(a.seq, b.seq));
+	private final Status[] status = new Status[CHANNELS];
+	private final int[] generation = new int[CHANNELS]; // HIO/reset 때 올려서 큐에 남은 사건을 무효로 만든다
+	private final int[] ccwAddress = new int[CHANNELS]; // 지금 처리 중인(또는 다음) CCW 주소
+	private final long[] bytesTransferred = new long[CHANNELS];
+	private final String[] lastError = new String[CHANNELS];
+	private long now;
+	private long seq;
+	private long nextDue = Long.MAX_VALUE;
+	private volatile boolean busy; // 일하는 채널이 하나라도 있으면 true. InstLuncher 가 명령어마다 본다
+	private int commandCycles = DEFAULT_COMMAND_CYCLES;
+	private int byteCycles = DEFAULT_BYTE_CYCLES;
+	private ExecutionEvents events; // null 이면 메모리 이벤트를 발행하지 않는다
+	private TraceWriter trace;      // null 이면 트레이스에 남기지 않는다
+
+	ChannelIo(ResourceManager rMgr) {
+		this.rMgr = rMgr;
+		reset();
+	}
+
+	/** 모든 채널을 멈추고 IDLE 로 되돌린다 (진행 중인 전송은 버린다) */
+	public synchronized void reset() {
+		queue.clear();
+		Arrays.fill(status, Status.IDLE);
+		for (int ch = 0; ch < CHANNELS; ch++) generation[ch]++;
+		Arrays.fill(ccwAddress, 0);
+		Arrays.fill(bytesTransferred, 0);
+		Arrays.fill(lastError, "");
+		now = 0;
+		nextDue = Long.MAX_VALUE;
+		busy = false;
+	}
+
+	public synchronized void setTiming(int commandCycles, int byteCycles) {
+		if (commandCycles < 1 || byteCycles < 0) throw new IllegalArgumentException("Invalid channel timing: " + commandCycles + "/" + byteCycles);
+		this.commandCycles = commandCycles;
+		this.byteCycles = byteCycles;
+	}
+
+	// SicSimulator 가 구독 상태와 트레이스 설정에 따라 바꿔 끼운다
+	synchronized void setEvents(ExecutionEvents events) { this.events = events; }
+	synchronized void setTraceWriter(TraceWriter trace) { this.trace = trace; }
+
+	public boolean isBusy() { return busy; }
+	public synchronized long getTime() { return now; }
+	public synchronized Status getStatus(int channel) { return status[channel]; }
+	public synchronized int getCcwAddress(int channel) { return ccwAddress[channel]; }
+	public synchronized long getBytesTransferred(int channel) { return bytesTransferred[channel]; }
+	public synchronized String getLastError(int channel) { return lastError[channel]; }
+
+	// 명령어 하나를 실행하기 전에 InstLuncher 가 부른다 (busy 일 때만)
+	synchronized void tick() {
+		if (++now >= nextDue) runDue();
+	}
+
+	/** SIO: 채널 프로그램을 시작한다. 채널이 이미 일하는 중이면 아무것도 하지 않고 false */
+	public synchronized boolean start(int channel, int programAddress) {
+		if (status[channel] == Status.BUSY) return false;
+		status[channel] = Status.BUSY;
+		ccwAddress[channel] = programAddress;
+		bytesTransferred[channel] = 0;
+		lastError[channel] = "";
+		schedule(now + commandCycles, channel, -1, 0, 0, 0);
+		return true;
+	}
+
+	/** HIO: 일하는 중이면 멈추고 HALTED 로 만든다 (이미 끝난 CCW 의 전송은 되돌리지 않는다). 멈추기 전 상태를 반환 */
+	public synchronized Status halt(int channel) {
+		Status before = status[channel];
+		if (before == Status.BUSY) {
+			generation[channel]++;
+			status[channel] = Status.HALTED;
+			lastError[channel] = "Halted by HIO";
+			updateDue();
+		}
+		return before;
+	}
+
+	private void schedule(long time, int channel, int command, int device, int count, int address) {
+		queue.add(new Event(time, seq++, channel, generation[channel], command, device, count, address));
+		updateDue();
+	}
+
+	private void updateDue() {
+		boolean any = false;
+		for (Status s : status) if (s == Status.BUSY) { any = true; break; }
+		if (!any) queue.clear(); // 무효가 된 사건만 남았다
+		Event head = queue.peek();
+		nextDue = (head != null) ? head.time : Long.MAX_VALUE;
+		busy = any;
+	}
+
+	private void runDue() {
+		Event e;
+		while ((e = queue.peek()) != null && e.time <= now) {
+			queue.poll();
+			if (e.generation != generation[e.channel]) continue;
+			if (e.command < 0) fetch(e.channel);
+			else transfer(e);
+		}
+		updateDue();
+	}
+
+	private void fetch(int channel) {
+		int at = ccwAddress[channel];
+		if (!rMgr.isValidRange(at, CCW_SIZE)) { fail(channel, String.format("CCW out of memory at 0x%06X", at)); return; }
+		int head = rMgr.readWord(at) & 0xFFFFFF;
+		int count = rMgr.readWord(at + 3) & 0xFFFFFF;
+		int address = rMgr.readWord(at + 6) & 0xFFFFFF;
+		if (events != null) events.fireMemoryRead(at, CCW_SIZE);
+		int command = head >>> 16, device = (head >>> 8) & 0xFF;
+		if (command == CMD_END) { status[channel] = Status.IDLE; return; }
+		if (command != CMD_READ && command != CMD_WRITE) { fail(channel, String.format("Invalid channel command 0x%02X at 0x%06X", command, at)); return; }
+		if (!rMgr.isValidRange(address, count)) { fail(channel, String.format("Transfer 0x%06X+%d out of memory (CCW at 0x%06X)", address, count, at)); return; }
+		schedule(now + (long) count * byteCycles, channel, command, device, count, address);
+	}
+
+	private void transfer(Event e) {
+		String devName = InstLuncher.DEVICE_NAMES[e.device];
+		int done;
+		if (e.command == CMD_READ) {
+			char[] data = (e.count > 0) ? rMgr.readDevice(devName, e.count) : new char[0];
+			byte[] bytes = new byte[data.length];
+			for (int i = 0; i < data.length; i++) bytes[i] = (byte) data[i];
+			rMgr.setMemory(e.address, bytes, bytes.length);
+			done = bytes.length;
+			wrote(e.address, done);
+		} else {
+			byte[] bytes = rMgr.getMemory(e.address, e.count);
+			if (events != null) events.fireMemoryRead(e.address, e.count);
+			char[] data = new char[bytes.length];
+			for (int i = 0; i < bytes.length; i++) data[i] = (char) (bytes[i] & 0xFF);
+			rMgr.writeDevice(devName, data, data.length);
+			done = bytes.length;
+		}
+		int at = ccwAddress[e.channel];
+		rMgr.writeWord(at + 3, done);
+		wrote(at + 3, 3);
+		bytesTransferred[e.channel] += done;
+		ccwAddress[e.channel] = at + CCW_SIZE;
+		schedule(now + commandCycles, e.channel, -1, 0, 0, 0);
+	}
+
+	// 명령어의 쓰기와 같은 경로로 알린다
+	private void wrote(int address, int length) {
+		if (length == 0) return;
+		if (events != null) events.fireMemoryWritten(address, length);
+		if (trace != null) trace.recordChannelWrite(address, length);
+	}
+
+	private void fail(int channel, String message) {
+		status[channel] = Status.ERROR;
+		lastError[channel] = message;
+	}
+}
@@ -0,0 +1,18 @@
+package SP25_simulator;
+
+// H 레코드 하나가 정의하는 컨트롤 섹션 (이름, 실제 적재 주소, 길이)
+class ControlSection {
+	String name;
+	int startAddress;
+	int length;
+
+	public ControlSection(String name, int startAddress, int length) {
+		this.name = name;
+		this.startAddress = startAddress;
+		this.length = length;
+	}
+
+	public String getName() { return name; }
+	public int getStartAddress() { return startAddress; }
+	public int getLength() { return length; }
+}
@@ -0,0 +1,166 @@
+package SP25_simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 주소 공간 전체에 대한 코드/데이터 커버리지 비트셋. 바이트마다 실행/읽기/쓰기 비트 하나씩.
+ * SicSimulator 의 실행 이벤트(명령어 완료, 피연산자 읽기/쓰기)를 구독해서 표시한다.
+ * 여러 실행의 커버리지는 비트셋을 OR 해서 합친다 (merge).
+ *
+ * 사용법: CoverageMap report <목적코드 파일> <커버리지 파일...>
+ *         CoverageMap merge <출력 파일> <커버리지 파일...>
+ */
+public class CoverageMap implements ExecutionEvents.InstructionListener, ExecutionEvents.MemoryListener {
+	private static final byte[] MAGIC = {'S', 'I', 'C', 'C', 'O', 'V', '0', '1'};
+
+	private final int size;
+	private final long[] executed;
+	private final long[] read;
+	private final long[] written;
+
+	public CoverageMap(int memorySize) {
+		this.size = memorySize;
+		int words = (memorySize + 63) >>> 6;
+		this.executed = new long[words];
+		this.read = new long[words];
+		this.written = new long[words];
+	}
+
+	public int getSize() { return size; }
+
+	public void markExecuted(int address, int length) { mark(executed, address, length); }
+	public void markRead(int address, int length) { mark(read, address, length); }
+	public void markWritten(int address, int length) { mark(written, address, length); }
+
+	@Override public void instructionRetired(int pc, int opcodeByte, int length, int nextPc) { markExecuted(pc, length); }
+	@Override public void memoryRead(int address, int length) { markRead(address, length); }
+	@Override public void memoryWritten(int address, int length) { markWritten(address, length); }
+
+	public boolean isExecuted(int address) { return test(executed, address); }
+	public boolean isRead(int address) { return test(read, address); }
+	public boolean isWritten(int address) { return test(written, address); }
+
+	private void mark(long[] bits, int address, int length) {
+		int end = Math.min(address + length, size);
+		for (int a = Math.max(address, 0); a < end; a++) bits[a >>> 6] |= 1L << a;
+	}
+
+	private boolean test(long[] bits, int address) {
+		return address >= 0 && address < size && (bits[address >>> 6] & (1L << address)) != 0;
+	}
+
+	// [from, to) 구간에서 켜진 비트 수
+	private static int count(long[] bits, int from, int to) {
+		int n = 0;
+		for (int a = from; a < to; ) {
+			if ((a & 63) == 0 && a + 64 <= to) { n += Long.bitCount(bits[a >>> 6]); a += 64; }
+			else { if ((bits[a >>> 6] & (1L << a)) != 0) n++; a++; }
+		}
+		return n;
+	}
+
+	public int countExecuted(int from, int to) { return count(executed, clamp(from), clamp(to)); }
+	public int countRead(int from, int to) { return count(read, clamp(from), clamp(to)); }
+	public int countWritten(int from, int to) { return count(written, clamp(from), clamp(to)); }
+	private int clamp(int a) { return Math.max(0, Math.min(a, size)); }
+
+	// 다른 실행의 커버리지를 합친다
+	public void merge(CoverageMap other) {
+		if (other.size != size) throw new IllegalArgumentException("Coverage size mismatch: " + size + " vs " + other.size);
+		for (int i = 0; i < executed.length; i++) {
+			executed[i] |= other.executed[i];
+			read[i] |= other.read[i];
+			written[i] |= other.written[i];
+		}
+	}
+
+	public void clear() {
+		Arrays.fill(executed, 0L);
+		Arrays.fill(read, 0L);
+		Arrays.fill(written, 0L);
+	}
+
+	public void save(File file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.write(MAGIC);
+			out.writeInt(size);
+			for (long[] bits : new long[][]{executed, read, written}) for (long w : bits) out.writeLong(w);
+		}
+	}
+
+	public static CoverageMap load(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			byte[] magic = new byte[MAGIC.length];
+			in.readFully(magic);
+			if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a coverage file: " + file);
+			CoverageMap map = new CoverageMap(in.readInt());
+			for (long[] bits : new long[][]{map.executed, map.read, map.written}) for (int i = 0; i < bits.length; i++) bits[i] = in.readLong();
+			return map;
+		}
+	}
+
+	/** T 레코드 적재 영역별, ESTAB 심볼별 커버리지 보고서 */
+	public String report(List<MemoryRegion> regions, SymbolIndex symbols) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Coverage by T-record region:\n");
+		sb.append(String.format(" %-17s %6s %14s %14s %14s%n", "region", "bytes", "executed", "read", "written"));
+		for (MemoryRegion r : regions) {
+			int from = r.getStartAddress(), to = from + r.getLength();
+			appendRow(sb, String.format("%06X-%06X", from, to - 1), from, to);
+		}
+		sb.append("Coverage by symbol:\n");
+		sb.append(String.format(" %-17s %6s %14s %14s %14s%n", "symbol", "bytes", "executed", "read", "written"));
+		for (int i = 0; i < symbols.size(); i++) {
+			int from = symbols.addressAt(i);
+			// 같은 주소의 심볼은 역인덱스가 고르는 마지막 것만 보고한다
+			if (i + 1 < symbols.size() && symbols.addressAt(i + 1) == from) continue;
+			int to = symbolEnd(symbols, i);
+			if (to > from) appendRow(sb, symbols.symbolAt(i), from, to);
+		}
+		return sb.toString();
+	}
+
+	// 심볼 i 의 범위 끝: 다음 심볼 주소와 소속 컨트롤 섹션 끝 중 앞선 것
+	private int symbolEnd(SymbolIndex symbols, int i) {
+		int from = symbols.addressAt(i);
+		int end = size;
+		for (int j = i + 1; j < symbols.size(); j++) if (symbols.addressAt(j) > from) { end = symbols.addressAt(j); break; }
+		int cs = symbols.csectIndexOf(from);
+		if (cs >= 0) end = Math.min(end, symbols.sectionEndAt(cs));
+		return end;
+	}
+
+	private void appendRow(StringBuilder sb, String label, int from, int to) {
+		int len = to - from;
+		sb.append(String.format(" %-17s %6d %6d (%5.1f%%) %6d (%5.1f%%) %6d (%5.1f%%)%n", label, len,
+				countExecuted(from, to), 100.0 * countExecuted(from, to) / len,
+				countRead(from, to), 100.0 * countRead(from, to) / len,
+				countWritten(from, to), 100.0 * countWritten(from, to) / len));
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || !(args[0].equals("report") || args[0].equals("merge"))) {
+			System.err.println("Usage: CoverageMap report <object file> <coverage files...> | merge <out> <coverage files...>");
+			return;
+		}
+		CoverageMap merged = CoverageMap.load(new File(args[2]));
+		for (int i = 3; i < args.length; i++) merged.merge(CoverageMap.load(new File(args[i])));
+		if (args[0].equals("merge")) { merged.save(new File(args[1])); return; }
+		ResourceManager rMgr = new ResourceManager();
+		File program = new File(args[1]);
+		if (!new SicLoader(rMgr).load(program) || rMgr.getProgramName().isEmpty()) {
+			System.err.println("Failed to load object file: " + program);
+			System.exit(1);
+		}
+		System.out.print(merged.report(rMgr.getTRecordLoadedRegions(), rMgr.getSymbolIndex()));
+	}
+}
@@ -0,0 +1,301 @@
+package SP25_simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GUI 없이 외부 도구(스크립트, 에디터 플러그인)가 시뮬레이터를 조작할 수 있게 하는 로컬 디버그 서버.
+ * 루프백 주소에만 바인드하며 한 번에 클라이언트 하나를 처리한다.
+ *
+ * 프레임 형식 (모두 big-endian):
+ *   요청: int32 길이(이후 바이트 수) | int32 요청 ID | uint8 명령 | 페이로드
+ *   응답: int32 길이(이후 바이트 수) | int32 요청 ID | uint8 상태(0=OK, 1=오류) | 페이로드 (오류 시 UTF-8 메시지)
+ *
+ * 클라이언트는 응답을 기다리지 않고 요청을 연달아 보낼 수 있다(파이프라이닝). 응답은 요청 순서대로 오며,
+ * 서버는 대기 중인 요청이 남아 있지 않을 때만 출력을 flush 해서 여러 응답을 한 번에 보낸다.
+ * 요청은 읽기 스레드가 받아 큐에 넣고 처리 스레드가 차례로 실행한다. CMD_STOP 만은 읽는 즉시 실행 중이거나
+ * 그보다 먼저 도착한 CMD_RUN 을 모두 취소하므로, 예산 없는 실행도 프로토콜로 멈출 수 있다.
+ */
+public class DebugServer {
+	public static final int DEFAULT_PORT = 6525;
+	public static final int MAX_FRAME_LENGTH = 1 << 20;
+
+	// 명령 코드
+	public static final int CMD_LOAD = 0x01;            // UTF-8 경로                -> 없음 (적재 실패 시 오류, 메모리는 초기화됨)
+	public static final int CMD_STEP = 0x02;            // 없음                      -> uint8 계속가능, int32 PC
+	public static final int CMD_RUN = 0x03;             // int64 예산, int64 제한ms  -> uint8 StopReason, int64 실행수, int32 PC
+	public static final int CMD_SET_BREAKPOINT = 0x04;  // int32 주소, uint8 활성     -> 없음
+	public static final int CMD_CLEAR_BREAKPOINTS = 0x05;
+	public static final int CMD_READ_MEMORY = 0x06;     // int32 주소, int32 길이     -> 바이트들
+	public static final int CMD_WRITE_MEMORY = 0x07;    // int32 주소, 나머지 바이트  -> 없음
+	public static final int CMD_READ_REGISTERS = 0x08;  // 없음                      -> int32 x 10 (6,7 은 0), float64 F
+	public static final int CMD_WRITE_REGISTER = 0x09;  // uint8 번호, int64 값 (F 는 double 비트) -> 없음
+	public static final int CMD_STATUS = 0x0A;          // 없음                      -> uint8 계속가능, int32 PC, int32 TA, UTF 장치명
+	public static final int CMD_READ_MEMORY_RANGES = 0x0B; // int32 개수, (int32 주소, int32 길이) x 개수 -> 바이트들을 이어 붙임
+	public static final int CMD_STOP = 0x0C;            // 없음                      -> int32 취소한 CMD_RUN 수
+
+	public static final int MAX_RANGES = 4096;                    // CMD_READ_MEMORY_RANGES 한 번의 최대 범위 수
+	public static final int MAX_RESPONSE_BYTES = MAX_FRAME_LENGTH - 5; // 메모리 읽기 응답 페이로드의 최대 바이트 수 (응답 프레임도 MAX_FRAME_LENGTH 를 넘지 않는다)
+
+	private static final int STATUS_OK = 0;
+	private static final int STATUS_ERROR = 1;
+
+	private final ResourceManager rMgr;
+	private final SicLoader sicLoader;
+	private final SicSimulator sicSimulator;
+	private final int port;
+	private volatile boolean running = true;
+	// 읽었지만 아직 끝나지 않은 CMD_RUN 들의 취소 토큰 (CMD_STOP 과 stop() 이 모두 올린다)
+	private final Set<AtomicBoolean> pendingRuns = ConcurrentHashMap.newKeySet();
+
+	// 읽기 스레드가 받은 요청 하나. runToken 은 CMD_RUN 일 때만 있다
+	private static final class Request {
+		static final Request END = new Request(0, -1, null, null);
+		final int id, command;
+		final byte[] body;
+		final AtomicBoolean runToken;
+
+		Request(int id, int command, byte[] body, AtomicBoolean runToken) {
+			this.id = id; this.command = command; this.body = body; this.runToken = runToken;
+		}
+	}
+
+	public DebugServer(ResourceManager resourceManager, SicLoader loader, SicSimulator simulator, int port) {
+		if (resourceManager == null || loader == null || simulator == null) throw new IllegalArgumentException("DebugServer needs RM, loader and simulator.");
+		this.rMgr = resourceManager;
+		this.sicLoader = loader;
+		this.sicSimulator = simulator;
+		this.port = port;
+	}
+
+	public void stop() {
+		running = false;
+		cancelPendingRuns();
+	}
+
+	private int cancelPendingRuns() {
+		int cancelled = 0;
+		for (AtomicBoolean token : pendingRuns) if (!token.getAndSet(true)) cancelled++;
+		return cancelled;
+	}
+
+	public void serve() throws IOException {
+		try (ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+			System.out.println("[DebugServer] listening on " + server.getLocalSocketAddress());
+			while (running) {
+				try (Socket client = server.accept()) {
+					client.setTcpNoDelay(true);
+					handleClient(client);
+				} catch (IOException e) {
+					System.err.println("[DebugServer] client error: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void handleClient(Socket client) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream(), 64 * 1024));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream(), 64 * 1024));
+		BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+		AtomicReference<IOException> readError = new AtomicReference<>();
+		Thread reader = new Thread(() -> readRequests(in, queue, readError), "DebugServer-reader");
+		reader.setDaemon(true);
+		reader.start();
+		ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(4096);
+		DataOutputStream payload = new DataOutputStream(payloadBuffer);
+		try {
+			while (running) {
+				Request request;
+				try { request = queue.take(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); break; }
+				if (request == Request.END) break;
+				if (request.command == CMD_RUN) out.flush(); // 오래 걸릴 수 있으므로 앞선 응답부터 보낸다
+
+				payloadBuffer.reset();
+				int status = STATUS_OK;
+				try {
+					execute(request, new DataInputStream(new ByteArrayInputStream(request.body)), payload);
+				} catch (Exception e) {
+					payloadBuffer.reset();
+					status = STATUS_ERROR;
+					payload.write(String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+				} finally {
+					if (request.runToken != null) pendingRuns.remove(request.runToken);
+				}
+				payload.flush();
+				out.writeInt(5 + payloadBuffer.size());
+				out.writeInt(request.id);
+				out.writeByte(status);
+				payloadBuffer.writeTo(out);
+				// 파이프라인으로 이미 도착한 요청이 없을 때만 내보낸다
+				if (queue.isEmpty()) out.flush();
+			}
+			out.flush();
+		} finally {
+			cancelPendingRuns(); // 연결이 끊기면 남은 실행도 멈춘다
+			pendingRuns.clear();
+		}
+		if (readError.get() != null) throw readError.get();
+	}
+
+	// 읽기 스레드: 프레임을 읽어 큐에 넣는다. CMD_STOP 은 여기서 바로 취소하고, 응답은 순서대로 처리 스레드가 보낸다
+	private void readRequests(DataInputStream in, BlockingQueue<Request> queue, AtomicReference<IOException> readError) {
+		try {
+			while (running) {
+				int length;
+				try { length = in.readInt(); } catch (EOFException e) { break; }
+				if (length < 5 || length > MAX_FRAME_LENGTH) throw new IOException("Bad frame length: " + length);
+				int requestId = in.readInt();
+				int command = in.readUnsignedByte();
+				byte[] body = new byte[length - 5];
+				in.readFully(body);
+				AtomicBoolean runToken = null;
+				if (command == CMD_RUN) { runToken = new AtomicBoolean(); pendingRuns.add(runToken); }
+				else if (command == CMD_STOP) body = intBytes(cancelPendingRuns());
+				queue.add(new Request(requestId, command, body, runToken));
+			}
+		} catch (IOException e) {
+			readError.set(e);
+		} finally {
+			queue.add(Request.END);
+		}
+	}
+
+	private static byte[] intBytes(int v) {
+		return new byte[] {(byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v};
+	}
+
+	private void execute(Request request, DataInputStream req, DataOutputStream resp) throws IOException {
+		int command = request.command;
+		switch (command) {
+			case CMD_LOAD: {
+				File program = new File(new String(req.readAllBytes(), StandardCharsets.UTF_8));
+				if (!program.isFile()) throw new IOException("No such object file: " + program.getPath());
+				rMgr.initializeResource();
+				if (!sicLoader.load(program, null) || rMgr.getProgramName().isEmpty()) {
+					rMgr.initializeResource(); // 반쯤 적재된 메모리를 남기지 않는다
+					throw new IOException("Failed to load object file: " + program.getPath());
+				}
+				sicSimulator.programLoaded();
+				break;
+			}
+			case CMD_STEP: {
+				boolean continued = sicSimulator.oneStep();
+				resp.writeByte(continued ? 1 : 0);
+				resp.writeInt(rMgr.getRegister(ResourceManager.REG_PC));
+				break;
+			}
+			case CMD_RUN: {
+				long budget = req.readLong();
+				long timeoutMillis = req.readLong();
+				RunResult result = sicSimulator.run(budget > 0 ? budget : SicSimulator.UNLIMITED_BUDGET, timeoutMillis, request.runToken);
+				resp.writeByte(result.getReason().ordinal());
+				resp.writeLong(result.getExecutedInstructions());
+				resp.writeInt(result.getPc());
+				break;
+			}
+			case CMD_SET_BREAKPOINT: {
+				int address = req.readInt();
+				sicSimulator.setBreakpoint(address, req.readUnsignedByte() != 0);
+				break;
+			}
+			case CMD_CLEAR_BREAKPOINTS:
+				sicSimulator.clearBreakpoints();
+				break;
+			case CMD_READ_MEMORY: {
+				int address = req.readInt();
+				int length = req.readInt();
+				resp.write(readRange(address, length));
+				break;
+			}
+			case CMD_READ_MEMORY_RANGES: {
+				int count = req.readInt();
+				if (count < 0 || count > MAX_RANGES) throw new IOException("Range count out of bounds: " + count + " (max " + MAX_RANGES + ")");
+				int[] ranges = new int[count * 2];
+				long total = 0;
+				for (int i = 0; i < count; i++) {
+					ranges[2 * i] = req.readInt();
+					ranges[2 * i + 1] = req.readInt();
+					checkRange(ranges[2 * i], ranges[2 * i + 1], "Read");
+					total += ranges[2 * i + 1];
+				}
+				if (total > MAX_RESPONSE_BYTES) throw new IOException("Response too large: " + total + " bytes (max " + MAX_RESPONSE_BYTES + ")");
+				for (int i = 0; i < count; i++) resp.write(readRange(ranges[2 * i], ranges[2 * i + 1]));
+				break;
+			}
+			case CMD_STOP:
+				resp.writeInt(req.readInt()); // 읽기 스레드가 취소한 수
+				break;
+			case CMD_WRITE_MEMORY: {
+				int address = req.readInt();
+				byte[] data = req.readAllBytes();
+				checkRange(address, data.length, "Write");
+				rMgr.setMemory(address, data, data.length);
+				break;
+			}
+			case CMD_READ_REGISTERS:
+				for (int i = 0; i < 10; i++) resp.writeInt(rMgr.getRegister(i));
+				resp.writeDouble(rMgr.getRegister_F());
+				break;
+			case CMD_WRITE_REGISTER: {
+				int regNum = req.readUnsignedByte();
+				long value = req.readLong();
+				if (regNum == ResourceManager.REG_F) rMgr.setRegister_F(Double.longBitsToDouble(value));
+				else if (regNum > ResourceManager.REG_SW || regNum == 7) throw new IOException("Invalid register: " + regNum);
+				else rMgr.setRegister(regNum, (int) value);
+				break;
+			}
+			case CMD_STATUS:
+				resp.writeByte(sicSimulator.isReadyToRun() ? 1 : 0);
+				resp.writeInt(rMgr.getRegister(ResourceManager.REG_PC));
+				resp.writeInt(sicSimulator.instLuncher.getLastCalculatedTA());
+				resp.writeUTF(rMgr.getLastAccessedDeviceName());
+				break;
+			default:
+				throw new IOException("Unknown command: 0x" + Integer.toHexString(command));
+		}
+	}
+
+	// address + length 는 int 로 넘칠 수 있으므로 남은 크기와 비교한다
+	private void checkRange(int address, int length, String what) throws IOException {
+		int size = rMgr.getMemorySize();
+		if (length < 0 || address < 0 || address > size || length > size - address) throw new IOException(what + " out of bounds: 0x" + Integer.toHexString(address) + "+" + length);
+	}
+
+	private byte[] readRange(int address, int length) throws IOException {
+		checkRange(address, length, "Read");
+		if (length > MAX_RESPONSE_BYTES) throw new IOException("Response too large: " + length + " bytes (max " + MAX_RESPONSE_BYTES + ")");
+		if (length == 0) return new byte[0];
+		return rMgr.getMemory(address, length);
+	}
+
+	// 사용법: DebugServer [포트] [목적코드 파일]
+	public static void main(String[] args) throws IOException {
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		ResourceManager rMgr = new ResourceManager();
+		SicLoader loader = new SicLoader(rMgr);
+		SicSimulator simulator = new SicSimulator(rMgr);
+		if (args.length > 1) {
+			if (!loader.load(new File(args[1]))) { System.err.println("Failed to load " + args[1]); return; }
+			simulator.programLoaded();
+		}
+		try { new DebugServer(rMgr, loader, simulator, port).serve(); }
+		finally { rMgr.closeDevices(); }
+	}
+}
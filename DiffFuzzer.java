@@ -0,0 +1,425 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InstLuncher 차등 퍼저. 무작위지만 형식이 올바른 SIC/XE 명령어열과 레지스터/메모리 상태를 만들어
+ * 얼려 둔 기준 인터프리터(ReferenceInstLuncher)와 현재 엔진(InstLuncher)에서 나란히 실행하고,
+ * 매 스텝의 다음 PC, 레지스터, F, TA 와 마지막 메모리를 비교한다.
+ * 불일치가 나오면 스텝 수, 명령어, 데이터, 레지스터를 줄여 작은 재현 사례로 만든다.
+ *
+ * 프로그램 모드는 복사/채우기/검색 루프를 넣은 명령어열을 프로그램으로 올려 SicSimulator.run() 으로 끝까지
+ * (루프 관용구와 청크 루프를 거쳐) 실행하고, 기준 인터프리터로 한 스텝씩 실행한 결과와 멈춘 이유, 실행한 명령어 수,
+ * 상태 지문(메모리 + 레지스터 + F)을 비교한다.
+ *
+ * 장치 입출력(TD/RD/WD)과 채널 명령(SIO/TIO/HIO)은 파일과 외부 상태를 건드리므로 생성하지 않는다.
+ *
+ * 사용법: DiffFuzzer [초(기본 60)] [시드] [스레드 수] [step|program|both(기본)]
+ */
+public class DiffFuzzer {
+	static final int CODE_BASE = 0x0000;
+	static final int DATA_BASE = 0x0400;
+	static final int DATA_LIMIT = 0x1000;
+	static final int MAX_INSTRUCTIONS = 24;
+	static final int MAX_STEPS = 48;
+	static final int MAX_PROGRAM_STEPS = 4096;
+	static final int MAX_LOOP_LIMIT = 0x400;
+
+	private static final int[] FORMAT34_OPCODES = {
+			0x00, 0x04, 0x08, 0x0C, 0x10, 0x14, 0x18, 0x1C, 0x20, 0x24, 0x28, 0x2C,
+			0x30, 0x34, 0x38, 0x3C, 0x48, 0x4C, 0x50, 0x54, 0x68, 0x6C, 0x74, 0x78, 0x7C, 0x84, 0xE8
+	};
+	private static final int[] FORMAT2_OPCODES = {0x90, 0xB4, 0xA0, 0x9C, 0x98, 0xAC, 0xA4, 0xA8, 0x94, 0xB0, 0xB8};
+	private static final int[] FORMAT1_OPCODES = {0xC4, 0xC0};
+	private static final int[] REGS_TO_SEED = {ResourceManager.REG_A, ResourceManager.REG_X, ResourceManager.REG_L, ResourceManager.REG_B, ResourceManager.REG_S, ResourceManager.REG_T};
+	// 루프 한계 레지스터 후보와 그 레지스터를 즉시값으로 채우는 적재 opcode
+	private static final int[] LIMIT_REGS = {ResourceManager.REG_A, ResourceManager.REG_L, ResourceManager.REG_B, ResourceManager.REG_S, ResourceManager.REG_T};
+	private static final int[] LOAD_OPCODES = {0x00, 0x04, 0x08, 0x68, 0x6C, 0x74}; // 레지스터 번호 0..5 (A, X, L, B, S, T)
+	private static final int OP_COMP = 0x28, OP_JEQ = 0x30, OP_JLT = 0x38, OP_LDCH = 0x50, OP_STCH = 0x54, OP_TIXR = 0xB8;
+
+	// 재현 사례 하나
+	static final class TestCase {
+		final byte[][] instructions;
+		final byte[] data;     // [DATA_BASE, DATA_LIMIT) 초기 내용
+		final int[] registers; // 레지스터 번호로 인덱싱 (PC 는 무시)
+		final long fBits;
+		final int steps;
+		final boolean wholeProgram; // true 면 SicSimulator.run() 으로 실행해 끝 상태만 비교
+
+		TestCase(byte[][] instructions, byte[] data, int[] registers, long fBits, int steps, boolean wholeProgram) {
+			this.instructions = instructions; this.data = data; this.registers = registers; this.fBits = fBits; this.steps = steps; this.wholeProgram = wholeProgram;
+		}
+
+		TestCase withSteps(int n) { return new TestCase(instructions, data, registers, fBits, n, wholeProgram); }
+		TestCase withoutInstruction(int i) {
+			List<byte[]> list = new ArrayList<>(Arrays.asList(instructions));
+			list.remove(i);
+			return new TestCase(list.toArray(new byte[0][]), data, registers, fBits, steps, wholeProgram);
+		}
+		TestCase withDataZeroed(int from, int to) {
+			byte[] d = Arrays.copyOf(data, data.length);
+			Arrays.fill(d, from, to, (byte) 0);
+			return new TestCase(instructions, d, registers, fBits, steps, wholeProgram);
+		}
+		TestCase withRegister(int reg, int value) {
+			int[] r = Arrays.copyOf(registers, registers.length);
+			r[reg] = value;
+			return new TestCase(instructions, data, r, fBits, steps, wholeProgram);
+		}
+		TestCase withF(long bits) { return new TestCase(instructions, data, registers, bits, steps, wholeProgram); }
+
+		int codeLength() {
+			int n = 0;
+			for (byte[] inst : instructions) n += inst.length;
+			return n;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(wholeProgram ? "mode=program " : "mode=step ").append("steps=").append(steps).append('\n');
+			sb.append(String.format("A=%06X X=%06X L=%06X B=%06X S=%06X T=%06X SW=%06X F=%s%n",
+					registers[0], registers[1], registers[2], registers[3], registers[4], registers[5], registers[ResourceManager.REG_SW], Double.longBitsToDouble(fBits)));
+			int addr = CODE_BASE;
+			for (byte[] inst : instructions) {
+				sb.append(String.format("%06X: ", addr));
+				for (byte b : inst) sb.append(String.format("%02X", b & 0xFF));
+				sb.append('\n');
+				addr += inst.length;
+			}
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] != 0) sb.append(String.format("M[%06X]=%02X%n", DATA_BASE + i, data[i] & 0xFF));
+			}
+			return sb.toString();
+		}
+	}
+
+	// 스레드마다 하나씩: 두 엔진과 각자의 ResourceManager
+	static final class Worker {
+		final ResourceManager refMgr = new ResourceManager();
+		final ResourceManager curMgr = new ResourceManager();
+		final ReferenceInstLuncher ref = new ReferenceInstLuncher(refMgr);
+		final InstLuncher cur = new InstLuncher(curMgr);
+		final SicSimulator sim = new SicSimulator(curMgr); // 프로그램 모드용 (관용구 켬, 콘솔 로그 끔)
+		final byte[] image = new byte[refMgr.getMemorySize()];
+		final byte[] pageBuffer = new byte[ResourceManager.PAGE_SIZE];
+		// 마지막 load 직후의 페이지 버전. 다음 load 에서는 그 뒤로 쓰인 페이지와 케이스 영역만 다시 채운다
+		final int[] refLoaded = new int[refMgr.getPageCount()];
+		final int[] curLoaded = new int[curMgr.getPageCount()];
+		String divergence;
+		int divergenceStep;
+
+		Worker() {
+			sim.setConsoleLogging(false);
+		}
+
+		private void load(TestCase tc) {
+			Arrays.fill(image, CODE_BASE, DATA_LIMIT, (byte) 0);
+			int addr = CODE_BASE;
+			for (byte[] inst : tc.instructions) { System.arraycopy(inst, 0, image, addr, inst.length); addr += inst.length; }
+			System.arraycopy(tc.data, 0, image, DATA_BASE, tc.data.length);
+			restorePages(refMgr, refLoaded);
+			restorePages(curMgr, curLoaded);
+			for (ResourceManager rm : new ResourceManager[]{refMgr, curMgr}) {
+				for (int r = 0; r <= ResourceManager.REG_SW; r++) rm.setRegister(r, tc.registers[r]);
+				rm.setRegister(ResourceManager.REG_PC, CODE_BASE);
+				rm.setRegister_F(Double.longBitsToDouble(tc.fBits));
+			}
+		}
+
+		private void restorePages(ResourceManager rm, int[] loaded) {
+			int firstCasePage = CODE_BASE >>> ResourceManager.PAGE_SHIFT, lastCasePage = (DATA_LIMIT - 1) >>> ResourceManager.PAGE_SHIFT;
+			for (int p = 0; p < loaded.length; p++) {
+				if ((p < firstCasePage || p > lastCasePage) && rm.getPageVersion(p) == loaded[p]) continue;
+				System.arraycopy(image, p << ResourceManager.PAGE_SHIFT, pageBuffer, 0, pageBuffer.length);
+				rm.setMemory(p << ResourceManager.PAGE_SHIFT, pageBuffer, pageBuffer.length);
+				loaded[p] = rm.getPageVersion(p);
+			}
+		}
+
+		// 두 엔진이 다르게 동작하면 true. memoryEachStep 이면 매 스텝 메모리도 비교한다 (최소화용).
+		boolean diverges(TestCase tc, boolean memoryEachStep) {
+			if (tc.wholeProgram) return runsDiffer(tc);
+			load(tc);
+			divergence = null;
+			int pc = CODE_BASE;
+			for (int step = 0; step < tc.steps; step++) {
+				// 데이터로 점프해서 장치/채널 명령을 만나면 거기서 끝낸다 (작업 디렉터리에 장치 파일이 생기지 않도록)
+				if (refMgr.isValidRange(pc, 1) && isExternalOpcode(refMgr.readByte(pc) & 0xFC)) break;
+				int r1 = ref.executeInstructionAt(pc);
+				int r2 = cur.executeInstructionAt(pc);
+				divergenceStep = step;
+				if (r1 != r2) { divergence = String.format("step %d @%06X: next PC ref=%d cur=%d", step, pc, r1, r2); return true; }
+				if (!compareState(step, pc) || (memoryEachStep && !compareMemory(step))) return true;
+				if (r1 < 0) break;
+				refMgr.setRegister(ResourceManager.REG_PC, r1);
+				curMgr.setRegister(ResourceManager.REG_PC, r2);
+				pc = r1;
+			}
+			return !compareMemory(divergenceStep);
+		}
+
+		/**
+		 * 프로그램 모드: 코드 영역을 프로그램으로 올려 기준 엔진은 run() 의 규칙(PC 가 프로그램 밖이면 HALT, 오류/정지 명령어는
+		 * 한 명령어로 센다)대로 한 스텝씩, 현재 엔진은 sim.run() 으로 실행하고 끝 상태를 비교한다.
+		 * 기준 실행이 장치/채널 명령어에 닿으면 그 앞까지를 예산으로 삼는다.
+		 */
+		boolean runsDiffer(TestCase tc) {
+			load(tc);
+			divergence = null;
+			divergenceStep = tc.steps - 1; // 최소화가 스텝 수를 줄이지 않도록
+			int codeEnd = CODE_BASE + tc.codeLength();
+			StopReason refReason = StopReason.BUDGET;
+			long refSteps = 0;
+			int pc = CODE_BASE;
+			while (refSteps < tc.steps) {
+				if (pc < CODE_BASE || pc >= codeEnd) { refReason = StopReason.HALT; break; }
+				if (isExternalOpcode(refMgr.readByte(pc) & 0xFC)) break;
+				int next = ref.executeInstructionAt(pc);
+				refSteps++;
+				if (next == InstLuncher.ERROR_HALT) { refReason = StopReason.ERROR; break; }
+				if (next == InstLuncher.NORMAL_HALT) { refReason = StopReason.HALT; break; }
+				refMgr.setRegister(ResourceManager.REG_PC, next);
+				pc = next;
+			}
+			long budget = (refReason == StopReason.BUDGET) ? refSteps : tc.steps;
+
+			curMgr.setActualProgramLoadAddress(CODE_BASE);
+			curMgr.setProgramTotalLength(codeEnd - CODE_BASE);
+			curMgr.setFirstInstructionAddress(CODE_BASE);
+			sim.programLoaded();
+			RunResult res = sim.run(budget, 0, null);
+
+			if (res.getReason() != refReason || res.getExecutedInstructions() != refSteps || res.getPc() != refMgr.getRegister(ResourceManager.REG_PC)) {
+				divergence = String.format("run: ref=%s after %d @%06X, cur=%s after %d @%06X",
+						refReason, refSteps, refMgr.getRegister(ResourceManager.REG_PC), res.getReason(), res.getExecutedInstructions(), res.getPc());
+				return true;
+			}
+			if (refMgr.getStateFingerprint() == curMgr.getStateFingerprint()) return false;
+			for (int r = 0; r <= ResourceManager.REG_SW; r++) {
+				if (refMgr.getRegister(r) != curMgr.getRegister(r)) {
+					divergence = String.format("run: after %d steps register %d ref=%06X cur=%06X", refSteps, r, refMgr.getRegister(r), curMgr.getRegister(r));
+					return true;
+				}
+			}
+			if (!compareMemory((int) refSteps)) return true;
+			divergence = String.format("run: after %d steps fingerprint ref=%016X cur=%016X", refSteps, refMgr.getStateFingerprint(), curMgr.getStateFingerprint());
+			return true;
+		}
+
+		private static boolean isExternalOpcode(int op) {
+			return op == 0xD8 || op == 0xDC || op == 0xE0 || op == 0xF0 || op == 0xF4 || op == 0xF8;
+		}
+
+		private boolean compareState(int step, int pc) {
+			for (int r = 0; r <= ResourceManager.REG_SW; r++) {
+				if (refMgr.getRegister(r) != curMgr.getRegister(r)) {
+					divergence = String.format("step %d @%06X: register %d ref=%06X cur=%06X", step, pc, r, refMgr.getRegister(r), curMgr.getRegister(r));
+					return false;
+				}
+			}
+			if (Double.doubleToRawLongBits(refMgr.getRegister_F()) != Double.doubleToRawLongBits(curMgr.getRegister_F())) {
+				divergence = String.format("step %d @%06X: F ref=%s cur=%s", step, pc, refMgr.getRegister_F(), curMgr.getRegister_F());
+				return false;
+			}
+			if (ref.getLastCalculatedTA() != cur.getLastCalculatedTA()) {
+				divergence = String.format("step %d @%06X: TA ref=%X cur=%X", step, pc, ref.getLastCalculatedTA(), cur.getLastCalculatedTA());
+				return false;
+			}
+			return true;
+		}
+
+		// 페이지 해시로 다른 페이지를 찾고, 그 페이지 안에서만 바이트를 비교한다
+		private boolean compareMemory(int step) {
+			int[] pages = refMgr.diffPages(curMgr);
+			if (pages.length == 0) return true;
+			int base = pages[0] << ResourceManager.PAGE_SHIFT;
+			byte[] refPage = refMgr.getMemory(base, ResourceManager.PAGE_SIZE), curPage = curMgr.getMemory(base, ResourceManager.PAGE_SIZE);
+			int off = Math.max(0, Arrays.mismatch(refPage, curPage));
+			divergence = String.format("step %d: memory[%06X] ref=%02X cur=%02X", step, base + off, refPage[off] & 0xFF, curPage[off] & 0xFF);
+			return false;
+		}
+	}
+
+	// --- 생성기 ---
+	static TestCase randomCase(SplittableRandom rnd) {
+		int count = 1 + rnd.nextInt(MAX_INSTRUCTIONS);
+		byte[][] insts = new byte[count][];
+		for (int i = 0; i < count; i++) insts[i] = randomInstruction(rnd);
+		byte[] data = new byte[DATA_LIMIT - DATA_BASE];
+		int filled = rnd.nextInt(64);
+		for (int i = 0; i < filled; i++) data[rnd.nextInt(data.length)] = (byte) rnd.nextInt(256);
+		int[] regs = new int[10];
+		for (int r : REGS_TO_SEED) regs[r] = randomWord(rnd);
+		regs[ResourceManager.REG_SW] = rnd.nextInt(3);
+		long fBits = Double.doubleToRawLongBits(rnd.nextBoolean() ? 0.0 : (rnd.nextInt(1 << 24) - (1 << 23)) / (double) (1 + rnd.nextInt(16)));
+		return new TestCase(insts, data, regs, fBits, 1 + rnd.nextInt(MAX_STEPS), false);
+	}
+
+	// 프로그램 모드: 무작위 명령어 사이에 (대개 X 와 한계 레지스터를 준비한 뒤) 관용구 모양의 루프 하나를 넣는다.
+	// 피연산자의 주소 지정 방식과 한계 레지스터는 무작위라 관용구로 인식되지 않는 루프도 섞인다
+	static TestCase randomProgram(SplittableRandom rnd) {
+		TestCase base = randomCase(rnd);
+		List<byte[]> insts = new ArrayList<>();
+		int before = rnd.nextInt(4);
+		for (int i = 0; i < before; i++) insts.add(randomInstruction(rnd));
+		int limitRegister = LIMIT_REGS[rnd.nextInt(LIMIT_REGS.length)];
+		if (rnd.nextInt(4) != 0) insts.add(immediate(LOAD_OPCODES[ResourceManager.REG_X], rnd.nextInt(16)));
+		if (rnd.nextInt(4) != 0) insts.add(immediate(LOAD_OPCODES[limitRegister], rnd.nextInt(MAX_LOOP_LIMIT)));
+		int head = 0;
+		for (byte[] inst : insts) head += inst.length;
+		List<byte[]> body = new ArrayList<>();
+		int kind = rnd.nextInt(3); // 0=복사, 1=채우기, 2=검색
+		if (kind != 1) body.add(memoryInstruction(rnd, OP_LDCH | 3, true));
+		if (kind == 2) {
+			body.add(immediate(OP_COMP, rnd.nextInt(256)));
+			body.add(null); // JEQ 자리: 루프 길이를 안 뒤에 채운다
+		} else {
+			body.add(memoryInstruction(rnd, OP_STCH | 3, true));
+		}
+		body.add(new byte[]{(byte) OP_TIXR, (byte) (limitRegister << 4)});
+		int loopEnd = head + 3;
+		for (byte[] inst : body) loopEnd += (inst == null) ? 3 : inst.length;
+		int at = head;
+		for (byte[] inst : body) {
+			if (inst == null) inst = pcRelativeJump(OP_JEQ, at, loopEnd);
+			insts.add(inst);
+			at += inst.length;
+		}
+		insts.add(pcRelativeJump(OP_JLT, at, head));
+		int after = rnd.nextInt(4);
+		for (int i = 0; i < after; i++) insts.add(randomInstruction(rnd));
+		return new TestCase(insts.toArray(new byte[0][]), base.data, base.registers, base.fBits, 1 + rnd.nextInt(MAX_PROGRAM_STEPS), true);
+	}
+
+	// 형식 3 즉시 주소 지정 (#value, 12비트)
+	private static byte[] immediate(int opcode, int value) {
+		return new byte[]{(byte) (opcode | 1), (byte) ((value >> 8) & 0x0F), (byte) value};
+	}
+
+	// 형식 3 단순 주소 지정 PC 상대 분기 (at 에 놓인 명령어에서 target 으로)
+	private static byte[] pcRelativeJump(int opcode, int at, int target) {
+		int disp = (target - (at + 3)) & 0xFFF;
+		return new byte[]{(byte) (opcode | 3), (byte) (0x20 | (disp >> 8)), (byte) disp};
+	}
+
+	// 작은 값, 데이터 영역 주소, 부호 경계 값, 완전 무작위를 섞는다
+	private static int randomWord(SplittableRandom rnd) {
+		switch (rnd.nextInt(4)) {
+			case 0: return rnd.nextInt(16);
+			case 1: return DATA_BASE + rnd.nextInt(DATA_LIMIT - DATA_BASE);
+			case 2: return rnd.nextBoolean() ? 0x7FFFFF + rnd.nextInt(3) - 1 : 0xFFFFFF - rnd.nextInt(3);
+			default: return rnd.nextInt(1 << 24);
+		}
+	}
+
+	private static byte[] randomInstruction(SplittableRandom rnd) {
+		int kind = rnd.nextInt(10);
+		if (kind == 0) return new byte[]{(byte) FORMAT1_OPCODES[rnd.nextInt(FORMAT1_OPCODES.length)]};
+		if (kind <= 2) {
+			int r1 = rnd.nextInt(10), r2 = rnd.nextInt(10);
+			return new byte[]{(byte) FORMAT2_OPCODES[rnd.nextInt(FORMAT2_OPCODES.length)], (byte) ((r1 << 4) | r2)};
+		}
+		return memoryInstruction(rnd, FORMAT34_OPCODES[rnd.nextInt(FORMAT34_OPCODES.length)] | rnd.nextInt(4), rnd.nextInt(4) == 0);
+	}
+
+	// 형식 3/4 명령어: 주소 지정 방식(직접/PC/Base/잘못된 조합, 확장)과 변위를 무작위로 고른다
+	private static byte[] memoryInstruction(SplittableRandom rnd, int opcode, boolean x) {
+		boolean extended = rnd.nextInt(5) == 0;
+		int bp = extended ? 0 : rnd.nextInt(4); // 0=직접, 1=PC, 2=Base, 3=둘 다(잘못된 조합)
+		if (bp == 3 && rnd.nextInt(4) != 0) bp = 1;
+		int flags = (x ? 0x8 : 0) | ((bp & 2) != 0 ? 0x4 : 0) | ((bp & 1) != 0 ? 0x2 : 0) | (extended ? 0x1 : 0);
+		if (extended) {
+			int address = rnd.nextInt(3) == 0 ? rnd.nextInt(1 << 20) : DATA_BASE + rnd.nextInt(DATA_LIMIT - DATA_BASE);
+			return new byte[]{(byte) opcode, (byte) ((flags << 4) | (address >> 16)), (byte) (address >> 8), (byte) address};
+		}
+		int disp = (bp == 0) ? DATA_BASE + rnd.nextInt(DATA_LIMIT - DATA_BASE) : rnd.nextInt(1 << 12);
+		if (rnd.nextInt(8) == 0) disp = rnd.nextInt(1 << 12);
+		return new byte[]{(byte) opcode, (byte) ((flags << 4) | ((disp >> 8) & 0x0F)), (byte) disp};
+	}
+
+	// --- 최소화 ---
+	static TestCase minimize(Worker w, TestCase tc) {
+		if (!w.diverges(tc, true)) return tc;
+		tc = tc.withSteps(w.divergenceStep + 1);
+		for (int i = tc.instructions.length - 1; i >= 0 && tc.instructions.length > 1; i--) {
+			TestCase cand = tc.withoutInstruction(i);
+			if (w.diverges(cand, true)) tc = cand.withSteps(Math.min(cand.steps, w.divergenceStep + 1));
+		}
+		for (int chunk = tc.data.length; chunk >= 1; chunk /= 2) {
+			for (int off = 0; off < tc.data.length; off += chunk) {
+				int end = Math.min(off + chunk, tc.data.length);
+				boolean nonZero = false;
+				for (int k = off; k < end && !nonZero; k++) nonZero = tc.data[k] != 0;
+				if (!nonZero) continue;
+				TestCase cand = tc.withDataZeroed(off, end);
+				if (w.diverges(cand, true)) tc = cand;
+			}
+		}
+		for (int r = 0; r <= ResourceManager.REG_SW; r++) {
+			if (tc.registers[r] == 0) continue;
+			TestCase cand = tc.withRegister(r, 0);
+			if (w.diverges(cand, true)) tc = cand;
+		}
+		if (tc.fBits != 0) { TestCase cand = tc.withF(0); if (w.diverges(cand, true)) tc = cand; }
+		w.diverges(tc, true); // divergence 메시지를 최종 사례 기준으로
+		return tc;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		long seconds = (args.length > 0) ? Long.parseLong(args[0]) : 60;
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : System.nanoTime();
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		String mode = (args.length > 3) ? args[3] : "both";
+		if (!mode.equals("step") && !mode.equals("program") && !mode.equals("both")) {
+			System.err.println("Usage: DiffFuzzer [seconds] [seed] [threads] [step|program|both]");
+			return;
+		}
+		boolean stepCases = !mode.equals("program"), programCases = !mode.equals("step");
+		System.out.printf("DiffFuzzer: %d s, seed=%d, threads=%d, mode=%s%n", seconds, seed, threads, mode);
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		LongAdder cases = new LongAdder();
+		AtomicReference<TestCase> failure = new AtomicReference<>();
+		SplittableRandom root = new SplittableRandom(seed);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			SplittableRandom rnd = root.split();
+			pool.execute(() -> {
+				Worker w = new Worker();
+				int local = 0;
+				while (failure.get() == null) {
+					boolean program = programCases && (!stepCases || (local & 1) == 1);
+					TestCase tc = program ? randomProgram(rnd) : randomCase(rnd);
+					if (w.diverges(tc, false)) { failure.compareAndSet(null, tc); break; }
+					if (++local == 256) {
+						cases.add(local); local = 0;
+						if (System.nanoTime() - deadline >= 0) break;
+					}
+				}
+				cases.add(local);
+			});
+		}
+		pool.shutdown();
+		pool.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+		double elapsedMin = (System.nanoTime() - start) / 60e9;
+		System.out.printf("cases=%d (%.0f per minute)%n", cases.sum(), cases.sum() / elapsedMin);
+
+		TestCase failed = failure.get();
+		if (failed == null) { System.out.println("No divergence found."); return; }
+		Worker w = new Worker();
+		TestCase small = minimize(w, failed);
+		System.out.println("DIVERGENCE: " + w.divergence);
+		System.out.print(small);
+		System.exit(1);
+	}
+}
@@ -0,0 +1,222 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpcodeTable 기반 역어셈블러. 메모리 구간을 "니모닉 + 피연산자" 줄 목록으로 바꾸고,
+ * 목표 주소는 SymbolIndex 로 "SYM+0x1A" 처럼 표기한다.
+ * 구간별 결과는 캐시해 두고, 구간이 걸친 페이지의 쓰기 버전(ResourceManager.getPageVersion)이
+ * 바뀌었거나 심볼 색인이 바뀌었으면(재적재) 다시 만든다.
+ * GUI 명령어 목록, 트레이스 조회, 실행 오류 메시지가 모두 이것을 쓴다.
+ */
+public class Disassembler {
+	private static final int MAX_CACHED_REGIONS = 256;
+
+	/** 역어셈블된 명령어 한 줄 */
+	public static final class Line {
+		private final int address;
+		private final int length;
+		private final String hex;
+		private final String mnemonic;   // 형식 4 의 '+' 는 포함하지 않는다
+		private final boolean extended;
+		private final String operand;    // 피연산자가 없으면 ""
+
+		Line(int address, int length, String hex, String mnemonic, boolean extended, String operand) {
+			this.address = address;
+			this.length = length;
+			this.hex = hex;
+			this.mnemonic = mnemonic;
+			this.extended = extended;
+			this.operand = operand;
+		}
+
+		public int getAddress() { return address; }
+		public int getLength() { return length; }
+		public String getHex() { return hex; }
+		public String getMnemonic() { return mnemonic; }
+		public boolean isExtended() { return extended; }
+		public String getOperand() { return operand; }
+
+		// "+JSUB WRREC", "LDA #3", "CLEAR X"
+		public String getText() {
+			String m = extended ? "+" + mnemonic : mnemonic;
+			return operand.isEmpty() ? m : m + " " + operand;
+		}
+
+		@Override
+		public String toString() { return String.format("%06X %-8s %s", address, hex, getText()); }
+	}
+
+	// 캐시된 구간 하나: 만들 때의 페이지 버전과 심볼 색인을 같이 기억한다
+	private static final class CachedRegion {
+		final int start;
+		final int length;
+		final int[] pageVersions;
+		final SymbolIndex symbols;
+		final List<Line> lines;
+
+		CachedRegion(int start, int length, int[] pageVersions, SymbolIndex symbols, List<Line> lines) {
+			this.start = start;
+			this.length = length;
+			this.pageVersions = pageVersions;
+			this.symbols = symbols;
+			this.lines = lines;
+		}
+	}
+
+	private final ResourceManager rMgr;
+	// (시작 주소, 길이) -> 결과. 접근 순서 LRU
+	private final LinkedHashMap<Long, CachedRegion> cache = new LinkedHashMap<Long, CachedRegion>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, CachedRegion> eldest) { return size() > MAX_CACHED_REGIONS; }
+	};
+
+	public Disassembler(ResourceManager rMgr) {
+		if (rMgr == null) throw new IllegalArgumentException("RM cannot be null for Disassembler.");
+		this.rMgr = rMgr;
+	}
+
+	/**
+	 * [start, start+length) 를 앞에서부터 역어셈블한다. 표에 없는 바이트는 한 바이트씩 건너뛰고,
+	 * 구간 끝을 넘는 명령어에서 멈춘다 (예전 GUI 목록과 같은 규칙). 반환 목록은 수정할 수 없다.
+	 */
+	public synchronized List<Line> disassemble(int start, int length) {
+		if (length <= 0 || !rMgr.isValidRange(start, length)) return Collections.emptyList();
+		Long key = ((long) start << 32) | (length & 0xFFFFFFFFL);
+		CachedRegion cached = cache.get(key);
+		if (cached != null && isValid(cached)) return cached.lines;
+
+		int[] versions = snapshotVersions(start, length);
+		byte[] bytes = rMgr.getMemory(start, length);
+		SymbolIndex symbols = rMgr.getSymbolIndex();
+		List<Line> lines = new ArrayList<>();
+		for (int off = 0; off < bytes.length; ) {
+			int len = OpcodeTable.length(bytes[off], off + 1 < bytes.length ? bytes[off + 1] : 0);
+			if (len == 0) { off++; continue; }
+			if (off + len > bytes.length) break;
+			lines.add(decode(bytes, off, start + off, symbols));
+			off += len;
+		}
+		lines = Collections.unmodifiableList(lines);
+		cache.put(key, new CachedRegion(start, length, versions, symbols, lines));
+		return lines;
+	}
+
+	/** address 의 명령어 하나. 유효한 캐시 구간에 있으면 그것을 쓰고, 없으면 바로 해독한다. 모르는 opcode 면 null */
+	public synchronized Line decodeAt(int address) {
+		if (!rMgr.isValidRange(address, 1)) return null;
+		for (CachedRegion region : cache.values()) {
+			if (address < region.start || address >= region.start + region.length || !isValid(region)) continue;
+			Line line = findLine(region.lines, address);
+			if (line != null) return line;
+		}
+		byte[] bytes = rMgr.getMemory(address, Math.min(4, rMgr.getMemorySize() - address));
+		int len = OpcodeTable.length(bytes[0], bytes.length > 1 ? bytes[1] : 0);
+		if (len == 0 || len > bytes.length) return null;
+		return decode(bytes, 0, address, rMgr.getSymbolIndex());
+	}
+
+	/** 오류 메시지용 한 줄 표기. 해독할 수 없으면 "BYTE X'..'" */
+	public String describe(int address) {
+		Line line = decodeAt(address);
+		if (line != null) return line.getText();
+		if (!rMgr.isValidRange(address, 1)) return "(out of memory)";
+		return String.format("BYTE X'%02X'", rMgr.readByte(address));
+	}
+
+	public synchronized void invalidateAll() { cache.clear(); }
+
+	private boolean isValid(CachedRegion region) {
+		if (region.symbols != rMgr.getSymbolIndex()) return false;
+		int first = region.start >>> ResourceManager.PAGE_SHIFT;
+		for (int i = 0; i < region.pageVersions.length; i++) {
+			if (rMgr.getPageVersion(first + i) != region.pageVersions[i]) return false;
+		}
+		return true;
+	}
+
+	private int[] snapshotVersions(int start, int length) {
+		int first = start >>> ResourceManager.PAGE_SHIFT;
+		int last = (start + length - 1) >>> ResourceManager.PAGE_SHIFT;
+		int[] versions = new int[last - first + 1];
+		for (int i = 0; i < versions.length; i++) versions[i] = rMgr.getPageVersion(first + i);
+		return versions;
+	}
+
+	// 주소순 목록에서 address 로 시작하는 줄을 이진 탐색
+	private static Line findLine(List<Line> lines, int address) {
+		int lo = 0, hi = lines.size() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int a = lines.get(mid).address;
+			if (a == address) return lines.get(mid);
+			if (a < address) lo = mid + 1; else hi = mid - 1;
+		}
+		return null;
+	}
+
+	/**
+	 * bytes[offset..] 에 있는 명령어 하나를 해독한다 (메모리 상 주소는 address).
+	 * 모르는 opcode 이거나 바이트가 모자라면 null. 트레이스처럼 라이브 메모리가 아닌 곳에서도 쓴다.
+	 */
+	public static Line decode(byte[] bytes, int offset, int address, SymbolIndex symbols) {
+		int available = bytes.length - offset;
+		if (available <= 0) return null;
+		int op = bytes[offset] & 0xFF;
+		int len = OpcodeTable.length(op, available > 1 ? bytes[offset + 1] : 0);
+		if (len == 0 || len > available) return null;
+
+		StringBuilder hex = new StringBuilder(len * 2);
+		for (int i = 0; i < len; i++) hex.append(String.format("%02X", bytes[offset + i] & 0xFF));
+		String mnemonic = OpcodeTable.mnemonic(op);
+		String operand;
+		switch (OpcodeTable.operandKind(op)) {
+			case OpcodeTable.OPERAND_MEMORY:
+				operand = memoryOperand(bytes, offset, len, address, symbols);
+				break;
+			case OpcodeTable.OPERAND_R1_R2:
+				operand = OpcodeTable.registerName((bytes[offset + 1] >> 4) & 0xF) + "," + OpcodeTable.registerName(bytes[offset + 1] & 0xF);
+				break;
+			case OpcodeTable.OPERAND_R1:
+				operand = OpcodeTable.registerName((bytes[offset + 1] >> 4) & 0xF);
+				break;
+			case OpcodeTable.OPERAND_R1_N:
+				operand = OpcodeTable.registerName((bytes[offset + 1] >> 4) & 0xF) + "," + ((bytes[offset + 1] & 0xF) + 1);
+				break;
+			case OpcodeTable.OPERAND_N:
+				operand = Integer.toString((bytes[offset + 1] >> 4) & 0xF);
+				break;
+			default:
+				operand = "";
+		}
+		return new Line(address, len, hex.toString(), mnemonic, len == 4, operand);
+	}
+
+	// 형식 3/4 피연산자: 인터프리터(InstLuncher.calculateTargetAddress)와 같은 변위/주소 규칙으로 목표 주소를 구해 심볼로 표기한다.
+	// 즉시값은 인터프리터처럼 변위 그대로(PC/Base 를 더하지 않음), p/b 가 둘 다 켜져 있으면 직접 주소로 본다.
+	// 실행 시점 값이 필요한 Base 상대와 인덱스는 식으로 적는다
+	private static String memoryOperand(byte[] b, int off, int len, int address, SymbolIndex symbols) {
+		int ni = b[off] & 0x03;
+		int flags = b[off + 1] & 0xFF;
+		boolean indexed = (flags & 0x80) != 0;
+		boolean base = (flags & 0x40) != 0;
+		boolean pcRel = (flags & 0x20) != 0;
+		boolean extended = (flags & 0x10) != 0;
+		int disp = InstLuncher.displacement(b, off);
+		StringBuilder sb = new StringBuilder(16);
+		if (ni == 0x01) {
+			sb.append('#').append(disp); // 즉시값 상수
+		} else {
+			if (ni == 0x02) sb.append('@');
+			if (pcRel && !base) symbols.appendTo(sb, InstLuncher.maskAddress(address + len + disp, extended));
+			else if (base && !pcRel) sb.append(disp < 0 ? String.format("-0x%03X(B)", -disp) : String.format("0x%03X(B)", disp));
+			else symbols.appendTo(sb, InstLuncher.maskAddress(disp, extended));
+		}
+		if (indexed) sb.append(",X");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+
+/**
+ * 실행 이벤트 구독 창구 (SicSimulator.getEvents()). 이벤트 종류마다 리스너 배열을 따로 두고,
+ * 구독이 바뀌면 버전이 올라가 SicSimulator 가 다음 청크부터 실행 경로를 다시 고른다:
+ *   - 명령어/레지스터 리스너가 없으면 이벤트 코드가 전혀 없는 빠른 루프 (루프 관용구 포함)
+ *   - 메모리/장치 리스너가 없으면 InstLuncher 의 이벤트 참조를 null 로 둔다
+ * 정지/적재 완료는 드물게 일어나므로 그때그때 배열을 본다.
+ *
+ * 리스너는 실행 스레드에서 불린다. 배열은 바꿀 때마다 새로 만들므로 발행 도중 구독을 바꿔도 안전하다.
+ */
+public class ExecutionEvents {
+	/** 명령어 하나가 끝까지 실행됐다. nextPc 는 정상 종료면 InstLuncher.NORMAL_HALT (오류로 멈춘 명령어는 알리지 않는다) */
+	public interface InstructionListener { void instructionRetired(int pc, int opcodeByte, int length, int nextPc); }
+	/** 명령어의 피연산자 메모리 접근 (명령어 가져오기는 제외) */
+	public interface MemoryListener {
+		void memoryRead(int address, int length);
+		void memoryWritten(int address, int length);
+	}
+	/** 명령어 실행 전후로 값이 바뀐 레지스터 (A, X, L, B, S, T, SW). PC 는 instructionRetired 의 nextPc 로, F 는 알리지 않는다 */
+	public interface RegisterListener { void registerWritten(int register, int oldValue, int newValue); }
+	/** TD/RD/WD. value 는 TD 면 준비 여부(1/0), RD 면 읽은 바이트 (EOF 면 -1), WD 면 쓴 바이트 */
+	public interface DeviceListener { void deviceAccess(int opcode, String device, int value); }
+	/** 실행이 HALT 또는 ERROR 로 끝났다 (pc 는 마지막 명령어 주소) */
+	public interface HaltListener { void halted(int pc, StopReason reason); }
+	/** SicSimulator.programLoaded() 가 끝났다 */
+	public interface ProgramLoadListener { void programLoaded(String programName, int firstInstructionAddress); }
+
+	public static final int OP_TD = 0xE0, OP_RD = 0xD8, OP_WD = 0xDC;
+
+	private volatile InstructionListener[] instructionListeners = new InstructionListener[0];
+	private volatile MemoryListener[] memoryListeners = new MemoryListener[0];
+	private volatile RegisterListener[] registerListeners = new RegisterListener[0];
+	private volatile DeviceListener[] deviceListeners = new DeviceListener[0];
+	private volatile HaltListener[] haltListeners = new HaltListener[0];
+	private volatile ProgramLoadListener[] loadListeners = new ProgramLoadListener[0];
+	private volatile int version;
+
+	public synchronized void addInstructionListener(InstructionListener l) { instructionListeners = add(instructionListeners, l); version++; }
+	public synchronized void removeInstructionListener(InstructionListener l) { instructionListeners = remove(instructionListeners, l); version++; }
+	public synchronized void addMemoryListener(MemoryListener l) { memoryListeners = add(memoryListeners, l); version++; }
+	public synchronized void removeMemoryListener(MemoryListener l) { memoryListeners = remove(memoryListeners, l); version++; }
+	public synchronized void addRegisterListener(RegisterListener l) { registerListeners = add(registerListeners, l); version++; }
+	public synchronized void removeRegisterListener(RegisterListener l) { registerListeners = remove(registerListeners, l); version++; }
+	public synchronized void addDeviceListener(DeviceListener l) { deviceListeners = add(deviceListeners, l); version++; }
+	public synchronized void removeDeviceListener(DeviceListener l) { deviceListeners = remove(deviceListeners, l); version++; }
+	public synchronized void addHaltListener(HaltListener l) { haltListeners = add(haltListeners, l); version++; }
+	public synchronized void removeHaltListener(HaltListener l) { haltListeners = remove(haltListeners, l); version++; }
+	public synchronized void addProgramLoadListener(ProgramLoadListener l) { loadListeners = add(loadListeners, l); version++; }
+	public synchronized void removeProgramLoadListener(ProgramLoadListener l) { loadListeners = remove(loadListeners, l); version++; }
+
+	private static <T> T[] add(T[] listeners, T l) {
+		if (l == null) throw new IllegalArgumentException("Listener cannot be null.");
+		T[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+		copy[listeners.length] = l;
+		return copy;
+	}
+
+	private static <T> T[] remove(T[] listeners, T l) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] != l) continue;
+			T[] copy = Arrays.copyOf(listeners, listeners.length - 1);
+			System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+			return copy;
+		}
+		return listeners;
+	}
+
+	/** 구독이 바뀔 때마다 증가 */
+	public int getVersion() { return version; }
+
+	public boolean hasInstructionListeners() { return instructionListeners.length > 0; }
+	public boolean hasMemoryListeners() { return memoryListeners.length > 0; }
+	public boolean hasRegisterListeners() { return registerListeners.length > 0; }
+	public boolean hasDeviceListeners() { return deviceListeners.length > 0; }
+	public boolean hasHaltListeners() { return haltListeners.length > 0; }
+	public boolean hasProgramLoadListeners() { return loadListeners.length > 0; }
+
+	public void fireInstructionRetired(int pc, int opcodeByte, int length, int nextPc) {
+		for (InstructionListener l : instructionListeners) l.instructionRetired(pc, opcodeByte, length, nextPc);
+	}
+	public void fireMemoryRead(int address, int length) {
+		for (MemoryListener l : memoryListeners) l.memoryRead(address, length);
+	}
+	public void fireMemoryWritten(int address, int length) {
+		for (MemoryListener l : memoryListeners) l.memoryWritten(address, length);
+	}
+	public void fireRegisterWritten(int register, int oldValue, int newValue) {
+		for (RegisterListener l : registerListeners) l.registerWritten(register, oldValue, newValue);
+	}
+	public void fireDeviceAccess(int opcode, String device, int value) {
+		for (DeviceListener l : deviceListeners) l.deviceAccess(opcode, device, value);
+	}
+	public void fireHalted(int pc, StopReason reason) {
+		for (HaltListener l : haltListeners) l.halted(pc, reason);
+	}
+	public void fireProgramLoaded(String programName, int firstInstructionAddress) {
+		for (ProgramLoadListener l : loadListeners) l.programLoaded(programName, firstInstructionAddress);
+	}
+}
@@ -0,0 +1,184 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+// GUI 없이 목적 코드를 끝까지 실행한다. 사용법:
+//   HeadlessRunner <목적코드 파일> [--budget N] [--timeout ms] [--trace 파일] [--coverage 파일] [--lazy]
+//                  [--save-pages 파일] [--compare-pages 파일] [--no-idioms] [--profile 파일]
+//                  [--heatmap 파일] [--heatmap-block 바이트] [--cache 디렉터리] [--cache-size 바이트]
+//   --coverage 파일이 이미 있으면 이번 실행 결과를 OR 로 합쳐서 다시 저장한다.
+//   --lazy 는 T 레코드를 페이지 단위로 처음 접근할 때 적재한다.
+//   --save-pages 는 최종 상태 지문과 페이지별 해시를 저장하고, --compare-pages 는 저장된 것과 비교해 다른 페이지를 출력한다.
+//   --no-idioms 는 복사/채우기/검색 루프를 한 번에 실행하지 않고 한 명령어씩 해석한다 (결과 비교용).
+//   --profile 은 JSUB/RSUB 호출 트리와 서브루틴별 포함/자체 비용을 출력하고, collapsed stack 을 파일에 저장한다.
+//   --heatmap 은 블록(기본 16바이트)별 피연산자 읽기/쓰기 횟수를 CSV 로 저장하고 많이 접근한 블록을 출력한다.
+//   --cache 는 같은 목적 코드/장치 입력/엔진의 결과를 디렉터리에 저장해 두고 다음부터 실행 없이 돌려준다 (ResultCache).
+//   실행 중 상태가 필요한 옵션(--trace, --coverage, --profile, --heatmap, --save-pages, --compare-pages)이나 --timeout 과는 같이 쓰지 않는다.
+public class HeadlessRunner {
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: HeadlessRunner <object file> [--budget N] [--timeout ms] [--trace file] [--coverage file] [--lazy] [--save-pages file] [--compare-pages file] [--no-idioms] [--profile file] [--heatmap file] [--heatmap-block bytes] [--cache dir] [--cache-size bytes]");
+			return;
+		}
+		File program = new File(args[0]);
+		long budget = SicSimulator.UNLIMITED_BUDGET;
+		long timeoutMillis = 0;
+		File traceFile = null;
+		File coverageFile = null;
+		boolean lazy = false;
+		File savePagesFile = null;
+		File comparePagesFile = null;
+		boolean idioms = true;
+		File profileFile = null;
+		File heatmapFile = null;
+		int heatmapBlock = 1 << MemoryHeatmap.DEFAULT_BLOCK_SHIFT;
+		File cacheDir = null;
+		long cacheSize = ResultCache.DEFAULT_MAX_BYTES;
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "--budget": budget = Long.parseLong(args[++i]); break;
+				case "--timeout": timeoutMillis = Long.parseLong(args[++i]); break;
+				case "--trace": traceFile = new File(args[++i]); break;
+				case "--coverage": coverageFile = new File(args[++i]); break;
+				case "--lazy": lazy = true; break;
+				case "--save-pages": savePagesFile = new File(args[++i]); break;
+				case "--compare-pages": comparePagesFile = new File(args[++i]); break;
+				case "--no-idioms": idioms = false; break;
+				case "--profile": profileFile = new File(args[++i]); break;
+				case "--heatmap": heatmapFile = new File(args[++i]); break;
+				case "--heatmap-block": heatmapBlock = Integer.parseInt(args[++i]); break;
+				case "--cache": cacheDir = new File(args[++i]); break;
+				case "--cache-size": cacheSize = Long.parseLong(args[++i]); break;
+				default: System.err.println("Unknown option: " + args[i]); return;
+			}
+		}
+		if (Integer.bitCount(heatmapBlock) != 1 || heatmapBlock > 1 << MemoryHeatmap.MAX_BLOCK_SHIFT) {
+			System.err.println("--heatmap-block must be a power of two between 1 and " + (1 << MemoryHeatmap.MAX_BLOCK_SHIFT) + ": " + heatmapBlock);
+			return;
+		}
+
+		ResultCache cache = null;
+		String cacheKey = null;
+		Map<String, String> devicesBefore = null;
+		if (cacheDir != null) {
+			if (timeoutMillis > 0 || traceFile != null || coverageFile != null || profileFile != null || heatmapFile != null || savePagesFile != null || comparePagesFile != null) {
+				System.err.println("--cache cannot be combined with --timeout, --trace, --coverage, --profile, --heatmap, --save-pages or --compare-pages");
+				return;
+			}
+			cache = new ResultCache(cacheDir.toPath(), cacheSize);
+			cacheKey = cache.key(program, "budget=" + budget);
+			long start = System.nanoTime();
+			ResultCache.Entry hit = cache.lookup(cacheKey);
+			if (hit != null) {
+				long elapsed = System.nanoTime() - start;
+				System.out.println("Result: " + hit.getResult());
+				System.out.printf("Elapsed: %.3f ms (cached)%n", elapsed / 1e6);
+				int[] registers = new int[10];
+				for (int r = 0; r < 10; r++) registers[r] = hit.getRegister(r);
+				System.out.println(formatRegisters(registers, hit.getRegisterF()));
+				System.out.printf("Fingerprint: %016X%n", hit.getFingerprint());
+				System.out.println("Cache: hit " + cacheKey.substring(0, 16));
+				return;
+			}
+			devicesBefore = ResultCache.snapshotDevices();
+		}
+
+		ResourceManager rMgr = new ResourceManager();
+		SicLoader loader = new SicLoader(rMgr);
+		SicSimulator simulator = new SicSimulator(rMgr);
+		loader.setLazy(lazy);
+		if (!loader.load(program) || rMgr.getProgramName().isEmpty()) {
+			System.err.println("Failed to load object file: " + program);
+			System.exit(1);
+		}
+		simulator.programLoaded();
+		simulator.setIdiomsEnabled(idioms);
+		TraceWriter trace = (traceFile != null) ? new TraceWriter(traceFile, rMgr) : null;
+		simulator.setTraceWriter(trace);
+		CoverageMap coverage = (coverageFile != null) ? new CoverageMap(rMgr.getMemorySize()) : null;
+		simulator.setCoverageMap(coverage);
+		CallProfiler profiler = (profileFile != null) ? new CallProfiler(rMgr) : null;
+		simulator.setCallProfiler(profiler);
+		MemoryHeatmap heatmap = null;
+		if (heatmapFile != null) {
+			heatmap = new MemoryHeatmap(rMgr.getMemorySize(), Integer.numberOfTrailingZeros(heatmapBlock));
+			simulator.getEvents().addMemoryListener(heatmap);
+		}
+		try {
+			long start = System.nanoTime();
+			RunResult result = simulator.run(budget, timeoutMillis, null);
+			long elapsed = System.nanoTime() - start;
+			System.out.println("Result: " + result);
+			System.out.printf("Elapsed: %.3f ms%n", elapsed / 1e6);
+			if (simulator.getIdiomSteps() > 0) System.out.println("Loop idioms: " + simulator.getIdiomSteps() + " steps in bulk");
+			printRegisters(rMgr);
+			System.out.printf("Fingerprint: %016X%n", rMgr.getStateFingerprint());
+			if (cache != null) System.out.println("Cache: " + (cache.store(cacheKey, result, rMgr, devicesBefore) ? "stored " : "not stored ") + cacheKey.substring(0, 16));
+			if (comparePagesFile != null) comparePages(rMgr, comparePagesFile);
+			if (savePagesFile != null) savePages(rMgr, savePagesFile);
+			if (coverage != null) {
+				System.out.print(coverage.report(rMgr.getTRecordLoadedRegions(), rMgr.getSymbolIndex()));
+				if (coverageFile.exists()) coverage.merge(CoverageMap.load(coverageFile));
+				coverage.save(coverageFile);
+			}
+			if (profiler != null) {
+				System.out.print(profiler.callTreeReport());
+				System.out.print(profiler.functionReport());
+				profiler.saveCollapsedStacks(profileFile.toPath());
+			}
+			if (heatmap != null) {
+				System.out.print(heatmap.topBlocksReport(10, rMgr.getSymbolIndex()));
+				heatmap.writeCsv(heatmapFile.toPath(), rMgr.getSymbolIndex());
+			}
+		} finally {
+			if (trace != null) trace.close();
+			rMgr.closeDevices();
+		}
+	}
+
+	// 첫 줄은 상태 지문, 이후 "페이지 해시" 한 줄씩 (16진수)
+	static void savePages(ResourceManager rMgr, File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.US_ASCII))) {
+			out.printf("%016X%n", rMgr.getStateFingerprint());
+			for (int p = 0; p < rMgr.getPageCount(); p++) out.printf("%04X %016X%n", p, rMgr.getPageHash(p));
+		}
+	}
+
+	static void comparePages(ResourceManager rMgr, File file) throws IOException {
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.US_ASCII);
+		if (lines.isEmpty()) throw new IOException("Empty page hash file: " + file);
+		if (Long.parseUnsignedLong(lines.get(0).trim(), 16) == rMgr.getStateFingerprint()) { System.out.println("Compare: identical to " + file); return; }
+		int pageCount = lines.size() - 1;
+		if (pageCount != rMgr.getPageCount()) throw new IOException("Page count mismatch: " + pageCount + " vs " + rMgr.getPageCount());
+		StringBuilder sb = new StringBuilder("Compare: state differs from " + file + "; pages:");
+		int differing = 0;
+		for (int p = 0; p < pageCount; p++) {
+			String[] f = lines.get(p + 1).trim().split("\\s+");
+			if (Long.parseUnsignedLong(f[1], 16) != rMgr.getPageHash(p)) { sb.append(String.format(" %06X", p << ResourceManager.PAGE_SHIFT)); differing++; }
+		}
+		if (differing == 0) sb.append(" none (registers only)");
+		System.out.println(sb);
+	}
+
+	static void printRegisters(ResourceManager rMgr) {
+		int[] registers = new int[10];
+		for (int r = 0; r < 10; r++) if (r != ResourceManager.REG_F && r != 7) registers[r] = rMgr.getRegister(r);
+		System.out.println(formatRegisters(registers, rMgr.getRegister_F()));
+	}
+
+	static String formatRegisters(int[] registers, double registerF) {
+		String[] names = {"A", "X", "L", "B", "S", "T", "F", "", "PC", "SW"};
+		StringBuilder sb = new StringBuilder("Registers:");
+		for (int r = 0; r < 10; r++) {
+			if (r == ResourceManager.REG_F) sb.append(String.format(" F=%.5e", registerF));
+			else if (r != 7) sb.append(String.format(" %s=%06X", names[r], registers[r]));
+		}
+		return sb.toString();
+	}
+}
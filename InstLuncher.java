@@ -3,10 +3,25 @@ package SP25_simulator;
 public class InstLuncher {
 
     private ResourceManager rMgr;
+    private final ChannelIo channels;        // SIO/TIO/HIO 채널 (rMgr 의 것)
     private String lastExecutedInstructionInfo = "";
     private String lastErrorMessage = "";
     private int lastCalculatedTA = TA_NOT_CALCULATED_YET;
     private String lastExecutedMnemonic = "N/A";
+    private int lastOpcodeFull = 0;          // 마지막으로 실행한 명령어의 첫 바이트 (n,i 포함)
+    private int lastMemWriteAddress = 0;     // 마지막 명령어가 쓴 메모리 주소
+    private int lastMemWriteLength = 0;      // 마지막 명령어가 쓴 바이트 수 (0 이면 쓰기 없음)
+    private ExecutionEvents events = null;   // null 이면 메모리/장치 이벤트를 발행하지 않는다 (SicSimulator 가 구독에 따라 바꿔 끼운다)
+    private int lastInstructionLength = 0;   // 마지막으로 가져온 명령어의 길이
+    private boolean detailLogging = true;    // false 면 lastExecutedInstructionInfo 를 만들지 않는다 (연속 실행용)
+    private final byte[] fetchBuffer = new byte[4]; // 명령어 바이트를 매번 새 배열 없이 가져온다
+    private int taAddress;                   // calculateTargetAddress 결과
+    private boolean taImmediate;
+    private boolean taIndirect;
+
+    // 장치 이름 "00".."FF" 를 미리 만들어 둔다 (TD/RD/WD 마다 String.format 하지 않도록)
+    static final String[] DEVICE_NAMES = new String[256]; // 장치 번호 -> 장치 파일 이름 (ChannelIo 도 쓴다)
+    static { for (int i = 0; i < 256; i++) DEVICE_NAMES[i] = String.format("%02X", i); }
 
     public static final int NORMAL_HALT = -2;
     public static final int ERROR_HALT = -1;
@@ -44,6 +59,7 @@ public class InstLuncher {
             throw new IllegalArgumentException("ResourceManager cannot be null for InstLuncher.");
         }
         this.rMgr = resourceManager;
+        this.channels = resourceManager.getChannels();
     }
 
     public int executeInstructionAt(int pc) {
@@ -51,21 +67,18 @@ public class InstLuncher {
         lastErrorMessage = "";
         lastCalculatedTA = TA_NOT_CALCULATED_YET;
         lastExecutedMnemonic = "N/A";
+        lastMemWriteLength = 0;
+        if (channels.isBusy()) channels.tick(); // 채널이 일하는 동안만 시뮬레이션 시각을 진행하고 완료된 전송을 반영
 
-        if (pc < 0 || pc >= rMgr.memory.length) {
+        if (pc < 0 || pc >= rMgr.getMemorySize()) {
             lastErrorMessage = "PC (0x" + String.format("%06X", pc) + ") out of memory bounds.";
             return ERROR_HALT;
         }
 
-        byte[] firstByteArr = rMgr.getMemory(pc, 1);
-        if (firstByteArr.length < 1) {
-            lastErrorMessage = "Failed to fetch opcode byte at PC: 0x" + String.format("%06X", pc);
-            return ERROR_HALT;
-        }
-
-        byte opcodeFullByte = firstByteArr[0];
+        byte opcodeFullByte = (byte) rMgr.readByte(pc);
         int opcodeFull = opcodeFullByte & 0xFF;
         int pureOpcode = opcodeFull & 0xFC;
+        lastOpcodeFull = opcodeFull;
 
         int instructionLength = getInstructionLength(pureOpcode, pc);
 
@@ -76,67 +89,66 @@ public class InstLuncher {
             return ERROR_HALT;
         }
 
-        if (pc + instructionLength > rMgr.memory.length) {
+        if (pc + instructionLength > rMgr.getMemorySize()) {
             lastErrorMessage = "Instruction fetch at PC 0x" + String.format("%06X", pc) +
                     " (length " + instructionLength + ") out of memory bounds.";
             return ERROR_HALT;
         }
 
-        byte[] instructionBytes = rMgr.getMemory(pc, instructionLength);
-        if (instructionBytes.length < instructionLength) {
-            lastErrorMessage = "Failed to fetch full " + instructionLength + "-byte instruction at PC 0x" +
-                    String.format("%06X", pc) + ". Fetched only " + instructionBytes.length + " bytes.";
-            return ERROR_HALT;
-        }
+        byte[] instructionBytes = fetchBuffer;
+        for (int i = 0; i < instructionLength; i++) instructionBytes[i] = (byte) rMgr.readByte(pc + i);
+        lastInstructionLength = instructionLength;
 
         int nextPc;
+        String mnemonic = OpcodeTable.mnemonic(opcodeFull);
+        if (mnemonic != null) lastExecutedMnemonic = mnemonic;
 
         switch (pureOpcode) {
-            case OP_LDA: lastExecutedMnemonic = "LDA"; nextPc = handleLDA(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDX: lastExecutedMnemonic = "LDX"; nextPc = handleLDX(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDL: lastExecutedMnemonic = "LDL"; nextPc = handleLDL(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDB: lastExecutedMnemonic = "LDB"; nextPc = handleLDB(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDS: lastExecutedMnemonic = "LDS"; nextPc = handleLDS(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDT: lastExecutedMnemonic = "LDT"; nextPc = handleLDT(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_LDCH: lastExecutedMnemonic = "LDCH"; nextPc = handleLDCH(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STA: lastExecutedMnemonic = "STA"; nextPc = handleSTA(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STX: lastExecutedMnemonic = "STX"; nextPc = handleSTX(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STL: lastExecutedMnemonic = "STL"; nextPc = handleSTL(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STB: lastExecutedMnemonic = "STB"; nextPc = handleSTB(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STS: lastExecutedMnemonic = "STS"; nextPc = handleSTS(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STT: lastExecutedMnemonic = "STT"; nextPc = handleSTT(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STCH: lastExecutedMnemonic = "STCH"; nextPc = handleSTCH(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_STSW: lastExecutedMnemonic = "STSW"; nextPc = handleSTSW(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_ADD: lastExecutedMnemonic = "ADD"; nextPc = handleADD(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SUB: lastExecutedMnemonic = "SUB"; nextPc = handleSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_MUL: lastExecutedMnemonic = "MUL"; nextPc = handleMUL(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_DIV: lastExecutedMnemonic = "DIV"; nextPc = handleDIV(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_COMP: lastExecutedMnemonic = "COMP"; nextPc = handleCOMP(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_J:   lastExecutedMnemonic = "J";   nextPc = handleJ(pc, instructionBytes, instructionLength, opcodeFull);   break;
+            case OP_LDA: nextPc = handleLDA(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDX: nextPc = handleLDX(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDL: nextPc = handleLDL(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDB: nextPc = handleLDB(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDS: nextPc = handleLDS(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDT: nextPc = handleLDT(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_LDCH: nextPc = handleLDCH(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STA: nextPc = handleSTA(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STX: nextPc = handleSTX(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STL: nextPc = handleSTL(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STB: nextPc = handleSTB(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STS: nextPc = handleSTS(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STT: nextPc = handleSTT(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STCH: nextPc = handleSTCH(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_STSW: nextPc = handleSTSW(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_ADD: nextPc = handleADD(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SUB: nextPc = handleSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_MUL: nextPc = handleMUL(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_DIV: nextPc = handleDIV(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_COMP: nextPc = handleCOMP(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_J:   nextPc = handleJ(pc, instructionBytes, instructionLength, opcodeFull);   break;
             case OP_JEQ: case OP_JLT: case OP_JGT: nextPc = handleConditionalJump(pc, instructionBytes, instructionLength, opcodeFull, pureOpcode); break;
-            case OP_JSUB: lastExecutedMnemonic = "JSUB"; nextPc = handleJSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_RSUB: lastExecutedMnemonic = "RSUB"; nextPc = handleRSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_TIX: lastExecutedMnemonic = "TIX"; nextPc = handleTIX(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_TD: lastExecutedMnemonic = "TD"; nextPc = handleTD(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_RD: lastExecutedMnemonic = "RD"; nextPc = handleRD(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_WD: lastExecutedMnemonic = "WD"; nextPc = handleWD(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_ADDR: lastExecutedMnemonic = "ADDR"; nextPc = handleADDR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SUBR: lastExecutedMnemonic = "SUBR"; nextPc = handleSUBR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_MULR: lastExecutedMnemonic = "MULR"; nextPc = handleMULR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_DIVR: lastExecutedMnemonic = "DIVR"; nextPc = handleDIVR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_COMPR: lastExecutedMnemonic = "COMPR"; nextPc = handleCOMPR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_CLEAR: lastExecutedMnemonic = "CLEAR"; nextPc = handleCLEAR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_TIXR: lastExecutedMnemonic = "TIXR"; nextPc = handleTIXR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_RMO: lastExecutedMnemonic = "RMO"; nextPc = handleRMO(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SHIFTL: lastExecutedMnemonic = "SHIFTL"; nextPc = handleSHIFTL(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SHIFTR: lastExecutedMnemonic = "SHIFTR"; nextPc = handleSHIFTR(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SVC: lastExecutedMnemonic = "SVC"; nextPc = handleSVC(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_FIX: lastExecutedMnemonic = "FIX"; nextPc = handleFIX(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_FLOAT: lastExecutedMnemonic = "FLOAT"; nextPc = handleFLOAT(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_HIO: lastExecutedMnemonic = "HIO"; nextPc = handleHIO(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_NORM: lastExecutedMnemonic = "NORM"; nextPc = handleNORM(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_SIO: lastExecutedMnemonic = "SIO"; nextPc = handleSIO(pc, instructionBytes, instructionLength, opcodeFull); break;
-            case OP_TIO: lastExecutedMnemonic = "TIO"; nextPc = handleTIO(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_JSUB: nextPc = handleJSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_RSUB: nextPc = handleRSUB(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_TIX: nextPc = handleTIX(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_TD: nextPc = handleTD(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_RD: nextPc = handleRD(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_WD: nextPc = handleWD(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_ADDR: nextPc = handleADDR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SUBR: nextPc = handleSUBR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_MULR: nextPc = handleMULR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_DIVR: nextPc = handleDIVR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_COMPR: nextPc = handleCOMPR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_CLEAR: nextPc = handleCLEAR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_TIXR: nextPc = handleTIXR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_RMO: nextPc = handleRMO(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SHIFTL: nextPc = handleSHIFTL(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SHIFTR: nextPc = handleSHIFTR(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SVC: nextPc = handleSVC(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_FIX: nextPc = handleFIX(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_FLOAT: nextPc = handleFLOAT(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_HIO: nextPc = handleHIO(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_NORM: nextPc = handleNORM(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_SIO: nextPc = handleSIO(pc, instructionBytes, instructionLength, opcodeFull); break;
+            case OP_TIO: nextPc = handleTIO(pc, instructionBytes, instructionLength, opcodeFull); break;
             default:
                 lastErrorMessage = "Unimplemented or Unknown Opcode: " + String.format("0x%02X", pureOpcode) + " at PC 0x" + String.format("%06X", pc);
                 lastExecutedMnemonic = String.format("UNK(%02X)", pureOpcode);
@@ -146,53 +158,27 @@ public class InstLuncher {
     }
 
     public int getInstructionLength(int pureOpcode, int pc) {
-        switch (pureOpcode) {
-            case OP_FIX: case OP_FLOAT: case OP_HIO: case OP_NORM: case OP_SIO: case OP_TIO:
-                return 1;
-            case OP_ADDR: case OP_CLEAR: case OP_COMPR: case OP_DIVR: case OP_MULR:
-            case OP_RMO: case OP_SHIFTL:case OP_SHIFTR:case OP_SUBR: case OP_SVC:
-            case OP_TIXR:
-                return 2;
-            default:
-                if (pc + 1 >= rMgr.memory.length) {
+        switch (OpcodeTable.format(pureOpcode)) {
+            case OpcodeTable.FORMAT_1: return 1;
+            case OpcodeTable.FORMAT_2: return 2;
+            default: // 형식 3/4 (표에 없는 opcode 도 여기서 길이를 정하고 실행 단계에서 오류 처리)
+                if (pc + 1 >= rMgr.getMemorySize()) {
                     lastErrorMessage = "Cannot determine F3/F4 length: PC+1 out of bounds for nixbpe byte.";
                     return 0;
                 }
-                byte[] nixbpeByteArr = rMgr.getMemory(pc + 1, 1);
-                if (nixbpeByteArr.length < 1) {
-                    lastErrorMessage = "Failed to fetch nixbpe byte for F3/F4 length determination."; return 0;
-                }
-                byte nixbpeByte = nixbpeByteArr[0];
+                int nixbpeByte = rMgr.readByte(pc + 1);
                 boolean e_flag = (nixbpeByte & 0x10) != 0;
                 return e_flag ? 4 : 3;
         }
     }
 
-    // InstLuncher.java
+    // 표(OpcodeTable)에 없는 opcode 는 0을 반환
     public static int getInstructionLengthFromBytes(byte[] instructionStartBytes) {
         if (instructionStartBytes == null || instructionStartBytes.length == 0) return 0;
         int opcodeFull = instructionStartBytes[0] & 0xFF;
-        int pureOpcode = opcodeFull & 0xFC;
-
-        // 1. Format 1/2 명령어인지 엄격히 검사 (opcode 테이블 기반)
-        if (opcodeFull == OP_FIX || opcodeFull == OP_FLOAT || opcodeFull == OP_HIO ||
-                opcodeFull == OP_NORM || opcodeFull == OP_SIO || opcodeFull == OP_TIO) return 1;
-        if (opcodeFull == OP_ADDR || opcodeFull == OP_CLEAR || opcodeFull == OP_COMPR ||
-                opcodeFull == OP_DIVR || opcodeFull == OP_MULR || opcodeFull == OP_RMO ||
-                opcodeFull == OP_SHIFTL || opcodeFull == OP_SHIFTR || opcodeFull == OP_SUBR ||
-                opcodeFull == OP_SVC || opcodeFull == OP_TIXR) return 2;
-
-        // 2. Format 3/4 명령어인지 검사 (opcode 테이블 기반)
-        // 아래 표에 없는 opcode는 0을 반환
-        int[] format34Opcodes = {
-                0x00,0x04,0x08,0x0C,0x10,0x14,0x18,0x1C,0x20,0x24,0x28,0x2C,
-                0x30,0x34,0x38,0x3C,0x48,0x4C,0x50,0x54,0x68,0x6C,0x74,0x78,0x7C,0x84,0xE8,0xD8,0xDC,0xE0
-        };
-        boolean isFormat34 = false;
-        for (int op : format34Opcodes) {
-            if ((opcodeFull & 0xFC) == op) { isFormat34 = true; break; }
-        }
-        if (!isFormat34) return 0;
+        int format = OpcodeTable.format(opcodeFull);
+        if (format == OpcodeTable.FORMAT_UNKNOWN) return 0;
+        if (format != OpcodeTable.FORMAT_3_4) return format;
 
         // Format 3/4 길이 판정
         if (instructionStartBytes.length < 2) return 0;
@@ -208,30 +194,37 @@ public class InstLuncher {
     }
 
 
-    private static class TargetAddressInfo {
-        int address;
-        boolean isImmediate;
-        boolean isIndirect;
+    /**
+     * 형식 3/4 명령어(b[off] 가 opcode 바이트)의 변위/주소 필드. 형식 4 는 20비트 그대로,
+     * 형식 3 은 12비트이고 PC/Base 상대이거나 n=i=0 이면 부호 확장한다. Disassembler 도 이 규칙을 쓴다.
+     */
+    static int displacement(byte[] b, int off) {
+        int nixbpe = b[off + 1] & 0xFF;
+        if ((nixbpe & 0x10) != 0) return ((nixbpe & 0x0F) << 16) | ((b[off + 2] & 0xFF) << 8) | (b[off + 3] & 0xFF);
+        int disp = ((nixbpe & 0x0F) << 8) | (b[off + 2] & 0xFF);
+        boolean relative = (nixbpe & 0x60) != 0, simpleSic = (b[off] & 0x03) == 0;
+        return ((disp & 0x0800) != 0 && (relative || simpleSic)) ? disp | 0xFFFFF000 : disp;
+    }
 
-        TargetAddressInfo(int addrOrVal, boolean isImm, boolean isInd) {
-            this.address = addrOrVal;
-            this.isImmediate = isImm;
-            this.isIndirect = isInd;
-        }
+    // 상대 주소/인덱스를 더한 목표 주소를 주소 공간으로 자른다 (형식 4 는 20비트, 형식 3 은 24비트)
+    static int maskAddress(int address, boolean extended) {
+        return address & (extended ? 0xFFFFF : 0xFFFFFF);
     }
 
-    private TargetAddressInfo calculateTargetAddress(int pc, byte[] instructionBytes, int instructionLength, int opcodeFull) {
+    // 결과는 taAddress / taImmediate / taIndirect 필드에 남긴다 (명령어마다 객체를 만들지 않도록). 실패하면 false
+    private boolean calculateTargetAddress(int pc, byte[] instructionBytes, int instructionLength, int opcodeFull) {
         lastCalculatedTA = TA_NOT_CALCULATED_YET;
+        taAddress = 0; taImmediate = false; taIndirect = false;
         if (instructionLength < 3 && instructionLength > 0 ) {
             if ((opcodeFull & 0x03) != 0x00) {
                 lastErrorMessage = "Format 1/2 instruction cannot have n/i bits set for TA calculation. Opcode: " + String.format("0x%02X", opcodeFull);
-                return null;
+                return false;
             }
-            return new TargetAddressInfo(0, false, false);
+            return true;
         }
         if(instructionLength == 0) {
             lastErrorMessage = "Cannot calculate TA for zero-length instruction. Opcode: " + String.format("0x%02X", opcodeFull);
-            return null;
+            return false;
         }
 
         boolean n_flag = (opcodeFull & 0x02) != 0;
@@ -243,72 +236,60 @@ public class InstLuncher {
         boolean p_flag = (nixbpeByte & 0x20) != 0;
         boolean e_flag = (nixbpeByte & 0x10) != 0;
 
-        int disp_or_addr;
-
-        if (e_flag) {
-            if (instructionLength != 4) { lastErrorMessage = "TA calc error: e=1 but length != 4"; return null; }
-            disp_or_addr = ((nixbpeByte & 0x0F) << 16) | ((instructionBytes[2] & 0xFF) << 8) | (instructionBytes[3] & 0xFF);
-        } else {
-            if (instructionLength != 3) { lastErrorMessage = "TA calc error: e=0 but length != 3"; return null; }
-            disp_or_addr = ((nixbpeByte & 0x0F) << 8) | (instructionBytes[2] & 0xFF);
-            if ((disp_or_addr & 0x0800) != 0 && (p_flag || b_flag || (!n_flag && !i_flag))) { // Sign extend for F3
-                disp_or_addr |= 0xFFFFF000;
-            }
-        }
+        if (e_flag && instructionLength != 4) { lastErrorMessage = "TA calc error: e=1 but length != 4"; return false; }
+        if (!e_flag && instructionLength != 3) { lastErrorMessage = "TA calc error: e=0 but length != 3"; return false; }
+        int disp_or_addr = displacement(instructionBytes, 0);
 
         String taModeLogInfo = "";
         int targetAddressOperand;
 
         if (i_flag && !n_flag) {
-            taModeLogInfo = "#";
             targetAddressOperand = disp_or_addr;
             lastCalculatedTA = targetAddressOperand;
-            lastExecutedInstructionInfo += String.format(" %s%d (0x%X)", taModeLogInfo, targetAddressOperand, targetAddressOperand & (e_flag ? 0xFFFFF : (disp_or_addr >=0 && disp_or_addr <= 0xFFF ? 0xFFF : 0xFFFFFFFF) ));
-            return new TargetAddressInfo(targetAddressOperand, true, false);
+            if (detailLogging) lastExecutedInstructionInfo += String.format(" #%d (0x%X)", targetAddressOperand, targetAddressOperand & (e_flag ? 0xFFFFF : (disp_or_addr >=0 && disp_or_addr <= 0xFFF ? 0xFFF : 0xFFFFFFFF) ));
+            taAddress = targetAddressOperand; taImmediate = true;
+            return true;
         } else if (n_flag && !i_flag) {
             taModeLogInfo = "@";
-        } else if (n_flag && i_flag) {
-            taModeLogInfo = "M[]";
         } else {
             taModeLogInfo = "M[]";
         }
 
         if (p_flag && !b_flag) {
             targetAddressOperand = (pc + instructionLength) + disp_or_addr;
-            taModeLogInfo += String.format("PC-rel(PC_next=0x%X+disp=0x%X)", pc + instructionLength, disp_or_addr);
+            if (detailLogging) taModeLogInfo += String.format("PC-rel(PC_next=0x%X+disp=0x%X)", pc + instructionLength, disp_or_addr);
         } else if (b_flag && !p_flag) {
             targetAddressOperand = rMgr.getRegister(ResourceManager.REG_B) + disp_or_addr;
-            taModeLogInfo += String.format("Base-rel(B=0x%X+disp=0x%X)", rMgr.getRegister(ResourceManager.REG_B), disp_or_addr);
+            if (detailLogging) taModeLogInfo += String.format("Base-rel(B=0x%X+disp=0x%X)", rMgr.getRegister(ResourceManager.REG_B), disp_or_addr);
         } else {
             targetAddressOperand = disp_or_addr;
-            if (e_flag) taModeLogInfo += "Direct(Ext Fmt)";
-            else taModeLogInfo += "Direct(Simple)";
+            if (detailLogging) taModeLogInfo += e_flag ? "Direct(Ext Fmt)" : "Direct(Simple)";
         }
 
         if (x_flag) {
             targetAddressOperand += rMgr.getRegister(ResourceManager.REG_X);
-            taModeLogInfo += String.format("+Indexed(X=0x%X)", rMgr.getRegister(ResourceManager.REG_X));
+            if (detailLogging) taModeLogInfo += String.format("+Indexed(X=0x%X)", rMgr.getRegister(ResourceManager.REG_X));
         }
 
-        if(e_flag) targetAddressOperand &= 0xFFFFF;
-        else targetAddressOperand &= 0xFFFFFF;
+        targetAddressOperand = maskAddress(targetAddressOperand, e_flag);
 
 
         int finalAddress = targetAddressOperand;
-        String effectiveAddressLog = String.format(" -> TA=0x%06X", finalAddress & 0xFFFFFF);
 
         if (n_flag && !i_flag) {
-            if (finalAddress < 0 || finalAddress + 2 >= rMgr.memory.length) {
-                lastErrorMessage = "TA calc error: Indirect pointer 0x" + String.format("%06X", finalAddress) + " out of bounds."; return null;
+            if (finalAddress < 0 || finalAddress + 2 >= rMgr.getMemorySize()) {
+                lastErrorMessage = "TA calc error: Indirect pointer 0x" + String.format("%06X", finalAddress) + " out of bounds."; return false;
             }
-            byte[] indirectPointerBytes = rMgr.getMemory(finalAddress, 3);
-            finalAddress = rMgr.byteToInt(indirectPointerBytes);
-            effectiveAddressLog = String.format(" -> TA_ptr=0x%06X, M[TA_ptr]=0x%06X", targetAddressOperand & 0xFFFFFF, finalAddress & 0xFFFFFF);
+            finalAddress = rMgr.readWord(finalAddress);
+            if (events != null) events.fireMemoryRead(targetAddressOperand, 3);
+            if (detailLogging) lastExecutedInstructionInfo += String.format(" %s -> TA_ptr=0x%06X, M[TA_ptr]=0x%06X", taModeLogInfo, targetAddressOperand & 0xFFFFFF, finalAddress & 0xFFFFFF);
+        } else if (detailLogging) {
+            if(detailLogging)lastExecutedInstructionInfo += String.format(" %s -> TA=0x%06X", taModeLogInfo, finalAddress & 0xFFFFFF);
         }
 
         lastCalculatedTA = finalAddress & 0xFFFFFF;
-        lastExecutedInstructionInfo += String.format(" %s%s", taModeLogInfo, effectiveAddressLog);
-        return new TargetAddressInfo(lastCalculatedTA, false, (n_flag && !i_flag));
+        taAddress = lastCalculatedTA; taIndirect = (n_flag && !i_flag);
+        return true;
     }
 
     private void setConditionCode(int comparisonResult) {
@@ -324,74 +305,78 @@ public class InstLuncher {
     }
 
     private int memToSignedInt(int address, int length) {
-        if(address<0||address+length > rMgr.memory.length){
+        if(!rMgr.isValidRange(address, length)){
             lastErrorMessage="Memory Read OutOfBounds: addr=0x"+String.format("%06X",address)+", len="+length;
             return 0;
         }
-        return rMgr.byteToInt(rMgr.getMemory(address,length));
+        if (events != null) events.fireMemoryRead(address, length);
+        if (length == 3) return rMgr.readWord(address);
+        return (byte) rMgr.readByte(address); // 1바이트: byteToInt 와 같이 부호 확장
     }
 
     private void intToMemBytes(int address, int value, int length) {
-        if(address<0||address+length > rMgr.memory.length){
+        if(!rMgr.isValidRange(address, length)){
             lastErrorMessage="Memory Write OutOfBounds: addr=0x"+String.format("%06X",address)+", len="+length;
             return;
         }
-        if(length==1) rMgr.setMemory(address,new byte[]{(byte)(value&0xFF)},1);
-        else if(length==3) rMgr.setMemory(address,rMgr.intToBytes(value),3);
-        else lastErrorMessage="Unsupported length for intToMemBytes: " + length;
+        if(length==1) rMgr.writeByte(address,value);
+        else if(length==3) rMgr.writeWord(address,value);
+        else { lastErrorMessage="Unsupported length for intToMemBytes: " + length; return; }
+        lastMemWriteAddress = address; lastMemWriteLength = length;
+        if (events != null) events.fireMemoryWritten(address, length);
     }
 
     // --- Instruction Handlers ---
-    private int handleLDA(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo = calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDA: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_A,val); lastExecutedInstructionInfo+=String.format(" ; A <- 0x%06X",val&0xFFFFFF); return pc+l; }
-    private int handleLDX(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDX: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_X,val);lastExecutedInstructionInfo+=String.format(" ; X <- 0x%06X",val&0xFFFFFF);return pc+l; }
-    private int handleLDL(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDL: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_L,val);lastExecutedInstructionInfo+=String.format(" ; L <- 0x%06X",val&0xFFFFFF);return pc+l; }
-    private int handleLDB(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDB: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_B,val);lastExecutedInstructionInfo+=String.format(" ; B <- 0x%06X",val&0xFFFFFF);return pc+l; }
-    private int handleLDS(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDS: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_S,val);lastExecutedInstructionInfo+=String.format(" ; S <- 0x%06X",val&0xFFFFFF);return pc+l; }
-    private int handleLDT(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="LDT: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} rMgr.setRegister(ResourceManager.REG_T,val);lastExecutedInstructionInfo+=String.format(" ; T <- 0x%06X",val&0xFFFFFF);return pc+l; }
-    private int handleLDCH(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo = calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int charVal; if(taInfo.isImmediate)charVal=taInfo.address&0xFF; else {if(taInfo.address<0||taInfo.address>=rMgr.memory.length){lastErrorMessage="LDCH: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}charVal=rMgr.getMemory(taInfo.address,1)[0]&0xFF;} rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00)|charVal);lastExecutedInstructionInfo+=String.format(" ; A_byte3 <- 0x%02X",charVal);return pc+l;}
-    private int handleSTA(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STA: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STA: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_A),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- A(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF);return pc+l;}
-    private int handleSTX(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STX: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STX: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_X),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- X(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_X)&0xFFFFFF);return pc+l;}
-    private int handleSTL(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STL: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STL: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_L),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- L(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_L)&0xFFFFFF);return pc+l;}
-    private int handleSTB(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STB: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STB: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_B),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- B(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_B)&0xFFFFFF);return pc+l;}
-    private int handleSTS(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STS: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STS: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_S),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- S(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_S)&0xFFFFFF);return pc+l;}
-    private int handleSTT(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STT: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STT: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_T),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- T(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_T)&0xFFFFFF);return pc+l;}
-    private int handleSTCH(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STCH: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address>=rMgr.memory.length){lastErrorMessage="STCH: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}byte charToStore=(byte)(rMgr.getRegister(ResourceManager.REG_A)&0xFF);rMgr.setMemory(taInfo.address,new byte[]{charToStore},1);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X]_byte <- A_b3(0x%02X)",taInfo.address,charToStore&0xFF);return pc+l;}
-    private int handleSTSW(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="STSW: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="STSW: Mem Write OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}intToMemBytes(taInfo.address,rMgr.getRegister(ResourceManager.REG_SW),3);lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- SW(0x%06X)",taInfo.address,rMgr.getRegister(ResourceManager.REG_SW)&0xFFFFFF);return pc+l;}
-    private int handleADD(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="ADD: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA+val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));lastExecutedInstructionInfo+=String.format(" ; A<-A+M(0x%06X+0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
-    private int handleSUB(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="SUB: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA-val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));lastExecutedInstructionInfo+=String.format(" ; A<-A-M(0x%06X-0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
-    private int handleMUL(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="MUL: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA*val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));lastExecutedInstructionInfo+=String.format(" ; A<-A*M(0x%06X*0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
-    private int handleDIV(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null)return ERROR_HALT; int val; if(taInfo.isImmediate)val=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="DIV: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}val=memToSignedInt(taInfo.address,3);} if(val==0){lastErrorMessage="DIV: Division by zero"; return ERROR_HALT;}int curA=rMgr.getRegister(ResourceManager.REG_A);int res=curA/val;rMgr.setRegister(ResourceManager.REG_A,res&0xFFFFFF);lastExecutedInstructionInfo+=String.format(" ; A<-A/M(0x%06X/0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,res&0xFFFFFF);return pc+l;}
-    private int handleCOMP(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF); if(taInfo==null)return ERROR_HALT; int valA=rMgr.getRegister(ResourceManager.REG_A); int valM; if(taInfo.isImmediate)valM=taInfo.address; else {if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="COMP: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}valM=memToSignedInt(taInfo.address,3);} int compRes=Integer.compare(valA,valM); setConditionCode(compRes); lastExecutedInstructionInfo+=String.format(" ; Comp A(0x%X)w M(0x%X).CC=%s",valA&0xFFFFFF,valM&0xFFFFFF,getCCString()); return pc+l;}
+    private int handleLDA(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDA: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_A,val); if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A <- 0x%06X",val&0xFFFFFF); return pc+l; }
+    private int handleLDX(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDX: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_X,val);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; X <- 0x%06X",val&0xFFFFFF);return pc+l; }
+    private int handleLDL(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDL: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_L,val);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; L <- 0x%06X",val&0xFFFFFF);return pc+l; }
+    private int handleLDB(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDB: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_B,val);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; B <- 0x%06X",val&0xFFFFFF);return pc+l; }
+    private int handleLDS(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDS: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_S,val);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; S <- 0x%06X",val&0xFFFFFF);return pc+l; }
+    private int handleLDT(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="LDT: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} rMgr.setRegister(ResourceManager.REG_T,val);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; T <- 0x%06X",val&0xFFFFFF);return pc+l; }
+    private int handleLDCH(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int charVal; if(taImmediate)charVal=taAddress&0xFF; else {if(taAddress<0||taAddress>=rMgr.getMemorySize()){lastErrorMessage="LDCH: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}charVal=rMgr.readByte(taAddress);if(events!=null)events.fireMemoryRead(taAddress,1);} rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00)|charVal);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A_byte3 <- 0x%02X",charVal);return pc+l;}
+    private int handleSTA(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STA: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STA: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_A),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- A(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF);return pc+l;}
+    private int handleSTX(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STX: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STX: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_X),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- X(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_X)&0xFFFFFF);return pc+l;}
+    private int handleSTL(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STL: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STL: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_L),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- L(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_L)&0xFFFFFF);return pc+l;}
+    private int handleSTB(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STB: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STB: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_B),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- B(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_B)&0xFFFFFF);return pc+l;}
+    private int handleSTS(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STS: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STS: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_S),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- S(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_S)&0xFFFFFF);return pc+l;}
+    private int handleSTT(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STT: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STT: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_T),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- T(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_T)&0xFFFFFF);return pc+l;}
+    private int handleSTCH(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STCH: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress>=rMgr.getMemorySize()){lastErrorMessage="STCH: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}byte charToStore=(byte)(rMgr.getRegister(ResourceManager.REG_A)&0xFF);rMgr.writeByte(taAddress,charToStore);lastMemWriteAddress=taAddress;lastMemWriteLength=1;if(events!=null)events.fireMemoryWritten(taAddress,1);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X]_byte <- A_b3(0x%02X)",taAddress,charToStore&0xFF);return pc+l;}
+    private int handleSTSW(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="STSW: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="STSW: Mem Write OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}intToMemBytes(taAddress,rMgr.getRegister(ResourceManager.REG_SW),3);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; M[0x%06X] <- SW(0x%06X)",taAddress,rMgr.getRegister(ResourceManager.REG_SW)&0xFFFFFF);return pc+l;}
+    private int handleADD(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="ADD: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA+val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A<-A+M(0x%06X+0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
+    private int handleSUB(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="SUB: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA-val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A<-A-M(0x%06X-0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
+    private int handleMUL(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="MUL: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} int curA=rMgr.getRegister(ResourceManager.REG_A);long res=(long)curA*val;rMgr.setRegister(ResourceManager.REG_A,(int)(res&0xFFFFFF));if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A<-A*M(0x%06X*0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,(int)res&0xFFFFFF);return pc+l;}
+    private int handleDIV(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk)return ERROR_HALT; int val; if(taImmediate)val=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="DIV: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}val=memToSignedInt(taAddress,3);} if(val==0){lastErrorMessage="DIV: Division by zero"; return ERROR_HALT;}int curA=rMgr.getRegister(ResourceManager.REG_A);int res=curA/val;rMgr.setRegister(ResourceManager.REG_A,res&0xFFFFFF);if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; A<-A/M(0x%06X/0x%06X=0x%06X)",curA&0xFFFFFF,val&0xFFFFFF,res&0xFFFFFF);return pc+l;}
+    private int handleCOMP(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; int valA=rMgr.getRegister(ResourceManager.REG_A); int valM; if(taImmediate)valM=taAddress; else {if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="COMP: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}valM=memToSignedInt(taAddress,3);} int compRes=Integer.compare(valA,valM); setConditionCode(compRes); if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; Comp A(0x%X)w M(0x%X).CC=%s",valA&0xFFFFFF,valM&0xFFFFFF,getCCString()); return pc+l;}
     private int handleJ(int pc, byte[] iB, int l, int oF) {
-        TargetAddressInfo ta = calculateTargetAddress(pc, iB, l, oF);
-        if (ta == null) { lastErrorMessage = "J: TA calculation failed"; return ERROR_HALT; }
-        if (ta.isImmediate) { lastErrorMessage = "J: Immediate addressing not allowed for J."; return ERROR_HALT; }
+        boolean taOk = calculateTargetAddress(pc, iB, l, oF);
+        if (!taOk) { lastErrorMessage = "J: TA calculation failed"; return ERROR_HALT; }
+        if (taImmediate) { lastErrorMessage = "J: Immediate addressing not allowed for J."; return ERROR_HALT; }
 
-        int jumpToAddress = ta.address; // TA는 이미 indirection이 적용된 주소
-        lastExecutedInstructionInfo += String.format(" ; PC<-0x%06X", jumpToAddress & 0xFFFFFF);
+        int jumpToAddress = taAddress; // TA는 이미 indirection이 적용된 주소
+        if(detailLogging)lastExecutedInstructionInfo += String.format(" ; PC<-0x%06X", jumpToAddress & 0xFFFFFF);
 
         // input-1.txt의 J @RETADR (0x000027) 무한 루프 방지 로직
         // RETADR의 주소는 0x00002A (이것은 어셈블리 코드에서의 레이블 주소)
-        // ta.address가 M[RETADR]의 값 (즉, 실제 점프할 주소)
+        // taAddress가 M[RETADR]의 값 (즉, 실제 점프할 주소)
         // 현재 PC가 0x000027 (J @RETADR 명령어의 주소)
         if (pc == 0x000027) { // 현재 명령어가 J @RETADR 인 경우
-            // 이 시점에서 ta.address는 M[0x00002A]의 값 (즉, RETADR에 저장된 값)
+            // 이 시점에서 taAddress는 M[0x00002A]의 값 (즉, RETADR에 저장된 값)
             if (jumpToAddress == pc || jumpToAddress == 0x000027) { // 자기 자신으로 점프하거나, J @RETADR의 주소로 점프하려 할 때
-                lastExecutedInstructionInfo += " (Program end detected: J @RETADR to self/start, halting)";
+                if(detailLogging)lastExecutedInstructionInfo += " (Program end detected: J @RETADR to self/start, halting)";
                 return NORMAL_HALT;
             }
             // 첫 번째 루프에서 M[RETADR]이 0x000000 이었다면, PC는 0으로 감.
             // 이 경우에도 무한 루프의 시작이므로, 명시적으로 0으로 점프 시 종료
             if (jumpToAddress == 0x000000) {
-                lastExecutedInstructionInfo += " (Program end: J @RETADR to 0x000000 via initial RETADR, halting)";
+                if(detailLogging)lastExecutedInstructionInfo += " (Program end: J @RETADR to 0x000000 via initial RETADR, halting)";
                 return NORMAL_HALT;
             }
         }
         return jumpToAddress & 0xFFFFFF;
     }
     private int handleConditionalJump(int pc, byte[] iB, int l, int oF, int pureOpcode) {
-        TargetAddressInfo ta=calculateTargetAddress(pc,iB,l,oF); if(ta==null)return ERROR_HALT;
-        if(ta.isImmediate){lastErrorMessage = (pureOpcode==OP_JEQ?"JEQ":pureOpcode==OP_JLT?"JLT":"JGT")+": Immediate addressing not allowed."; return ERROR_HALT;}
+        boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT;
+        if(taImmediate){lastErrorMessage = (pureOpcode==OP_JEQ?"JEQ":pureOpcode==OP_JLT?"JLT":"JGT")+": Immediate addressing not allowed."; return ERROR_HALT;}
         int cc=rMgr.getRegister(ResourceManager.REG_SW);
         boolean jump = false; String mnemonic = "";
         if(pureOpcode == OP_JEQ){ mnemonic="JEQ"; if(cc==0x00) jump=true; }
@@ -399,58 +384,69 @@ public class InstLuncher {
         else if(pureOpcode == OP_JGT){ mnemonic="JGT"; if(cc==0x02) jump=true; }
         else { lastErrorMessage = "Unknown conditional jump: " + String.format("0x%02X", pureOpcode); return ERROR_HALT; }
         lastExecutedMnemonic = mnemonic;
-        lastExecutedInstructionInfo+=String.format(" (Cond %s,CC=%s)",jump?"TRUE":"FALSE",getCCString());
-        if(jump){lastExecutedInstructionInfo+=String.format(";PC<-0x%06X",ta.address&0xFFFFFF);return ta.address & 0xFFFFFF;}
+        if(detailLogging)lastExecutedInstructionInfo+=String.format(" (Cond %s,CC=%s)",jump?"TRUE":"FALSE",getCCString());
+        if(jump){if(detailLogging)lastExecutedInstructionInfo+=String.format(";PC<-0x%06X",taAddress&0xFFFFFF);return taAddress & 0xFFFFFF;}
         else return pc+l;
     }
-    private int handleJSUB(int pc, byte[] iB, int l, int oF) { TargetAddressInfo ta=calculateTargetAddress(pc,iB,l,oF); if(ta==null)return ERROR_HALT; if(ta.isImmediate){lastErrorMessage="JSUB: Immediate addressing not allowed."; return ERROR_HALT;} rMgr.setRegister(ResourceManager.REG_L,pc+l); lastExecutedInstructionInfo+=String.format(" ; L<-0x%06X,PC<-0x%06X", (pc+l)&0xFFFFFF, ta.address&0xFFFFFF); return ta.address & 0xFFFFFF; }
+    private int handleJSUB(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk)return ERROR_HALT; if(taImmediate){lastErrorMessage="JSUB: Immediate addressing not allowed."; return ERROR_HALT;} rMgr.setRegister(ResourceManager.REG_L,pc+l); if(detailLogging)lastExecutedInstructionInfo+=String.format(" ; L<-0x%06X,PC<-0x%06X", (pc+l)&0xFFFFFF, taAddress&0xFFFFFF); return taAddress & 0xFFFFFF; }
     private int handleRSUB(int pc, byte[] iB, int l, int oF) {
         int returnAddress = rMgr.getRegister(ResourceManager.REG_L);
-        lastExecutedInstructionInfo = String.format(" ; PC <- L(0x%06X)", returnAddress & 0xFFFFFF);
+        if(detailLogging)lastExecutedInstructionInfo = String.format(" ; PC <- L(0x%06X)", returnAddress & 0xFFFFFF);
         return returnAddress & 0xFFFFFF;
     }
-    private int handleTIX(int pc, byte[] iB, int l, int oF) { TargetAddressInfo taInfo = calculateTargetAddress(pc, iB, l, oF); if (taInfo == null) return ERROR_HALT; if(taInfo.isImmediate){lastErrorMessage="TIX: Immediate addressing not allowed"; return ERROR_HALT;}int valM; if(taInfo.address<0||taInfo.address+2>=rMgr.memory.length){lastErrorMessage="TIX: Mem OOB @0x"+String.format("%06X",taInfo.address);return ERROR_HALT;}valM=memToSignedInt(taInfo.address,3); rMgr.setRegister(ResourceManager.REG_X, (rMgr.getRegister(ResourceManager.REG_X) + 1)&0xFFFFFF); int valX = rMgr.getRegister(ResourceManager.REG_X); int compRes = Integer.compare(valX, valM); setConditionCode(compRes); lastExecutedInstructionInfo += String.format(" ; X++(0x%06X), Comp X w M(0x%06X).CC=%s", valX, valM & 0xFFFFFF, getCCString()); return pc + l; }
+    private int handleTIX(int pc, byte[] iB, int l, int oF) { boolean taOk = calculateTargetAddress(pc, iB, l, oF); if (!taOk) return ERROR_HALT; if(taImmediate){lastErrorMessage="TIX: Immediate addressing not allowed"; return ERROR_HALT;}int valM; if(taAddress<0||taAddress+2>=rMgr.getMemorySize()){lastErrorMessage="TIX: Mem OOB @0x"+String.format("%06X",taAddress);return ERROR_HALT;}valM=memToSignedInt(taAddress,3); rMgr.setRegister(ResourceManager.REG_X, (rMgr.getRegister(ResourceManager.REG_X) + 1)&0xFFFFFF); int valX = rMgr.getRegister(ResourceManager.REG_X); int compRes = Integer.compare(valX, valM); setConditionCode(compRes); if(detailLogging)lastExecutedInstructionInfo += String.format(" ; X++(0x%06X), Comp X w M(0x%06X).CC=%s", valX, valM & 0xFFFFFF, getCCString()); return pc + l; }
     private int handleTD(int pc, byte[] iB, int l, int oF) {
-        TargetAddressInfo ta = calculateTargetAddress(pc,iB,l,oF); if(ta==null || ta.isImmediate){lastErrorMessage="TD: Invalid TA (must be memory address to get Device ID)"; return ERROR_HALT;}
-        if(ta.address<0||ta.address>=rMgr.memory.length){lastErrorMessage="TD: Memory OutOfBounds for DeviceID at 0x"+String.format("%06X",ta.address); return ERROR_HALT;}
-        byte devId=rMgr.getMemory(ta.address,1)[0]; String devName=String.format("%02X",devId&0xFF);
-        boolean ready=rMgr.testDevice(devName);
+        boolean taOk = calculateTargetAddress(pc,iB,l,oF); if(!taOk || taImmediate){lastErrorMessage="TD: Invalid TA (must be memory address to get Device ID)"; return ERROR_HALT;}
+        if(taAddress<0||taAddress>=rMgr.getMemorySize()){lastErrorMessage="TD: Memory OutOfBounds for DeviceID at 0x"+String.format("%06X",taAddress); return ERROR_HALT;}
+        byte devId=(byte)rMgr.readByte(taAddress); if(events!=null)events.fireMemoryRead(taAddress,1); String devName=DEVICE_NAMES[devId&0xFF];
+        boolean ready=rMgr.testDevice(devName); if(events!=null)events.fireDeviceAccess(OP_TD,devName,ready?1:0);
         if(ready) setConditionCode(-1); else setConditionCode(0);
-        lastExecutedInstructionInfo+=String.format("(Dev '%s'@M[0x%06X]=0x%02X).Ready=%b;CC=%s",devName,ta.address,devId&0xFF,ready,getCCString());
+        if(detailLogging)lastExecutedInstructionInfo+=String.format("(Dev '%s'@M[0x%06X]=0x%02X).Ready=%b;CC=%s",devName,taAddress,devId&0xFF,ready,getCCString());
         return pc+l;
     }
-    private int handleRD(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="RD: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address>=rMgr.memory.length){lastErrorMessage="RD: Mem OOB for DeviceID";return ERROR_HALT;} byte devId=rMgr.getMemory(taInfo.address,1)[0];String devName=String.format("%02X",devId&0xFF);char[]dataRead=rMgr.readDevice(devName,1);if(dataRead!=null&&dataRead.length==1){rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00)|(dataRead[0]&0xFF));lastExecutedInstructionInfo+=String.format(" (Dev '%s').A_b3<-0x%02X",devName,dataRead[0]&0xFF);}else{rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00));lastExecutedInstructionInfo+=String.format(" (Dev '%s').ReadFail/EOF.A_b3<-00",devName);/*EOF시 A의 최하위 바이트를 00으로 설정*/}return pc+l;}
-    private int handleWD(int pc, byte[] iB, int l, int oF) {TargetAddressInfo taInfo=calculateTargetAddress(pc,iB,l,oF);if(taInfo==null||taInfo.isImmediate){lastErrorMessage="WD: Invalid TA";return ERROR_HALT;} if(taInfo.address<0||taInfo.address>=rMgr.memory.length){lastErrorMessage="WD: Mem OOB for DeviceID";return ERROR_HALT;} byte devId=rMgr.getMemory(taInfo.address,1)[0];String devName=String.format("%02X",devId&0xFF);char charToWrite=(char)(rMgr.getRegister(ResourceManager.REG_A)&0xFF);rMgr.writeDevice(devName,new char[]{charToWrite},1);lastExecutedInstructionInfo+=String.format(" (Dev '%s').Write A_b3(0x%02X)",devName,charToWrite&0xFF);return pc+l;}
-    private int handleCOMPR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="COMPR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="COMPR: Invalid reg num";return ERROR_HALT;}int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); int compRes=Integer.compare(val1,val2); setConditionCode(compRes); lastExecutedInstructionInfo+=String.format("r%d,r%d ; Comp r%d(0x%X)w r%d(0x%X).CC=%s",r1n,r2n,r1n,val1&0xFFFFFF,r2n,val2&0xFFFFFF,getCCString()); return pc+l; }
-    private int handleCLEAR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="CLEAR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; if(r1n>9||r1n==6||r1n==7){lastErrorMessage="CLEAR: Invalid reg num "+r1n;return ERROR_HALT;} rMgr.setRegister(r1n,0); lastExecutedInstructionInfo=String.format("r%d ; r%d<-0",r1n,r1n); return pc+l; }
-    private int handleTIXR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="TIXR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; if(r1n>9||r1n==6||r1n==7){lastErrorMessage="TIXR: Invalid reg num "+r1n;return ERROR_HALT;} rMgr.setRegister(ResourceManager.REG_X,(rMgr.getRegister(ResourceManager.REG_X)+1)&0xFFFFFF); int valX=rMgr.getRegister(ResourceManager.REG_X); int valR1=rMgr.getRegister(r1n); int compRes=Integer.compare(valX,valR1); setConditionCode(compRes); lastExecutedInstructionInfo+=String.format("r%d ; X<-X+1(0x%06X).Comp X w r%d(0x%06X).CC=%s",r1n,valX&0xFFFFFF,r1n,valR1&0xFFFFFF,getCCString()); return pc+l; }
-    private int handleADDR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="ADDR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="ADDR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val1+val2)&0xFFFFFF); lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d+r%d",r1n,r2n,r2n,r1n,r2n); return pc+l; }
-    private int handleSUBR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="SUBR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="SUBR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val2-val1)&0xFFFFFF); lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d-r%d",r1n,r2n,r2n,r2n,r1n); return pc+l; }
-    private int handleMULR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="MULR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="MULR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val1*val2)&0xFFFFFF); lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d*r%d",r1n,r2n,r2n,r1n,r2n); return pc+l; }
-    private int handleDIVR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="DIVR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="DIVR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); if(val1==0){lastErrorMessage="DIVR: Division by zero"; return ERROR_HALT;} rMgr.setRegister(r2n,(val2/val1)&0xFFFFFF); lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d/r%d",r1n,r2n,r2n,r2n,r1n); return pc+l; }
-    private int handleRMO(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="RMO: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="RMO: Invalid reg num";return ERROR_HALT;} rMgr.setRegister(r2n,rMgr.getRegister(r1n)); lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d",r1n,r2n,r2n,r1n); return pc+l; }
-    private int handleSHIFTL(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SHIFTL: Invalid length";return ERROR_HALT;}int r1n=(iB[1]&0xF0)>>4;int nShifts=(iB[1]&0x0F)+1;if(r1n>9||r1n==6||r1n==7){lastErrorMessage="SHIFTL: Invalid Reg num "+r1n;return ERROR_HALT;}int r1val=rMgr.getRegister(r1n);int shiftedVal=(r1val<<nShifts)&0xFFFFFF;rMgr.setRegister(r1n,shiftedVal);lastExecutedInstructionInfo=String.format("r%d,n=%d ; r%d << %d = 0x%06X",r1n,nShifts,r1n,nShifts,shiftedVal);return pc+len;}
-    private int handleSHIFTR(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SHIFTR: Invalid length";return ERROR_HALT;}int r1n=(iB[1]&0xF0)>>4;int nShifts=(iB[1]&0x0F)+1;if(r1n>9||r1n==6||r1n==7){lastErrorMessage="SHIFTR: Invalid Reg num "+r1n;return ERROR_HALT;}int r1val=rMgr.getRegister(r1n);int shiftedVal=(r1val>>>nShifts); rMgr.setRegister(r1n,shiftedVal&0xFFFFFF);lastExecutedInstructionInfo=String.format("r%d,n=%d ; r%d >>> %d = 0x%06X (logical)",r1n,nShifts,r1n,nShifts,shiftedVal&0xFFFFFF);return pc+len;}
-    private int handleSVC(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SVC: Invalid length";return ERROR_HALT;}int nSvc=(iB[1]&0xF0)>>4;lastExecutedInstructionInfo=String.format("n=%d ; Supervisor Call (no OS simulated)",nSvc);return pc+len;} // 피연산자는 n r2 가 아니라 n 만 사용
-    private int handleFIX(int pc,byte[]iB,int len,int oF){if(len!=1){lastErrorMessage="FIX: Invalid length";return ERROR_HALT;}int fVal_int=(int)rMgr.getRegister_F();rMgr.setRegister(ResourceManager.REG_A,fVal_int&0xFFFFFF);lastExecutedInstructionInfo=String.format("; A <- int(F) (value: %d (0x%X) from F: %.2f)",fVal_int&0xFFFFFF,fVal_int&0xFFFFFF,rMgr.getRegister_F());return pc+len;}
-    private int handleFLOAT(int pc,byte[]iB,int len,int oF){if(len!=1){lastErrorMessage="FLOAT: Invalid length";return ERROR_HALT;}double aVal_float=(double)(rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF); if((rMgr.getRegister(ResourceManager.REG_A)&0x800000)!=0) aVal_float = (double)((rMgr.getRegister(ResourceManager.REG_A)|0xFF000000)); rMgr.setRegister_F(aVal_float);lastExecutedInstructionInfo=String.format("; F <- float(A) (value: %.2f from A: %d (0x%X))",aVal_float,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF);return pc+len;}
-    private int handleHIO(int pc,byte[]iB,int len,int oF){lastErrorMessage="Unimplemented HIO";return ERROR_HALT;}
+    private int handleRD(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="RD: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress>=rMgr.getMemorySize()){lastErrorMessage="RD: Mem OOB for DeviceID";return ERROR_HALT;} byte devId=(byte)rMgr.readByte(taAddress);if(events!=null)events.fireMemoryRead(taAddress,1);String devName=DEVICE_NAMES[devId&0xFF];char[]dataRead=rMgr.readDevice(devName,1);if(events!=null)events.fireDeviceAccess(OP_RD,devName,(dataRead!=null&&dataRead.length==1)?(dataRead[0]&0xFF):-1);if(dataRead!=null&&dataRead.length==1){rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00)|(dataRead[0]&0xFF));if(detailLogging)lastExecutedInstructionInfo+=String.format(" (Dev '%s').A_b3<-0x%02X",devName,dataRead[0]&0xFF);}else{rMgr.setRegister(ResourceManager.REG_A,(rMgr.getRegister(ResourceManager.REG_A)&0xFFFF00));if(detailLogging)lastExecutedInstructionInfo+=String.format(" (Dev '%s').ReadFail/EOF.A_b3<-00",devName);/*EOF시 A의 최하위 바이트를 00으로 설정*/}return pc+l;}
+    private int handleWD(int pc, byte[] iB, int l, int oF) {boolean taOk = calculateTargetAddress(pc,iB,l,oF);if(!taOk||taImmediate){lastErrorMessage="WD: Invalid TA";return ERROR_HALT;} if(taAddress<0||taAddress>=rMgr.getMemorySize()){lastErrorMessage="WD: Mem OOB for DeviceID";return ERROR_HALT;} byte devId=(byte)rMgr.readByte(taAddress);if(events!=null)events.fireMemoryRead(taAddress,1);String devName=DEVICE_NAMES[devId&0xFF];char charToWrite=(char)(rMgr.getRegister(ResourceManager.REG_A)&0xFF);rMgr.writeDevice(devName,new char[]{charToWrite},1);if(events!=null)events.fireDeviceAccess(OP_WD,devName,charToWrite&0xFF);if(detailLogging)lastExecutedInstructionInfo+=String.format(" (Dev '%s').Write A_b3(0x%02X)",devName,charToWrite&0xFF);return pc+l;}
+    private int handleCOMPR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="COMPR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="COMPR: Invalid reg num";return ERROR_HALT;}int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); int compRes=Integer.compare(val1,val2); setConditionCode(compRes); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; Comp r%d(0x%X)w r%d(0x%X).CC=%s",r1n,r2n,r1n,val1&0xFFFFFF,r2n,val2&0xFFFFFF,getCCString()); return pc+l; }
+    private int handleCLEAR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="CLEAR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; if(r1n>9||r1n==6||r1n==7){lastErrorMessage="CLEAR: Invalid reg num "+r1n;return ERROR_HALT;} rMgr.setRegister(r1n,0); if(detailLogging)lastExecutedInstructionInfo=String.format("r%d ; r%d<-0",r1n,r1n); return pc+l; }
+    private int handleTIXR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="TIXR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; if(r1n>9||r1n==6||r1n==7){lastErrorMessage="TIXR: Invalid reg num "+r1n;return ERROR_HALT;} rMgr.setRegister(ResourceManager.REG_X,(rMgr.getRegister(ResourceManager.REG_X)+1)&0xFFFFFF); int valX=rMgr.getRegister(ResourceManager.REG_X); int valR1=rMgr.getRegister(r1n); int compRes=Integer.compare(valX,valR1); setConditionCode(compRes); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d ; X<-X+1(0x%06X).Comp X w r%d(0x%06X).CC=%s",r1n,valX&0xFFFFFF,r1n,valR1&0xFFFFFF,getCCString()); return pc+l; }
+    private int handleADDR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="ADDR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="ADDR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val1+val2)&0xFFFFFF); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d+r%d",r1n,r2n,r2n,r1n,r2n); return pc+l; }
+    private int handleSUBR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="SUBR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="SUBR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val2-val1)&0xFFFFFF); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d-r%d",r1n,r2n,r2n,r2n,r1n); return pc+l; }
+    private int handleMULR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="MULR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="MULR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); rMgr.setRegister(r2n,(val1*val2)&0xFFFFFF); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d*r%d",r1n,r2n,r2n,r1n,r2n); return pc+l; }
+    private int handleDIVR(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="DIVR: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="DIVR: Invalid reg num";return ERROR_HALT;} int val1=rMgr.getRegister(r1n); int val2=rMgr.getRegister(r2n); if(val1==0){lastErrorMessage="DIVR: Division by zero"; return ERROR_HALT;} rMgr.setRegister(r2n,(val2/val1)&0xFFFFFF); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d/r%d",r1n,r2n,r2n,r2n,r1n); return pc+l; }
+    private int handleRMO(int pc, byte[] iB, int l, int oF) { if(l!=2){lastErrorMessage="RMO: Invalid length "+l;return ERROR_HALT;} int r1n=(iB[1]&0xF0)>>4; int r2n=iB[1]&0x0F; if(r1n>9||r1n==6||r1n==7||r2n>9||r2n==6||r2n==7){lastErrorMessage="RMO: Invalid reg num";return ERROR_HALT;} rMgr.setRegister(r2n,rMgr.getRegister(r1n)); if(detailLogging)lastExecutedInstructionInfo+=String.format("r%d,r%d ; r%d<-r%d",r1n,r2n,r2n,r1n); return pc+l; }
+    private int handleSHIFTL(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SHIFTL: Invalid length";return ERROR_HALT;}int r1n=(iB[1]&0xF0)>>4;int nShifts=(iB[1]&0x0F)+1;if(r1n>9||r1n==6||r1n==7){lastErrorMessage="SHIFTL: Invalid Reg num "+r1n;return ERROR_HALT;}int r1val=rMgr.getRegister(r1n);int shiftedVal=(r1val<<nShifts)&0xFFFFFF;rMgr.setRegister(r1n,shiftedVal);if(detailLogging)lastExecutedInstructionInfo=String.format("r%d,n=%d ; r%d << %d = 0x%06X",r1n,nShifts,r1n,nShifts,shiftedVal);return pc+len;}
+    private int handleSHIFTR(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SHIFTR: Invalid length";return ERROR_HALT;}int r1n=(iB[1]&0xF0)>>4;int nShifts=(iB[1]&0x0F)+1;if(r1n>9||r1n==6||r1n==7){lastErrorMessage="SHIFTR: Invalid Reg num "+r1n;return ERROR_HALT;}int r1val=rMgr.getRegister(r1n);int shiftedVal=(r1val>>>nShifts); rMgr.setRegister(r1n,shiftedVal&0xFFFFFF);if(detailLogging)lastExecutedInstructionInfo=String.format("r%d,n=%d ; r%d >>> %d = 0x%06X (logical)",r1n,nShifts,r1n,nShifts,shiftedVal&0xFFFFFF);return pc+len;}
+    private int handleSVC(int pc,byte[]iB,int len,int oF){if(len!=2){lastErrorMessage="SVC: Invalid length";return ERROR_HALT;}int nSvc=(iB[1]&0xF0)>>4;if(detailLogging)lastExecutedInstructionInfo=String.format("n=%d ; Supervisor Call (no OS simulated)",nSvc);return pc+len;} // 피연산자는 n r2 가 아니라 n 만 사용
+    private int handleFIX(int pc,byte[]iB,int len,int oF){if(len!=1){lastErrorMessage="FIX: Invalid length";return ERROR_HALT;}int fVal_int=(int)rMgr.getRegister_F();rMgr.setRegister(ResourceManager.REG_A,fVal_int&0xFFFFFF);if(detailLogging)lastExecutedInstructionInfo=String.format("; A <- int(F) (value: %d (0x%X) from F: %.2f)",fVal_int&0xFFFFFF,fVal_int&0xFFFFFF,rMgr.getRegister_F());return pc+len;}
+    private int handleFLOAT(int pc,byte[]iB,int len,int oF){if(len!=1){lastErrorMessage="FLOAT: Invalid length";return ERROR_HALT;}double aVal_float=(double)(rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF); if((rMgr.getRegister(ResourceManager.REG_A)&0x800000)!=0) aVal_float = (double)((rMgr.getRegister(ResourceManager.REG_A)|0xFF000000)); rMgr.setRegister_F(aVal_float);if(detailLogging)lastExecutedInstructionInfo=String.format("; F <- float(A) (value: %.2f from A: %d (0x%X))",aVal_float,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF,rMgr.getRegister(ResourceManager.REG_A)&0xFFFFFF);return pc+len;}
+    private int handleHIO(int pc,byte[]iB,int len,int oF){int ch=ioChannel("HIO");if(ch<0)return ERROR_HALT;ChannelIo.Status before=channels.halt(ch);setConditionCode(before==ChannelIo.Status.BUSY?-1:0);if(detailLogging)lastExecutedInstructionInfo=String.format("; channel %d %s",ch,before==ChannelIo.Status.BUSY?"halted":"was not busy");return pc+len;}
     private int handleNORM(int pc,byte[]iB,int len,int oF){lastErrorMessage="Unimplemented NORM";return ERROR_HALT;}
-    private int handleSIO(int pc,byte[]iB,int len,int oF){lastErrorMessage="Unimplemented SIO";return ERROR_HALT;}
-    private int handleTIO(int pc,byte[]iB,int len,int oF){lastErrorMessage="Unimplemented TIO";return ERROR_HALT;}
+    private int handleSIO(int pc,byte[]iB,int len,int oF){int ch=ioChannel("SIO");if(ch<0)return ERROR_HALT;int prog=rMgr.getRegister(ResourceManager.REG_S);boolean started=channels.start(ch,prog);setConditionCode(started?0:-1);if(detailLogging)lastExecutedInstructionInfo=String.format("; channel %d program 0x%06X %s",ch,prog,started?"started":"busy, not started");return pc+len;}
+    private int handleTIO(int pc,byte[]iB,int len,int oF){int ch=ioChannel("TIO");if(ch<0)return ERROR_HALT;ChannelIo.Status st=channels.getStatus(ch);setConditionCode(st==ChannelIo.Status.IDLE?0:st==ChannelIo.Status.BUSY?-1:1);if(detailLogging)lastExecutedInstructionInfo=String.format("; channel %d %s.CC=%s",ch,st,getCCString());return pc+len;}
+    // SIO/TIO/HIO 의 채널 번호는 A (0..15), SIO 의 채널 프로그램 주소는 S. 특권 명령이지만 감독자 모드는 흉내내지 않는다.
+    // 조건 코드: SIO 는 시작했으면 =, 채널이 바쁘면 <. TIO 는 ChannelIo.Status 참고. HIO 는 멈춘 게 있으면 <, 없으면 =
+    private int ioChannel(String mnemonic){int ch=rMgr.getRegister(ResourceManager.REG_A);if(ch<0||ch>=ChannelIo.CHANNELS){lastErrorMessage=mnemonic+": Invalid channel "+ch;return -1;}return ch;}
 
     public String getLastErrorMessage() { return lastErrorMessage; }
     public String getLastExecutedInstructionInfo() { return lastExecutedInstructionInfo; }
     public String getLastExecutedMnemonic() { return lastExecutedMnemonic; }
     public int getLastCalculatedTA() { return lastCalculatedTA; }
+    public int getLastOpcodeFull() { return lastOpcodeFull; }
+    public int getLastMemWriteAddress() { return lastMemWriteAddress; }
+    public int getLastMemWriteLength() { return lastMemWriteLength; }
+    public void setEvents(ExecutionEvents events) { this.events = events; }
+    public void setDetailLogging(boolean detailLogging) { this.detailLogging = detailLogging; }
+    public boolean isDetailLogging() { return detailLogging; }
+    public ExecutionEvents getEvents() { return events; }
+    public int getLastInstructionLength() { return lastInstructionLength; }
 
     public byte[] getCurrentInstructionBytes(int pc) {
-        if (pc < 0 || pc >= rMgr.memory.length) return new byte[0];
+        if (pc < 0 || pc >= rMgr.getMemorySize()) return new byte[0];
         byte[] firstByteArr = rMgr.getMemory(pc, 1);
         if (firstByteArr.length < 1) return new byte[0];
         int pureOpcode = (firstByteArr[0] & 0xFF) & 0xFC;
         int length = getInstructionLength(pureOpcode, pc);
-        if (length == 0 || pc + length > rMgr.memory.length) return new byte[0];
+        if (length == 0 || pc + length > rMgr.getMemorySize()) return new byte[0];
         return rMgr.getMemory(pc, length);
     }
 }
\ No newline at end of file
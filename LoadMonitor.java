@@ -0,0 +1,7 @@
+package SP25_simulator;
+
+// SicLoader.load(File, LoadMonitor) 의 진행 상황 통지와 취소 확인. 둘 다 적재하는 스레드에서 불린다
+interface LoadMonitor {
+	void progress(LoadProgress progress); // progress 객체는 재사용되므로 다른 스레드로 넘기려면 snapshot() 을 쓴다
+	boolean isCancelled();
+}
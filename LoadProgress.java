@@ -0,0 +1,33 @@
+package SP25_simulator;
+
+// 적재 진행 상황: 단계, 처리한 레코드 수, T 레코드로 적재한 바이트 수, 적용한 M 레코드 수, 읽은 파일 위치
+class LoadProgress {
+	enum Phase { PARSING, RELOCATING, DONE }
+
+	Phase phase = Phase.PARSING;
+	int records;
+	long bytesLoaded;
+	int relocations;
+	long fileBytesRead;
+	final long fileLength;
+
+	LoadProgress(long fileLength) { this.fileLength = fileLength; }
+
+	public Phase getPhase() { return phase; }
+	public int getRecords() { return records; }
+	public long getBytesLoaded() { return bytesLoaded; }
+	public int getRelocations() { return relocations; }
+	// 파일을 읽은 비율 (0~100). 재배치 단계부터는 100
+	public int getPercent() { return fileLength <= 0 ? 100 : (int) Math.min(100, fileBytesRead * 100 / fileLength); }
+
+	LoadProgress snapshot() {
+		LoadProgress copy = new LoadProgress(fileLength);
+		copy.phase = phase; copy.records = records; copy.bytesLoaded = bytesLoaded; copy.relocations = relocations; copy.fileBytesRead = fileBytesRead;
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d records, %d bytes loaded, %d relocations", phase, records, bytesLoaded, relocations);
+	}
+}
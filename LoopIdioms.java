@@ -0,0 +1,256 @@
+package SP25_simulator;
+
+/**
+ * 정형화된 바이트 루프를 알아보고 한 번에 실행한다. SicSimulator 의 연속 실행에서 뒤로 가는 분기가
+ * 루프 머리(head)로 돌아올 때 불린다. 알아보는 모양 (모두 단순 주소 지정 + 인덱스, 한계는 TIXR 레지스터):
+ *
+ *   COPY:  LDCH src,X / STCH dst,X / TIXR r / JLT head        -> copyMemory
+ *   FILL:  STCH dst,X / TIXR r / JLT head                     -> fillMemory
+ *   SCAN:  LDCH src,X / COMP #c / JEQ exit / TIXR r / JLT head -> 바이트 검색
+ *
+ * 결과(메모리, A, X, SW, PC, 실행한 명령어 수)는 한 명령어씩 해석한 것과 같다. 전제 조건
+ * (범위, 겹침, 루프 코드 덮어쓰기, 한계 레지스터, 남은 예산, 브레이크포인트)이 맞지 않으면 0을 돌려주고
+ * 호출한 쪽이 그대로 해석한다. 인식 결과는 루프 코드 페이지의 쓰기 버전과 함께 캐시한다.
+ */
+public class LoopIdioms {
+	private enum Kind { COPY, FILL, SCAN }
+
+	private static final int OP_COMP = 0x28, OP_JEQ = 0x30, OP_JLT = 0x38, OP_LDCH = 0x50, OP_STCH = 0x54, OP_TIXR = 0xB8;
+
+	// 인덱스 피연산자 하나: 목표 주소 = 기준 + X. 베이스 상대는 실행 시점의 B 로 계산한다
+	// (주소가 메모리 안에 있을 때만 한 번에 실행하므로 해석기의 20/24비트 mask 는 값을 바꾸지 않는다)
+	private static final class Operand {
+		final boolean baseRelative;
+		final int base;   // PC 상대/직접이면 완성된 값, 베이스 상대면 disp
+
+		Operand(boolean baseRelative, int base) { this.baseRelative = baseRelative; this.base = base; }
+	}
+
+	private static final class Loop {
+		final Kind kind;          // null 이면 "관용구 아님"
+		final int head, end;      // 루프 코드 [head, end)
+		final byte[] code;        // 인식할 때의 루프 코드
+		final int[] pageVersions; // 그때의 페이지 버전 (같은 페이지의 데이터 쓰기로 바뀌면 code 를 비교해 다시 맞춘다)
+		Operand src, dst;
+		int limitRegister;
+		int compareValue;         // SCAN: COMP 즉시값
+		int exitTarget;           // SCAN: JEQ 목표
+
+		Loop(Kind kind, int head, int end, byte[] code, int[] pageVersions) { this.kind = kind; this.head = head; this.end = end; this.code = code; this.pageVersions = pageVersions; }
+	}
+
+	// 해독한 명령어 하나 (관용구 인식용 최소 정보)
+	private static final class Inst {
+		int op, ni, length, x, b, p, e, disp, r1;
+	}
+
+	private final ResourceManager rMgr;
+	private Loop[] loops; // head 주소로 바로 찾는다 (처음 쓸 때 할당)
+	private long bulkSteps;
+
+	public LoopIdioms(ResourceManager rMgr) {
+		if (rMgr == null) throw new IllegalArgumentException("RM cannot be null for LoopIdioms.");
+		this.rMgr = rMgr;
+	}
+
+	/** 한 번에 실행한 명령어 수 누계 */
+	public long getBulkSteps() { return bulkSteps; }
+
+	public void invalidateAll() { loops = null; }
+
+	/**
+	 * head 에서 시작하는 루프를 최대 maxSteps 명령어만큼 한 번에 실행한다. 실행했으면 실행한 명령어 수
+	 * (PC 와 레지스터는 이미 갱신됨), 관용구가 아니거나 전제 조건이 맞지 않으면 0.
+	 */
+	public int tryRun(int head, int maxSteps, boolean[] breakpoints) {
+		if (head < 0 || head >= rMgr.getMemorySize()) return 0;
+		if (loops == null) loops = new Loop[rMgr.getMemorySize()];
+		Loop loop = loops[head];
+		if (loop == null || !isCurrent(loop)) loops[head] = loop = recognize(head);
+		if (loop.kind == null) return 0;
+		for (int a = loop.head; a < loop.end; a++) if (breakpoints[a]) return 0;
+
+		int x0 = rMgr.getRegister(ResourceManager.REG_X);
+		int limit = rMgr.getRegister(loop.limitRegister);
+		if (x0 >= 0xFFFFFF) return 0; // X 가 한 바퀴 도는 경우는 해석기에 맡긴다
+		int iterations = Math.max(1, limit - x0); // TIXR 후 X >= limit 이 될 때까지
+		int bodySteps = (loop.kind == Kind.COPY) ? 4 : (loop.kind == Kind.FILL) ? 3 : 5;
+		int m = Math.min(iterations, maxSteps / bodySteps);
+		if (m < 1) return 0;
+
+		int a = rMgr.getRegister(ResourceManager.REG_A);
+		int steps;
+		switch (loop.kind) {
+			case COPY: {
+				int src = address(loop.src, x0), dst = address(loop.dst, x0);
+				if (!inMemory(src, m) || !inMemory(dst, m) || overlapsCode(loop, dst, m)) return 0;
+				if (dst > src && dst < src + m) return 0; // 앞으로 번지는 겹친 복사는 memmove 와 다르다
+				rMgr.copyMemory(src, dst, m);
+				a = (a & 0xFFFF00) | rMgr.readByte(src + m - 1);
+				steps = m * bodySteps;
+				break;
+			}
+			case FILL: {
+				int dst = address(loop.dst, x0);
+				if (!inMemory(dst, m) || overlapsCode(loop, dst, m)) return 0;
+				rMgr.fillMemory(dst, m, (byte) a);
+				steps = m * bodySteps;
+				break;
+			}
+			default: { // SCAN
+				int src = address(loop.src, x0);
+				if (!inMemory(src, m)) return 0;
+				int high = a & 0xFFFF00;
+				for (int k = 0; k < m; k++) {
+					a = high | rMgr.readByte(src + k);
+					if (a == loop.compareValue) {
+						// k 번째 반복의 JEQ 에서 빠져나간다
+						rMgr.setRegister(ResourceManager.REG_A, a);
+						rMgr.setRegister(ResourceManager.REG_X, x0 + k);
+						rMgr.setRegister(ResourceManager.REG_SW, 0x00);
+						rMgr.setRegister(ResourceManager.REG_PC, loop.exitTarget);
+						bulkSteps += k * bodySteps + 3;
+						return k * bodySteps + 3;
+					}
+				}
+				steps = m * bodySteps;
+			}
+		}
+		int x = x0 + m;
+		int cmp = Integer.compare(x, limit);
+		rMgr.setRegister(ResourceManager.REG_A, a);
+		rMgr.setRegister(ResourceManager.REG_X, x);
+		rMgr.setRegister(ResourceManager.REG_SW, cmp < 0 ? 0x01 : cmp == 0 ? 0x00 : 0x02);
+		rMgr.setRegister(ResourceManager.REG_PC, cmp < 0 ? loop.head : loop.end);
+		bulkSteps += steps;
+		return steps;
+	}
+
+	private int address(Operand op, int x) {
+		int base = op.baseRelative ? rMgr.getRegister(ResourceManager.REG_B) + op.base : op.base;
+		return base + x;
+	}
+
+	private boolean inMemory(int address, int length) {
+		return address >= 0 && rMgr.isValidRange(address, length);
+	}
+
+	private static boolean overlapsCode(Loop loop, int address, int length) {
+		return address < loop.end && loop.head < address + length;
+	}
+
+	private boolean isCurrent(Loop loop) {
+		int first = loop.head >>> ResourceManager.PAGE_SHIFT;
+		boolean same = true;
+		for (int i = 0; i < loop.pageVersions.length && same; i++) same = rMgr.getPageVersion(first + i) == loop.pageVersions[i];
+		if (same) return true;
+		for (int i = 0; i < loop.code.length; i++) if ((byte) rMgr.readByte(loop.head + i) != loop.code[i]) return false;
+		for (int i = 0; i < loop.pageVersions.length; i++) loop.pageVersions[i] = rMgr.getPageVersion(first + i); // 제자리에서 (루프 안의 데이터 쓰기마다 할당하지 않도록)
+		return true;
+	}
+
+	// --- 인식 ---
+
+	private Loop recognize(int head) {
+		Inst[] body = new Inst[5];
+		int pc = head;
+		int count = 0;
+		for (; count < body.length; count++) {
+			Inst inst = decode(pc);
+			if (inst == null) break;
+			body[count] = inst;
+			pc += inst.length;
+			if (inst.op == OP_JLT) { count++; break; }
+		}
+		Loop loop = match(head, body, count, pc);
+		if (loop != null) return loop;
+		return newLoop(null, head, Math.max(pc, head + 1));
+	}
+
+	private Loop match(int head, Inst[] body, int count, int end) {
+		if (count < 3 || body[count - 1].op != OP_JLT || jumpTarget(body[count - 1], end) != head) return null;
+		Inst tixr = body[count - 2];
+		if (tixr.op != OP_TIXR) return null;
+		int r = tixr.r1;
+		if (r != ResourceManager.REG_A && (r < ResourceManager.REG_L || r > ResourceManager.REG_T)) return null; // X, F, PC, SW 는 루프 안에서 바뀐다
+		Loop loop;
+		if (count == 3 && isIndexedMemory(body[0], OP_STCH)) {
+			loop = newLoop(Kind.FILL, head, end);
+			loop.dst = operand(body[0], head);
+		} else if (count == 4 && isIndexedMemory(body[0], OP_LDCH) && isIndexedMemory(body[1], OP_STCH)) {
+			if (r == ResourceManager.REG_A) return null;
+			loop = newLoop(Kind.COPY, head, end);
+			loop.src = operand(body[0], head);
+			loop.dst = operand(body[1], head + body[0].length);
+		} else if (count == 5 && isIndexedMemory(body[0], OP_LDCH) && body[1].op == OP_COMP && body[1].ni == 0x01 && body[1].x == 0
+				&& body[2].op == OP_JEQ) {
+			if (r == ResourceManager.REG_A) return null;
+			int jeqAt = head + body[0].length + body[1].length;
+			int exit = jumpTarget(body[2], jeqAt + body[2].length);
+			if (exit < 0) return null;
+			loop = newLoop(Kind.SCAN, head, end);
+			loop.src = operand(body[0], head);
+			loop.compareValue = immediateValue(body[1]);
+			loop.exitTarget = exit;
+		} else {
+			return null;
+		}
+		loop.limitRegister = r;
+		return loop;
+	}
+
+	private Loop newLoop(Kind kind, int head, int end) {
+		return new Loop(kind, head, end, rMgr.getMemory(head, end - head), versions(head, end));
+	}
+
+	private static boolean isIndexedMemory(Inst inst, int op) {
+		return inst.op == op && inst.ni == 0x03 && inst.x == 1 && !(inst.b == 1 && inst.p == 1);
+	}
+
+	// 인덱스 피연산자 (InstLuncher.calculateTargetAddress 와 같은 규칙)
+	private static Operand operand(Inst inst, int address) {
+		if (inst.p == 1) return new Operand(false, address + inst.length + inst.disp);
+		return new Operand(inst.b == 1, inst.disp);
+	}
+
+	// 단순 주소 지정, 인덱스 없음, PC 상대 또는 직접인 분기의 목표. 그 외에는 -1
+	private static int jumpTarget(Inst inst, int next) {
+		if (inst.ni != 0x03 || inst.x == 1 || inst.b == 1) return -1;
+		int target = (inst.p == 1) ? next + inst.disp : inst.disp;
+		return target & ((inst.e == 1) ? 0xFFFFF : 0xFFFFFF);
+	}
+
+	// 즉시 주소 지정은 PC/베이스를 더하지 않고 (부호 확장된) disp 자체가 값이다
+	private static int immediateValue(Inst inst) { return inst.disp; }
+
+	private Inst decode(int address) {
+		if (!rMgr.isValidRange(address, 1)) return null;
+		int b0 = rMgr.readByte(address);
+		int b1 = rMgr.isValidRange(address + 1, 1) ? rMgr.readByte(address + 1) : 0;
+		int length = OpcodeTable.length(b0, b1);
+		if (length == 0 || !rMgr.isValidRange(address, length)) return null;
+		Inst inst = new Inst();
+		inst.op = b0 & 0xFC;
+		inst.ni = b0 & 0x03;
+		inst.length = length;
+		if (length == 2) { inst.r1 = (b1 >> 4) & 0xF; return inst; }
+		if (length == 1) return inst;
+		inst.x = (b1 >> 7) & 1; inst.b = (b1 >> 6) & 1; inst.p = (b1 >> 5) & 1; inst.e = (b1 >> 4) & 1;
+		int b2 = rMgr.readByte(address + 2);
+		if (length == 4) {
+			inst.disp = ((b1 & 0x0F) << 16) | (b2 << 8) | rMgr.readByte(address + 3);
+		} else {
+			inst.disp = ((b1 & 0x0F) << 8) | b2;
+			if ((inst.disp & 0x0800) != 0 && (inst.p == 1 || inst.b == 1 || inst.ni == 0)) inst.disp |= 0xFFFFF000;
+		}
+		return inst;
+	}
+
+	private int[] versions(int from, int to) {
+		int first = from >>> ResourceManager.PAGE_SHIFT;
+		int last = (Math.min(to, rMgr.getMemorySize()) - 1) >>> ResourceManager.PAGE_SHIFT;
+		int[] v = new int[Math.max(1, last - first + 1)];
+		for (int i = 0; i < v.length; i++) v[i] = rMgr.getPageVersion(first + i);
+		return v;
+	}
+}
@@ -0,0 +1,232 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// WorkloadGenerator 로 만든 합성 프로그램을 크기별로 적재/실행해 시간을 잰다. 사용법:
+//   MacroBenchmark [--out 파일.csv] [--compare 기준.csv] [--repeat N] [--sizes 1,4,16] [--mixes arith,copy,...]
+//                  [--iterations N] [--data 바이트] [--relocs N] [--lazy] [--shared] [--no-idioms]
+//   MacroBenchmark --report 기준.csv 비교.csv
+//   종류 x 섹션 수마다 목적 코드를 임시 디렉터리에 만들고, 한 번 데운 뒤 repeat 번 새 ResourceManager 로 적재+실행해 중앙값을 쓴다.
+//   두 빌드를 비교하려면 각 빌드에서 --out 으로 CSV 를 남기고 --report 로 (또는 새 빌드에서 --compare 로) 비교한다.
+//   지문(fingerprint)이 다르면 두 빌드의 실행 결과가 다르다는 뜻이므로 시간 비교보다 먼저 본다.
+//   --shared 는 SicLoader.loadShared 로 적재한다: 처음 한 번만 실제로 적재하고 그 뒤로는 이미지 페이지를 공유해 붙이므로
+//   loadMs 가 페이지 테이블 복사 시간이 되고, 표 끝에 실행 뒤 머신이 복사해 가진 페이지 수/전체 페이지 수를 보인다.
+//   io 종류는 장치 파일(기본 0E)을 현재 디렉터리에 쓰고, 실행 전에 없던 파일이면 끝나고 지운다.
+public class MacroBenchmark {
+	static final String CSV_HEADER = "workload,sections,objBytes,records,loadMs,runMs,steps,mips,result,fingerprint";
+
+	// CSV 한 줄
+	static final class Row {
+		final String workload;
+		final int sections;
+		final long objBytes, records;
+		final double loadMs, runMs;
+		final long steps;
+		final String result, fingerprint;
+		String pages = ""; // --shared 일 때 "pages 복사한/전체" (CSV 에는 쓰지 않는다)
+
+		Row(String workload, int sections, long objBytes, long records, double loadMs, double runMs, long steps, String result, String fingerprint) {
+			this.workload = workload; this.sections = sections; this.objBytes = objBytes; this.records = records;
+			this.loadMs = loadMs; this.runMs = runMs; this.steps = steps; this.result = result; this.fingerprint = fingerprint;
+		}
+
+		String key() { return workload + "/" + sections; }
+		double mips() { return (runMs > 0) ? steps / runMs / 1000.0 : 0; }
+
+		String toCsv() {
+			return String.format(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f,%d,%.2f,%s,%s", workload, sections, objBytes, records, loadMs, runMs, steps, mips(), result, fingerprint);
+		}
+
+		static Row parse(String line) {
+			String[] f = line.split(",");
+			if (f.length != 10) throw new IllegalArgumentException("Bad benchmark row: " + line);
+			return new Row(f[0], Integer.parseInt(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]),
+					Long.parseLong(f[6]), f[8], f[9]);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		File outFile = null;
+		File compareFile = null;
+		int repeat = 5;
+		int[] sizes = {1, 4, 16};
+		List<WorkloadGenerator.Mix> mixes = Arrays.asList(WorkloadGenerator.Mix.values());
+		WorkloadGenerator.Config base = new WorkloadGenerator.Config();
+		boolean lazy = false;
+		boolean shared = false;
+		boolean idioms = true;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--out": outFile = new File(args[++i]); break;
+				case "--compare": compareFile = new File(args[++i]); break;
+				case "--report":
+					if (i + 2 >= args.length) { System.err.println("--report needs two CSV files"); return; }
+					System.out.print(report(readCsv(new File(args[i + 1])), readCsv(new File(args[i + 2]))));
+					return;
+				case "--repeat": repeat = Integer.parseInt(args[++i]); break;
+				case "--sizes": sizes = Arrays.stream(args[++i].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray(); break;
+				case "--mixes": {
+					List<WorkloadGenerator.Mix> list = new ArrayList<>();
+					for (String s : args[++i].split(",")) list.add(WorkloadGenerator.Mix.valueOf(s.trim().toUpperCase(Locale.ROOT)));
+					mixes = list;
+					break;
+				}
+				case "--iterations": base.iterations(Integer.parseInt(args[++i])); break;
+				case "--data": base.dataBytes(Integer.parseInt(args[++i])); break;
+				case "--relocs": base.relocations(Integer.parseInt(args[++i])); break;
+				case "--lazy": lazy = true; break;
+				case "--shared": shared = true; break;
+				case "--no-idioms": idioms = false; break;
+				default:
+					System.err.println("Usage: MacroBenchmark [--out results.csv] [--compare baseline.csv] [--repeat N] [--sizes 1,4,16] [--mixes arith,copy,io,indirect,mixed] [--iterations N] [--data bytes] [--relocs N] [--lazy] [--shared] [--no-idioms] | --report baseline.csv other.csv");
+					return;
+			}
+		}
+		if (repeat < 1) { System.err.println("--repeat must be positive: " + repeat); return; }
+		if (lazy && shared) { System.err.println("--lazy cannot be combined with --shared"); return; }
+
+		File device = new File(String.format("%02X", base.getIoDevice()));
+		boolean removeDevice = !device.exists();
+		Path dir = Files.createTempDirectory("sicbench");
+		List<Row> rows = new ArrayList<>();
+		try {
+			System.out.printf("%-9s %8s %9s %8s %10s %10s %12s %9s  %s%n", "workload", "sections", "objBytes", "records", "loadMs", "runMs", "steps", "MIPS", "result");
+			for (WorkloadGenerator.Mix mix : mixes) {
+				for (int sections : sizes) {
+					WorkloadGenerator.Config config = new WorkloadGenerator.Config().sections(sections).iterations(base.getIterations())
+							.dataBytes(base.getDataBytes()).relocations(base.getRelocations()).mix(mix).ioDevice(base.getIoDevice());
+					String text;
+					try {
+						text = WorkloadGenerator.generate(config);
+					} catch (IllegalArgumentException e) {
+						System.out.printf("%-9s %8d  skipped: %s%n", mix.name().toLowerCase(Locale.ROOT), sections, e.getMessage());
+						continue;
+					}
+					File program = dir.resolve(String.format("%s-%d.obj", mix.name().toLowerCase(Locale.ROOT), sections)).toFile();
+					Files.write(program.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+					Row row = measure(program, mix.name().toLowerCase(Locale.ROOT), sections, text, repeat, lazy, shared, idioms);
+					if (removeDevice) Files.deleteIfExists(device.toPath());
+					rows.add(row);
+					System.out.printf(Locale.ROOT, "%-9s %8d %9d %8d %10.3f %10.3f %12d %9.2f  %s%s%n", row.workload, row.sections, row.objBytes, row.records,
+							row.loadMs, row.runMs, row.steps, row.mips(), row.result, row.pages);
+				}
+			}
+		} finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+			}
+			Files.deleteIfExists(dir);
+			if (removeDevice) Files.deleteIfExists(device.toPath());
+		}
+
+		if (outFile != null) {
+			try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(outFile.toPath(), StandardCharsets.UTF_8))) {
+				out.println(CSV_HEADER);
+				for (Row row : rows) out.println(row.toCsv());
+			}
+		}
+		if (compareFile != null) System.out.print(report(readCsv(compareFile), rows));
+	}
+
+	// 데우기 한 번 + repeat 번. 적재/실행 시간은 각각의 중앙값, 결과와 지문은 매번 같아야 한다.
+	// shared 면 데우기에서 이미지를 만들고 repeat 번은 공유 이미지를 붙인다
+	static Row measure(File program, String workload, int sections, String text, int repeat, boolean lazy, boolean shared, boolean idioms) {
+		double[] load = new double[repeat];
+		double[] run = new double[repeat];
+		RunResult result = null;
+		String fingerprint = null;
+		String pages = "";
+		for (int r = -1; r < repeat; r++) {
+			ResourceManager rMgr = new ResourceManager();
+			try {
+				SicLoader loader = new SicLoader(rMgr);
+				SicSimulator simulator = new SicSimulator(rMgr);
+				loader.setLazy(lazy);
+				long t0 = System.nanoTime();
+				if (shared) loader.loadShared(program);
+				else loader.load(program);
+				simulator.programLoaded();
+				long t1 = System.nanoTime();
+				simulator.setIdiomsEnabled(idioms);
+				RunResult res = simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+				long t2 = System.nanoTime();
+				String fp = String.format("%016X", rMgr.getStateFingerprint());
+				if (fingerprint != null && (!fp.equals(fingerprint) || res.getExecutedInstructions() != result.getExecutedInstructions()))
+					throw new IllegalStateException("Nondeterministic result for " + program + ": " + fp + " vs " + fingerprint);
+				result = res;
+				fingerprint = fp;
+				if (shared) pages = String.format("  pages %d/%d", rMgr.getPrivatePageCount(), rMgr.getMemorySize() >> ResourceManager.PAGE_SHIFT);
+				if (r >= 0) { load[r] = (t1 - t0) / 1e6; run[r] = (t2 - t1) / 1e6; }
+			} finally {
+				rMgr.closeDevices();
+			}
+		}
+		long records = text.lines().filter(l -> !l.isEmpty()).count();
+		String outcome = result.getReason() + "@" + String.format("%06X", result.getPc());
+		Row row = new Row(workload, sections, text.length(), records, median(load), median(run), result.getExecutedInstructions(), outcome, fingerprint);
+		row.pages = pages;
+		return row;
+	}
+
+	private static double median(double[] values) {
+		double[] v = values.clone();
+		Arrays.sort(v);
+		return (v.length % 2 == 1) ? v[v.length / 2] : (v[v.length / 2 - 1] + v[v.length / 2]) / 2;
+	}
+
+	static List<Row> readCsv(File file) throws IOException {
+		List<Row> rows = new ArrayList<>();
+		for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+			if (line.isBlank() || line.startsWith("workload,")) continue;
+			rows.add(Row.parse(line.trim()));
+		}
+		return rows;
+	}
+
+	/** workload/sections 가 같은 줄끼리 짝지어 시간 비율(비교/기준, 1 보다 작으면 빨라짐)을 보인다 */
+	static String report(List<Row> baseline, List<Row> other) {
+		Map<String, Row> before = new LinkedHashMap<>();
+		for (Row row : baseline) before.put(row.key(), row);
+		StringBuilder sb = new StringBuilder(String.format("%-9s %8s %10s %10s %7s %10s %10s %7s  %s%n",
+				"workload", "sections", "loadMs", "->", "ratio", "runMs", "->", "ratio", "note"));
+		double logLoad = 0, logRun = 0;
+		int matched = 0, differing = 0;
+		for (Row b : other) {
+			Row a = before.remove(b.key());
+			if (a == null) { sb.append(String.format("%-9s %8d  only in new results%n", b.workload, b.sections)); continue; }
+			double loadRatio = ratio(b.loadMs, a.loadMs), runRatio = ratio(b.runMs, a.runMs);
+			String note = "";
+			if (!a.fingerprint.equals(b.fingerprint) || !a.result.equals(b.result) || a.steps != b.steps) {
+				note = String.format("RESULT DIFFERS (%s %s -> %s %s)", a.result, a.fingerprint, b.result, b.fingerprint);
+				differing++;
+			} else if (a.objBytes != b.objBytes) note = "object code differs";
+			sb.append(String.format(Locale.ROOT, "%-9s %8d %10.3f %10.3f %7.2f %10.3f %10.3f %7.2f  %s%n",
+					b.workload, b.sections, a.loadMs, b.loadMs, loadRatio, a.runMs, b.runMs, runRatio, note));
+			logLoad += Math.log(loadRatio);
+			logRun += Math.log(runRatio);
+			matched++;
+		}
+		for (Row a : before.values()) sb.append(String.format("%-9s %8d  only in baseline%n", a.workload, a.sections));
+		if (matched > 0)
+			sb.append(String.format(Locale.ROOT, "Geometric mean ratio over %d workloads: load %.3f, run %.3f%n", matched, Math.exp(logLoad / matched), Math.exp(logRun / matched)));
+		if (differing > 0) sb.append(differing).append(" workload(s) produced different results").append(System.lineSeparator());
+		return sb.toString();
+	}
+
+	// 0 ms 로 잰 것은 비율이 의미 없으므로 1 로 둔다
+	private static double ratio(double now, double before) {
+		return (now > 0 && before > 0) ? now / before : 1.0;
+	}
+}
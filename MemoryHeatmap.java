@@ -0,0 +1,89 @@
+package SP25_simulator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 피연산자 메모리 접근 히트맵. 블록(기본 16바이트, 캐시 라인 크기)마다 읽기/쓰기 횟수를 long 배열에 센다.
+ * SicSimulator 의 메모리 이벤트를 구독하므로 memToSignedInt, intToMemBytes, LDCH/STCH, 간접 주소 포인터,
+ * 장치 번호 읽기가 모두 잡힌다 (명령어 가져오기는 제외). 한 접근이 블록 경계에 걸치면 걸친 블록마다 하나씩 센다.
+ * 카운터는 실행 스레드만 갱신하고, GUI 는 그리는 동안 조금 어긋난 값을 볼 수 있다.
+ */
+public class MemoryHeatmap implements ExecutionEvents.MemoryListener {
+	public static final int DEFAULT_BLOCK_SHIFT = 4;
+	public static final int MAX_BLOCK_SHIFT = 12; // 블록은 최대 4KB
+
+	private final int memorySize;
+	private final int blockShift;
+	private final long[] reads;
+	private final long[] writes;
+
+	public MemoryHeatmap(int memorySize) { this(memorySize, DEFAULT_BLOCK_SHIFT); }
+
+	/** blockShift 0 이면 바이트 단위 */
+	public MemoryHeatmap(int memorySize, int blockShift) {
+		if (blockShift < 0 || blockShift > MAX_BLOCK_SHIFT) throw new IllegalArgumentException("Block shift out of range: " + blockShift);
+		this.memorySize = memorySize;
+		this.blockShift = blockShift;
+		int blocks = (memorySize + (1 << blockShift) - 1) >>> blockShift;
+		this.reads = new long[blocks];
+		this.writes = new long[blocks];
+	}
+
+	@Override public void memoryRead(int address, int length) { count(reads, address, length); }
+	@Override public void memoryWritten(int address, int length) { count(writes, address, length); }
+
+	private void count(long[] counters, int address, int length) {
+		if (address < 0 || length <= 0 || address >= memorySize) return;
+		int last = Math.min(address + length, memorySize) - 1;
+		for (int b = address >>> blockShift; b <= last >>> blockShift; b++) counters[b]++;
+	}
+
+	public int getBlockSize() { return 1 << blockShift; }
+	public int getBlockShift() { return blockShift; }
+	public int getBlockCount() { return reads.length; }
+	public long getReads(int block) { return reads[block]; }
+	public long getWrites(int block) { return writes[block]; }
+
+	/** 한 블록의 읽기+쓰기 최댓값 (색 눈금용) */
+	public long getMaxCount() {
+		long max = 0;
+		for (int b = 0; b < reads.length; b++) max = Math.max(max, reads[b] + writes[b]);
+		return max;
+	}
+
+	public void reset() {
+		Arrays.fill(reads, 0);
+		Arrays.fill(writes, 0);
+	}
+
+	/** 접근이 있었던 블록만 "address,end,symbol,reads,writes" 로 쓴다 (주소는 16진수, symbol 은 ESTAB 기준) */
+	public void writeCsv(Path file, SymbolIndex symbols) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("address,end,symbol,reads,writes");
+			for (int b = 0; b < reads.length; b++) {
+				if (reads[b] == 0 && writes[b] == 0) continue;
+				int start = b << blockShift;
+				out.printf("%06X,%06X,%s,%d,%d%n", start, Math.min(start + getBlockSize(), memorySize) - 1, symbols.format(start), reads[b], writes[b]);
+			}
+		}
+	}
+
+	/** 접근이 많은 블록 n 개 (읽기+쓰기 순) */
+	public String topBlocksReport(int n, SymbolIndex symbols) {
+		Integer[] order = new Integer[reads.length];
+		int used = 0;
+		for (int b = 0; b < reads.length; b++) if (reads[b] + writes[b] > 0) order[used++] = b;
+		Arrays.sort(order, 0, used, (x, y) -> Long.compare(reads[y] + writes[y], reads[x] + writes[x]));
+		StringBuilder sb = new StringBuilder(String.format("Heatmap (%d-byte blocks): %d blocks accessed%n", getBlockSize(), used));
+		for (int i = 0; i < Math.min(n, used); i++) {
+			int b = order[i];
+			sb.append(String.format("  %06X %-16s R=%d W=%d%n", b << blockShift, symbols.format(b << blockShift), reads[b], writes[b]));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,15 @@
+package SP25_simulator;
+
+// T 레코드가 로드한 메모리 영역을 나타내는 간단한 클래스
+class MemoryRegion {
+	int startAddress;
+	int length;
+
+	public MemoryRegion(int startAddress, int length) {
+		this.startAddress = startAddress;
+		this.length = length;
+	}
+
+	public int getStartAddress() { return startAddress; }
+	public int getLength() { return length; }
+}
@@ -0,0 +1,85 @@
+package SP25_simulator;
+
+/**
+ * SIC/XE 명령어 메타데이터 표 (첫 바이트 256개 전부). 인터프리터와 같은 규칙으로
+ * 하위 2비트(n,i)를 무시한 opcode 로 찾는다. 형식 1/2 명령어도 마찬가지.
+ */
+public final class OpcodeTable {
+	public static final int FORMAT_UNKNOWN = 0;
+	public static final int FORMAT_1 = 1;
+	public static final int FORMAT_2 = 2;
+	public static final int FORMAT_3_4 = 3;   // 실제 길이는 e 비트로 3 또는 4
+
+	// 피연산자 종류
+	public static final int OPERAND_NONE = 0;      // FIX, RSUB ...
+	public static final int OPERAND_MEMORY = 1;    // 형식 3/4 메모리 피연산자
+	public static final int OPERAND_R1 = 2;        // CLEAR r1, TIXR r1
+	public static final int OPERAND_R1_R2 = 3;     // ADDR r1,r2 ...
+	public static final int OPERAND_R1_N = 4;      // SHIFTL r1,n
+	public static final int OPERAND_N = 5;         // SVC n
+
+	private static final String[] MNEMONIC = new String[256];
+	private static final int[] FORMAT = new int[256];
+	private static final int[] OPERAND = new int[256];
+
+	private static void define(int opcode, String mnemonic, int format, int operand) {
+		for (int low = 0; low < 4; low++) {
+			MNEMONIC[opcode | low] = mnemonic;
+			FORMAT[opcode | low] = format;
+			OPERAND[opcode | low] = operand;
+		}
+	}
+
+	static {
+		define(0x00, "LDA", FORMAT_3_4, OPERAND_MEMORY);   define(0x04, "LDX", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x08, "LDL", FORMAT_3_4, OPERAND_MEMORY);   define(0x0C, "STA", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x10, "STX", FORMAT_3_4, OPERAND_MEMORY);   define(0x14, "STL", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x18, "ADD", FORMAT_3_4, OPERAND_MEMORY);   define(0x1C, "SUB", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x20, "MUL", FORMAT_3_4, OPERAND_MEMORY);   define(0x24, "DIV", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x28, "COMP", FORMAT_3_4, OPERAND_MEMORY);  define(0x2C, "TIX", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x30, "JEQ", FORMAT_3_4, OPERAND_MEMORY);   define(0x34, "JGT", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x38, "JLT", FORMAT_3_4, OPERAND_MEMORY);   define(0x3C, "J", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x48, "JSUB", FORMAT_3_4, OPERAND_MEMORY);  define(0x4C, "RSUB", FORMAT_3_4, OPERAND_NONE);
+		define(0x50, "LDCH", FORMAT_3_4, OPERAND_MEMORY);  define(0x54, "STCH", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x68, "LDB", FORMAT_3_4, OPERAND_MEMORY);   define(0x6C, "LDS", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x74, "LDT", FORMAT_3_4, OPERAND_MEMORY);   define(0x78, "STB", FORMAT_3_4, OPERAND_MEMORY);
+		define(0x7C, "STS", FORMAT_3_4, OPERAND_MEMORY);   define(0x84, "STT", FORMAT_3_4, OPERAND_MEMORY);
+		define(0xE8, "STSW", FORMAT_3_4, OPERAND_MEMORY);  define(0xD8, "RD", FORMAT_3_4, OPERAND_MEMORY);
+		define(0xDC, "WD", FORMAT_3_4, OPERAND_MEMORY);    define(0xE0, "TD", FORMAT_3_4, OPERAND_MEMORY);
+
+		define(0x90, "ADDR", FORMAT_2, OPERAND_R1_R2);     define(0x94, "SUBR", FORMAT_2, OPERAND_R1_R2);
+		define(0x98, "MULR", FORMAT_2, OPERAND_R1_R2);     define(0x9C, "DIVR", FORMAT_2, OPERAND_R1_R2);
+		define(0xA0, "COMPR", FORMAT_2, OPERAND_R1_R2);    define(0xAC, "RMO", FORMAT_2, OPERAND_R1_R2);
+		define(0xA4, "SHIFTL", FORMAT_2, OPERAND_R1_N);    define(0xA8, "SHIFTR", FORMAT_2, OPERAND_R1_N);
+		define(0xB0, "SVC", FORMAT_2, OPERAND_N);          define(0xB4, "CLEAR", FORMAT_2, OPERAND_R1);
+		define(0xB8, "TIXR", FORMAT_2, OPERAND_R1);
+
+		define(0xC0, "FLOAT", FORMAT_1, OPERAND_NONE);     define(0xC4, "FIX", FORMAT_1, OPERAND_NONE);
+		define(0xC8, "NORM", FORMAT_1, OPERAND_NONE);      define(0xF0, "SIO", FORMAT_1, OPERAND_NONE);
+		define(0xF4, "HIO", FORMAT_1, OPERAND_NONE);       define(0xF8, "TIO", FORMAT_1, OPERAND_NONE);
+	}
+
+	private static final String[] REGISTER_NAMES = {"A", "X", "L", "B", "S", "T", "F", "?", "PC", "SW"};
+
+	private OpcodeTable() {}
+
+	/** 표에 없는 opcode 면 null */
+	public static String mnemonic(int opcodeByte) { return MNEMONIC[opcodeByte & 0xFF]; }
+	public static int format(int opcodeByte) { return FORMAT[opcodeByte & 0xFF]; }
+	public static int operandKind(int opcodeByte) { return OPERAND[opcodeByte & 0xFF]; }
+	public static boolean isKnown(int opcodeByte) { return MNEMONIC[opcodeByte & 0xFF] != null; }
+
+	/** 첫 두 바이트로 명령어 길이 결정 (형식 3/4 는 e 비트). 모르는 opcode 는 0 */
+	public static int length(int opcodeByte, int secondByte) {
+		switch (FORMAT[opcodeByte & 0xFF]) {
+			case FORMAT_1: return 1;
+			case FORMAT_2: return 2;
+			case FORMAT_3_4: return (secondByte & 0x10) != 0 ? 4 : 3;
+			default: return 0;
+		}
+	}
+
+	public static String registerName(int reg) {
+		return (reg >= 0 && reg < REGISTER_NAMES.length) ? REGISTER_NAMES[reg] : "r" + reg;
+	}
+}
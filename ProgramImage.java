@@ -0,0 +1,32 @@
+package SP25_simulator;
+
+/**
+ * 적재가 끝난 프로그램의 읽기 전용 메모리 이미지 (ResourceManager.shareImage() 로 만든다).
+ * 같은 프로그램을 여러 머신에서 동시에 돌릴 때 ResourceManager.mapImage() 로 페이지 배열을 그대로 공유하고,
+ * 각 머신은 처음 쓰는 페이지만 복사한다. 페이지 배열은 만든 뒤로 아무도 쓰지 않으므로 스레드 사이에 그냥 넘겨도 된다.
+ */
+public final class ProgramImage {
+	private final byte[][] pages;
+	private final ResourceManager info; // 적재 정보(ESTAB, 영역, 섹션, 시작 주소)만 담은 ResourceManager. 실행하지 않는다
+
+	ProgramImage(byte[][] pages, ResourceManager info) {
+		this.pages = pages;
+		this.info = info;
+	}
+
+	int pageCount() { return pages.length; }
+	byte[] page(int p) { return pages[p]; }
+	ResourceManager info() { return info; }
+
+	public String getProgramName() { return info.getProgramName(); }
+	public int getFirstInstructionAddress() { return info.getFirstInstructionAddress(); }
+
+	/** 0 이 아닌 내용이 있는 페이지 수 (공유로 아끼는 메모리 가늠용) */
+	public int getLoadedPageCount() {
+		int n = 0;
+		for (byte[] page : pages) {
+			for (byte b : page) if (b != 0) { n++; break; }
+		}
+		return n;
+	}
+}
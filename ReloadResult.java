@@ -0,0 +1,35 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// SicLoader.reload() 결과: 덮어쓴 구간, 섹션 단위 변경 내역, 재적재 전 심볼 색인(브레이크포인트 이동용)
+class ReloadResult {
+	private final List<MemoryRegion> patches = new ArrayList<>();
+	private final List<String> sectionChanges = new ArrayList<>();
+	private boolean layoutChanged;
+	private SymbolIndex oldSymbols = SymbolIndex.EMPTY;
+	private int patchedBytes;
+
+	void addPatch(int address, int length) {
+		MemoryRegion last = patches.isEmpty() ? null : patches.get(patches.size() - 1);
+		if (last != null && last.getStartAddress() + last.getLength() == address) patches.set(patches.size() - 1, new MemoryRegion(last.getStartAddress(), last.getLength() + length));
+		else patches.add(new MemoryRegion(address, length));
+		patchedBytes += length;
+	}
+	void addSectionChange(String change) { sectionChanges.add(change); }
+	void setLayoutChanged(boolean layoutChanged) { this.layoutChanged = layoutChanged; }
+	void setOldSymbols(SymbolIndex oldSymbols) { this.oldSymbols = oldSymbols; }
+
+	public List<MemoryRegion> getPatches() { return patches; }
+	public int getPatchedBytes() { return patchedBytes; }
+	public List<String> getSectionChanges() { return sectionChanges; }
+	public boolean isLayoutChanged() { return layoutChanged; } // T 레코드 영역 목록이 바뀌었는지
+	public SymbolIndex getOldSymbols() { return oldSymbols; }
+
+	@Override
+	public String toString() {
+		return String.format("patched %d bytes in %d ranges%s%s", patchedBytes, patches.size(),
+				layoutChanged ? ", layout changed" : "", sectionChanges.isEmpty() ? "" : "; " + String.join(", ", sectionChanges));
+	}
+}
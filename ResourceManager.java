@@ -3,24 +3,17 @@ package SP25_simulator;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
-
-// T 레코드가 로드한 메모리 영역을 나타내는 간단한 클래스
-class MemoryRegion {
-	int startAddress;
-	int length;
-
-	public MemoryRegion(int startAddress, int length) {
-		this.startAddress = startAddress;
-		this.length = length;
-	}
-
-	public int getStartAddress() { return startAddress; }
-	public int getLength() { return length; }
-}
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 public class ResourceManager {
 
@@ -35,7 +28,10 @@ public class ResourceManager {
 	public static final int REG_SW = 9;
 
 	HashMap<String, RandomAccessFile> deviceManager;
-	byte[] memory;
+	private final Set<String> usedDevices; // TD/RD/WD/채널이 건드린 장치 이름
+	// 결과 캐시용: 내용을 읽은 장치(RD/채널 읽기)와, 쓴 장치 -> 쓴 끝 위치 (TD 는 없던 파일을 만들므로 0 으로 넣는다)
+	private final Set<String> inputDevices;
+	private final Map<String, Long> deviceWriteEnds;
 	int[] register;
 	double register_F;
 
@@ -47,116 +43,479 @@ public class ResourceManager {
 	private String lastAccessedDeviceName;
 	private HashMap<String, Integer> estab;
 	private List<MemoryRegion> tRecordLoadedRegions; // T 레코드로 실제 데이터가 로드된 영역
+	private List<ControlSection> controlSections;
+	private SymbolIndex symbolIndex = SymbolIndex.EMPTY; // 로드 완료 후 rebuildSymbolIndex()로 생성
+	private volatile TRecordPager pager; // 지연 적재 모드에서만 설정, 모든 페이지가 적재되면 null
+	private final ChannelIo channels; // SIO/TIO/HIO 입출력 채널 (CPU 뷰와 공유)
+
+	// SMP 모드: 워드(3바이트) 접근은 16바이트 단위 스트라이프 락으로 원자적으로 처리한다.
+	// 겹치는 두 워드는 적어도 한 스트라이프를 공유하므로 서로 배제되고, 락은 항상 낮은 번호부터 잡는다.
+	// 바이트 접근은 락 없이 acquire/release 로 읽고 쓴다. 단일 CPU 에서는 wordLocks 가 null 이라 비용이 없다.
+	private static final int WORD_LOCK_SHIFT = 4;
+	private static final VarHandle MEMORY_BYTE = MethodHandles.arrayElementVarHandle(byte[].class);
+	private static final VarHandle MEMORY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN); // 페이지 해시용
+	private static final VarHandle PAGE_REF = MethodHandles.arrayElementVarHandle(byte[][].class);
+	private Object[] wordLocks;
+
+	// 페이지(256바이트)별 쓰기 버전. 쓰기 경로마다 올리므로 캐시(역어셈블 결과 등)는 버전만 비교해 무효화를 판단한다.
+	// CPU 뷰와 공유하며, SMP 모드에서는 락 없이 올리므로 "바뀌었을 수 있다"는 힌트로만 쓴다.
+	public static final int PAGE_SHIFT = 8;
+	public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+	private int[] pageVersions;
+	// 페이지 해시 캐시: hashedVersions[p] 가 pageVersions[p] 와 같으면 pageHashes[p] 는 최신이다 (CPU 뷰와 공유)
+	private long[] pageHashes;
+	private int[] hashedVersions;
+
+	// 메모리는 페이지 테이블이다. basePages 는 읽기 전용 원본(ProgramImage 의 페이지 또는 ZERO_PAGE)이고
+	// pages[p] == basePages[p] 인 동안은 여러 ResourceManager 가 같은 배열을 읽기만 한다. 처음 쓸 때 그 페이지만
+	// 이 머신 전용으로 복사하므로 같은 프로그램을 N 개 돌려도 메모리는 머신마다 쓴 페이지만큼만 는다.
+	// 두 배열은 CPU 뷰와 공유하고 내용만 바꾼다 (다시 만들지 않는다).
+	private static final byte[] ZERO_PAGE = new byte[PAGE_SIZE];
+	private final int memorySize;
+	private final byte[][] pages;
+	private final byte[][] basePages;
+
+	// SMP 용 CPU 뷰: 메모리, 장치, ESTAB 과 적재 정보는 shared 와 공유하고 레지스터만 따로 가진다
+	private ResourceManager(ResourceManager shared) {
+		this.memorySize = shared.memorySize;
+		this.pages = shared.pages;
+		this.basePages = shared.basePages;
+		this.channels = shared.channels;
+		this.register = new int[10];
+		this.deviceManager = shared.deviceManager;
+		this.usedDevices = shared.usedDevices;
+		this.inputDevices = shared.inputDevices;
+		this.deviceWriteEnds = shared.deviceWriteEnds;
+		this.estab = shared.estab;
+		this.tRecordLoadedRegions = shared.tRecordLoadedRegions;
+		this.controlSections = shared.controlSections;
+		this.symbolIndex = shared.symbolIndex;
+		this.pager = shared.pager;
+		this.programName = shared.programName;
+		this.hRecordObjectProgramStartAddress = shared.hRecordObjectProgramStartAddress;
+		this.programTotalLength = shared.programTotalLength;
+		this.actualProgramLoadAddress = shared.actualProgramLoadAddress;
+		this.firstInstructionAddress = shared.firstInstructionAddress;
+		this.lastAccessedDeviceName = "";
+		this.wordLocks = shared.wordLocks;
+		this.pageVersions = shared.pageVersions;
+		this.pageHashes = shared.pageHashes;
+		this.hashedVersions = shared.hashedVersions;
+	}
+
+	/** 적재가 끝난 뒤 CPU 마다 하나씩 만든다. 처음 부르면 이 ResourceManager 도 SMP 모드(워드 락 사용)로 바뀐다. */
+	public synchronized ResourceManager createCpuView() {
+		if (wordLocks == null) {
+			Object[] locks = new Object[(memorySize >> WORD_LOCK_SHIFT) + 1];
+			for (int i = 0; i < locks.length; i++) locks[i] = new Object();
+			wordLocks = locks;
+		}
+		return new ResourceManager(this);
+	}
+
+	public boolean isSmp() { return wordLocks != null; }
 
 	public ResourceManager() {
-		this.memory = new byte[1 << 16];
+		this.memorySize = 1 << 16;
+		this.pages = new byte[memorySize >>> PAGE_SHIFT][];
+		this.basePages = new byte[pages.length][];
+		this.pageVersions = new int[pages.length];
+		this.pageHashes = new long[pageVersions.length];
+		this.hashedVersions = new int[pageVersions.length];
+		Arrays.fill(hashedVersions, -1);
 		this.register = new int[10];
 		this.deviceManager = new HashMap<>();
+		this.usedDevices = new TreeSet<>();
+		this.inputDevices = new TreeSet<>();
+		this.deviceWriteEnds = new TreeMap<>();
 		this.estab = new HashMap<>();
 		this.tRecordLoadedRegions = new ArrayList<>();
+		this.controlSections = new ArrayList<>();
+		this.channels = new ChannelIo(this);
 		initializeResource();
 	}
 
 	public void initializeResource() {
-		Arrays.fill(memory, (byte) 0x00);
+		Arrays.fill(pages, ZERO_PAGE);
+		Arrays.fill(basePages, ZERO_PAGE);
+		touchPages(0, memorySize);
 		for (int i = 0; i < register.length; i++) { register[i] = 0; }
 		register_F = 0.0; programName = ""; hRecordObjectProgramStartAddress = 0;
 		programTotalLength = 0; actualProgramLoadAddress = 0; firstInstructionAddress = 0;
 		lastAccessedDeviceName = "";
+		synchronized (deviceManager) { usedDevices.clear(); inputDevices.clear(); deviceWriteEnds.clear(); }
 		if (estab != null) estab.clear(); else estab = new HashMap<>();
 		if (tRecordLoadedRegions != null) tRecordLoadedRegions.clear(); else tRecordLoadedRegions = new ArrayList<>();
+		if (controlSections != null) controlSections.clear(); else controlSections = new ArrayList<>();
+		symbolIndex = SymbolIndex.EMPTY;
+		pager = null;
+		channels.reset();
 		closeDevices();
 	}
 
+	public ChannelIo getChannels() { return channels; }
+
+	/** 적재 이후 프로그램이 건드린 장치 이름들 (정렬됨, 복사본) */
+	public Set<String> getUsedDevices() {
+		synchronized (deviceManager) { return new TreeSet<>(usedDevices); }
+	}
+
+	/** 적재 이후 프로그램이 내용을 읽은 장치 이름들 (RD, 채널 읽기. 정렬됨, 복사본) */
+	public Set<String> getInputDevices() {
+		synchronized (deviceManager) { return new TreeSet<>(inputDevices); }
+	}
+
+	/** 적재 이후 프로그램이 쓴 장치 -> 처음부터 쓴 끝 위치 (WD, 채널 쓰기. TD 로 만든 파일은 0. 정렬됨, 복사본) */
+	public Map<String, Long> getDeviceWriteEnds() {
+		synchronized (deviceManager) { return new TreeMap<>(deviceWriteEnds); }
+	}
+
 	public void closeDevices() {
-		for (RandomAccessFile raf : deviceManager.values()) {
-			try { if (raf != null) raf.close(); }
-			catch (IOException e) { System.err.println("Error closing device RAF: " + e.getMessage()); }
+		synchronized (deviceManager) { // SMP 모드에서는 모든 CPU 뷰가 같은 장치 맵을 쓴다
+			for (RandomAccessFile raf : deviceManager.values()) {
+				try { if (raf != null) raf.close(); }
+				catch (IOException e) { System.err.println("Error closing device RAF: " + e.getMessage()); }
+			}
+			deviceManager.clear();
 		}
-		deviceManager.clear();
 	}
 
 	public boolean testDevice(String devName) {
-		if (devName == null || devName.trim().isEmpty()) { return false; }
-		lastAccessedDeviceName = devName.trim();
-		try {
-			if (devName.equalsIgnoreCase("STDIN") || devName.equals("00") ||
-					devName.equalsIgnoreCase("STDOUT") || devName.equals("01") ||
-					devName.equalsIgnoreCase("STDERR") || devName.equals("02")) {
-				return true;
-			}
-			File deviceFile = new File(devName.trim());
-			if (!deviceFile.exists()) {
-				try {
-					File parentDir = deviceFile.getParentFile();
-					if (parentDir != null && !parentDir.exists()) { if (!parentDir.mkdirs()) { /* ignore */ } }
-					if (deviceFile.createNewFile()) { return true; }
-					else { return deviceFile.exists(); }
-				} catch (IOException | SecurityException e) { return false; }
-			} else { return true; }
-		} catch (Exception e) { return false; }
+		synchronized (deviceManager) { // SMP 모드에서는 모든 CPU 뷰가 같은 장치 맵을 쓴다
+			if (devName == null || devName.trim().isEmpty()) { return false; }
+			lastAccessedDeviceName = devName.trim(); usedDevices.add(lastAccessedDeviceName);
+			try {
+				if (devName.equalsIgnoreCase("STDIN") || devName.equals("00") ||
+						devName.equalsIgnoreCase("STDOUT") || devName.equals("01") ||
+						devName.equalsIgnoreCase("STDERR") || devName.equals("02")) {
+					return true;
+				}
+				File deviceFile = new File(devName.trim());
+				if (!deviceFile.exists()) {
+					try {
+						File parentDir = deviceFile.getParentFile();
+						if (parentDir != null && !parentDir.exists()) { if (!parentDir.mkdirs()) { /* ignore */ } }
+						if (deviceFile.createNewFile()) { deviceWriteEnds.putIfAbsent(lastAccessedDeviceName, 0L); return true; }
+						else { return deviceFile.exists(); }
+					} catch (IOException | SecurityException e) { return false; }
+				} else { return true; }
+			} catch (Exception e) { return false; }
+		}
 	}
 
 	public char[] readDevice(String devName, int num) {
-		if (devName == null || devName.trim().isEmpty() || num <= 0) return new char[0];
-		lastAccessedDeviceName = devName.trim(); char[] buffer = new char[num]; Arrays.fill(buffer, (char)0x00);
-		try {
-			RandomAccessFile raf;
-			if (deviceManager.containsKey(devName) && deviceManager.get(devName) != null) raf = deviceManager.get(devName);
-			else {
-				if (devName.equalsIgnoreCase("STDIN") || devName.equals("00")) { return buffer; }
-				File deviceFile = new File(devName.trim());
-				if (!deviceFile.exists() || !deviceFile.canRead()) { return new char[0]; }
-				raf = new RandomAccessFile(deviceFile, "r"); deviceManager.put(devName, raf);
-			}
-			byte[] byteBuffer = new byte[num]; int bytesActuallyRead = raf.read(byteBuffer, 0, num);
-			if (bytesActuallyRead == -1) { return new char[0]; }
-			for(int i=0; i < bytesActuallyRead; i++) buffer[i] = (char) (byteBuffer[i] & 0xFF);
-			return Arrays.copyOf(buffer, bytesActuallyRead);
-		} catch (IOException e) { return new char[0]; }
+		synchronized (deviceManager) { // SMP 모드에서는 모든 CPU 뷰가 같은 장치 맵을 쓴다
+			if (devName == null || devName.trim().isEmpty() || num <= 0) return new char[0];
+			lastAccessedDeviceName = devName.trim(); usedDevices.add(lastAccessedDeviceName); inputDevices.add(lastAccessedDeviceName); char[] buffer = new char[num]; Arrays.fill(buffer, (char)0x00);
+			try {
+				RandomAccessFile raf;
+				if (deviceManager.containsKey(devName) && deviceManager.get(devName) != null) raf = deviceManager.get(devName);
+				else {
+					if (devName.equalsIgnoreCase("STDIN") || devName.equals("00")) { return buffer; }
+					File deviceFile = new File(devName.trim());
+					if (!deviceFile.exists() || !deviceFile.canRead()) { return new char[0]; }
+					raf = new RandomAccessFile(deviceFile, "r"); deviceManager.put(devName, raf);
+				}
+				byte[] byteBuffer = new byte[num]; int bytesActuallyRead = raf.read(byteBuffer, 0, num);
+				if (bytesActuallyRead == -1) { return new char[0]; }
+				for(int i=0; i < bytesActuallyRead; i++) buffer[i] = (char) (byteBuffer[i] & 0xFF);
+				return Arrays.copyOf(buffer, bytesActuallyRead);
+			} catch (IOException e) { return new char[0]; }
+		}
 	}
 
 	public void writeDevice(String devName, char[] data, int num) {
-		if (devName == null || devName.trim().isEmpty() || data == null || num <= 0 || data.length < num) return;
-		lastAccessedDeviceName = devName.trim();
-		try {
-			RandomAccessFile raf;
-			if (deviceManager.containsKey(devName) && deviceManager.get(devName) != null) raf = deviceManager.get(devName);
-			else {
-				if (devName.equalsIgnoreCase("STDOUT") || devName.equals("01")) { System.out.print(new String(data, 0, num)); return; }
-				if (devName.equalsIgnoreCase("STDERR") || devName.equals("02")) { System.err.print(new String(data, 0, num)); return; }
-				File deviceFile = new File(devName.trim());
-				raf = new RandomAccessFile(deviceFile, "rw"); deviceManager.put(devName, raf);
-			}
-			byte[] byteData = new byte[num]; for(int i=0; i<num; i++) byteData[i] = (byte)data[i]; raf.write(byteData, 0, num);
-		} catch (IOException e) { System.err.println("[ResourceManager.writeDevice] Error writing: " + e.getMessage()); }
+		synchronized (deviceManager) { // SMP 모드에서는 모든 CPU 뷰가 같은 장치 맵을 쓴다
+			if (devName == null || devName.trim().isEmpty() || data == null || num <= 0 || data.length < num) return;
+			lastAccessedDeviceName = devName.trim(); usedDevices.add(lastAccessedDeviceName);
+			try {
+				RandomAccessFile raf;
+				if (deviceManager.containsKey(devName) && deviceManager.get(devName) != null) raf = deviceManager.get(devName);
+				else {
+					if (devName.equalsIgnoreCase("STDOUT") || devName.equals("01")) { System.out.print(new String(data, 0, num)); return; }
+					if (devName.equalsIgnoreCase("STDERR") || devName.equals("02")) { System.err.print(new String(data, 0, num)); return; }
+					File deviceFile = new File(devName.trim());
+					raf = new RandomAccessFile(deviceFile, "rw"); deviceManager.put(devName, raf);
+				}
+				byte[] byteData = new byte[num]; for(int i=0; i<num; i++) byteData[i] = (byte)data[i]; raf.write(byteData, 0, num);
+				deviceWriteEnds.merge(lastAccessedDeviceName, raf.getFilePointer(), Math::max);
+			} catch (IOException e) { System.err.println("[ResourceManager.writeDevice] Error writing: " + e.getMessage()); }
+		}
+	}
+
+	// 지연 적재 모드: 접근하려는 페이지가 아직 적재되지 않았으면 여기서 적재한다 (읽지 못하면 UncheckedIOException)
+	private void faultIn(int location, int num) {
+		TRecordPager p = pager;
+		if (p == null || p.isResident(location, num)) return;
+		p.fault(this, location, num);
+		if (p.isFullyResident()) pager = null;
+	}
+
+	// [location, location+num) 이 걸친 페이지들의 버전을 올린다 (poke 로 직접 쓴 쪽도 불러야 한다)
+	void touchPages(int location, int num) {
+		if (num <= 0) return;
+		for (int p = location >>> PAGE_SHIFT, last = (location + num - 1) >>> PAGE_SHIFT; p <= last; p++) pageVersions[p]++;
+	}
+
+	public int getPageCount() { return pageVersions.length; }
+	public int getPageVersion(int page) { return pageVersions[page]; }
+
+	// --- 페이지 테이블과 쓸 때 복사 ---
+
+	// 읽기용 페이지. SMP 모드에서는 다른 CPU 가 막 복사해 넣은 페이지를 보도록 acquire 로 읽는다
+	private byte[] page(int p) {
+		return wordLocks != null ? (byte[]) PAGE_REF.getAcquire(pages, p) : pages[p];
+	}
+
+	// 쓰기용 페이지: 아직 공유 중이면 지금 이 머신 전용으로 복사한다
+	byte[] writablePage(int p) {
+		byte[] page = page(p);
+		return page != basePages[p] ? page : copyPage(p);
+	}
+
+	private byte[] copyPage(int p) {
+		synchronized (pages) { // SMP 모드에서 두 CPU 가 같은 페이지를 동시에 복사하지 않도록
+			byte[] page = pages[p];
+			if (page != basePages[p]) return page;
+			byte[] copy = page.clone();
+			PAGE_REF.setRelease(pages, p, copy);
+			return copy;
+		}
+	}
+
+	// 범위 검사, 지연 적재, 페이지 버전 갱신 없이 한 바이트를 읽고 쓴다 (적재기/페이저용)
+	byte peek(int location) { return page(location >>> PAGE_SHIFT)[location & PAGE_MASK]; }
+	void poke(int location, byte value) { writablePage(location >>> PAGE_SHIFT)[location & PAGE_MASK] = value; }
+
+	/** 이 머신이 복사해서 가진 페이지 수 (나머지는 프로그램 이미지나 0 페이지를 공유) */
+	public int getPrivatePageCount() {
+		int n = 0;
+		for (int p = 0; p < pages.length; p++) if (page(p) != basePages[p]) n++;
+		return n;
+	}
+
+	/**
+	 * 지금 메모리를 읽기 전용 이미지로 얼린다. 이후로는 이 머신도 쓸 때 복사하므로 이미지 내용은 바뀌지 않는다.
+	 * 지연 적재 중이면 먼저 모두 적재한다. 적재 정보(ESTAB, 영역, 섹션, 시작 주소)도 함께 복사해 둔다. 실행이 멈춘 상태에서 부를 것.
+	 */
+	public synchronized ProgramImage shareImage() {
+		faultInAll();
+		for (int p = 0; p < pages.length; p++) basePages[p] = page(p);
+		ResourceManager info = new ResourceManager();
+		info.adoptProgramInfo(this);
+		return new ProgramImage(basePages.clone(), info);
+	}
+
+	/** 초기화한 뒤 image 의 페이지를 공유해서 붙이고 적재 정보를 가져온다. 복사는 처음 쓰는 페이지에서만 일어난다 */
+	public void mapImage(ProgramImage image) {
+		if (image.pageCount() != pages.length) throw new IllegalArgumentException("Image page count mismatch: " + image.pageCount() + " vs " + pages.length);
+		initializeResource();
+		for (int p = 0; p < pages.length; p++) { basePages[p] = image.page(p); pages[p] = basePages[p]; }
+		touchPages(0, memorySize);
+		adoptProgramInfo(image.info());
+	}
+
+	// --- 페이지 해시와 상태 지문: 두 실행(또는 두 엔진)을 O(페이지 수)로 비교 ---
+	// 해시는 마지막으로 계산한 뒤 쓰기가 있었던 페이지만 다시 계산한다. 실행이 멈춘 상태에서 부를 것.
+
+	public long getPageHash(int page) {
+		int version = pageVersions[page];
+		if (hashedVersions[page] == version) return pageHashes[page];
+		int base = page << PAGE_SHIFT;
+		faultIn(base, PAGE_SIZE);
+		byte[] data = page(page);
+		long h = page;
+		for (int i = 0; i < PAGE_SIZE; i += 8) h = Long.rotateLeft((h ^ (long) MEMORY_LONG.get(data, i)) * 0x9E3779B97F4A7C15L, 29);
+		h = mix64(h);
+		pageHashes[page] = h;
+		hashedVersions[page] = version;
+		return h;
+	}
+
+	/** 메모리 전체(페이지 해시)와 레지스터, F 를 합친 64비트 지문 */
+	public long getStateFingerprint() {
+		long h = 0;
+		for (int p = 0; p < pageVersions.length; p++) h = mix64(h ^ getPageHash(p));
+		for (int r = 0; r < register.length; r++) if (r != REG_F && r != 7) h = mix64(h ^ register[r]);
+		return mix64(h ^ Double.doubleToRawLongBits(register_F));
+	}
+
+	/** 해시가 다른 페이지 번호들 (오름차순). 메모리 크기가 다르면 IllegalArgumentException */
+	public int[] diffPages(ResourceManager other) {
+		if (other.memorySize != memorySize) throw new IllegalArgumentException("Memory size mismatch: " + memorySize + " vs " + other.memorySize);
+		boolean resident = pager == null && other.pager == null; // 같은 이미지를 공유하는 페이지는 해시 없이 같다고 본다
+		int[] diff = new int[pageVersions.length];
+		int n = 0;
+		for (int p = 0; p < pageVersions.length; p++) {
+			if (resident && page(p) == other.page(p)) continue;
+			if (getPageHash(p) != other.getPageHash(p)) diff[n++] = p;
+		}
+		return Arrays.copyOf(diff, n);
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	void setPager(TRecordPager pager) { this.pager = pager; }
+	public boolean isLazyLoading() { return pager != null; }
+
+	// 메모리 전체를 한꺼번에 읽는 쪽(트레이스 초기 이미지, 이미지 공유 등)을 위해 남은 페이지를 모두 적재
+	public void faultInAll() {
+		TRecordPager p = pager;
+		if (p == null) return;
+		p.faultAll(this);
+		pager = null;
 	}
 
 	public byte[] getMemory(int location, int num) {
-		if (location < 0 || num <= 0 || location + num > memory.length) {
+		if (location < 0 || num <= 0 || location + num > memorySize) {
 			return new byte[0];
 		}
 		byte[] data = new byte[num];
-		System.arraycopy(memory, location, data, 0, num);
+		readMemory(location, data, 0, num);
 		return data;
 	}
 
+	/** [location, location+num) 을 dest[offset..] 로 복사 (할당 없음). 범위를 벗어나면 IndexOutOfBoundsException */
+	public void readMemory(int location, byte[] dest, int offset, int num) {
+		checkRange(location, num);
+		for (int done = 0, n; done < num; done += n) {
+			int at = location + done;
+			n = Math.min(num - done, PAGE_SIZE - (at & PAGE_MASK));
+			System.arraycopy(page(at >>> PAGE_SHIFT), at & PAGE_MASK, dest, offset + done, n);
+		}
+	}
+
 	public void setMemory(int location, byte[] data, int num) {
-		if (location < 0 || data == null || num < 0 || location + num > memory.length || data.length < num) return;
-		System.arraycopy(data, 0, memory, location, num);
+		if (location < 0 || data == null || num < 0 || location + num > memorySize || data.length < num) return;
+		faultIn(location, num);
+		for (int done = 0, n; done < num; done += n) {
+			int at = location + done;
+			n = Math.min(num - done, PAGE_SIZE - (at & PAGE_MASK));
+			System.arraycopy(data, done, writablePage(at >>> PAGE_SHIFT), at & PAGE_MASK, n);
+		}
+		touchPages(location, num);
 	}
 
 	public void setMemoryHex(int location, String hexString) {
 		if (hexString == null || hexString.length() % 2 != 0) return;
 		int numBytes = hexString.length() / 2;
-		if (location < 0 || location + numBytes > memory.length) return;
+		if (location < 0 || location + numBytes > memorySize) return;
+		faultIn(location, numBytes);
+		touchPages(location, numBytes);
 		for (int i = 0; i < numBytes; i++) {
 			String byteStr = hexString.substring(i * 2, i * 2 + 2);
-			try { memory[location + i] = (byte) Integer.parseInt(byteStr, 16); }
+			try { poke(location + i, (byte) Integer.parseInt(byteStr, 16)); }
 			catch (NumberFormatException e) { System.err.println("[ResourceManager.setMemoryHex] Error parsing: "+byteStr); return; }
 		}
 	}
 
+	// --- 할당 없는 타입별 메모리 접근: 범위 검사는 한 번, 벗어나면 IndexOutOfBoundsException ---
+	// (인터프리터는 호출 전에 이미 범위를 검사하므로 정상 경로에서는 예외가 나지 않는다)
+	public int getMemorySize() { return memorySize; }
+
+	public boolean isValidRange(int location, int num) {
+		return location >= 0 && num >= 0 && location <= memorySize - num;
+	}
+
+	private void checkRange(int location, int num) {
+		if (!isValidRange(location, num)) throw new IndexOutOfBoundsException("Memory access 0x" + Integer.toHexString(location) + "+" + num);
+		faultIn(location, num);
+	}
+
+	// 부호 없는 1바이트 (0..255)
+	public int readByte(int location) {
+		checkRange(location, 1);
+		byte[] page = page(location >>> PAGE_SHIFT);
+		if (wordLocks != null) return (byte) MEMORY_BYTE.getAcquire(page, location & PAGE_MASK) & 0xFF;
+		return page[location & PAGE_MASK] & 0xFF;
+	}
+
+	// 24비트 워드, 부호 확장 (byteToInt(getMemory(location,3)) 와 같은 값)
+	public int readWord(int location) {
+		checkRange(location, 3);
+		Object[] locks = wordLocks;
+		if (locks == null) return loadWord(location);
+		synchronized (locks[location >>> WORD_LOCK_SHIFT]) {
+			synchronized (locks[(location + 2) >>> WORD_LOCK_SHIFT]) { return loadWord(location); }
+		}
+	}
+
+	public void writeByte(int location, int value) {
+		checkRange(location, 1);
+		byte[] page = writablePage(location >>> PAGE_SHIFT);
+		if (wordLocks != null) MEMORY_BYTE.setRelease(page, location & PAGE_MASK, (byte) value);
+		else page[location & PAGE_MASK] = (byte) value;
+		pageVersions[location >>> PAGE_SHIFT]++;
+	}
+
+	public void writeWord(int location, int value) {
+		checkRange(location, 3);
+		Object[] locks = wordLocks;
+		if (locks == null) storeWord(location, value);
+		else synchronized (locks[location >>> WORD_LOCK_SHIFT]) {
+			synchronized (locks[(location + 2) >>> WORD_LOCK_SHIFT]) { storeWord(location, value); }
+		}
+		pageVersions[location >>> PAGE_SHIFT]++;
+		if (((location + 2) >>> PAGE_SHIFT) != (location >>> PAGE_SHIFT)) pageVersions[(location + 2) >>> PAGE_SHIFT]++;
+	}
+
+	// 페이지 경계에 걸친 워드만 바이트 단위로 처리한다
+	private int loadWord(int location) {
+		int off = location & PAGE_MASK;
+		if (off > PAGE_SIZE - 3) return (peek(location) << 16) | ((peek(location + 1) & 0xFF) << 8) | (peek(location + 2) & 0xFF);
+		byte[] page = page(location >>> PAGE_SHIFT);
+		return (page[off] << 16) | ((page[off + 1] & 0xFF) << 8) | (page[off + 2] & 0xFF);
+	}
+
+	private void storeWord(int location, int value) {
+		int off = location & PAGE_MASK;
+		if (off > PAGE_SIZE - 3) { poke(location, (byte) (value >> 16)); poke(location + 1, (byte) (value >> 8)); poke(location + 2, (byte) value); return; }
+		byte[] page = writablePage(location >>> PAGE_SHIFT);
+		page[off] = (byte) (value >> 16);
+		page[off + 1] = (byte) (value >> 8);
+		page[off + 2] = (byte) value;
+	}
+
+	// 겹치는 구간도 memmove 처럼 올바르게 복사 (SMP 모드에서도 원자적이지 않다).
+	// 페이지 경계로 잘라 복사하고, 목적지가 원본 뒤에서 겹치면 뒤에서부터 복사한다.
+	// 목적지 페이지를 먼저 얻어야 같은 페이지 안의 복사에서 원본도 복사된 쪽을 읽는다.
+	public void copyMemory(int from, int to, int num) {
+		checkRange(from, num);
+		checkRange(to, num);
+		if (to <= from || to >= from + num) {
+			for (int done = 0, n; done < num; done += n) {
+				int src = from + done, dst = to + done;
+				n = Math.min(num - done, PAGE_SIZE - Math.max(src & PAGE_MASK, dst & PAGE_MASK));
+				byte[] dstPage = writablePage(dst >>> PAGE_SHIFT);
+				System.arraycopy(page(src >>> PAGE_SHIFT), src & PAGE_MASK, dstPage, dst & PAGE_MASK, n);
+			}
+		} else {
+			for (int left = num, n; left > 0; left -= n) {
+				int srcEnd = from + left - 1, dstEnd = to + left - 1;
+				n = Math.min(left, Math.min(srcEnd & PAGE_MASK, dstEnd & PAGE_MASK) + 1);
+				byte[] dstPage = writablePage(dstEnd >>> PAGE_SHIFT);
+				System.arraycopy(page(srcEnd >>> PAGE_SHIFT), (srcEnd & PAGE_MASK) - n + 1, dstPage, (dstEnd & PAGE_MASK) - n + 1, n);
+			}
+		}
+		touchPages(to, num);
+	}
+
+	public void fillMemory(int location, int num, byte value) {
+		checkRange(location, num);
+		for (int done = 0, n; done < num; done += n) {
+			int at = location + done;
+			n = Math.min(num - done, PAGE_SIZE - (at & PAGE_MASK));
+			int off = at & PAGE_MASK;
+			Arrays.fill(writablePage(at >>> PAGE_SHIFT), off, off + n, value);
+		}
+		touchPages(location, num);
+	}
+
 	public int getRegister(int regNum) {
 		if(regNum<0||regNum>=register.length||regNum==REG_F||regNum==7) return 0;
 		return register[regNum];
@@ -192,6 +551,31 @@ public class ResourceManager {
 		return new ArrayList<>(this.tRecordLoadedRegions); // 방어적 복사
 	}
 
+	// 컨트롤 섹션 등록 및 주소 -> 심볼 역색인
+	public void addControlSection(String name, int startAddress, int length) {
+		if (name != null && !name.trim().isEmpty()) this.controlSections.add(new ControlSection(name.trim(), startAddress, length));
+	}
+	public List<ControlSection> getControlSections() { return new ArrayList<>(this.controlSections); }
+	public void rebuildSymbolIndex() { this.symbolIndex = SymbolIndex.build(estab, controlSections); }
+	public SymbolIndex getSymbolIndex() { return symbolIndex; }
+
+	// 재적재(SicLoader.reload): 메모리는 그대로 두고 적재 정보(ESTAB, 영역, 섹션, 시작 주소)를 from 의 것으로 바꾼다.
+	// 레지스터와 장치는 새로 적재한 것처럼 초기화한다.
+	void adoptProgramInfo(ResourceManager from) {
+		programName = from.programName; hRecordObjectProgramStartAddress = from.hRecordObjectProgramStartAddress;
+		programTotalLength = from.programTotalLength; actualProgramLoadAddress = from.actualProgramLoadAddress;
+		firstInstructionAddress = from.firstInstructionAddress;
+		estab.clear(); estab.putAll(from.estab);
+		tRecordLoadedRegions.clear(); tRecordLoadedRegions.addAll(from.tRecordLoadedRegions);
+		controlSections.clear(); controlSections.addAll(from.controlSections);
+		symbolIndex = from.symbolIndex;
+		Arrays.fill(register, 0); register_F = 0.0;
+		lastAccessedDeviceName = "";
+		synchronized (deviceManager) { usedDevices.clear(); inputDevices.clear(); deviceWriteEnds.clear(); }
+		channels.reset();
+		closeDevices();
+	}
+
 	public char[] intToChar(int data) {
 		char[] result = new char[3];
 		// data의 상위 8비트 (가장 왼쪽 바이트)
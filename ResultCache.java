@@ -0,0 +1,274 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 헤드리스 실행 결과 캐시 (디스크, 디렉터리 하나에 키마다 파일 하나). 같은 목적 코드를 같은 장치 입력으로 다시 돌리면
+ * 적재/실행 없이 저장된 결과(멈춘 이유, 레지스터, 상태 지문)를 돌려주고 장치 출력 파일을 저장된 내용으로 되살린다.
+ *   키: SHA-256(엔진 버전, 결과에 영향을 주는 옵션, 목적 코드 바이트)
+ *   엔진 버전: 이 패키지의 클래스 파일 전부(내부 클래스 포함)의 SHA-256. 코드를 고쳐 다시 빌드하면 저절로 바뀐다
+ *   장치: 실행 전에 현재 디렉터리의 장치 파일(이름이 16진수 두 자리)을 해시해 두고, 프로그램이 내용을 읽은 장치(RD, 채널 읽기)의
+ *         처음 내용 해시만 항목에 적는다 (in). 찾을 때 그 해시가 지금 파일과 모두 같아야 적중이다.
+ *         쓴 장치(WD, 채널 쓰기, TD 가 만든 빈 파일)는 처음부터 쓴 끝까지의 내용을 저장해 두었다가 적중할 때 파일 앞에 덮어쓴다 (out).
+ *         장치 쓰기도 파일을 자르지 않고 덮어쓰므로 실제로 실행한 것과 같은 파일이 되고, 쓰기만 한 장치의 처음 내용은 비교하지 않는다.
+ * 콘솔 장치(00/01/02)를 쓴 실행과 TIMEOUT/CANCELLED/BREAKPOINT 로 멈춘 실행은 다시 만들 수 없으므로 저장하지 않는다.
+ * 전체 크기가 maxBytes 를 넘으면 가장 오래 쓰지 않은 항목부터 지운다 (적중할 때 파일 수정 시각을 갱신한다).
+ * 여러 프로세스가 같은 디렉터리를 써도 되도록 항목은 임시 파일에 쓴 뒤 옮기고, 읽다 실패하면 그냥 놓친 것으로 본다.
+ */
+public class ResultCache {
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+	private static final String MAGIC = "SICRESULT 2";
+	private static final String SUFFIX = ".res";
+	private static final String ABSENT = "-";
+	private static volatile String engineVersion;
+
+	/** 저장된 결과 하나 */
+	public static final class Entry {
+		final StopReason reason;
+		final long steps;
+		final int pc;
+		final int[] registers; // REG_A..REG_SW, 7 번(F 자리)은 0
+		final double registerF;
+		final long fingerprint;
+
+		Entry(StopReason reason, long steps, int pc, int[] registers, double registerF, long fingerprint) {
+			this.reason = reason; this.steps = steps; this.pc = pc;
+			this.registers = registers; this.registerF = registerF; this.fingerprint = fingerprint;
+		}
+
+		public RunResult getResult() { return new RunResult(reason, steps, pc); }
+		public int getRegister(int r) { return registers[r]; }
+		public double getRegisterF() { return registerF; }
+		public long getFingerprint() { return fingerprint; }
+	}
+
+	private final Path dir;
+	private final long maxBytes;
+
+	public ResultCache(Path dir, long maxBytes) throws IOException {
+		if (maxBytes <= 0) throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+		Files.createDirectories(dir);
+	}
+
+	/** options 는 결과를 바꾸는 실행 설정(예산 등)을 문자열로 적은 것. 엔진 버전을 알 수 없으면 IOException */
+	public String key(File program, String options) throws IOException {
+		String version = engineVersion();
+		if (version.equals("unknown")) throw new IOException("Engine class files not found; cannot version the result cache");
+		MessageDigest md = sha256();
+		md.update(version.getBytes(StandardCharsets.US_ASCII));
+		md.update((byte) 0);
+		md.update(options.getBytes(StandardCharsets.UTF_8));
+		md.update((byte) 0);
+		md.update(Files.readAllBytes(program.toPath()));
+		return hex(md.digest());
+	}
+
+	/** 현재 디렉터리의 장치 파일 이름 -> SHA-256. 실행 직전에 불러 store() 에 넘긴다 */
+	public static Map<String, String> snapshotDevices() throws IOException {
+		Map<String, String> hashes = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(""), "[0-9A-F][0-9A-F]")) {
+			for (Path p : files) if (Files.isRegularFile(p)) hashes.put(p.getFileName().toString(), hex(sha256().digest(Files.readAllBytes(p))));
+		}
+		return hashes;
+	}
+
+	/** 적중하면 장치 출력 파일을 되살리고 항목을 돌려준다. 없거나 장치 입력이 다르면 null */
+	public Entry lookup(String key) {
+		Path file = dir.resolve(key + SUFFIX);
+		try {
+			if (!Files.isRegularFile(file)) return null;
+			List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+			if (lines.size() < 7 || !lines.get(0).equals(MAGIC)) return null;
+			StopReason reason = StopReason.valueOf(value(lines.get(1), "reason"));
+			long steps = Long.parseLong(value(lines.get(2), "steps"));
+			int pc = Integer.parseInt(value(lines.get(3), "pc"), 16);
+			String[] regs = value(lines.get(4), "regs").split(" ");
+			int[] registers = new int[10];
+			for (int r = 0; r < 10; r++) registers[r] = Integer.parseUnsignedInt(regs[r], 16);
+			double f = Double.longBitsToDouble(Long.parseUnsignedLong(value(lines.get(5), "f"), 16));
+			long fingerprint = Long.parseUnsignedLong(value(lines.get(6), "fingerprint"), 16);
+			Map<String, byte[]> outputs = new TreeMap<>();
+			for (String line : lines.subList(7, lines.size())) {
+				String[] w = line.split(" ", 3);
+				if (w[0].equals("in")) {
+					Path device = Paths.get(w[1]);
+					String now = Files.isRegularFile(device) ? hex(sha256().digest(Files.readAllBytes(device))) : ABSENT;
+					if (!now.equals(w[2])) return null;
+				} else if (w[0].equals("out")) {
+					outputs.put(w[1], Base64.getDecoder().decode(w.length > 2 ? w[2] : ""));
+				}
+			}
+			for (Map.Entry<String, byte[]> out : outputs.entrySet()) {
+				try (RandomAccessFile raf = new RandomAccessFile(out.getKey(), "rw")) { raf.write(out.getValue()); }
+			}
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return new Entry(reason, steps, pc, registers, f, fingerprint);
+		} catch (IOException | RuntimeException e) {
+			return null; // 다른 프로세스가 지우는 중이거나 깨진 항목
+		}
+	}
+
+	/**
+	 * 끝난 실행을 저장한다. before 는 실행 직전의 snapshotDevices() (읽은 장치의 처음 내용에 쓴다). 다시 만들 수 없는 실행이면 저장하지 않고 false.
+	 * rMgr 의 장치는 아직 닫지 않았어도 되지만(출력은 바로 파일에 쓰인다), 적재 이후 상태여야 한다.
+	 */
+	public boolean store(String key, RunResult result, ResourceManager rMgr, Map<String, String> before) throws IOException {
+		StopReason reason = result.getReason();
+		if (reason == StopReason.TIMEOUT || reason == StopReason.CANCELLED || reason == StopReason.BREAKPOINT) return false;
+		Set<String> used = rMgr.getUsedDevices();
+		if (used.contains("00") || used.contains("01") || used.contains("02")) return false;
+
+		StringBuilder sb = new StringBuilder(MAGIC).append('\n');
+		sb.append("reason ").append(reason).append('\n');
+		sb.append("steps ").append(result.getExecutedInstructions()).append('\n');
+		sb.append(String.format("pc %06X\n", result.getPc()));
+		sb.append("regs");
+		for (int r = 0; r < 10; r++) sb.append(String.format(" %08X", rMgr.getRegister(r))); // F 와 7 번은 0
+		sb.append('\n');
+		sb.append(String.format("f %016X\n", Double.doubleToRawLongBits(rMgr.getRegister_F())));
+		sb.append(String.format("fingerprint %016X\n", rMgr.getStateFingerprint()));
+		for (String name : rMgr.getInputDevices()) sb.append("in ").append(name).append(' ').append(before.getOrDefault(name, ABSENT)).append('\n');
+		for (Map.Entry<String, Long> out : rMgr.getDeviceWriteEnds().entrySet()) {
+			Path device = Paths.get(out.getKey());
+			if (!Files.isRegularFile(device)) return false; // 실행 뒤에 누가 지웠다
+			byte[] content = Files.readAllBytes(device);
+			content = Arrays.copyOf(content, (int) Math.min(content.length, out.getValue()));
+			sb.append("out ").append(out.getKey()).append(' ').append(Base64.getEncoder().encodeToString(content)).append('\n');
+		}
+		byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+		if (bytes.length > maxBytes) return false;
+
+		Path tmp = Files.createTempFile(dir, key, ".tmp");
+		try {
+			Files.write(tmp, bytes);
+			try {
+				Files.move(tmp, dir.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, dir.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+		evict();
+		return true;
+	}
+
+	// 수정 시각이 오래된 항목부터 지워 전체 크기를 maxBytes 아래로 맞춘다
+	private void evict() throws IOException {
+		List<Path> entries = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+			for (Path p : files) entries.add(p);
+		}
+		long[] sizes = new long[entries.size()];
+		long[] times = new long[entries.size()];
+		Integer[] order = new Integer[entries.size()];
+		long total = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			try {
+				sizes[i] = Files.size(entries.get(i));
+				times[i] = Files.getLastModifiedTime(entries.get(i)).toMillis();
+			} catch (IOException e) {
+				sizes[i] = 0; // 이미 누가 지웠다
+			}
+			total += sizes[i];
+			order[i] = i;
+		}
+		if (total <= maxBytes) return;
+		Arrays.sort(order, (x, y) -> Long.compare(times[x], times[y]));
+		for (int i : order) {
+			if (total <= maxBytes) break;
+			Files.deleteIfExists(entries.get(i));
+			total -= sizes[i];
+		}
+	}
+
+	/** 이 패키지의 클래스 파일 전부를 이름 순으로 (이름, 내용) 해시한 SHA-256 (앞 16자리). 클래스 파일을 찾을 수 없으면 "unknown" */
+	public static String engineVersion() {
+		String v = engineVersion;
+		if (v != null) return v;
+		try {
+			Map<String, byte[]> classes = engineClassFiles();
+			if (classes.isEmpty()) return engineVersion = "unknown";
+			MessageDigest md = sha256();
+			for (Map.Entry<String, byte[]> c : classes.entrySet()) {
+				md.update(c.getKey().getBytes(StandardCharsets.UTF_8));
+				md.update((byte) 0);
+				md.update(c.getValue());
+			}
+			return engineVersion = hex(md.digest()).substring(0, 16);
+		} catch (IOException | URISyntaxException | RuntimeException e) {
+			return engineVersion = "unknown";
+		}
+	}
+
+	// 이 클래스가 들어 있는 디렉터리나 jar 에서 같은 패키지의 클래스 파일 이름 -> 내용 (이름 순)
+	static Map<String, byte[]> engineClassFiles() throws IOException, URISyntaxException {
+		Map<String, byte[]> classes = new TreeMap<>();
+		URL self = ResultCache.class.getResource("ResultCache.class");
+		if (self == null) return classes;
+		if (self.getProtocol().equals("file")) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(self.toURI()).getParent(), "*.class")) {
+				for (Path p : files) classes.put(p.getFileName().toString(), Files.readAllBytes(p));
+			}
+		} else if (self.getProtocol().equals("jar")) {
+			JarURLConnection connection = (JarURLConnection) self.openConnection();
+			connection.setUseCaches(false);
+			String prefix = connection.getEntryName().substring(0, connection.getEntryName().lastIndexOf('/') + 1);
+			try (JarFile jar = connection.getJarFile()) {
+				for (JarEntry entry : Collections.list(jar.entries())) {
+					String name = entry.getName();
+					if (!name.startsWith(prefix) || !name.endsWith(".class") || name.indexOf('/', prefix.length()) >= 0) continue;
+					try (InputStream in = jar.getInputStream(entry)) { classes.put(name.substring(prefix.length()), in.readAllBytes()); }
+				}
+			}
+		}
+		return classes;
+	}
+
+	private static String value(String line, String name) throws IOException {
+		if (!line.startsWith(name + " ")) throw new IOException("Expected " + name + ": " + line);
+		return line.substring(name.length() + 1);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // 모든 JDK 에 있다
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) sb.append(String.format("%02x", b & 0xFF));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,21 @@
+package SP25_simulator;
+
+// run() 결과: 멈춘 이유, 이번 호출에서 실행한 명령어 수, 멈춘 시점의 PC
+public final class RunResult {
+	final StopReason reason;
+	final long executedInstructions;
+	final int pc;
+
+	public RunResult(StopReason reason, long executedInstructions, int pc) {
+		this.reason = reason;
+		this.executedInstructions = executedInstructions;
+		this.pc = pc;
+	}
+
+	public StopReason getReason() { return reason; }
+	public long getExecutedInstructions() { return executedInstructions; }
+	public int getPc() { return pc; }
+
+	@Override
+	public String toString() { return String.format("%s after %d steps (PC=0x%06X)", reason, executedInstructions, pc); }
+}
@@ -1,11 +1,18 @@
 package SP25_simulator;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SicLoader {
 	ResourceManager rMgr;
@@ -13,6 +20,9 @@ public class SicLoader {
 	private int programTotalCumulativeLength = 0;
 	private boolean firstExecutionAddressSet = false;
 	private List<MRecordTemp> modificationRecordsBuffer;
+	private boolean lazy = false; // true 면 T 레코드를 페이지 단위로 처음 접근할 때 적재
+	private static final int PROGRESS_INTERVAL = 256; // 이만큼 레코드를 처리할 때마다 진행 상황 통지/취소 확인
+	private static final Map<String, SoftReference<ProgramImage>> SHARED_IMAGES = new HashMap<>(); // loadShared 용
 
 	private static class MRecordTemp {
 		int csRelativeAddress; int lengthHalfBytes; char operation; String symbolName; int csLoadAddressAtTimeOfRecord;
@@ -29,9 +39,20 @@ public class SicLoader {
 		this.rMgr = resourceManager;
 	}
 
-	public void load(File objectCodeFile) {
-		if (objectCodeFile == null || !objectCodeFile.exists() || !objectCodeFile.isFile()) { System.err.println("SicLoader: Obj file invalid: " + (objectCodeFile != null ? objectCodeFile.getPath() : "null")); return; }
-		if (rMgr == null) { System.err.println("SicLoader: RM not init."); return; }
+	public void setLazy(boolean lazy) { this.lazy = lazy; }
+	public boolean isLazy() { return lazy; }
+
+	public boolean load(File objectCodeFile) { return load(objectCodeFile, null); }
+
+	/**
+	 * monitor 가 있으면 PROGRESS_INTERVAL 레코드마다 진행 상황(처리한 레코드, 적재한 바이트, 적용한 재배치)을 알리고
+	 * 취소 여부를 확인한다 (적재하는 스레드에서 불림). 끝까지 적재했으면 true, 취소됐거나 실패했으면 false.
+	 * false 면 메모리가 일부만 적재된 상태이므로 호출한 쪽이 initializeResource() 로 되돌려야 한다.
+	 */
+	public boolean load(File objectCodeFile, LoadMonitor monitor) {
+		if (objectCodeFile == null || !objectCodeFile.exists() || !objectCodeFile.isFile()) { System.err.println("SicLoader: Obj file invalid: " + (objectCodeFile != null ? objectCodeFile.getPath() : "null")); return false; }
+		if (rMgr == null) { System.err.println("SicLoader: RM not init."); return false; }
+		LoadProgress progress = new LoadProgress(objectCodeFile.length());
 
 		this.currentCsLoadAddress = rMgr.getActualProgramLoadAddress();
 		this.programTotalCumulativeLength = 0;
@@ -39,10 +60,18 @@ public class SicLoader {
 		this.modificationRecordsBuffer.clear();
 
 		String line; String currentCsName = ""; int currentCsDeclaredLength = 0; boolean firstHRecordProcessed = false;
+		TRecordPager pager = lazy ? new TRecordPager(objectCodeFile, rMgr.getMemorySize()) : null;
 
-		try (BufferedReader reader = new BufferedReader(new FileReader(objectCodeFile))) {
+		try (OffsetLineReader reader = new OffsetLineReader(new FileInputStream(objectCodeFile))) {
 			while ((line = reader.readLine()) != null) {
+				long lineOffset = reader.getLineOffset() + leadingBlanks(line);
 				line = line.trim().replace('\t', ' '); if (line.isEmpty()) continue;
+				progress.records++;
+				if (monitor != null && progress.records % PROGRESS_INTERVAL == 0) {
+					progress.fileBytesRead = lineOffset;
+					if (monitor.isCancelled()) return false;
+					monitor.progress(progress);
+				}
 				char recordType = line.charAt(0);
 				switch (recordType) {
 					case 'H':
@@ -52,6 +81,7 @@ public class SicLoader {
 						currentCsDeclaredLength = Integer.parseInt(line.substring(13, 19).trim(), 16);
 						if (!firstHRecordProcessed) { rMgr.setProgramName(currentCsName); rMgr.setHRecordObjectProgramStartAddress(csObjStartAddr); firstHRecordProcessed = true; }
 						rMgr.addExternalSymbol(currentCsName, this.currentCsLoadAddress);
+						rMgr.addControlSection(currentCsName, this.currentCsLoadAddress, currentCsDeclaredLength);
 						break;
 					case 'D':
 						if (line.length() < 13) { System.err.println("SicLoader: Malformed D: " + line); continue; }
@@ -65,7 +95,9 @@ public class SicLoader {
 						if (line.length() < 9 + tRecordLengthBytes * 2) { System.err.println("SicLoader: Malformed T record (data length mismatch): " + line); continue; }
 						String objectCodeHex = line.substring(9, 9 + tRecordLengthBytes * 2);
 						int actualMemoryAddress = this.currentCsLoadAddress + tRecordStartAddrRelative;
-						rMgr.setMemoryHex(actualMemoryAddress, objectCodeHex);
+						if (pager != null) pager.addTRecord(actualMemoryAddress, tRecordLengthBytes, lineOffset + 9);
+						else rMgr.setMemoryHex(actualMemoryAddress, objectCodeHex);
+						progress.bytesLoaded += tRecordLengthBytes;
 						// *** T-레코드로 실제 데이터가 로드된 영역을 ResourceManager에 등록 ***
 						rMgr.addTRecordLoadedRegion(actualMemoryAddress, tRecordLengthBytes);
 						break;
@@ -81,26 +113,182 @@ public class SicLoader {
 					default: System.err.println("SicLoader: Unknown record type '" + recordType + "': " + line); break;
 				}
 			}
+			progress.fileBytesRead = progress.fileLength;
+			progress.phase = LoadProgress.Phase.RELOCATING;
+			if (monitor != null) { if (monitor.isCancelled()) return false; monitor.progress(progress); }
 			for (MRecordTemp mRec : modificationRecordsBuffer) {
+				if (monitor != null && progress.relocations > 0 && progress.relocations % PROGRESS_INTERVAL == 0) {
+					if (monitor.isCancelled()) return false;
+					monitor.progress(progress);
+				}
 				Integer symAbsAddr = rMgr.getExternalSymbolAddress(mRec.symbolName); if (symAbsAddr == null) {System.err.println("SicLoader: MRec Err - Sym '"+mRec.symbolName+"' not found."); continue; }
 				int actModMemAddr = mRec.csLoadAddressAtTimeOfRecord + mRec.csRelativeAddress;
 				// *** numBytesToModify 선언 및 초기화 위치 수정/확인 ***
 				int numBytesToModify = (mRec.lengthHalfBytes + 1) / 2;
-				if (actModMemAddr < 0 || actModMemAddr + numBytesToModify > rMgr.memory.length) {System.err.println("SicLoader: MRec Addr OOB 0x"+Integer.toHexString(actModMemAddr)); continue; }
-				byte[] origBytes = rMgr.getMemory(actModMemAddr, numBytesToModify); if(origBytes.length<numBytesToModify){System.err.println("SicLoader: MRec - Read orig failed 0x"+Integer.toHexString(actModMemAddr));continue;}
-				long origValSeg = 0;
-				if (mRec.lengthHalfBytes == 5) { origValSeg = ((long)(origBytes[0]&0x0F)<<16)|((long)(origBytes[1]&0xFF)<<8)|((long)(origBytes[2]&0xFF)); }
-				else if (mRec.lengthHalfBytes == 6) { origValSeg = ((long)(origBytes[0]&0xFF)<<16)|((long)(origBytes[1]&0xFF)<<8)|((long)(origBytes[2]&0xFF)); }
-				else { System.err.println("SicLoader: MRec - Invalid lenHB: " + mRec.lengthHalfBytes); continue;}
-				long modValSeg = (mRec.operation=='+')?(origValSeg+symAbsAddr):(origValSeg-symAbsAddr);
-				byte[] newBytes = new byte[numBytesToModify]; // 여기서 numBytesToModify 사용
-				if(mRec.lengthHalfBytes==5){newBytes[0]=(byte)((origBytes[0]&0xF0)|((modValSeg>>16)&0x0F));newBytes[1]=(byte)((modValSeg>>8)&0xFF);newBytes[2]=(byte)(modValSeg&0xFF);}
-				else {modValSeg&=0xFFFFFFL;newBytes[0]=(byte)((modValSeg>>16)&0xFF);newBytes[1]=(byte)((modValSeg>>8)&0xFF);newBytes[2]=(byte)(modValSeg&0xFF);}
-				rMgr.setMemory(actModMemAddr, newBytes, numBytesToModify); // 마지막 인자도 numBytesToModify
+				if (actModMemAddr < 0 || actModMemAddr + numBytesToModify > rMgr.getMemorySize()) {System.err.println("SicLoader: MRec Addr OOB 0x"+Integer.toHexString(actModMemAddr)); continue; }
+				if (mRec.lengthHalfBytes != 5 && mRec.lengthHalfBytes != 6) { System.err.println("SicLoader: MRec - Invalid lenHB: " + mRec.lengthHalfBytes); continue; }
+				if (pager != null) pager.addModification(actModMemAddr, mRec.lengthHalfBytes, mRec.operation, symAbsAddr);
+				else { applyModification(rMgr, actModMemAddr, mRec.lengthHalfBytes, mRec.operation, symAbsAddr); rMgr.touchPages(actModMemAddr, numBytesToModify); }
+				progress.relocations++;
 			}
 			if (!firstExecutionAddressSet && rMgr.getProgramName() != null && !rMgr.getProgramName().isEmpty()) { rMgr.setFirstInstructionAddress(rMgr.getActualProgramLoadAddress()); }
 			rMgr.setProgramTotalLength(this.programTotalCumulativeLength);
+			if (pager != null) { pager.finishIndex(); rMgr.setPager(pager); }
+			rMgr.rebuildSymbolIndex();
+			progress.phase = LoadProgress.Phase.DONE;
+			if (monitor != null) monitor.progress(progress);
+			return true;
 		} catch (IOException | NumberFormatException e) { System.err.println("SicLoader: Error during load: " + e.getMessage()); e.printStackTrace();
 		} catch (Exception e) { System.err.println("SicLoader: Unexpected error: " + e.getMessage()); e.printStackTrace(); }
+		return false;
+	}
+
+	/**
+	 * 같은 목적 코드를 여러 머신(ResourceManager)에 적재할 때 쓴다. 파일마다 처음 한 번만 실제로 적재해서 ProgramImage 로 얼리고,
+	 * 그 뒤로는 이미지의 페이지를 공유해서 붙인다 (ResourceManager.mapImage). 지연 적재 설정은 쓰지 않는다.
+	 */
+	public boolean loadShared(File objectCodeFile) {
+		ProgramImage image = sharedImage(objectCodeFile, rMgr.getActualProgramLoadAddress());
+		if (image == null) return false;
+		rMgr.mapImage(image);
+		return true;
+	}
+
+	/** loadAddress 에 적재한 읽기 전용 이미지. 적재하지 못하면 null */
+	public static ProgramImage loadImage(File objectCodeFile, int loadAddress) {
+		ResourceManager staging = new ResourceManager();
+		staging.setActualProgramLoadAddress(loadAddress);
+		if (!new SicLoader(staging).load(objectCodeFile, null)) return null;
+		return staging.shareImage();
+	}
+
+	// 경로, 크기, 수정 시각, 적재 주소가 같으면 같은 이미지. 메모리가 모자라면 GC 가 버리고 다음에 다시 적재한다
+	private static ProgramImage sharedImage(File objectCodeFile, int loadAddress) {
+		String key;
+		try { key = objectCodeFile.getCanonicalPath() + "|" + objectCodeFile.length() + "|" + objectCodeFile.lastModified() + "|" + loadAddress; }
+		catch (IOException e) { System.err.println("SicLoader: Error resolving " + objectCodeFile.getPath() + ": " + e.getMessage()); return null; }
+		synchronized (SHARED_IMAGES) {
+			SoftReference<ProgramImage> ref = SHARED_IMAGES.get(key);
+			ProgramImage image = (ref != null) ? ref.get() : null;
+			if (image == null) {
+				image = loadImage(objectCodeFile, loadAddress);
+				SHARED_IMAGES.values().removeIf(r -> r.get() == null);
+				if (image != null) SHARED_IMAGES.put(key, new SoftReference<>(image));
+			}
+			return image;
+		}
+	}
+
+	/**
+	 * 이미 적재된 프로그램을 새 목적 코드로 바꾼다. 새 파일을 별도 ResourceManager 에 적재해서 현재 메모리와
+	 * 페이지 해시로 비교하고, 다른 페이지 안에서 실제로 바뀐 바이트 구간만 덮어쓴다 (재배치 결과 포함).
+	 * 결과 메모리는 initializeResource() 후 load() 한 것과 같다. 새 파일을 적재하지 못하면 null 이고 아무것도 바꾸지 않는다.
+	 */
+	public ReloadResult reload(File objectCodeFile) {
+		ResourceManager staging = new ResourceManager();
+		staging.setActualProgramLoadAddress(rMgr.getActualProgramLoadAddress());
+		if (!new SicLoader(staging).load(objectCodeFile) || staging.getProgramName() == null || staging.getProgramName().isEmpty()) return null;
+
+		rMgr.faultInAll(); // 지연 적재 중이었다면 비교 전에 모두 적재
+		ReloadResult result = new ReloadResult();
+		diffSections(rMgr, staging, result);
+		for (int page : rMgr.diffPages(staging)) {
+			int base = page << ResourceManager.PAGE_SHIFT;
+			byte[] oldBytes = rMgr.getMemory(base, ResourceManager.PAGE_SIZE), newBytes = staging.getMemory(base, ResourceManager.PAGE_SIZE);
+			for (int i = 0; i < ResourceManager.PAGE_SIZE; ) {
+				if (oldBytes[i] == newBytes[i]) { i++; continue; }
+				int from = i;
+				while (i < ResourceManager.PAGE_SIZE && oldBytes[i] != newBytes[i]) i++;
+				rMgr.setMemory(base + from, Arrays.copyOfRange(newBytes, from, i), i - from);
+				result.addPatch(base + from, i - from);
+			}
+		}
+		result.setLayoutChanged(!sameRegions(rMgr.getTRecordLoadedRegions(), staging.getTRecordLoadedRegions()));
+		result.setOldSymbols(rMgr.getSymbolIndex());
+		rMgr.adoptProgramInfo(staging);
+		return result;
+	}
+
+	// 컨트롤 섹션 이름 기준으로 추가/삭제/이동/길이 변경과 섹션 안 T 레코드 영역 변경을 기록한다
+	private static void diffSections(ResourceManager oldMgr, ResourceManager newMgr, ReloadResult result) {
+		List<ControlSection> oldSections = oldMgr.getControlSections(), newSections = newMgr.getControlSections();
+		for (ControlSection n : newSections) {
+			ControlSection o = null;
+			for (ControlSection c : oldSections) if (c.getName().equals(n.getName())) { o = c; break; }
+			if (o == null) { result.addSectionChange("added " + n.getName()); continue; }
+			if (o.getStartAddress() != n.getStartAddress()) result.addSectionChange(String.format("moved %s 0x%06X -> 0x%06X", n.getName(), o.getStartAddress(), n.getStartAddress()));
+			if (o.getLength() != n.getLength()) result.addSectionChange(String.format("resized %s 0x%X -> 0x%X", n.getName(), o.getLength(), n.getLength()));
+			if (!sameRegions(regionsIn(oldMgr.getTRecordLoadedRegions(), o), regionsIn(newMgr.getTRecordLoadedRegions(), n))) result.addSectionChange("T-records changed in " + n.getName());
+		}
+		for (ControlSection o : oldSections) {
+			boolean kept = false;
+			for (ControlSection n : newSections) if (n.getName().equals(o.getName())) { kept = true; break; }
+			if (!kept) result.addSectionChange("removed " + o.getName());
+		}
+	}
+
+	// 섹션 안의 T 레코드 영역 (섹션 시작 기준 상대 주소로 바꿔서 이동만 한 섹션은 같게 본다)
+	private static List<MemoryRegion> regionsIn(List<MemoryRegion> regions, ControlSection cs) {
+		List<MemoryRegion> result = new ArrayList<>();
+		for (MemoryRegion r : regions) {
+			if (r.getStartAddress() >= cs.getStartAddress() && r.getStartAddress() < cs.getStartAddress() + cs.getLength()) {
+				result.add(new MemoryRegion(r.getStartAddress() - cs.getStartAddress(), r.getLength()));
+			}
+		}
+		return result;
+	}
+
+	static boolean sameRegions(List<MemoryRegion> a, List<MemoryRegion> b) {
+		if (a.size() != b.size()) return false;
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i).getStartAddress() != b.get(i).getStartAddress() || a.get(i).getLength() != b.get(i).getLength()) return false;
+		}
+		return true;
+	}
+
+	// M 레코드 하나를 메모리에 직접 적용 (5 half-byte 는 format 4 주소 필드, 6 은 WORD 전체). 페이지 버전은 호출한 쪽이 올린다
+	static void applyModification(ResourceManager rm, int address, int lengthHalfBytes, char operation, int symbolAddress) {
+		long origValSeg;
+		if (lengthHalfBytes == 5) origValSeg = ((long)(rm.peek(address)&0x0F)<<16)|((long)(rm.peek(address+1)&0xFF)<<8)|((long)(rm.peek(address+2)&0xFF));
+		else origValSeg = ((long)(rm.peek(address)&0xFF)<<16)|((long)(rm.peek(address+1)&0xFF)<<8)|((long)(rm.peek(address+2)&0xFF));
+		long modValSeg = (operation=='+')?(origValSeg+symbolAddress):(origValSeg-symbolAddress);
+		if (lengthHalfBytes == 5) rm.poke(address, (byte)((rm.peek(address)&0xF0)|((modValSeg>>16)&0x0F)));
+		else rm.poke(address, (byte)((modValSeg>>16)&0xFF));
+		rm.poke(address+1, (byte)((modValSeg>>8)&0xFF));
+		rm.poke(address+2, (byte)(modValSeg&0xFF));
+	}
+
+	private static int leadingBlanks(String line) {
+		int n = 0;
+		while (n < line.length() && line.charAt(n) <= ' ') n++;
+		return n;
+	}
+
+	// 줄마다 파일 내 바이트 위치를 알려주는 줄 단위 리더 (목적 코드는 ASCII 이므로 문자 수 == 바이트 수)
+	private static class OffsetLineReader implements AutoCloseable {
+		private final InputStream in;
+		private final ByteArrayOutputStream lineBuf = new ByteArrayOutputStream(80);
+		private long position = 0;
+		private long lineOffset = 0;
+		private int pushback = -1;
+
+		OffsetLineReader(InputStream in) { this.in = new BufferedInputStream(in); }
+
+		String readLine() throws IOException {
+			lineBuf.reset();
+			lineOffset = position;
+			int c = (pushback >= 0) ? pushback : in.read();
+			pushback = -1;
+			if (c < 0) return null;
+			while (c >= 0 && c != '\n' && c != '\r') { lineBuf.write(c); position++; c = in.read(); }
+			if (c == '\r') { position++; c = in.read(); if (c == '\n') position++; else pushback = c; }
+			else if (c == '\n') position++;
+			return lineBuf.toString(StandardCharsets.ISO_8859_1);
+		}
+
+		long getLineOffset() { return lineOffset; }
+
+		@Override
+		public void close() throws IOException { in.close(); }
 	}
-}
\ No newline at end of file
+}
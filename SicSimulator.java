@@ -1,49 +1,98 @@
 package SP25_simulator;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List; // 추가
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SicSimulator {
+	public static final int DEFAULT_CHUNK_SIZE = 4096; // 예산/시간/취소 검사 사이에 쉬지 않고 실행할 명령어 수
+	public static final long UNLIMITED_BUDGET = Long.MAX_VALUE;
+	private static final int MAX_PENDING_LOG = 2000; // GUI 가 소비하지 않은 로그를 최대 몇 줄까지 들고 있을지
+
 	ResourceManager rMgr;
 	InstLuncher instLuncher;
+	private final Disassembler disassembler; // GUI 명령어 목록과 오류 메시지가 같이 쓴다
+	private final LoopIdioms loopIdioms;     // 연속 실행 중 복사/채우기/검색 루프를 한 번에 실행
+	private boolean idiomsEnabled = true;
+	private boolean consoleLogging = true;   // false 면 콘솔 로그를 찍지 않는다 (퍼저처럼 실행을 아주 많이 되풀이할 때)
 	private boolean isProgramLoaded = false;
-	private List<String> executionLog; // String 타입 명시
+	// 아직 스냅샷으로 게시되지 않은 GUI 로그 (실행 스레드 전용). 최근 MAX_PENDING_LOG 줄만 링 버퍼에 참조로 남기고
+	// 목록은 게시할 때만 만든다. 니모닉은 OpcodeTable 의 문자열이므로 명령어마다 할당하지 않는다.
+	private final String[] pendingLog = new String[MAX_PENDING_LOG];
+	private int pendingLogNext;     // 다음에 쓸 칸
+	private long pendingLogCount;   // 마지막 게시 이후 추가된 줄 수 (MAX_PENDING_LOG 를 넘으면 앞쪽은 버려진 것)
+	// 실행 스레드 -> GUI 스냅샷 전달함. GUI 는 getAndSet(null)로 가장 최근 것만 가져간다.
+	private final AtomicReference<SimulatorSnapshot> snapshotMailbox = new AtomicReference<>();
+	private long snapshotSequence = 0;
+	private boolean[] breakpoints; // 주소별 브레이크포인트 (PC 로 바로 인덱싱)
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private long defaultInstructionBudget = UNLIMITED_BUDGET; // allStep()이 사용하는 예산
+	private StopReason chunkStopReason; // runChunk()가 청크를 다 채우지 못하고 멈춘 이유
+	private int resumeFromBreakpointPc = -1; // BREAKPOINT 로 멈춘 PC. 다음 run() 이 그 PC 에서 시작하면 첫 명령어의 브레이크포인트는 건너뛴다
+	private TraceWriter traceWriter; // null 이 아니면 실행한 명령어를 이진 트레이스로 기록
+	private final ExecutionEvents events = new ExecutionEvents();
+	private int eventsVersion = -1;   // 실행 경로를 고를 때 본 구독 버전
+	private boolean observed;         // 명령어/레지스터 리스너가 있어 이벤트를 발행하는 루프를 쓰는지
+	private final ExecutionEvents.InstructionListener traceListener = (pc, opcodeByte, length, nextPc) -> traceStep(pc);
+	private CoverageMap coverage;
+	private CallProfiler profiler;
+	// 레지스터 이벤트용: 명령어 실행 전 값 (PC, F 제외)
+	private static final int[] WATCHED_REGISTERS = {ResourceManager.REG_A, ResourceManager.REG_X, ResourceManager.REG_L, ResourceManager.REG_B, ResourceManager.REG_S, ResourceManager.REG_T, ResourceManager.REG_SW};
+	private final int[] registersBefore = new int[WATCHED_REGISTERS.length];
 
 	public SicSimulator(ResourceManager resourceManager) {
 		// ... (파일[4]과 동일) ...
 		this.rMgr = resourceManager;
 		this.instLuncher = new InstLuncher(this.rMgr);
-		this.executionLog = new ArrayList<>(); // 타입 명시
+		this.disassembler = new Disassembler(this.rMgr);
+		this.loopIdioms = new LoopIdioms(this.rMgr);
+		this.breakpoints = new boolean[rMgr.getMemorySize()];
 	}
 
 	public void programLoaded() {
 		// ... (파일[4]과 동일) ...
 		rMgr.setRegister(ResourceManager.REG_PC, rMgr.getFirstInstructionAddress());
 		isProgramLoaded = true;
-		executionLog.clear();
+		pendingLogCount = 0;
+		resumeFromBreakpointPc = -1;
+		snapshotMailbox.set(null);
 		addLogForGui("Program '" + rMgr.getProgramName() + "' loaded. PC: " + String.format("0x%06X", rMgr.getRegister(ResourceManager.REG_PC)));
+		publishSnapshot();
+		if (events.hasProgramLoadListeners()) events.fireProgramLoaded(rMgr.getProgramName(), rMgr.getFirstInstructionAddress());
 	}
 
 	public boolean oneStep() {
+		boolean continued = executeOneStep();
+		publishSnapshot();
+		return continued;
+	}
+
+	private boolean executeOneStep() {
 		if (!isProgramLoaded) return false;
 		int pc = rMgr.getRegister(ResourceManager.REG_PC);
 		// ... (PC 유효성 검사 - 파일[4]과 동일) ...
 		if (pc < rMgr.getActualProgramLoadAddress() || pc >= (rMgr.getActualProgramLoadAddress() + rMgr.getProgramTotalLength())) {
 			if (rMgr.getProgramTotalLength() > 0) { /* 로그 생략 (GUI에서 처리) */ }
-			isProgramLoaded = false; return false;
+			isProgramLoaded = false; fireHalted(pc, StopReason.HALT); return false;
 		}
 
-		int nextPc = instLuncher.executeInstructionAt(pc);
+		resumeFromBreakpointPc = -1;
+		if (eventsVersion != events.getVersion()) specialise();
+		instLuncher.setDetailLogging(true); // 한 단계 실행은 콘솔에 상세 로그를 남긴다
+		int nextPc = observed ? executeObserved(pc) : instLuncher.executeInstructionAt(pc);
 		if (nextPc == InstLuncher.ERROR_HALT) {
-			addLogForConsole("Error at PC 0x" + String.format("%06X", pc) + ": " + instLuncher.getLastErrorMessage());
+			addLogForConsole("Error at PC " + describeAddress(pc) + " [" + disassembler.describe(pc) + "]: " + instLuncher.getLastErrorMessage());
 			addLogForGui("Error: " + instLuncher.getLastExecutedMnemonic()); // GUI엔 니모닉과 에러
-			isProgramLoaded = false; return false;
+			isProgramLoaded = false; fireHalted(pc, StopReason.ERROR); return false;
 		} else if (nextPc == InstLuncher.NORMAL_HALT) {
-			addLogForConsole("Halt at PC 0x" + String.format("%06X", pc) + " by " + instLuncher.getLastExecutedMnemonic());
+			addLogForConsole("Halt at PC " + describeAddress(pc) + " by " + disassembler.describe(pc));
 			addLogForGui(instLuncher.getLastExecutedMnemonic()); // GUI엔 니모닉
-			isProgramLoaded = false; return false;
+			isProgramLoaded = false; fireHalted(pc, StopReason.HALT); return false;
 		} else {
-			addLogForConsole(String.format("PC:0x%06X->0x%06X. %s %s", pc, nextPc, instLuncher.getLastExecutedMnemonic(), instLuncher.getLastExecutedInstructionInfo()));
+			addLogForConsole(String.format("PC:%s->0x%06X. %s %s", describeAddress(pc), nextPc, instLuncher.getLastExecutedMnemonic(), instLuncher.getLastExecutedInstructionInfo()));
 			addLogForGui(instLuncher.getLastExecutedMnemonic()); // GUI엔 니모닉만
 			rMgr.setRegister(ResourceManager.REG_PC, nextPc);
 			return true;
@@ -51,26 +100,261 @@ public class SicSimulator {
 	}
 
 	public void allStep() {
-		// ... (파일[4]과 동일, 내부 oneStep() 호출 시 로그는 위와 같이 처리됨) ...
 		if (!isProgramLoaded) return;
-		int maxSteps = 100000; int stepsTaken = 0;
-		while(isProgramLoaded && stepsTaken < maxSteps) { if(!oneStep()) break; stepsTaken++; }
-		if (isProgramLoaded && stepsTaken >= maxSteps) { addLogForGui("Max steps reached!"); isProgramLoaded=false; }
+		RunResult result = run(defaultInstructionBudget, 0, null);
+		if (result.getReason() != StopReason.HALT && result.getReason() != StopReason.ERROR) {
+			addLogForGui("Run stopped: " + result);
+			publishSnapshot();
+		}
+	}
+
+	/**
+	 * 명령어를 chunkSize 개씩 묶어 실행한다. 청크 안에서는 단계별 콘솔 로그나 시간/취소 검사를 하지 않고,
+	 * 청크 사이에서만 예산, 제한 시간, 취소 토큰을 확인한다. 스냅샷은 호출이 끝날 때 한 번 게시한다
+	 * (GUI 는 짧은 제한 시간으로 run() 을 되풀이해 화면을 갱신한다).
+	 * 브레이크포인트로 멈췄던 PC 에서 다시 시작할 때만 그 브레이크포인트를 건너뛴다.
+	 *
+	 * @param instructionBudget 이번 호출에서 실행할 최대 명령어 수
+	 * @param timeoutMillis 0 이하이면 시간 제한 없음
+	 * @param cancelToken null 이면 취소 불가
+	 */
+	public RunResult run(long instructionBudget, long timeoutMillis, AtomicBoolean cancelToken) {
+		if (!isProgramLoaded) return new RunResult(StopReason.HALT, 0, rMgr.getRegister(ResourceManager.REG_PC));
+		long deadline = (timeoutMillis > 0) ? System.nanoTime() + timeoutMillis * 1_000_000L : 0;
+		long executed = 0;
+		StopReason reason = null;
+		boolean resuming = resumeFromBreakpointPc == rMgr.getRegister(ResourceManager.REG_PC);
+		resumeFromBreakpointPc = -1;
+		while (reason == null) {
+			if (cancelToken != null && cancelToken.get()) { reason = StopReason.CANCELLED; break; }
+			if (deadline != 0 && System.nanoTime() - deadline >= 0) { reason = StopReason.TIMEOUT; break; }
+			long remaining = instructionBudget - executed;
+			if (remaining <= 0) { reason = StopReason.BUDGET; break; }
+			executed += runChunk((int) Math.min(chunkSize, remaining), resuming);
+			resuming = false;
+			reason = chunkStopReason;
+		}
+		if (reason == StopReason.BREAKPOINT) resumeFromBreakpointPc = rMgr.getRegister(ResourceManager.REG_PC);
+		publishSnapshot();
+		return new RunResult(reason, executed, rMgr.getRegister(ResourceManager.REG_PC));
+	}
+
+	// 청크 하나를 실행하고 실제로 실행한 명령어 수를 반환. 중간에 멈추면 chunkStopReason 에 이유를 남긴다.
+	// 구독 상태에 따라 이벤트 코드가 없는 빠른 루프와 이벤트를 발행하는 루프 중 하나를 쓴다.
+	private int runChunk(int maxSteps, boolean skipBreakpointAtStart) {
+		if (eventsVersion != events.getVersion()) specialise();
+		chunkStopReason = null;
+		instLuncher.setDetailLogging(false); // 연속 실행 중에는 상세 문자열을 만들지 않는다
+		return observed ? runChunkObserved(maxSteps, skipBreakpointAtStart) : runChunkFast(maxSteps, skipBreakpointAtStart);
+	}
+
+	// 구독이 바뀌었을 때 실행 경로를 다시 고른다: 메모리/장치 리스너가 없으면 InstLuncher (와 채널)의 이벤트 참조를 떼고,
+	// 명령어/레지스터 리스너가 없으면 빠른 루프를 쓴다
+	private void specialise() {
+		eventsVersion = events.getVersion();
+		instLuncher.setEvents(events.hasMemoryListeners() || events.hasDeviceListeners() ? events : null);
+		rMgr.getChannels().setEvents(events.hasMemoryListeners() ? events : null);
+		observed = events.hasInstructionListeners() || events.hasRegisterListeners();
+	}
+
+	private int runChunkFast(int maxSteps, boolean skipBreakpointAtStart) {
+		int pc = rMgr.getRegister(ResourceManager.REG_PC);
+		int progStart = rMgr.getActualProgramLoadAddress();
+		int progEnd = progStart + rMgr.getProgramTotalLength();
+		// 메모리 리스너는 접근마다 알려야 하므로 그때는 루프를 한 번에 실행하지 않는다
+		boolean idioms = idiomsEnabled && !events.hasMemoryListeners();
+		for (int i = 0; i < maxSteps; i++) {
+			if (pc < progStart || pc >= progEnd) { isProgramLoaded = false; chunkStopReason = StopReason.HALT; fireHalted(pc, StopReason.HALT); return i; }
+			if (breakpoints[pc] && !(i == 0 && skipBreakpointAtStart)) { chunkStopReason = StopReason.BREAKPOINT; return i; }
+			int nextPc = instLuncher.executeInstructionAt(pc);
+			if (nextPc < 0) return halt(pc, nextPc, i);
+			addLogForGui(instLuncher.getLastExecutedMnemonic());
+			rMgr.setRegister(ResourceManager.REG_PC, nextPc);
+			if (idioms && nextPc < pc && !rMgr.getChannels().isBusy()) {
+				// 뒤로 가는 분기: 루프 머리면 남은 예산 안에서 한 번에 실행 (채널 전송 중에는 시각을 명령어마다 세야 하므로 하지 않는다)
+				int bulk = loopIdioms.tryRun(nextPc, maxSteps - i - 1, breakpoints);
+				if (bulk > 0) {
+					addLogForGui("LOOP x" + bulk);
+					i += bulk;
+					nextPc = rMgr.getRegister(ResourceManager.REG_PC);
+				}
+			}
+			pc = nextPc;
+		}
+		return maxSteps;
+	}
+
+	// 명령어/레지스터 리스너가 있을 때: 빠른 루프와 같되 명령어마다 이벤트를 발행하고 루프 관용구는 쓰지 않는다
+	private int runChunkObserved(int maxSteps, boolean skipBreakpointAtStart) {
+		int pc = rMgr.getRegister(ResourceManager.REG_PC);
+		int progStart = rMgr.getActualProgramLoadAddress();
+		int progEnd = progStart + rMgr.getProgramTotalLength();
+		for (int i = 0; i < maxSteps; i++) {
+			if (pc < progStart || pc >= progEnd) { isProgramLoaded = false; chunkStopReason = StopReason.HALT; fireHalted(pc, StopReason.HALT); return i; }
+			if (breakpoints[pc] && !(i == 0 && skipBreakpointAtStart)) { chunkStopReason = StopReason.BREAKPOINT; return i; }
+			int nextPc = executeObserved(pc);
+			if (nextPc < 0) return halt(pc, nextPc, i);
+			addLogForGui(instLuncher.getLastExecutedMnemonic());
+			rMgr.setRegister(ResourceManager.REG_PC, nextPc);
+			pc = nextPc;
+		}
+		return maxSteps;
+	}
+
+	// 명령어 하나를 실행하고 레지스터/명령어 완료 이벤트를 발행한다 (오류로 멈춘 명령어는 알리지 않는다)
+	private int executeObserved(int pc) {
+		boolean watchRegisters = events.hasRegisterListeners();
+		if (watchRegisters) for (int r = 0; r < WATCHED_REGISTERS.length; r++) registersBefore[r] = rMgr.getRegister(WATCHED_REGISTERS[r]);
+		int nextPc = instLuncher.executeInstructionAt(pc);
+		if (nextPc == InstLuncher.ERROR_HALT) return nextPc;
+		if (watchRegisters) {
+			for (int r = 0; r < WATCHED_REGISTERS.length; r++) {
+				int now = rMgr.getRegister(WATCHED_REGISTERS[r]);
+				if (now != registersBefore[r]) events.fireRegisterWritten(WATCHED_REGISTERS[r], registersBefore[r], now);
+			}
+		}
+		events.fireInstructionRetired(pc, instLuncher.getLastOpcodeFull(), instLuncher.getLastInstructionLength(), nextPc);
+		return nextPc;
+	}
+
+	// ERROR_HALT/NORMAL_HALT 로 멈춘다. 청크에서 실행한 명령어 수(멈춘 명령어 포함)를 반환
+	private int halt(int pc, int nextPc, int executedBefore) {
+		StopReason reason;
+		if (nextPc == InstLuncher.ERROR_HALT) {
+			addLogForConsole("Error at PC " + describeAddress(pc) + " [" + disassembler.describe(pc) + "]: " + instLuncher.getLastErrorMessage());
+			addLogForGui("Error: " + instLuncher.getLastExecutedMnemonic());
+			reason = StopReason.ERROR;
+		} else {
+			addLogForConsole("Halt at PC " + describeAddress(pc) + " by " + disassembler.describe(pc));
+			addLogForGui(instLuncher.getLastExecutedMnemonic());
+			reason = StopReason.HALT;
+		}
+		isProgramLoaded = false; chunkStopReason = reason;
+		fireHalted(pc, reason);
+		return executedBefore + 1;
+	}
+
+	private void fireHalted(int pc, StopReason reason) {
+		if (events.hasHaltListeners()) events.fireHalted(pc, reason);
+	}
+
+	public void setBreakpoint(int address, boolean enabled) {
+		if (address < 0 || address >= breakpoints.length) return;
+		breakpoints[address] = enabled;
+	}
+	public boolean hasBreakpoint(int address) { return address >= 0 && address < breakpoints.length && breakpoints[address]; }
+	public void clearBreakpoints() { Arrays.fill(breakpoints, false); }
+
+	// 재적재 뒤: 브레이크포인트를 예전 색인의 "심볼+오프셋"으로 새 주소에 옮긴다. 기준 심볼이 사라졌으면 버린다. 옮긴 개수를 반환
+	public int remapBreakpoints(SymbolIndex oldSymbols, SymbolIndex newSymbols) {
+		boolean[] remapped = new boolean[breakpoints.length];
+		int kept = 0;
+		for (int a = 0; a < breakpoints.length; a++) {
+			if (!breakpoints[a]) continue;
+			int to = oldSymbols.remap(a, newSymbols);
+			if (to >= 0 && to < remapped.length) { remapped[to] = true; kept++; }
+		}
+		breakpoints = remapped;
+		return kept;
+	}
+
+	// 복사/채우기/검색 루프 인식 (기본 켜짐). 끄면 항상 한 명령어씩 해석한다
+	public void setIdiomsEnabled(boolean enabled) { this.idiomsEnabled = enabled; }
+	public boolean isIdiomsEnabled() { return idiomsEnabled; }
+	public void setConsoleLogging(boolean enabled) { this.consoleLogging = enabled; }
+	public long getIdiomSteps() { return loopIdioms.getBulkSteps(); }
+
+	/** 실행 이벤트 구독 창구. 트레이스/커버리지/프로파일러도 이것으로 붙는다 */
+	public ExecutionEvents getEvents() { return events; }
+	boolean isObservedPath() { return observed; } // 마지막으로 고른 실행 경로가 이벤트를 발행하는 루프인지
+
+	// 트레이스 기록 대상 설정 (null 이면 끔). 채널 전송이 쓴 메모리도 남긴다. 파일을 닫는 것은 호출한 쪽의 책임.
+	public void setTraceWriter(TraceWriter traceWriter) {
+		if (this.traceWriter != null) events.removeInstructionListener(traceListener);
+		this.traceWriter = traceWriter;
+		if (traceWriter != null) events.addInstructionListener(traceListener);
+		rMgr.getChannels().setTraceWriter(traceWriter);
+	}
+	public TraceWriter getTraceWriter() { return traceWriter; }
+
+	// 커버리지 맵 설정 (null 이면 끔): 명령어 완료/메모리 접근 이벤트를 구독한다
+	public void setCoverageMap(CoverageMap coverage) {
+		if (this.coverage != null) { events.removeInstructionListener(this.coverage); events.removeMemoryListener(this.coverage); }
+		this.coverage = coverage;
+		if (coverage != null) { events.addInstructionListener(coverage); events.addMemoryListener(coverage); }
+	}
+	public CoverageMap getCoverageMap() { return coverage; }
+	// 호출 그래프 프로파일러 설정 (null 이면 끔): 명령어 완료/장치/적재 이벤트를 구독한다
+	public void setCallProfiler(CallProfiler profiler) {
+		if (this.profiler != null) { events.removeInstructionListener(this.profiler); events.removeDeviceListener(this.profiler); events.removeProgramLoadListener(this.profiler); }
+		this.profiler = profiler;
+		if (profiler != null) { events.addInstructionListener(profiler); events.addDeviceListener(profiler); events.addProgramLoadListener(profiler); }
+	}
+	public CallProfiler getCallProfiler() { return profiler; }
+
+	private void traceStep(int pc) {
+		try {
+			traceWriter.recordStep(pc, instLuncher.getLastOpcodeFull(), instLuncher.getLastCalculatedTA(),
+					instLuncher.getLastMemWriteAddress(), instLuncher.getLastMemWriteLength());
+		} catch (IOException e) {
+			addLogForConsole("Trace write failed, tracing disabled: " + e.getMessage());
+			setTraceWriter(null);
+		}
+	}
+
+	public void setChunkSize(int chunkSize) { this.chunkSize = Math.max(1, chunkSize); }
+	public int getChunkSize() { return chunkSize; }
+	public void setDefaultInstructionBudget(long budget) { this.defaultInstructionBudget = (budget > 0) ? budget : UNLIMITED_BUDGET; }
+	public long getDefaultInstructionBudget() { return defaultInstructionBudget; }
+
+	public Disassembler getDisassembler() { return disassembler; }
+
+	// "0x00101A(RDREC+0x1A)" 형태의 주소 표기
+	private String describeAddress(int address) {
+		StringBuilder sb = new StringBuilder(32).append(String.format("0x%06X", address));
+		if (rMgr.getSymbolIndex().size() == 0) return sb.toString();
+		return rMgr.getSymbolIndex().appendTo(sb.append('('), address).append(')').toString();
 	}
 
 	// GUI용 로그 (니모닉 위주)와 콘솔용 상세 로그 분리
 	private void addLogForGui(String log) {
-		executionLog.add(log);
+		pendingLog[pendingLogNext] = log;
+		if (++pendingLogNext == MAX_PENDING_LOG) pendingLogNext = 0;
+		pendingLogCount++;
 	}
 	private void addLogForConsole(String log) {
+		if (!consoleLogging) return;
 		System.out.println("[SIM_CONSOLE_LOG] " + log);
 		// GUI에도 동일한 로그를 남길지, 아니면 GUI는 addLogForGui만 사용할지 결정.
 		// 여기서는 콘솔에만 상세 로그를 남기고, GUI 로그는 addLogForGui를 통해 관리.
 	}
 
-	// VisualSimulator에서 사용
-	public List<String> getExecutionLog() {
-		return new ArrayList<>(executionLog); // 복사본 반환
+	/**
+	 * 현재 상태를 불변 스냅샷으로 만들어 전달함에 넣는다. 실행 스레드에서만 호출한다.
+	 * 이전 스냅샷이 아직 소비되지 않았다면 그 로그를 새 스냅샷 앞에 이어 붙여 로그가 빠지지 않게 한다.
+	 */
+	private void publishSnapshot() {
+		int kept = (int) Math.min(pendingLogCount, MAX_PENDING_LOG);
+		List<String> entries = new ArrayList<>(kept);
+		for (int i = 0, at = pendingLogNext - kept + MAX_PENDING_LOG; i < kept; i++, at++) entries.add(pendingLog[at % MAX_PENDING_LOG]);
+		int dropped = (int) Math.min(pendingLogCount - kept, Integer.MAX_VALUE);
+		pendingLogCount = 0;
+		SimulatorSnapshot unconsumed = snapshotMailbox.getAndSet(null);
+		if (unconsumed != null) {
+			entries.addAll(0, unconsumed.getNewLogEntries());
+			dropped += unconsumed.getDroppedLogEntries();
+		}
+		if (entries.size() > MAX_PENDING_LOG) {
+			dropped += entries.size() - MAX_PENDING_LOG;
+			entries = new ArrayList<>(entries.subList(entries.size() - MAX_PENDING_LOG, entries.size()));
+		}
+		snapshotMailbox.set(new SimulatorSnapshot(++snapshotSequence, rMgr.register, rMgr.getRegister_F(),
+				instLuncher.getLastCalculatedTA(), rMgr.getLastAccessedDeviceName(), isProgramLoaded, entries, dropped));
+	}
+
+	// VisualSimulator에서 사용: 가장 최근 스냅샷을 가져간다. 새 스냅샷이 없으면 null.
+	public SimulatorSnapshot takeSnapshot() {
+		return snapshotMailbox.getAndSet(null);
 	}
 	public boolean isReadyToRun() { return isProgramLoaded; }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// 실행 스레드가 만들어 GUI 에 넘기는 불변 상태 스냅샷.
+// 생성 이후 어떤 필드도 바뀌지 않으므로 EDT 는 잠금 없이 읽을 수 있다.
+public final class SimulatorSnapshot {
+	private final long sequence;
+	private final int[] registers;
+	private final double registerF;
+	private final int targetAddress;
+	private final String deviceName;
+	private final boolean readyToRun;
+	private final List<String> newLogEntries; // 직전에 소비된 스냅샷 이후 추가된 로그
+	private final int droppedLogEntries;      // 소비가 늦어 버려진 로그 줄 수
+
+	SimulatorSnapshot(long sequence, int[] registers, double registerF, int targetAddress, String deviceName,
+					  boolean readyToRun, List<String> newLogEntries, int droppedLogEntries) {
+		this.sequence = sequence;
+		this.registers = Arrays.copyOf(registers, registers.length);
+		this.registerF = registerF;
+		this.targetAddress = targetAddress;
+		this.deviceName = (deviceName != null) ? deviceName : "";
+		this.readyToRun = readyToRun;
+		this.newLogEntries = Collections.unmodifiableList(newLogEntries);
+		this.droppedLogEntries = droppedLogEntries;
+	}
+
+	public long getSequence() { return sequence; }
+	public int getRegister(int regNum) { return (regNum >= 0 && regNum < registers.length) ? registers[regNum] : 0; }
+	public double getRegister_F() { return registerF; }
+	public int getTargetAddress() { return targetAddress; }
+	public String getDeviceName() { return deviceName; }
+	public boolean isReadyToRun() { return readyToRun; }
+	public List<String> getNewLogEntries() { return newLogEntries; }
+	public int getDroppedLogEntries() { return droppedLogEntries; }
+}
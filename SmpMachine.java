@@ -0,0 +1,154 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 여러 CPU 가 하나의 메모리를 공유하는 SMP 모드. CPU 마다 자기 레지스터를 가진 ResourceManager 뷰,
+ * InstLuncher, 실행 스레드를 하나씩 둔다. 메모리 순서 규칙은 ResourceManager 참고
+ * (워드 읽기/쓰기는 원자적, 바이트는 acquire/release).
+ *
+ * 사용법: SmpMachine <목적코드 파일> [--cpus N] [--entry SYM,SYM,...] [--budget N]
+ *   --entry 를 주면 i 번째 CPU 는 i 번째 심볼(개수보다 CPU 가 많으면 마지막 심볼)에서 시작한다.
+ *   주지 않으면 모든 CPU 가 E 레코드의 시작 주소에서 시작한다.
+ */
+public class SmpMachine {
+	private static final int CANCEL_CHECK_INTERVAL = 4096; // 2의 거듭제곱
+
+	// CPU 하나: 레지스터 뷰, 인터프리터, 명령어 카운터
+	static final class Cpu {
+		final int id;
+		final ResourceManager view;
+		final InstLuncher instLuncher;
+		volatile long executed;          // 청크마다 갱신 (실행 중에도 다른 스레드에서 읽을 수 있음)
+		volatile RunResult result;
+		String lastError = "";
+
+		Cpu(int id, ResourceManager view) {
+			this.id = id;
+			this.view = view;
+			this.instLuncher = new InstLuncher(view);
+			this.instLuncher.setDetailLogging(false);
+		}
+
+		public int getId() { return id; }
+		public ResourceManager getResourceManager() { return view; }
+		public long getExecutedInstructions() { return executed; }
+		public RunResult getResult() { return result; }
+		public String getLastError() { return lastError; }
+	}
+
+	private final ResourceManager shared;
+	private final List<Cpu> cpus = new ArrayList<>();
+	private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+
+	// shared 에는 이미 프로그램이 적재되어 있어야 한다
+	public SmpMachine(ResourceManager shared, int cpuCount) {
+		if (shared == null) throw new IllegalArgumentException("RM cannot be null for SmpMachine.");
+		if (cpuCount < 1) throw new IllegalArgumentException("cpuCount must be >= 1: " + cpuCount);
+		this.shared = shared;
+		for (int i = 0; i < cpuCount; i++) {
+			Cpu cpu = new Cpu(i, shared.createCpuView());
+			cpu.view.setRegister(ResourceManager.REG_PC, shared.getFirstInstructionAddress());
+			cpus.add(cpu);
+		}
+	}
+
+	public List<Cpu> getCpus() { return cpus; }
+	public ResourceManager getSharedResourceManager() { return shared; }
+
+	public void setEntry(int cpuIndex, int address) { cpus.get(cpuIndex).view.setRegister(ResourceManager.REG_PC, address); }
+
+	public void requestStop() { stopRequested.set(true); }
+
+	/** 모든 CPU 를 각자 스레드에서 멈출 때까지 실행한다. budgetPerCpu 는 CPU 하나당 최대 명령어 수. */
+	public void runAll(long budgetPerCpu) throws InterruptedException {
+		stopRequested.set(false);
+		List<Thread> threads = new ArrayList<>();
+		for (Cpu cpu : cpus) {
+			Thread t = new Thread(() -> cpu.result = runCpu(cpu, budgetPerCpu), "sic-cpu-" + cpu.id);
+			threads.add(t);
+		}
+		for (Thread t : threads) t.start();
+		for (Thread t : threads) t.join();
+	}
+
+	// SicSimulator.runChunk 와 같은 종료 규칙: 프로그램 범위를 벗어나면 HALT
+	private RunResult runCpu(Cpu cpu, long budget) {
+		int progStart = shared.getActualProgramLoadAddress();
+		int progEnd = progStart + shared.getProgramTotalLength();
+		int pc = cpu.view.getRegister(ResourceManager.REG_PC);
+		long executed = 0;
+		StopReason reason = null;
+		while (reason == null) {
+			if (executed >= budget) { reason = StopReason.BUDGET; break; }
+			if ((executed & (CANCEL_CHECK_INTERVAL - 1)) == 0) {
+				cpu.executed = executed;
+				if (stopRequested.get()) { reason = StopReason.CANCELLED; break; }
+			}
+			if (pc < progStart || pc >= progEnd) { reason = StopReason.HALT; break; }
+			int nextPc = cpu.instLuncher.executeInstructionAt(pc);
+			executed++;
+			if (nextPc == InstLuncher.ERROR_HALT) { cpu.lastError = cpu.instLuncher.getLastErrorMessage(); reason = StopReason.ERROR; break; }
+			if (nextPc == InstLuncher.NORMAL_HALT) { reason = StopReason.HALT; break; }
+			cpu.view.setRegister(ResourceManager.REG_PC, nextPc);
+			pc = nextPc;
+		}
+		cpu.executed = executed;
+		return new RunResult(reason, executed, pc);
+	}
+
+	public long getTotalExecutedInstructions() {
+		long total = 0;
+		for (Cpu cpu : cpus) total += cpu.executed;
+		return total;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: SmpMachine <object file> [--cpus N] [--entry SYM,SYM,...] [--budget N]");
+			return;
+		}
+		int cpuCount = Runtime.getRuntime().availableProcessors();
+		String[] entries = null;
+		long budget = SicSimulator.UNLIMITED_BUDGET;
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "--cpus": cpuCount = Integer.parseInt(args[++i]); break;
+				case "--entry": entries = args[++i].split(","); break;
+				case "--budget": budget = Long.parseLong(args[++i]); break;
+				default: System.err.println("Unknown option: " + args[i]); return;
+			}
+		}
+
+		ResourceManager rMgr = new ResourceManager();
+		File program = new File(args[0]);
+		if (!new SicLoader(rMgr).load(program) || rMgr.getProgramName().isEmpty()) {
+			System.err.println("Failed to load object file: " + program);
+			System.exit(1);
+		}
+		SmpMachine machine = new SmpMachine(rMgr, cpuCount);
+		if (entries != null) {
+			for (int i = 0; i < cpuCount; i++) {
+				String sym = entries[Math.min(i, entries.length - 1)].trim();
+				Integer address = rMgr.getExternalSymbolAddress(sym);
+				if (address == null) { System.err.println("Unknown entry symbol: " + sym); return; }
+				machine.setEntry(i, address);
+			}
+		}
+		try {
+			long start = System.nanoTime();
+			machine.runAll(budget);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			for (Cpu cpu : machine.getCpus()) {
+				System.out.printf("CPU %d: %s%s%n", cpu.id, cpu.result, cpu.lastError.isEmpty() ? "" : " - " + cpu.lastError);
+			}
+			long total = machine.getTotalExecutedInstructions();
+			System.out.printf("Total: %d instructions in %.3f s (%.2f MIPS, %d CPUs)%n", total, seconds, total / seconds / 1e6, cpuCount);
+		} finally {
+			rMgr.closeDevices();
+		}
+	}
+}
@@ -0,0 +1,4 @@
+package SP25_simulator;
+
+// run() 이 멈춘 이유
+public enum StopReason { HALT, ERROR, BUDGET, TIMEOUT, BREAKPOINT, CANCELLED }
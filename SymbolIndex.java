@@ -0,0 +1,149 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주소 -> 심볼 역방향 색인. ESTAB(또는 SymbolTable)을 주소순 정렬 배열로 만들어 두고,
+ * 임의의 주소에 대해 바로 앞의 심볼과 그 주소를 포함하는 컨트롤 섹션을 이진 탐색(O(log n))으로 찾는다.
+ * 로드가 끝난 뒤 한 번 만들어지며 이후 바뀌지 않으므로 여러 스레드에서 읽어도 안전하다.
+ * 조회 메소드(indexOf, csectIndexOf, appendTo)는 객체를 할당하지 않는다.
+ */
+public final class SymbolIndex {
+	public static final SymbolIndex EMPTY = new SymbolIndex(new int[0], new String[0], new int[0], new int[0], new String[0]);
+
+	private final int[] addresses;     // 오름차순
+	private final String[] names;
+	private final int[] csectStarts;   // 오름차순
+	private final int[] csectEnds;     // 배타적 끝 주소
+	private final String[] csectNames;
+
+	private SymbolIndex(int[] addresses, String[] names, int[] csectStarts, int[] csectEnds, String[] csectNames) {
+		this.addresses = addresses;
+		this.names = names;
+		this.csectStarts = csectStarts;
+		this.csectEnds = csectEnds;
+		this.csectNames = csectNames;
+	}
+
+	// ESTAB 과 컨트롤 섹션 목록으로 색인을 만든다. 같은 주소에 여러 심볼이 있으면 컨트롤 섹션 이름을 우선한다
+	// (앞 섹션의 끝 표시용 심볼, 예: BUFEND 가 다음 섹션 시작과 겹치는 경우).
+	public static SymbolIndex build(Map<String, Integer> symbols, List<ControlSection> sections) {
+		List<ControlSection> sortedSections = new ArrayList<>(sections != null ? sections : Collections.<ControlSection>emptyList());
+		sortedSections.sort((a, b) -> Integer.compare(a.getStartAddress(), b.getStartAddress()));
+		int[] cStarts = new int[sortedSections.size()]; int[] cEnds = new int[cStarts.length]; String[] cNames = new String[cStarts.length];
+		for (int i = 0; i < cStarts.length; i++) {
+			ControlSection cs = sortedSections.get(i);
+			cStarts[i] = cs.getStartAddress(); cEnds[i] = cs.getStartAddress() + cs.getLength(); cNames[i] = cs.getName();
+		}
+
+		List<Map.Entry<String, Integer>> entries = new ArrayList<>(symbols != null ? symbols.entrySet() : Collections.<Map.Entry<String, Integer>>emptySet());
+		entries.sort((a, b) -> {
+			int c = Integer.compare(a.getValue(), b.getValue());
+			if (c != 0) return c;
+			c = Boolean.compare(isSectionName(cNames, a.getKey()), isSectionName(cNames, b.getKey())); // 섹션 이름이 뒤로 (floor 탐색이 뒤쪽을 고름)
+			return (c != 0) ? c : a.getKey().compareTo(b.getKey());
+		});
+		int[] addrs = new int[entries.size()]; String[] syms = new String[addrs.length];
+		for (int i = 0; i < addrs.length; i++) { addrs[i] = entries.get(i).getValue(); syms[i] = entries.get(i).getKey(); }
+		return new SymbolIndex(addrs, syms, cStarts, cEnds, cNames);
+	}
+
+	private static boolean isSectionName(String[] sectionNames, String name) {
+		for (String s : sectionNames) if (s.equals(name)) return true;
+		return false;
+	}
+
+	public int size() { return addresses.length; }
+	public String symbolAt(int index) { return names[index]; }
+	public int addressAt(int index) { return addresses[index]; }
+	public int sectionCount() { return csectStarts.length; }
+	public String sectionNameAt(int index) { return csectNames[index]; }
+	public int sectionStartAt(int index) { return csectStarts[index]; }
+	public int sectionEndAt(int index) { return csectEnds[index]; }
+
+	// address 이하인 가장 큰 심볼 주소의 색인. 모든 심볼보다 앞이면 -1.
+	public int indexOf(int address) {
+		return floorIndex(addresses, address);
+	}
+
+	// address 를 포함하는 컨트롤 섹션의 색인. 어느 섹션에도 속하지 않으면 -1.
+	public int csectIndexOf(int address) {
+		int i = floorIndex(csectStarts, address);
+		return (i >= 0 && address < csectEnds[i]) ? i : -1;
+	}
+
+	private static int floorIndex(int[] sorted, int key) {
+		int lo = 0, hi = sorted.length - 1, found = -1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sorted[mid] <= key) { found = mid; lo = mid + 1; }
+			else hi = mid - 1;
+		}
+		return found;
+	}
+
+	// "RDREC+0x1A" 형태로 sb 에 덧붙인다. 앞선 심볼이 없거나 어느 섹션에도 속하지 않으면 "0x00101A" 형태.
+	public StringBuilder appendTo(StringBuilder sb, int address) {
+		int i = indexOf(address);
+		int cs = csectIndexOf(address);
+		if (cs < 0 && csectStarts.length > 0) return appendHex(sb.append("0x"), address, 6);
+		// 앞선 심볼이 다른 섹션에 속해 있으면 섹션 기준으로 표기한다
+		if (i < 0 || (cs >= 0 && addresses[i] < csectStarts[cs])) {
+			if (cs < 0) return appendHex(sb.append("0x"), address, 6);
+			sb.append(csectNames[cs]);
+			int off = address - csectStarts[cs];
+			return (off == 0) ? sb : appendHex(sb.append("+0x"), off, 0);
+		}
+		sb.append(names[i]);
+		int off = address - addresses[i];
+		return (off == 0) ? sb : appendHex(sb.append("+0x"), off, 0);
+	}
+
+	// 이름으로 심볼(없으면 컨트롤 섹션) 주소를 찾는다. 없으면 -1. 심볼 수가 적어 선형 탐색으로 충분하다.
+	public int addressOf(String name) {
+		for (int i = 0; i < names.length; i++) if (names[i].equals(name)) return addresses[i];
+		for (int i = 0; i < csectNames.length; i++) if (csectNames[i].equals(name)) return csectStarts[i];
+		return -1;
+	}
+
+	/**
+	 * 이 색인 기준의 address 를 "심볼+오프셋"(appendTo 와 같은 기준)으로 바꾼 뒤 target 색인에서 다시 주소로 푼다.
+	 * 재적재 뒤 브레이크포인트 등을 옮길 때 쓴다. 기준 심볼이 target 에 없으면 -1, 기준 심볼이 없는 주소는 그대로.
+	 */
+	public int remap(int address, SymbolIndex target) {
+		int i = indexOf(address);
+		int cs = csectIndexOf(address);
+		if (cs < 0 && csectStarts.length > 0) return address;
+		String anchor; int anchorAddress;
+		if (i < 0 || (cs >= 0 && addresses[i] < csectStarts[cs])) {
+			if (cs < 0) return address;
+			anchor = csectNames[cs]; anchorAddress = csectStarts[cs];
+		} else {
+			anchor = names[i]; anchorAddress = addresses[i];
+		}
+		int base = target.addressOf(anchor);
+		return (base < 0) ? -1 : base + (address - anchorAddress);
+	}
+
+	public String format(int address) {
+		return appendTo(new StringBuilder(24), address).toString();
+	}
+
+	private static StringBuilder appendHex(StringBuilder sb, int value, int minDigits) {
+		int digits = 1;
+		while (digits < 8 && (value >>> (digits * 4)) != 0) digits++;
+		for (int d = Math.max(digits, minDigits) - 1; d >= 0; d--) sb.append(Character.toUpperCase(Character.forDigit((value >>> (d * 4)) & 0xF, 16)));
+		return sb;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("SymbolIndex:\n");
+		for (int i = 0; i < addresses.length; i++) sb.append(String.format(" 0x%06X %s\n", addresses[i], names[i]));
+		for (int i = 0; i < csectStarts.length; i++) sb.append(String.format(" [0x%06X,0x%06X) CSECT %s\n", csectStarts[i], csectEnds[i], csectNames[i]));
+		return sb.toString();
+	}
+}
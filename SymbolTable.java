@@ -44,6 +44,11 @@ public class SymbolTable {
 		return table.containsKey(symbol.trim());
 	}
 
+	// 주소 -> 심볼 역방향 조회용 색인
+	public SymbolIndex buildReverseIndex() {
+		return SymbolIndex.build(table, null);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("SymbolTable Contents:\n");
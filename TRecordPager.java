@@ -0,0 +1,169 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 지연 적재 모드의 페이지 관리자. 적재 시에는 T 레코드의 파일 위치와 해석된 M 레코드만 페이지(256바이트)별로 색인해 두고,
+// 페이지를 처음 읽거나 쓸 때 ResourceManager 가 fault() 를 불러 그 페이지의 바이트를 파일에서 읽어 온다.
+// 페이지 경계에 걸친 M 레코드가 있으면 두 페이지를 한 재배치 묶음(cluster)으로 묶어 같이 적재한다.
+// 색인한 뒤 파일이 바뀌었거나 16진수가 깨져 있으면 fault() 가 UncheckedIOException 을 던지고 그 묶음은 적재하지 않은 채로 둔다.
+class TRecordPager {
+	static final int PAGE_SHIFT = 8;
+	static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private static class TRecordRef {
+		final int address; final int length; final long hexOffset;
+		TRecordRef(int address, int length, long hexOffset) { this.address = address; this.length = length; this.hexOffset = hexOffset; }
+	}
+
+	private static class Relocation {
+		final int address; final int lengthHalfBytes; final char operation; final int symbolAddress;
+		Relocation(int address, int lengthHalfBytes, char operation, int symbolAddress) { this.address = address; this.lengthHalfBytes = lengthHalfBytes; this.operation = operation; this.symbolAddress = symbolAddress; }
+	}
+
+	private final File objectFile;
+	private final long fileLength, fileModified; // 색인할 때의 파일 크기와 수정 시각
+	private final int pageCount;
+	private final List<List<TRecordRef>> pageRecords;
+	private final List<Relocation> relocations = new ArrayList<>();
+	private final int[] clusterParent;
+	private int[][] clusterPages;              // finishIndex() 후: 묶음 대표 페이지 -> 소속 페이지들
+	private List<List<Relocation>> clusterRelocations;
+	private final AtomicLongArray resident; // 페이지별 적재 완료 비트
+	private int nonResidentPages;
+
+	TRecordPager(File objectFile, int memorySize) {
+		this.objectFile = objectFile;
+		this.fileLength = objectFile.length();
+		this.fileModified = objectFile.lastModified();
+		this.pageCount = (memorySize + PAGE_SIZE - 1) >> PAGE_SHIFT;
+		this.pageRecords = new ArrayList<>(pageCount);
+		for (int i = 0; i < pageCount; i++) pageRecords.add(null);
+		this.clusterParent = new int[pageCount];
+		for (int i = 0; i < pageCount; i++) clusterParent[i] = i;
+		this.resident = new AtomicLongArray((pageCount + 63) >> 6);
+		this.nonResidentPages = pageCount;
+	}
+
+	void addTRecord(int address, int length, long hexOffset) {
+		if (length <= 0 || address < 0 || ((address + length - 1) >> PAGE_SHIFT) >= pageCount) return;
+		TRecordRef ref = new TRecordRef(address, length, hexOffset);
+		for (int p = address >> PAGE_SHIFT; p <= (address + length - 1) >> PAGE_SHIFT; p++) {
+			if (pageRecords.get(p) == null) pageRecords.set(p, new ArrayList<>());
+			pageRecords.get(p).add(ref);
+		}
+	}
+
+	// M 레코드는 항상 3바이트를 고친다. 메모리 밖에 걸치면 적재기처럼 버린다
+	void addModification(int address, int lengthHalfBytes, char operation, int symbolAddress) {
+		if (address < 0 || ((address + 2) >> PAGE_SHIFT) >= pageCount) return;
+		relocations.add(new Relocation(address, lengthHalfBytes, operation, symbolAddress));
+		union(address >> PAGE_SHIFT, (address + 2) >> PAGE_SHIFT);
+	}
+
+	private int find(int p) {
+		while (clusterParent[p] != p) { clusterParent[p] = clusterParent[clusterParent[p]]; p = clusterParent[p]; }
+		return p;
+	}
+
+	private void union(int a, int b) {
+		int ra = find(a), rb = find(b);
+		if (ra != rb) clusterParent[Math.max(ra, rb)] = Math.min(ra, rb);
+	}
+
+	// 색인 완료: 묶음별 페이지 목록과 M 레코드 목록(파일 순서 유지)을 만든다
+	void finishIndex() {
+		int[] sizes = new int[pageCount];
+		for (int p = 0; p < pageCount; p++) sizes[find(p)]++;
+		clusterPages = new int[pageCount][];
+		int[] fill = new int[pageCount];
+		for (int p = 0; p < pageCount; p++) {
+			int root = find(p);
+			if (clusterPages[root] == null) clusterPages[root] = new int[sizes[root]];
+			clusterPages[root][fill[root]++] = p;
+		}
+		clusterRelocations = new ArrayList<>(pageCount);
+		for (int i = 0; i < pageCount; i++) clusterRelocations.add(null);
+		for (Relocation r : relocations) {
+			int root = find(r.address >> PAGE_SHIFT);
+			if (clusterRelocations.get(root) == null) clusterRelocations.set(root, new ArrayList<>());
+			clusterRelocations.get(root).add(r);
+		}
+	}
+
+	boolean isResident(int page) {
+		return (resident.get(page >> 6) & (1L << page)) != 0;
+	}
+
+	// [location, location+num) 이 모두 적재되었는지 (락 없이 확인하는 빠른 경로)
+	boolean isResident(int location, int num) {
+		int last = Math.min((location + Math.max(num, 1) - 1) >> PAGE_SHIFT, pageCount - 1);
+		for (int p = Math.max(location, 0) >> PAGE_SHIFT; p <= last; p++) if (!isResident(p)) return false;
+		return true;
+	}
+
+	synchronized boolean isFullyResident() { return nonResidentPages == 0; }
+
+	// 접근 범위에 걸친 페이지 중 아직 적재되지 않은 묶음을 적재한다
+	synchronized void fault(ResourceManager memory, int location, int num) {
+		int last = Math.min((location + Math.max(num, 1) - 1) >> PAGE_SHIFT, pageCount - 1);
+		for (int p = Math.max(location, 0) >> PAGE_SHIFT; p <= last; p++) {
+			if (!isResident(p)) loadCluster(memory, find(p));
+		}
+	}
+
+	synchronized void faultAll(ResourceManager memory) {
+		for (int p = 0; p < pageCount; p++) if (!isResident(p)) loadCluster(memory, find(p));
+	}
+
+	// 묶음의 바이트를 모두 읽고 해석한 뒤에야 메모리에 쓴다. 실패하면 메모리도 적재 비트도 건드리지 않는다
+	private void loadCluster(ResourceManager memory, int root) {
+		List<int[]> parts = new ArrayList<>(); // {시작 주소, 끝 주소}
+		List<byte[]> data = new ArrayList<>();
+		try (RandomAccessFile raf = new RandomAccessFile(objectFile, "r")) {
+			if (objectFile.length() != fileLength || objectFile.lastModified() != fileModified)
+				throw new IOException("Object file changed since it was loaded: " + objectFile.getPath());
+			for (int p : clusterPages[root]) {
+				List<TRecordRef> refs = pageRecords.get(p);
+				if (refs == null) continue;
+				for (TRecordRef ref : refs) {
+					int from = Math.max(ref.address, p << PAGE_SHIFT);
+					int to = Math.min(ref.address + ref.length, (p + 1) << PAGE_SHIFT);
+					parts.add(new int[]{from, to});
+					data.add(readPart(raf, ref, from, to));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("TRecordPager: Error reading " + objectFile.getPath() + ": " + e.getMessage(), e);
+		}
+		for (int i = 0; i < parts.size(); i++) {
+			byte[] bytes = data.get(i);
+			for (int a = parts.get(i)[0]; a < parts.get(i)[1]; a++) memory.poke(a, bytes[a - parts.get(i)[0]]);
+		}
+		List<Relocation> relocs = clusterRelocations.get(root);
+		if (relocs != null) for (Relocation r : relocs) SicLoader.applyModification(memory, r.address, r.lengthHalfBytes, r.operation, r.symbolAddress);
+		// 메모리 기록이 끝난 뒤에 비트를 세워야 다른 스레드가 빠른 경로에서 반쯤 적재된 페이지를 보지 않는다
+		for (int p : clusterPages[root]) {
+			if (!isResident(p)) { resident.getAndUpdate(p >> 6, w -> w | (1L << p)); nonResidentPages--; }
+		}
+	}
+
+	// T 레코드 중 [from, to) 부분의 16진수를 읽어 바이트로 해석한다
+	private static byte[] readPart(RandomAccessFile raf, TRecordRef ref, int from, int to) throws IOException {
+		byte[] hex = new byte[(to - from) * 2];
+		raf.seek(ref.hexOffset + 2L * (from - ref.address));
+		raf.readFully(hex);
+		byte[] bytes = new byte[to - from];
+		for (int i = 0; i < bytes.length; i++) {
+			int hi = Character.digit(hex[i * 2], 16), lo = Character.digit(hex[i * 2 + 1], 16);
+			if (hi < 0 || lo < 0) throw new IOException("Bad hex in T record at 0x" + Integer.toHexString(from + i));
+			bytes[i] = (byte) ((hi << 4) | lo);
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,67 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+
+// 트레이스 파일 질의 도구. 사용법:
+//   TraceQuery <trace> summary
+//   TraceQuery <trace> writes <hex주소>           주소에 대한 모든 쓰기 (쓴 명령어 역어셈블 포함)
+//   TraceQuery <trace> exec <hex주소>             주소에서 실행된 스텝들 (그 시점의 명령어 역어셈블 포함)
+//   TraceQuery <trace> state <스텝>               스텝 실행 후 레지스터
+//   TraceQuery <trace> mem <스텝> <hex주소> <길이>  스텝 실행 후 메모리
+public class TraceQuery {
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) { usage(); return; }
+		try (TraceReader reader = new TraceReader(new File(args[0]))) {
+			switch (args[1]) {
+				case "summary":
+					System.out.printf("steps=%d blocks=%d blockSteps=%d memory=%d%n", reader.getTotalSteps(), reader.getBlockCount(), reader.getBlockSteps(), reader.getMemorySize());
+					break;
+				case "writes": {
+					int address = Integer.parseInt(args[2], 16);
+					for (TraceReader.MemoryWrite w : reader.writesTo(address)) {
+						StringBuilder hex = new StringBuilder();
+						for (byte b : w.getData()) hex.append(String.format("%02X", b & 0xFF));
+						System.out.printf("step=%d pc=0x%06X [%s] M[0x%06X] <- %s%n", w.getStep(), w.getPc(), instructionAt(reader, w.getStep(), w.getPc()), w.getAddress(), hex);
+					}
+					break;
+				}
+				case "exec": {
+					int address = Integer.parseInt(args[2], 16);
+					for (long step : reader.executionsAt(address)) System.out.println("step=" + step + " " + instructionAt(reader, step, address));
+					break;
+				}
+				case "state": {
+					TraceReader.RegisterState st = reader.stateAt(Long.parseLong(args[2]));
+					String[] names = {"A", "X", "L", "B", "S", "T", "F", "", "PC", "SW"};
+					StringBuilder sb = new StringBuilder("step=" + st.getStep());
+					for (int r = 0; r < 10; r++) {
+						if (r == ResourceManager.REG_F) sb.append(String.format(" F=%.5e", st.getRegister_F()));
+						else if (r != 7) sb.append(String.format(" %s=%06X", names[r], st.getRegister(r) & 0xFFFFFF));
+					}
+					System.out.println(sb);
+					break;
+				}
+				case "mem": {
+					byte[] data = reader.memoryAt(Long.parseLong(args[2]), Integer.parseInt(args[3], 16), Integer.parseInt(args[4]));
+					StringBuilder hex = new StringBuilder();
+					for (int i = 0; i < data.length; i++) { hex.append(String.format("%02X", data[i] & 0xFF)); if (i % 16 == 15) hex.append('\n'); }
+					System.out.println(hex);
+					break;
+				}
+				default: usage();
+			}
+		}
+	}
+
+	// step 번째 명령어(0부터)를 실행하기 직전 pc 에 있던 명령어. 자기 수정 코드도 그 시점의 바이트로 해독한다
+	private static String instructionAt(TraceReader reader, long step, int pc) throws IOException {
+		byte[] bytes = reader.memoryAt(step, pc, Math.min(4, reader.getMemorySize() - pc));
+		Disassembler.Line line = Disassembler.decode(bytes, 0, pc, SymbolIndex.EMPTY);
+		return (line != null) ? line.getText() : String.format("BYTE X'%02X'", bytes[0] & 0xFF);
+	}
+
+	private static void usage() {
+		System.err.println("Usage: TraceQuery <trace> summary | writes <hexAddr> | exec <hexAddr> | state <step> | mem <step> <hexAddr> <len>");
+	}
+}
@@ -0,0 +1,323 @@
+package SP25_simulator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * TraceWriter 가 만든 트레이스 파일을 메모리 맵으로 열어 질의에 답한다.
+ * 색인(블록별 첫 스텝, 시작 레지스터, 실행/쓰기 페이지 비트맵)만 먼저 읽고,
+ * 질의에 필요한 블록만 골라서 압축을 푼다.
+ * memoryAt 은 초기 이미지와 몇 블록마다의 메모리 체크포인트를 처음 필요할 때 만들어 두고 가장 가까운 체크포인트에서 시작하므로,
+ * 질의 하나가 푸는 블록 수는 트레이스 길이와 상관없이 checkpointInterval 이하다.
+ */
+public class TraceReader implements Closeable {
+
+	// "주소 X 에 대한 쓰기" 질의 결과 한 건
+	public static class MemoryWrite {
+		final long step; final int pc; final int address; final byte[] data;
+		MemoryWrite(long step, int pc, int address, byte[] data) { this.step = step; this.pc = pc; this.address = address; this.data = data; }
+		public long getStep() { return step; }
+		public int getPc() { return pc; }
+		public int getAddress() { return address; }
+		public byte[] getData() { return data; }
+	}
+
+	// "N 스텝 실행 후 상태" 질의 결과. pc 는 다음에 실행할 명령어 주소.
+	public static class RegisterState {
+		final long step; final int[] registers; final double registerF;
+		RegisterState(long step, int[] registers, double registerF) { this.step = step; this.registers = registers; this.registerF = registerF; }
+		public long getStep() { return step; }
+		public int getRegister(int regNum) { return registers[regNum]; }
+		public double getRegister_F() { return registerF; }
+	}
+
+	// 레코드 하나를 풀어 놓은 것. forEachRecord 에서 재사용된다.
+	public static class Record {
+		long step; int pc; int opcode; int ta = InstLuncher.TA_NOT_CALCULATED_YET; int writeAddress; int writeLength; int writeOffset;
+		final int[] registers = new int[10]; long fBits;
+		// 이 명령어 직전에 채널 전송이 쓴 것들 (명령어의 쓰기보다 먼저 반영): 주소, 길이, 블록 데이터 안의 위치
+		int channelWrites; int[] channelAddress = new int[4], channelLength = new int[4], channelOffset = new int[4];
+		public long getStep() { return step; }
+		public int getPc() { return pc; }
+		public int getOpcode() { return opcode; }
+		public int getTargetAddress() { return ta; }
+		public int getRegister(int regNum) { return registers[regNum]; }
+		public int getWriteAddress() { return writeAddress; }
+		public int getWriteLength() { return writeLength; }
+		public int getChannelWriteCount() { return channelWrites; }
+		public int getChannelWriteAddress(int i) { return channelAddress[i]; }
+		public int getChannelWriteLength(int i) { return channelLength[i]; }
+	}
+
+	// 레코드 하나의 메모리 쓰기 (offset 은 블록 데이터 안의 위치)
+	private interface WriteVisitor { void write(int address, int length, int offset); }
+
+	public interface RecordVisitor { boolean visit(Record record, byte[] blockData); } // false 를 반환하면 중단
+
+	private final RandomAccessFile raf;
+	private final MappedByteBuffer map;
+	private final int blockSteps;
+	private final int memorySize;
+	private final int[] initialRegisters = new int[10];
+	private final long initialFBits;
+	private final int imageOffset, imageLength;
+	private final int pageWords;
+	private final int blockCount;
+	private final long totalSteps;
+	private final int[] finalRegisters = new int[10];
+	private final long finalFBits;
+	// 색인
+	private final long[] blockFirstStep;
+	private final long[] blockOffset;
+	private final int[] blockCompressedLen, blockRawLen, blockRecords;
+	private final int[][] blockStartRegs;
+	private final long[] blockStartF;
+	private final long[][] blockExecPages, blockWritePages;
+	// 메모리 체크포인트: checkpoints[c] 는 블록 c * checkpointInterval 을 실행하기 직전의 메모리 ([0] 은 초기 이미지).
+	// 체크포인트 하나가 메모리 크기만큼이므로 개수는 MAX_CHECKPOINTS 로 제한하고 간격을 넓힌다
+	private static final int MIN_CHECKPOINT_BLOCKS = 4;
+	private static final int MAX_CHECKPOINTS = 256;
+	private final int checkpointInterval;
+	private final byte[][] checkpoints;
+	private int checkpointsBuilt = 0;
+
+	public TraceReader(File file) throws IOException {
+		raf = new RandomAccessFile(file, "r");
+		FileChannel channel = raf.getChannel();
+		if (channel.size() > Integer.MAX_VALUE) { raf.close(); throw new IOException("Trace file too large to map: " + file); }
+		map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+		byte[] magic = new byte[8];
+		map.get(magic);
+		if (!Arrays.equals(magic, TraceWriter.MAGIC) && !Arrays.equals(magic, TraceWriter.MAGIC_V1)) { raf.close(); throw new IOException("Not a SIC trace file: " + file); }
+		blockSteps = map.getInt();
+		memorySize = map.getInt();
+		for (int i = 0; i < 10; i++) initialRegisters[i] = map.getInt();
+		initialFBits = map.getLong();
+		imageLength = map.getInt();
+		imageOffset = map.position();
+		pageWords = ((memorySize >> TraceWriter.PAGE_SHIFT) + 63) / 64;
+
+		int footer = map.capacity() - (40 + 8 + 8 + 8 + 4 + 8);
+		map.position(map.capacity() - 8);
+		map.get(magic);
+		if (!Arrays.equals(magic, TraceWriter.INDEX_MAGIC)) { raf.close(); throw new IOException("Trace file has no index (not closed?): " + file); }
+		map.position(footer);
+		for (int i = 0; i < 10; i++) finalRegisters[i] = map.getInt();
+		finalFBits = map.getLong();
+		totalSteps = map.getLong();
+		long indexOffset = map.getLong();
+		blockCount = map.getInt();
+
+		blockFirstStep = new long[blockCount]; blockOffset = new long[blockCount];
+		blockCompressedLen = new int[blockCount]; blockRawLen = new int[blockCount]; blockRecords = new int[blockCount];
+		blockStartRegs = new int[blockCount][10]; blockStartF = new long[blockCount];
+		blockExecPages = new long[blockCount][pageWords]; blockWritePages = new long[blockCount][pageWords];
+		map.position((int) indexOffset);
+		for (int b = 0; b < blockCount; b++) {
+			blockFirstStep[b] = map.getLong(); blockOffset[b] = map.getLong();
+			blockCompressedLen[b] = map.getInt(); blockRawLen[b] = map.getInt(); blockRecords[b] = map.getInt();
+			for (int i = 0; i < 10; i++) blockStartRegs[b][i] = map.getInt();
+			blockStartF[b] = map.getLong();
+			for (int w = 0; w < pageWords; w++) blockExecPages[b][w] = map.getLong();
+			for (int w = 0; w < pageWords; w++) blockWritePages[b][w] = map.getLong();
+		}
+		checkpointInterval = Math.max(MIN_CHECKPOINT_BLOCKS, (blockCount + MAX_CHECKPOINTS - 1) / MAX_CHECKPOINTS);
+		checkpoints = new byte[Math.max(1, (blockCount + checkpointInterval - 1) / checkpointInterval)][];
+	}
+
+	public long getTotalSteps() { return totalSteps; }
+	public int getBlockCount() { return blockCount; }
+	public int getBlockSteps() { return blockSteps; }
+	public int getMemorySize() { return memorySize; }
+
+	// 기록 시작 시점의 메모리 이미지 (복사본)
+	public byte[] readInitialMemory() throws IOException {
+		return checkpoint(0).clone();
+	}
+
+	/** address 를 덮어쓴 모든 쓰기 (채널 전송 포함, 그 시각의 스텝과 PC 로). 그 페이지를 쓴 적 있는 블록만 푼다. */
+	public List<MemoryWrite> writesTo(int address) throws IOException {
+		List<MemoryWrite> result = new ArrayList<>();
+		int page = address >> TraceWriter.PAGE_SHIFT;
+		for (int b = 0; b < blockCount; b++) {
+			if (!testPage(blockWritePages[b], page)) continue;
+			forEachRecord(b, Long.MAX_VALUE, (rec, data) -> {
+				forEachWrite(rec, (at, length, offset) -> {
+					if (address >= at && address < at + length) result.add(new MemoryWrite(rec.step, rec.pc, at, Arrays.copyOfRange(data, offset, offset + length)));
+				});
+				return true;
+			});
+		}
+		return result;
+	}
+
+	/** address 에서 실행된 스텝 번호들. 그 페이지를 실행한 블록만 푼다. */
+	public List<Long> executionsAt(int address) throws IOException {
+		List<Long> result = new ArrayList<>();
+		int page = address >> TraceWriter.PAGE_SHIFT;
+		for (int b = 0; b < blockCount; b++) {
+			if (!testPage(blockExecPages[b], page)) continue;
+			forEachRecord(b, Long.MAX_VALUE, (rec, data) -> { if (rec.pc == address) result.add(rec.step); return true; });
+		}
+		return result;
+	}
+
+	/** step 개의 명령어를 실행한 뒤의 레지스터 상태. 해당 블록 하나만 푼다. */
+	public RegisterState stateAt(long step) throws IOException {
+		if (step < 0 || step > totalSteps) throw new IllegalArgumentException("Step out of range: " + step + " (total " + totalSteps + ")");
+		if (step == totalSteps) return new RegisterState(step, Arrays.copyOf(finalRegisters, 10), Double.longBitsToDouble(finalFBits));
+		int b = blockOf(step);
+		int[] regs = Arrays.copyOf(blockStartRegs[b], 10);
+		long[] fBits = {blockStartF[b]};
+		forEachRecord(b, step, (rec, data) -> {
+			regs[ResourceManager.REG_PC] = rec.pc; // 마지막으로 방문한 레코드 = 다음에 실행할 명령어
+			if (rec.step < step) { for (int r = 0; r < 10; r++) if (r != ResourceManager.REG_PC) regs[r] = rec.registers[r]; fBits[0] = rec.fBits; }
+			return true;
+		});
+		return new RegisterState(step, regs, Double.longBitsToDouble(fBits[0]));
+	}
+
+	/**
+	 * step 개의 명령어를 실행한 뒤 [address, address+length) 의 메모리. step 직전의 체크포인트에서 시작해
+	 * 그 뒤 블록 중 그 페이지들을 쓴 블록만 푼다.
+	 */
+	public byte[] memoryAt(long step, int address, int length) throws IOException {
+		if (address < 0 || length < 0 || address > memorySize || length > memorySize - address) throw new IllegalArgumentException("Range out of memory");
+		if (step < 0 || step > totalSteps) throw new IllegalArgumentException("Step out of range: " + step + " (total " + totalSteps + ")");
+		if (step == 0 || blockCount == 0) return Arrays.copyOfRange(checkpoint(0), address, address + length);
+		int lastBlock = blockOf(step - 1); // step-1 번째 레코드까지 반영
+		int c = lastBlock / checkpointInterval;
+		byte[] result = Arrays.copyOfRange(checkpoint(c), address, address + length);
+		int firstPage = address >> TraceWriter.PAGE_SHIFT, lastPage = (address + Math.max(length, 1) - 1) >> TraceWriter.PAGE_SHIFT;
+		for (int b = c * checkpointInterval; b <= lastBlock; b++) {
+			boolean touched = false;
+			for (int p = firstPage; p <= lastPage && !touched; p++) touched = testPage(blockWritePages[b], p);
+			if (!touched) continue;
+			forEachRecord(b, step - 1, (rec, data) -> {
+				if (rec.step >= step) return true;
+				forEachWrite(rec, (at, n, offset) -> {
+					int lo = Math.max(address, at), hi = Math.min(address + length, at + n);
+					for (int a = lo; a < hi; a++) result[a - address] = data[offset + (a - at)];
+				});
+				return true;
+			});
+		}
+		return result;
+	}
+
+	// 체크포인트 c 를 돌려준다. 아직 없으면 마지막으로 만든 것에서부터 블록의 쓰기를 모두 반영해 차례로 만든다
+	private synchronized byte[] checkpoint(int c) throws IOException {
+		if (checkpointsBuilt == 0) { checkpoints[0] = inflate(imageOffset, imageLength, memorySize); checkpointsBuilt = 1; }
+		while (checkpointsBuilt <= c) {
+			byte[] memory = checkpoints[checkpointsBuilt - 1].clone();
+			int end = Math.min(blockCount, checkpointsBuilt * checkpointInterval);
+			for (int b = (checkpointsBuilt - 1) * checkpointInterval; b < end; b++) {
+				boolean wrote = false;
+				for (long w : blockWritePages[b]) if (w != 0) { wrote = true; break; }
+				if (!wrote) continue;
+				forEachRecord(b, Long.MAX_VALUE, (rec, data) -> {
+					forEachWrite(rec, (at, n, offset) -> System.arraycopy(data, offset, memory, at, Math.min(n, memorySize - at)));
+					return true;
+				});
+			}
+			checkpoints[checkpointsBuilt++] = memory;
+		}
+		return checkpoints[c];
+	}
+
+	/** 블록 b 의 레코드를 순서대로 방문한다. lastStep 을 넘는 레코드에서 멈춘다. */
+	public void forEachRecord(int b, long lastStep, RecordVisitor visitor) throws IOException {
+		byte[] data = inflate((int) blockOffset[b], blockCompressedLen[b], blockRawLen[b]);
+		Record rec = new Record();
+		System.arraycopy(blockStartRegs[b], 0, rec.registers, 0, 10);
+		rec.fBits = blockStartF[b];
+		int prevPc = blockStartRegs[b][ResourceManager.REG_PC];
+		int[] pos = {0};
+		for (int i = 0; i < blockRecords[b]; i++) {
+			rec.step = blockFirstStep[b] + i;
+			if (rec.step > lastStep) return;
+			rec.opcode = data[pos[0]++] & 0xFF;
+			int mask = ((data[pos[0]] & 0xFF) << 8) | (data[pos[0] + 1] & 0xFF); pos[0] += 2;
+			rec.writeLength = data[pos[0]++] & 0xFF;
+			rec.pc = prevPc + TraceWriter.unzigzag(getVarint(data, pos));
+			rec.ta = ((mask & TraceWriter.MASK_TA) != 0) ? rec.pc + TraceWriter.unzigzag(getVarint(data, pos)) : InstLuncher.TA_NOT_CALCULATED_YET;
+			for (int r = 0; r < 10; r++) if ((mask & (1 << r)) != 0) rec.registers[r] += TraceWriter.unzigzag(getVarint(data, pos));
+			rec.registers[ResourceManager.REG_PC] = rec.pc;
+			if ((mask & TraceWriter.MASK_F) != 0) { long f = 0; for (int k = 0; k < 8; k++) f = (f << 8) | (data[pos[0]++] & 0xFF); rec.fBits = f; }
+			rec.channelWrites = ((mask & TraceWriter.MASK_CHANNEL) != 0) ? getVarint(data, pos) : 0;
+			if (rec.channelWrites > rec.channelAddress.length) {
+				rec.channelAddress = new int[rec.channelWrites]; rec.channelLength = new int[rec.channelWrites]; rec.channelOffset = new int[rec.channelWrites];
+			}
+			for (int w = 0; w < rec.channelWrites; w++) {
+				rec.channelAddress[w] = rec.pc + TraceWriter.unzigzag(getVarint(data, pos));
+				rec.channelLength[w] = getVarint(data, pos);
+				rec.channelOffset[w] = pos[0];
+				pos[0] += rec.channelLength[w];
+			}
+			if (rec.writeLength > 0) { rec.writeAddress = rec.pc + TraceWriter.unzigzag(getVarint(data, pos)); rec.writeOffset = pos[0]; pos[0] += rec.writeLength; }
+			prevPc = rec.pc;
+			if (!visitor.visit(rec, data)) return;
+		}
+	}
+
+	// 반영할 순서대로: 채널 쓰기들, 명령어의 쓰기
+	private static void forEachWrite(Record rec, WriteVisitor visitor) {
+		for (int w = 0; w < rec.channelWrites; w++) visitor.write(rec.channelAddress[w], rec.channelLength[w], rec.channelOffset[w]);
+		if (rec.writeLength > 0) visitor.write(rec.writeAddress, rec.writeLength, rec.writeOffset);
+	}
+
+	private int blockOf(long step) {
+		int lo = 0, hi = blockCount - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (blockFirstStep[mid] <= step) lo = mid; else hi = mid - 1;
+		}
+		return lo;
+	}
+
+	private static boolean testPage(long[] bitmap, int page) {
+		return page >= 0 && (page >> 6) < bitmap.length && (bitmap[page >> 6] & (1L << page)) != 0;
+	}
+
+	private static int getVarint(byte[] data, int[] pos) {
+		int v = 0, shift = 0, b;
+		do { b = data[pos[0]++]; v |= (b & 0x7F) << shift; shift += 7; } while ((b & 0x80) != 0);
+		return v;
+	}
+
+	private byte[] inflate(int offset, int compressedLen, int rawLen) throws IOException {
+		ByteBuffer slice = map.duplicate();
+		slice.position(offset).limit(offset + compressedLen);
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(slice);
+			byte[] out = new byte[rawLen];
+			int n = 0;
+			while (n < rawLen && !inflater.finished()) {
+				int got = inflater.inflate(out, n, rawLen - n);
+				if (got == 0 && inflater.needsInput()) break;
+				n += got;
+			}
+			if (n != rawLen) throw new IOException("Corrupt trace block at offset " + offset);
+			return out;
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt trace block at offset " + offset + ": " + e.getMessage());
+		} finally {
+			inflater.end();
+		}
+	}
+
+	@Override
+	public void close() throws IOException { raf.close(); }
+}
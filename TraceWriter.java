@@ -0,0 +1,261 @@
+package SP25_simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * 실행 트레이스를 이진 파일로 기록한다. 형식 (모두 big-endian):
+ *
+ *   헤더:  "SICTRC02" | int32 블록당 스텝 수 | int32 메모리 크기 | int32 x 10 초기 레지스터 | int64 초기 F 비트
+ *          | int32 압축된 초기 메모리 길이 | 압축된 초기 메모리 (Deflate)
+ *   블록:  레코드 blockSteps 개를 이어 붙인 뒤 통째로 Deflate 압축한 것
+ *   색인:  블록마다 int64 첫 스텝 | int64 파일 오프셋 | int32 압축 길이 | int32 원본 길이 | int32 레코드 수
+ *          | int32 x 10 블록 시작 시점 레지스터 | int64 F 비트 | int64[] 실행한 페이지 비트맵 | int64[] 쓴 페이지 비트맵
+ *   꼬리:  int32 x 10 최종 레지스터 | int64 최종 F 비트 | int64 총 스텝 수 | int64 색인 오프셋 | int32 블록 수 | "SICTRIDX"
+ *
+ * 레코드 하나는 항상 같은 순서의 필드로 이루어지며 값은 직전 레코드/필드에 대한 차이를 zigzag varint 로 담는다.
+ *   u8 opcode | u16 마스크 (bit0-9 레지스터 변경, bit10 F 변경, bit11 TA 있음, bit12 채널 쓰기 있음) | u8 메모리 쓰기 길이(0 이면 없음)
+ *   | varint PC-직전PC | [varint TA-PC] | [varint 새값-옛값 ...] | [int64 F 비트]
+ *   | [varint 채널 쓰기 수, (varint 쓴주소-PC, varint 길이, 쓴 바이트들) ...] | [varint 쓴주소-PC, 쓴 바이트들]
+ * 채널 쓰기는 그 명령어를 실행하기 직전에 끝난 채널 전송(ChannelIo)이 쓴 것이므로 명령어의 쓰기보다 먼저 반영한다.
+ * "SICTRC01" 파일은 bit12 가 없는 같은 형식이다.
+ * 스텝 번호는 블록 첫 스텝 + 블록 내 순번으로 정해지므로 저장하지 않는다.
+ * 고정 폭 레코드로 두지 않은 이유: 블록을 통째로 압축하므로 어차피 블록을 풀어야 레코드에 닿고(임의 접근 단위는 블록),
+ * 바뀐 레지스터/쓰기만 차이로 담으면 레코드가 고정 폭(필드 전부)보다 몇 배 작아 압축 전후 모두 파일이 줄어든다.
+ * 블록 시작마다 레지스터 전체를 색인에 남겨 두어 "N 번째 스텝의 상태"를 블록 하나만 풀어서 구할 수 있다.
+ */
+public class TraceWriter implements Closeable {
+	static final byte[] MAGIC = {'S', 'I', 'C', 'T', 'R', 'C', '0', '2'};
+	static final byte[] MAGIC_V1 = {'S', 'I', 'C', 'T', 'R', 'C', '0', '1'}; // 채널 쓰기가 없던 형식. 읽기만 한다
+	static final byte[] INDEX_MAGIC = {'S', 'I', 'C', 'T', 'R', 'I', 'D', 'X'};
+	static final int PAGE_SHIFT = 8; // 페이지 비트맵 단위 256 바이트
+	static final int MASK_F = 1 << 10;
+	static final int MASK_TA = 1 << 11;
+	static final int MASK_CHANNEL = 1 << 12;
+	public static final int DEFAULT_BLOCK_STEPS = 4096;
+
+	private final ResourceManager rMgr;
+	private final DataOutputStream out;
+	private final int blockSteps;
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private long filePosition;
+
+	// 현재 블록
+	private byte[] blockBuf = new byte[64 * 1024];
+	private int blockLen = 0;
+	private int blockRecords = 0;
+	private long blockFirstStep = 0;
+	private final int[] blockStartRegs = new int[10];
+	private long blockStartF;
+	private final long[] execPages;
+	private final long[] writePages;
+	private byte[] compressBuf = new byte[64 * 1024];
+
+	// 색인 (블록마다 한 줄)
+	private final ByteSink index = new ByteSink(4096);
+	private int blockCount = 0;
+
+	// 다음 레코드에 붙일 채널 쓰기 (쓴 순간의 내용)
+	private final ByteSink channelData = new ByteSink(256);
+	private int[] channelWrites = new int[8]; // 주소, 길이 쌍
+	private int channelWriteCount = 0;
+
+	private final int[] prevRegs = new int[10];
+	private long prevFBits;
+	private int prevPc = 0;
+	private long stepCount = 0;
+	private boolean closed = false;
+
+	public TraceWriter(File file, ResourceManager resourceManager, int blockSteps) throws IOException {
+		if (resourceManager == null) throw new IllegalArgumentException("RM cannot be null for TraceWriter.");
+		this.rMgr = resourceManager;
+		this.blockSteps = Math.max(1, blockSteps);
+		int pageWords = ((rMgr.getMemorySize() >> PAGE_SHIFT) + 63) / 64;
+		this.execPages = new long[pageWords];
+		this.writePages = new long[pageWords];
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 256 * 1024));
+
+		System.arraycopy(rMgr.register, 0, prevRegs, 0, 10);
+		prevFBits = Double.doubleToRawLongBits(rMgr.getRegister_F());
+		prevPc = rMgr.getRegister(ResourceManager.REG_PC);
+		rMgr.faultInAll(); // 지연 적재 중이면 초기 이미지를 찍기 전에 모두 적재
+		byte[] image = deflate(rMgr.getMemory(0, rMgr.getMemorySize()), rMgr.getMemorySize());
+		out.write(MAGIC);
+		out.writeInt(this.blockSteps);
+		out.writeInt(rMgr.getMemorySize());
+		for (int r : prevRegs) out.writeInt(r);
+		out.writeLong(prevFBits);
+		out.writeInt(image.length);
+		out.write(image);
+		filePosition = MAGIC.length + 4 + 4 + 40 + 8 + 4 + image.length;
+		startBlock();
+	}
+
+	public TraceWriter(File file, ResourceManager resourceManager) throws IOException {
+		this(file, resourceManager, DEFAULT_BLOCK_STEPS);
+	}
+
+	/** 채널 전송이 [address, address+length) 에 방금 쓴 내용을 담아 두었다가 다음 recordStep 레코드에 붙인다 (그 전에 닫으면 버린다) */
+	public void recordChannelWrite(int address, int length) {
+		if (closed || length <= 0 || address < 0 || address + length > rMgr.getMemorySize()) return;
+		if (channelWriteCount * 2 == channelWrites.length) channelWrites = Arrays.copyOf(channelWrites, channelWrites.length * 2);
+		channelWrites[channelWriteCount * 2] = address;
+		channelWrites[channelWriteCount * 2 + 1] = length;
+		channelWriteCount++;
+		channelData.ensure(length);
+		rMgr.readMemory(address, channelData.buf, channelData.len, length);
+		channelData.len += length;
+	}
+
+	/**
+	 * 방금 실행이 끝난 명령어 하나를 기록한다. 레지스터는 실행 후 상태(PC 는 제외)를 rMgr 에서 읽는다.
+	 * @param writeLength 0 이면 메모리 쓰기 없음
+	 */
+	public void recordStep(int pc, int opcode, int ta, int writeAddress, int writeLength) throws IOException {
+		if (closed) return;
+		int[] regs = rMgr.register;
+		int mask = 0;
+		for (int r = 0; r < 10; r++) if (r != ResourceManager.REG_PC && regs[r] != prevRegs[r]) mask |= 1 << r;
+		long fBits = Double.doubleToRawLongBits(rMgr.getRegister_F());
+		if (fBits != prevFBits) mask |= MASK_F;
+		if (ta != InstLuncher.TA_NOT_CALCULATED_YET) mask |= MASK_TA;
+		if (channelWriteCount > 0) mask |= MASK_CHANNEL;
+		if (writeLength < 0 || writeLength > 255 || writeAddress < 0 || writeAddress + writeLength > rMgr.getMemorySize()) writeLength = 0;
+
+		ensureBlockCapacity(32 + 10 * 5 + writeLength + channelWriteCount * 10 + channelData.len);
+		blockBuf[blockLen++] = (byte) opcode;
+		blockBuf[blockLen++] = (byte) (mask >>> 8);
+		blockBuf[blockLen++] = (byte) mask;
+		blockBuf[blockLen++] = (byte) writeLength;
+		putVarint(zigzag(pc - prevPc));
+		if ((mask & MASK_TA) != 0) putVarint(zigzag(ta - pc));
+		for (int r = 0; r < 10; r++) {
+			if ((mask & (1 << r)) != 0) { putVarint(zigzag(regs[r] - prevRegs[r])); prevRegs[r] = regs[r]; }
+		}
+		if ((mask & MASK_F) != 0) { for (int s = 56; s >= 0; s -= 8) blockBuf[blockLen++] = (byte) (fBits >>> s); prevFBits = fBits; }
+		if ((mask & MASK_CHANNEL) != 0) {
+			putVarint(channelWriteCount);
+			int offset = 0;
+			for (int w = 0; w < channelWriteCount; w++) {
+				int address = channelWrites[w * 2], length = channelWrites[w * 2 + 1];
+				putVarint(zigzag(address - pc));
+				putVarint(length);
+				System.arraycopy(channelData.buf, offset, blockBuf, blockLen, length);
+				blockLen += length;
+				offset += length;
+				markWritten(address, length);
+			}
+			channelWriteCount = 0;
+			channelData.len = 0;
+		}
+		if (writeLength > 0) {
+			putVarint(zigzag(writeAddress - pc));
+			rMgr.readMemory(writeAddress, blockBuf, blockLen, writeLength);
+			blockLen += writeLength;
+			markWritten(writeAddress, writeLength);
+		}
+		if (pc >= 0 && pc < rMgr.getMemorySize()) execPages[(pc >> PAGE_SHIFT) >> 6] |= 1L << (pc >> PAGE_SHIFT);
+		prevPc = pc;
+		prevRegs[ResourceManager.REG_PC] = pc;
+		stepCount++;
+		if (++blockRecords >= blockSteps) { flushBlock(); startBlock(); }
+	}
+
+	public long getStepCount() { return stepCount; }
+
+	private void markWritten(int address, int length) {
+		for (int p = address >> PAGE_SHIFT; p <= (address + length - 1) >> PAGE_SHIFT; p++) writePages[p >> 6] |= 1L << p;
+	}
+
+	private void startBlock() {
+		blockLen = 0;
+		blockRecords = 0;
+		blockFirstStep = stepCount;
+		// 블록 시작 상태: 직전 스텝 이후 레지스터, PC 는 아직 모르므로 직전 PC 기준으로 복원한다
+		System.arraycopy(prevRegs, 0, blockStartRegs, 0, 10);
+		blockStartRegs[ResourceManager.REG_PC] = prevPc;
+		blockStartF = prevFBits;
+		Arrays.fill(execPages, 0L);
+		Arrays.fill(writePages, 0L);
+	}
+
+	private void flushBlock() throws IOException {
+		if (blockRecords == 0) return;
+		deflater.reset();
+		deflater.setInput(blockBuf, 0, blockLen);
+		deflater.finish();
+		int compressedLen = 0;
+		while (!deflater.finished()) {
+			if (compressedLen == compressBuf.length) compressBuf = Arrays.copyOf(compressBuf, compressBuf.length * 2);
+			compressedLen += deflater.deflate(compressBuf, compressedLen, compressBuf.length - compressedLen);
+		}
+		out.write(compressBuf, 0, compressedLen);
+
+		index.writeLong(blockFirstStep);
+		index.writeLong(filePosition);
+		index.writeInt(compressedLen);
+		index.writeInt(blockLen);
+		index.writeInt(blockRecords);
+		for (int r : blockStartRegs) index.writeInt(r);
+		index.writeLong(blockStartF);
+		for (long w : execPages) index.writeLong(w);
+		for (long w : writePages) index.writeLong(w);
+		blockCount++;
+		filePosition += compressedLen;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) return;
+		flushBlock();
+		long indexOffset = filePosition;
+		out.write(index.buf, 0, index.len);
+		for (int r = 0; r < 10; r++) out.writeInt(rMgr.register[r]);
+		out.writeLong(Double.doubleToRawLongBits(rMgr.getRegister_F()));
+		out.writeLong(stepCount);
+		out.writeLong(indexOffset);
+		out.writeInt(blockCount);
+		out.write(INDEX_MAGIC);
+		out.close();
+		deflater.end();
+		closed = true;
+	}
+
+	private byte[] deflate(byte[] data, int len) {
+		deflater.reset();
+		deflater.setInput(data, 0, len);
+		deflater.finish();
+		ByteSink sink = new ByteSink(4096);
+		byte[] tmp = new byte[16 * 1024];
+		while (!deflater.finished()) { int n = deflater.deflate(tmp); sink.write(tmp, 0, n); }
+		return Arrays.copyOf(sink.buf, sink.len);
+	}
+
+	private void ensureBlockCapacity(int extra) {
+		if (blockLen + extra > blockBuf.length) blockBuf = Arrays.copyOf(blockBuf, Math.max(blockBuf.length * 2, blockLen + extra));
+	}
+
+	private void putVarint(int v) {
+		while ((v & ~0x7F) != 0) { blockBuf[blockLen++] = (byte) ((v & 0x7F) | 0x80); v >>>= 7; }
+		blockBuf[blockLen++] = (byte) v;
+	}
+
+	static int zigzag(int v) { return (v << 1) ^ (v >> 31); }
+	static int unzigzag(int v) { return (v >>> 1) ^ -(v & 1); }
+
+	// 크기가 늘어나는 간단한 바이트 버퍼
+	private static class ByteSink {
+		byte[] buf; int len;
+		ByteSink(int capacity) { buf = new byte[capacity]; }
+		void write(byte[] b, int off, int n) { ensure(n); System.arraycopy(b, off, buf, len, n); len += n; }
+		void writeInt(int v) { ensure(4); for (int s = 24; s >= 0; s -= 8) buf[len++] = (byte) (v >>> s); }
+		void writeLong(long v) { ensure(8); for (int s = 56; s >= 0; s -= 8) buf[len++] = (byte) (v >>> s); }
+		void ensure(int n) { if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n)); }
+	}
+}
@@ -1,6 +1,7 @@
 package SP25_simulator;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultCaret;
 import javax.swing.text.Highlighter;
 import javax.swing.text.DefaultHighlighter;
@@ -8,6 +9,7 @@ import java.awt.*;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 // 명령어 목록 표시 및 현재 PC 포인팅을 위한 간단한 내부 클래스
 class InstructionDisplayItem {
@@ -22,13 +24,98 @@ class InstructionDisplayItem {
 	}
 }
 
+// 메모리 히트맵 그림: 한 줄에 BLOCKS_PER_ROW 블록, 왼쪽에 줄 시작 주소와 그 줄에서 시작하는 ESTAB 심볼.
+// 읽기는 파랑, 쓰기는 빨강 성분으로 (둘 다면 보라) 로그 눈금 밝기를 준다. 칸에 마우스를 올리면 횟수를 보여준다.
+class HeatmapPanel extends JComponent {
+	private static final long serialVersionUID = 1L;
+	private static final int BLOCKS_PER_ROW = 16;
+	private static final int CELL = 14;
+	private static final int LABEL_WIDTH = 170;
+
+	private final MemoryHeatmap heatmap;
+	private final ResourceManager rMgr;
+
+	HeatmapPanel(MemoryHeatmap heatmap, ResourceManager rMgr) {
+		this.heatmap = heatmap;
+		this.rMgr = rMgr;
+		setToolTipText(""); // 툴팁 켜기 (내용은 getToolTipText(MouseEvent))
+		setFont(new Font("Monospaced", Font.PLAIN, 11));
+	}
+
+	// 프로그램이 차지하는 블록 범위 [first, last]. 적재된 프로그램이 없으면 메모리 전체
+	private int firstBlock() { return rMgr.getProgramTotalLength() > 0 ? rMgr.getActualProgramLoadAddress() >>> heatmap.getBlockShift() : 0; }
+	private int lastBlock() {
+		if (rMgr.getProgramTotalLength() <= 0) return heatmap.getBlockCount() - 1;
+		return Math.min(heatmap.getBlockCount() - 1, (rMgr.getActualProgramLoadAddress() + rMgr.getProgramTotalLength() - 1) >>> heatmap.getBlockShift());
+	}
+	private int rows() { return (lastBlock() - firstBlock()) / BLOCKS_PER_ROW + 1; }
+
+	@Override
+	public Dimension getPreferredSize() { return new Dimension(LABEL_WIDTH + BLOCKS_PER_ROW * CELL + 4, rows() * CELL + 4); }
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, getWidth(), getHeight());
+		int first = firstBlock(), last = lastBlock(), shift = heatmap.getBlockShift();
+		double scale = Math.log1p(Math.max(1, heatmap.getMaxCount()));
+		SymbolIndex symbols = rMgr.getSymbolIndex();
+		FontMetrics fm = g.getFontMetrics();
+		for (int row = 0; row < rows(); row++) {
+			int rowStart = first + row * BLOCKS_PER_ROW, y = row * CELL;
+			int rowEnd = Math.min(last, rowStart + BLOCKS_PER_ROW - 1);
+			g.setColor(Color.DARK_GRAY);
+			g.drawString(String.format("%06X %s", rowStart << shift, rowLabel(symbols, rowStart << shift, (rowEnd + 1) << shift)), 2, y + fm.getAscent());
+			for (int b = rowStart; b <= rowEnd; b++) {
+				int x = LABEL_WIDTH + (b - rowStart) * CELL;
+				int red = intensity(heatmap.getWrites(b), scale), blue = intensity(heatmap.getReads(b), scale);
+				g.setColor(red == 0 && blue == 0 ? new Color(235, 235, 235) : new Color(255 - blue / 2, 255 - red / 2 - blue / 2, 255 - red / 2));
+				g.fillRect(x, y, CELL - 1, CELL - 1);
+			}
+		}
+	}
+
+	// 0(접근 없음)~255, 로그 눈금
+	private static int intensity(long count, double scale) {
+		return count == 0 ? 0 : (int) Math.min(255, 64 + 191 * Math.log1p(count) / scale);
+	}
+
+	// 줄 안에서 시작하는 첫 심볼 (없으면 줄 시작 주소의 "심볼+오프셋")
+	private static String rowLabel(SymbolIndex symbols, int from, int to) {
+		for (int i = 0; i < symbols.size(); i++) {
+			if (symbols.addressAt(i) >= from && symbols.addressAt(i) < to) return symbols.symbolAt(i);
+		}
+		return symbols.size() > 0 ? symbols.format(from) : "";
+	}
+
+	@Override
+	public String getToolTipText(java.awt.event.MouseEvent e) {
+		int col = (e.getX() - LABEL_WIDTH) / CELL, row = e.getY() / CELL;
+		if (e.getX() < LABEL_WIDTH || col >= BLOCKS_PER_ROW) return null;
+		int b = firstBlock() + row * BLOCKS_PER_ROW + col;
+		if (b > lastBlock()) return null;
+		int address = b << heatmap.getBlockShift();
+		return String.format("%06X %s: R=%d W=%d", address, rMgr.getSymbolIndex().format(address), heatmap.getReads(b), heatmap.getWrites(b));
+	}
+}
+
 public class VisualSimulator extends JFrame {
+	private static final long GUI_REFRESH_MILLIS = 50; // 연속 실행 중 화면 갱신 주기
+	private static final int LOG_CHAR_LIMIT = 10000;
+
 	ResourceManager resourceManager;
 	SicLoader sicLoader;
 	SicSimulator sicSimulator;
 	private File currentObjectCodeFile = null;
 
-	private JButton openButton, runOneStepButton, runAllButton, exitButton;
+	private JButton openButton, reloadButton, runOneStepButton, runAllButton, stopButton, heatmapButton, exitButton;
+	private JFrame heatmapWindow;     // 열려 있는 동안만 히트맵이 메모리 이벤트를 구독한다
+	private MemoryHeatmap heatmap;
+	private HeatmapPanel heatmapPanel;
+	private AtomicBoolean runCancelToken; // 실행 중인 allStep 의 취소 토큰
+	private AtomicBoolean loadCancelToken; // 적재 + 목록 만들기의 취소 토큰 (끝나면 null)
+	private SwingWorker<Boolean, Object> loadWorker; // 적재 + 목록 만들기가 끝날 때까지 null 아님
+	private JProgressBar loadProgressBar;
 	private JTextField fileNameField;
 	private JTextField progNameFieldH, startAddrObjFieldH, progLengthFieldH;
 	private JTextField firstInstAddrFieldE, startAddrMemFieldE;
@@ -36,6 +123,7 @@ public class VisualSimulator extends JFrame {
 	private JTextField[] regDecFields = new JTextField[9];
 	private JTextField[] regHexFields = new JTextField[9];
 	private JTextField targetAddrField;
+	private JTextField targetSymbolField; // TA 를 ESTAB 심볼+오프셋으로 표시
 	private JTextArea instructionCodeArea;
 	private JTextField deviceStatusField;
 	private JTextArea logArea;
@@ -44,6 +132,18 @@ public class VisualSimulator extends JFrame {
 	private List<InstructionDisplayItem> instructionDisplayList;
 	private Highlighter.HighlightPainter currentPcHighlightPainter;
 	private Object lastHighlightTag = null;
+	private int displayedPc = 0; // 마지막으로 화면에 그린 스냅샷의 PC
+	// 지금 화면에 있는 명령어 목록: T 레코드 영역마다 한 블록 (재적재 때 바뀐 블록만 다시 그리기 위해 보관)
+	private List<MemoryRegion> listingRegions = new ArrayList<>();
+	private List<List<Disassembler.Line>> listingBlocks = new ArrayList<>();
+
+	// 백그라운드 적재가 게시하는 것: LoadProgress, MEMORY_READY, 역어셈블한 블록 하나
+	private static final Object MEMORY_READY = new Object();
+	private static final class ListingBlock {
+		final MemoryRegion region;
+		final List<Disassembler.Line> lines;
+		ListingBlock(MemoryRegion region, List<Disassembler.Line> lines) { this.region = region; this.lines = lines; }
+	}
 
 	public VisualSimulator() {
 		resourceManager = new ResourceManager();
@@ -62,12 +162,15 @@ public class VisualSimulator extends JFrame {
 		setLocationRelativeTo(null);
 		runOneStepButton.setEnabled(false);
 		runAllButton.setEnabled(false);
+		stopButton.setEnabled(false);
+		reloadButton.setEnabled(false);
 		update();
 	}
 
 	private void initComponents() {
 		// ... (이전과 동일) ...
-		fileNameField = new JTextField(20); fileNameField.setEditable(false); openButton = new JButton("open");
+		fileNameField = new JTextField(20); fileNameField.setEditable(false); openButton = new JButton("open"); reloadButton = new JButton("reload");
+		loadProgressBar = new JProgressBar(0, 100); loadProgressBar.setStringPainted(true); loadProgressBar.setVisible(false);
 		progNameFieldH = new JTextField(6); progNameFieldH.setEditable(false); progNameFieldH.setHorizontalAlignment(JTextField.CENTER);
 		startAddrObjFieldH = new JTextField(6); startAddrObjFieldH.setEditable(false); startAddrObjFieldH.setHorizontalAlignment(JTextField.CENTER);
 		progLengthFieldH = new JTextField(6); progLengthFieldH.setEditable(false); progLengthFieldH.setHorizontalAlignment(JTextField.CENTER);
@@ -76,6 +179,7 @@ public class VisualSimulator extends JFrame {
 		String[] regNamesForLabels = {"A (#0)", "X (#1)", "L (#2)", "B (#3)", "S (#4)", "T (#5)", "F (#6)", "PC (#8)", "SW (#9)"};
 		for (int i = 0; i < regLabels.length; i++) { regLabels[i] = new JLabel(regNamesForLabels[i]); regDecFields[i] = new JTextField(7); regDecFields[i].setEditable(false); regDecFields[i].setHorizontalAlignment(JTextField.RIGHT); regHexFields[i] = new JTextField(6); regHexFields[i].setEditable(false); regHexFields[i].setHorizontalAlignment(JTextField.RIGHT); }
 		targetAddrField = new JTextField(6); targetAddrField.setEditable(false); targetAddrField.setHorizontalAlignment(JTextField.RIGHT);
+		targetSymbolField = new JTextField(10); targetSymbolField.setEditable(false);
 
 		instructionCodeArea = new JTextArea(15, 10);
 		instructionCodeArea.setEditable(false); instructionCodeArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
@@ -84,112 +188,236 @@ public class VisualSimulator extends JFrame {
 		instructionCaret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
 
 		deviceStatusField = new JTextField(4); deviceStatusField.setEditable(false); deviceStatusField.setHorizontalAlignment(JTextField.CENTER);
-		runOneStepButton = new JButton("실행(1step)"); runAllButton = new JButton("실행 (all)"); exitButton = new JButton("종료");
+		runOneStepButton = new JButton("실행(1step)"); runAllButton = new JButton("실행 (all)"); stopButton = new JButton("중지"); heatmapButton = new JButton("heatmap"); exitButton = new JButton("종료");
 		logArea = new JTextArea(10, 15); logArea.setEditable(false); logArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
 		DefaultCaret logCaret = (DefaultCaret)logArea.getCaret(); logCaret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
 	}
 
 	private void layoutComponents() { /* 이전과 동일 */
 		setLayout(new GridBagLayout()); GridBagConstraints gbc = new GridBagConstraints(); gbc.insets = new Insets(3,5,3,5); gbc.anchor = GridBagConstraints.WEST;
-		gbc.gridx = 0; gbc.gridy = 0; add(new JLabel("FileName :"), gbc); gbc.gridx = 1; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.HORIZONTAL; gbc.weightx = 1.0; add(fileNameField, gbc); gbc.gridx = 3; gbc.gridwidth = 1; gbc.fill = GridBagConstraints.NONE; gbc.weightx = 0; add(openButton, gbc);
+		gbc.gridx = 0; gbc.gridy = 0; add(new JLabel("FileName :"), gbc); gbc.gridx = 1; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.HORIZONTAL; gbc.weightx = 1.0; add(fileNameField, gbc); gbc.gridx = 3; gbc.gridwidth = 1; gbc.fill = GridBagConstraints.NONE; gbc.weightx = 0; JPanel filePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 3, 0)); filePanel.add(openButton); filePanel.add(reloadButton); filePanel.add(loadProgressBar); add(filePanel, gbc);
 		JPanel hPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5,2)); hPanel.setBorder(BorderFactory.createTitledBorder("H (Header Record)")); hPanel.add(new JLabel("Program name:")); hPanel.add(progNameFieldH); hPanel.add(new JLabel("Start Address(obj):")); hPanel.add(startAddrObjFieldH); hPanel.add(new JLabel("Length:")); hPanel.add(progLengthFieldH); gbc.gridy = 1; gbc.gridwidth = 4; gbc.fill = GridBagConstraints.HORIZONTAL; add(hPanel, gbc);
 		JPanel ePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5,2)); ePanel.setBorder(BorderFactory.createTitledBorder("E (End Record)")); ePanel.add(new JLabel("First instruction Addr:")); ePanel.add(firstInstAddrFieldE); ePanel.add(new JLabel("Start Address in Memory:")); ePanel.add(startAddrMemFieldE); gbc.gridy = 2; add(ePanel, gbc);
 		JPanel leftPanel = new JPanel(new BorderLayout()); JPanel regPanel = new JPanel(new GridBagLayout()); regPanel.setBorder(BorderFactory.createTitledBorder("Register")); GridBagConstraints rGbc = new GridBagConstraints(); rGbc.anchor = GridBagConstraints.WEST; rGbc.insets = new Insets(1,3,1,3); rGbc.gridy = 0; rGbc.gridx = 1; regPanel.add(new JLabel("Dec"), rGbc); rGbc.gridx = 2; regPanel.add(new JLabel("Hex"), rGbc); for(int i=0; i<regLabels.length; i++) { rGbc.gridy = i+1; rGbc.gridx = 0; rGbc.fill = GridBagConstraints.HORIZONTAL; regPanel.add(regLabels[i], rGbc); rGbc.gridx = 1; rGbc.fill = GridBagConstraints.NONE; regPanel.add(regDecFields[i], rGbc); rGbc.gridx = 2; regPanel.add(regHexFields[i], rGbc); } leftPanel.add(regPanel, BorderLayout.NORTH); gbc.gridx = 0; gbc.gridy = 3; gbc.gridwidth = 1; gbc.gridheight = 2; gbc.fill = GridBagConstraints.VERTICAL; gbc.anchor = GridBagConstraints.NORTHWEST; gbc.weightx = 0.3; add(leftPanel, gbc);
 		JPanel rightPanel = new JPanel(new GridBagLayout()); GridBagConstraints rpGbc = new GridBagConstraints(); rpGbc.fill = GridBagConstraints.HORIZONTAL; rpGbc.anchor = GridBagConstraints.NORTHWEST; rpGbc.insets = new Insets(2,2,2,2); rpGbc.weightx = 1.0;
-		rpGbc.gridx=0; rpGbc.gridy=0; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.NONE; rpGbc.anchor = GridBagConstraints.EAST; rightPanel.add(new JLabel("Target Address :"), rpGbc); rpGbc.gridx=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.HORIZONTAL; rpGbc.anchor = GridBagConstraints.WEST; rightPanel.add(targetAddrField, rpGbc);
-		rpGbc.gridx=0; rpGbc.gridy=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.NONE; rpGbc.anchor = GridBagConstraints.NORTHEAST; rightPanel.add(new JLabel("Instructions :"), rpGbc); JScrollPane instructionScrollPane = new JScrollPane(instructionCodeArea); instructionScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED); instructionScrollPane.setPreferredSize(new Dimension(180, 120)); rpGbc.gridx=1; rpGbc.gridy=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.BOTH; rpGbc.weighty=0.5; rightPanel.add(instructionScrollPane, rpGbc);
+		rpGbc.gridx=0; rpGbc.gridy=0; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.NONE; rpGbc.anchor = GridBagConstraints.EAST; rightPanel.add(new JLabel("Target Address :"), rpGbc); rpGbc.gridx=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.HORIZONTAL; rpGbc.anchor = GridBagConstraints.WEST; JPanel taPanel = new JPanel(new BorderLayout(4, 0)); taPanel.add(targetAddrField, BorderLayout.WEST); taPanel.add(targetSymbolField, BorderLayout.CENTER); rightPanel.add(taPanel, rpGbc);
+		rpGbc.gridx=0; rpGbc.gridy=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.NONE; rpGbc.anchor = GridBagConstraints.NORTHEAST; rightPanel.add(new JLabel("Instructions :"), rpGbc); JScrollPane instructionScrollPane = new JScrollPane(instructionCodeArea); instructionScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED); instructionScrollPane.setPreferredSize(new Dimension(260, 120)); rpGbc.gridx=1; rpGbc.gridy=1; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.BOTH; rpGbc.weighty=0.5; rightPanel.add(instructionScrollPane, rpGbc);
 		rpGbc.gridx=0; rpGbc.gridy=2; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.NONE; rpGbc.anchor = GridBagConstraints.EAST; rpGbc.weighty=0; rightPanel.add(new JLabel("사용중인 장치:"), rpGbc); rpGbc.gridx=1; rpGbc.gridy=2; rpGbc.gridwidth=1; rpGbc.fill = GridBagConstraints.HORIZONTAL; rpGbc.anchor = GridBagConstraints.WEST; rightPanel.add(deviceStatusField, rpGbc);
 		JPanel logPanelContainer = new JPanel(new BorderLayout()); logPanelContainer.setBorder(BorderFactory.createTitledBorder("Log")); JScrollPane logScrollPane = new JScrollPane(logArea); logScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED); logPanelContainer.add(logScrollPane, BorderLayout.CENTER); rpGbc.gridx=0; rpGbc.gridy=3; rpGbc.gridwidth=2; rpGbc.fill = GridBagConstraints.BOTH; rpGbc.weighty=0.5; rightPanel.add(logPanelContainer, rpGbc);
 		gbc.gridx = 1; gbc.gridy = 3; gbc.gridwidth = 3; gbc.gridheight = 2; gbc.fill = GridBagConstraints.BOTH; gbc.anchor = GridBagConstraints.NORTHWEST; gbc.weightx = 0.7; gbc.weighty = 1.0; add(rightPanel, gbc);
-		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5)); buttonPanel.add(runOneStepButton); buttonPanel.add(runAllButton); buttonPanel.add(exitButton); gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 4; gbc.gridheight = 1; gbc.fill = GridBagConstraints.HORIZONTAL; gbc.anchor = GridBagConstraints.CENTER; gbc.weightx = 1.0; gbc.weighty = 0; add(buttonPanel, gbc);
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5)); buttonPanel.add(runOneStepButton); buttonPanel.add(runAllButton); buttonPanel.add(stopButton); buttonPanel.add(heatmapButton); buttonPanel.add(exitButton); gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 4; gbc.gridheight = 1; gbc.fill = GridBagConstraints.HORIZONTAL; gbc.anchor = GridBagConstraints.CENTER; gbc.weightx = 1.0; gbc.weighty = 0; add(buttonPanel, gbc);
 	}
 	private void addListeners() { /* 이전과 동일 */
 		openButton.addActionListener(e -> {JFileChooser fc=new JFileChooser(".");fc.setDialogTitle("Open SIC/XE Object Code File");if(fc.showOpenDialog(VisualSimulator.this)==JFileChooser.APPROVE_OPTION){load(fc.getSelectedFile());}});
+		reloadButton.addActionListener(e -> reload());
+		heatmapButton.addActionListener(e -> showHeatmap());
 		runOneStepButton.addActionListener(e -> oneStep()); runAllButton.addActionListener(e -> allStep());
+		stopButton.addActionListener(e -> { if (runCancelToken != null) runCancelToken.set(true); else if (loadCancelToken != null) loadCancelToken.set(true); }); // 실행 중이면 실행부터 멈춘다
 		exitButton.addActionListener(e -> {resourceManager.closeDevices();System.exit(0);});
 	}
 
+	/**
+	 * 백그라운드에서 적재한다: initializeResource → SicLoader.load (진행 상황을 진행 막대에 표시) → programLoaded.
+	 * 메모리가 준비되면 레지스터를 보이고 실행 버튼을 켠다. 목록은 그 시점의 메모리를 얼린 이미지(shareImage)를 붙인
+	 * 별도 ResourceManager 에서 T 레코드 영역별로 역어셈블해 이어 붙이므로, 목록을 만드는 동안 실행해도 서로 간섭하지 않는다.
+	 * 중지 버튼은 목록이 끝날 때까지 켜져 있다. 메모리 적재 중에 취소하면 메모리를 비우고, 목록 단계에서 취소하면 목록만 멈춘다.
+	 */
 	public void load(File program) {
+		if (program == null) { logToGui("[Error] Program file is null."); return; }
+		if (loadWorker != null) { logToGui("[Error] Already loading."); return; }
 		logToGui("");
+		removeCurrentPcHighlight(); // 이전 하이라이트 제거
 		instructionCodeArea.setText("");
 		instructionDisplayList.clear(); // 새 파일 로드 시 이전 목록 초기화
-		removeCurrentPcHighlight(); // 이전 하이라이트 제거
+		listingRegions = new ArrayList<>();
+		listingBlocks = new ArrayList<>();
 
-		if (program == null) { logToGui("[Error] Program file is null."); return; }
 		currentObjectCodeFile = program; fileNameField.setText(program.getName());
-		try {
-			resourceManager.initializeResource();
-			sicLoader.load(program);
-			sicSimulator.programLoaded();
-
-			if (resourceManager.getProgramName() != null && !resourceManager.getProgramName().isEmpty()) {
-				runOneStepButton.setEnabled(true); runAllButton.setEnabled(true);
-				List<String> initLogs = sicSimulator.getExecutionLog();
-				if(!initLogs.isEmpty()) { for(String logEntry : initLogs) { logToGui(logEntry); } }
-				else { logToGui("Program '" + program.getName() + "' loaded. PC: " + String.format("0x%06X", resourceManager.getRegister(ResourceManager.REG_PC))); }
-
-				StringBuilder instructionsDisplayText = new StringBuilder();
-				List<MemoryRegion> loadedRegions = resourceManager.getTRecordLoadedRegions();
-				int currentLineNumberForHighlight = 0;
-
-				if (loadedRegions.isEmpty() && resourceManager.getProgramTotalLength() > 0) {
-					instructionCodeArea.setText("(No T-records with content or T-regions not registered)");
-				} else {
-					for (MemoryRegion region : loadedRegions) {
-						byte[] regionMemoryBytes = resourceManager.getMemory(region.getStartAddress(), region.getLength());
-						if (regionMemoryBytes.length == 0) continue;
-
-						int currentOffsetInRegion = 0;
-						while (currentOffsetInRegion < regionMemoryBytes.length) {
-							int actualMemoryAddressForThisInstruction = region.getStartAddress() + currentOffsetInRegion;
-							int bytesAvailableToPeek = regionMemoryBytes.length - currentOffsetInRegion;
-							int bytesToPeek = Math.min(4, bytesAvailableToPeek);
-
-							if (bytesToPeek <= 0) break;
-
-							byte[] instructionPrefixBytes = new byte[bytesToPeek];
-							System.arraycopy(regionMemoryBytes, currentOffsetInRegion, instructionPrefixBytes, 0, bytesToPeek);
-
-							int instructionLen = InstLuncher.getInstructionLengthFromBytes(instructionPrefixBytes);
-
-							if (instructionLen == 0) {
-								if (bytesAvailableToPeek > 0) {
-									currentOffsetInRegion += 1;
-									continue;
-								}
-								break;
-							}
-
-							if (currentOffsetInRegion + instructionLen > regionMemoryBytes.length) {
-								break;
-							}
-
-							StringBuilder currentInstructionHex = new StringBuilder();
-							for (int k = 0; k < instructionLen; k++) {
-								currentInstructionHex.append(String.format("%02X", regionMemoryBytes[currentOffsetInRegion + k] & 0xFF));
-							}
-							String hexString = currentInstructionHex.toString();
-							instructionsDisplayText.append(hexString).append("\n");
-							instructionDisplayList.add(new InstructionDisplayItem(actualMemoryAddressForThisInstruction, hexString, currentLineNumberForHighlight));
-							currentLineNumberForHighlight++;
-
-							currentOffsetInRegion += instructionLen;
-						}
+		openButton.setEnabled(false); reloadButton.setEnabled(false);
+		runOneStepButton.setEnabled(false); runAllButton.setEnabled(false);
+		final AtomicBoolean cancelToken = new AtomicBoolean(false);
+		loadCancelToken = cancelToken;
+		stopButton.setEnabled(true);
+		loadProgressBar.setValue(0); loadProgressBar.setString("loading"); loadProgressBar.setVisible(true);
+
+		loadWorker = new SwingWorker<Boolean, Object>() {
+			@Override
+			protected Boolean doInBackground() {
+				// 메모리 적재 단계: 끝날 때까지 EDT 는 ResourceManager 를 건드리지 않는다
+				resourceManager.initializeResource();
+				boolean loaded = sicLoader.load(program, new LoadMonitor() {
+					@Override public void progress(LoadProgress progress) { publish(progress.snapshot()); }
+					@Override public boolean isCancelled() { return cancelToken.get(); }
+				});
+				if (!loaded || resourceManager.getProgramName() == null || resourceManager.getProgramName().isEmpty()) {
+					resourceManager.initializeResource();
+					return false;
+				}
+				sicSimulator.programLoaded();
+				ResourceManager snapshot = new ResourceManager();
+				snapshot.mapImage(resourceManager.shareImage()); // 실행이 시작되기 전에 얼린다. 이후 실행의 쓰기는 페이지를 복사해 간다
+				publish(MEMORY_READY);
+
+				// 목록 단계: 얼린 메모리를 영역마다 역어셈블해서 하나씩 게시 (그동안 실행할 수 있다)
+				Disassembler disassembler = new Disassembler(snapshot);
+				for (MemoryRegion region : snapshot.getTRecordLoadedRegions()) {
+					if (cancelToken.get()) break;
+					publish(new ListingBlock(region, disassembler.disassemble(region.getStartAddress(), region.getLength())));
+				}
+				return true;
+			}
+			@Override
+			protected void process(List<Object> chunks) {
+				for (Object chunk : chunks) {
+					if (chunk instanceof LoadProgress) showLoadProgress((LoadProgress) chunk);
+					else if (chunk == MEMORY_READY) memoryReady();
+					else appendListingBlock((ListingBlock) chunk);
+				}
+			}
+			@Override
+			protected void done() {
+				boolean loaded = false;
+				try { loaded = get(); } catch (Exception e) { logToGui("[Error] Load: " + e.getMessage()); e.printStackTrace(System.err); }
+				loadWorker = null;
+				loadCancelToken = null;
+				loadProgressBar.setVisible(false);
+				openButton.setEnabled(true);
+				if (loaded) {
+					reloadButton.setEnabled(runCancelToken == null);
+					stopButton.setEnabled(runCancelToken != null);
+					if (cancelToken.get()) {
+						logToGui("Listing cancelled: " + instructionDisplayList.size() + " instructions in " + listingRegions.size() + " regions");
+					} else {
+						if (listingRegions.isEmpty() && resourceManager.getProgramTotalLength() > 0) instructionCodeArea.setText("(No T-records with content or T-regions not registered)");
+						logToGui("Listing ready: " + instructionDisplayList.size() + " instructions in " + listingRegions.size() + " regions");
 					}
+				} else {
+					logToGui(cancelToken.get() ? "Load cancelled." : "[Error] Failed to load program details.");
+					currentObjectCodeFile = null;
+					stopButton.setEnabled(false);
+					runOneStepButton.setEnabled(false); runAllButton.setEnabled(false);
+					update();
 				}
-				instructionCodeArea.setText(instructionsDisplayText.toString());
-				instructionCodeArea.setCaretPosition(0);
-				// 로드 후 첫 PC 위치 하이라이트
-				highlightCurrentPc();
-
-			} else { logToGui("[Error] Failed to load program details."); runOneStepButton.setEnabled(false); runAllButton.setEnabled(false); }
-		} catch (Exception e) { logToGui("[Error] Load: " + e.getMessage()); e.printStackTrace(System.err); runOneStepButton.setEnabled(false); runAllButton.setEnabled(false); }
-		update(); // update는 레지스터 값 등을 표시하므로 load 후 호출
+			}
+		};
+		loadWorker.execute();
+	}
+
+	private void showLoadProgress(LoadProgress progress) {
+		loadProgressBar.setValue(progress.getPercent());
+		loadProgressBar.setString(String.format("%d rec, %d B, %d M", progress.getRecords(), progress.getBytesLoaded(), progress.getRelocations()));
+	}
+
+	// 메모리 적재와 programLoaded 가 끝났다: 레지스터를 보이고 실행 버튼을 켠다. 중지 버튼은 목록 취소용으로 남긴다
+	private void memoryReady() {
+		runOneStepButton.setEnabled(true); runAllButton.setEnabled(true);
+		update(); // update는 레지스터 값 등을 표시하므로 로드 후 호출
+		logToGui(String.format("Loaded '%s': %d bytes, PC 0x%06X", resourceManager.getProgramName(), resourceManager.getProgramTotalLength(), displayedPc));
+	}
+
+	// 역어셈블한 블록 하나를 목록 끝에 붙이고, 현재 PC 가 들어 있으면 하이라이트한다
+	private void appendListingBlock(ListingBlock block) {
+		int lineNumber = instructionDisplayList.size();
+		boolean hasPc = false;
+		for (Disassembler.Line line : block.lines) {
+			instructionDisplayList.add(new InstructionDisplayItem(line.getAddress(), line.getHex(), lineNumber++));
+			if (line.getAddress() == displayedPc) hasPc = true;
+		}
+		instructionCodeArea.append(blockText(block.lines));
+		listingRegions.add(block.region);
+		listingBlocks.add(block.lines);
+		if (hasPc) highlightCurrentPc();
+	}
+
+	/**
+	 * 지금 열려 있는 파일을 다시 읽어 바뀐 부분만 반영한다 (SicLoader.reload). 브레이크포인트는 심볼+오프셋으로 옮기고,
+	 * 명령어 목록은 내용이 바뀐 블록의 줄만 바꾼다. 새 파일을 적재하지 못하면 지금 프로그램을 그대로 둔다.
+	 */
+	public void reload() {
+		if (currentObjectCodeFile == null) { logToGui("[Error] No program to reload."); return; }
+		ReloadResult result;
+		try { result = sicLoader.reload(currentObjectCodeFile); }
+		catch (Exception e) { logToGui("[Error] Reload: " + e.getMessage()); e.printStackTrace(System.err); return; }
+		if (result == null) { logToGui("[Error] Reload failed; program unchanged."); return; }
+		int breakpoints = sicSimulator.remapBreakpoints(result.getOldSymbols(), resourceManager.getSymbolIndex());
+		sicSimulator.programLoaded();
+		int rows = refreshInstructionListing(true);
+		runOneStepButton.setEnabled(true); runAllButton.setEnabled(true);
+		logToGui("Reloaded: " + result + "; listing rows updated: " + rows + ", breakpoints: " + breakpoints);
+		update();
+		highlightCurrentPc();
+	}
+
+	// 명령어 목록을 다시 그리고 바뀐 줄 수를 반환한다. incremental 이고 T 레코드 영역 구성이 그대로면
+	// 내용이 달라진 블록만 바꾸고, 아니면 전체를 다시 그린다.
+	private int refreshInstructionListing(boolean incremental) {
+		removeCurrentPcHighlight();
+		List<MemoryRegion> regions = resourceManager.getTRecordLoadedRegions();
+		Disassembler disassembler = sicSimulator.getDisassembler();
+		List<List<Disassembler.Line>> blocks = new ArrayList<>();
+		for (MemoryRegion region : regions) blocks.add(disassembler.disassemble(region.getStartAddress(), region.getLength()));
+
+		int changedRows = 0;
+		boolean patched = false;
+		if (incremental && SicLoader.sameRegions(regions, listingRegions)) {
+			int[] firstLine = new int[blocks.size()];
+			for (int i = 1; i < blocks.size(); i++) firstLine[i] = firstLine[i - 1] + listingBlocks.get(i - 1).size();
+			try {
+				// 뒤 블록부터 바꿔야 앞 블록들의 줄 위치가 그대로 유지된다
+				for (int i = blocks.size() - 1; i >= 0; i--) {
+					if (sameLines(blocks.get(i), listingBlocks.get(i))) continue;
+					int from = instructionCodeArea.getLineStartOffset(firstLine[i]);
+					int to = instructionCodeArea.getLineStartOffset(firstLine[i] + listingBlocks.get(i).size());
+					instructionCodeArea.replaceRange(blockText(blocks.get(i)), from, to);
+					changedRows += blocks.get(i).size();
+				}
+				patched = true;
+			} catch (BadLocationException e) {
+				changedRows = 0; // 화면과 보관한 목록이 어긋났으면 전체를 다시 그린다
+			}
+		}
+		if (!patched) {
+			if (regions.isEmpty() && resourceManager.getProgramTotalLength() > 0) {
+				instructionCodeArea.setText("(No T-records with content or T-regions not registered)");
+				blocks.clear();
+				regions.clear();
+			} else {
+				StringBuilder text = new StringBuilder();
+				for (List<Disassembler.Line> block : blocks) { text.append(blockText(block)); changedRows += block.size(); }
+				instructionCodeArea.setText(text.toString());
+			}
+			instructionCodeArea.setCaretPosition(0);
+		}
+
+		instructionDisplayList.clear();
+		int lineNumber = 0;
+		for (List<Disassembler.Line> block : blocks) {
+			for (Disassembler.Line line : block) instructionDisplayList.add(new InstructionDisplayItem(line.getAddress(), line.getHex(), lineNumber++));
+		}
+		listingRegions = regions;
+		listingBlocks = blocks;
+		return changedRows;
+	}
+
+	private static String blockText(List<Disassembler.Line> block) {
+		StringBuilder sb = new StringBuilder();
+		for (Disassembler.Line line : block) sb.append(String.format("%-8s %s", line.getHex(), line.getText())).append("\n");
+		return sb.toString();
+	}
+
+	private static boolean sameLines(List<Disassembler.Line> a, List<Disassembler.Line> b) {
+		if (a == b) return true;
+		if (a.size() != b.size()) return false;
+		for (int i = 0; i < a.size(); i++) {
+			Disassembler.Line x = a.get(i), y = b.get(i);
+			if (x.getAddress() != y.getAddress() || !x.getHex().equals(y.getHex()) || !x.getText().equals(y.getText())) return false;
+		}
+		return true;
 	}
 
 	private void highlightCurrentPc() {
 		removeCurrentPcHighlight(); // 이전 하이라이트 제거
-		int currentPc = resourceManager.getRegister(ResourceManager.REG_PC);
+		int currentPc = displayedPc;
 		for (InstructionDisplayItem item : instructionDisplayList) {
 			if (item.startAddress == currentPc) {
 				try {
@@ -234,68 +462,127 @@ public class VisualSimulator extends JFrame {
 			logToGui("--- Starting All Step ---");
 			runOneStepButton.setEnabled(false); // 실행 중에는 버튼 비활성화
 			runAllButton.setEnabled(false);
+			reloadButton.setEnabled(false);
+			final AtomicBoolean cancelToken = new AtomicBoolean(false);
+			runCancelToken = cancelToken;
+			stopButton.setEnabled(true);
 
-			new SwingWorker<Void, Void>() {
+			new SwingWorker<RunResult, RunResult>() {
 				@Override
-				protected Void doInBackground() throws Exception {
-					while(sicSimulator.isReadyToRun()){
-						if (!sicSimulator.oneStep()) break;
-						// 각 스텝 후 GUI 업데이트 및 하이라이트를 Event Dispatch Thread에서 처리
-						SwingUtilities.invokeLater(() -> {
-							update();
-							highlightCurrentPc();
-						});
-						if (isCancelled()) break;
-						// Thread.sleep(50); // 너무 빠르면 GUI 업데이트가 안보일 수 있으므로 약간의 딜레이 (선택적)
-					}
-					return null;
+				protected RunResult doInBackground() throws Exception {
+					// GUI_REFRESH_MILLIS 마다 TIMEOUT 으로 돌아와 화면을 갱신하고 이어서 실행
+					long total = 0;
+					RunResult result;
+					do {
+						result = sicSimulator.run(SicSimulator.UNLIMITED_BUDGET, GUI_REFRESH_MILLIS, cancelToken);
+						total += result.getExecutedInstructions();
+						publish(result);
+					} while (result.getReason() == StopReason.TIMEOUT && !isCancelled());
+					return new RunResult(result.getReason(), total, result.getPc());
+				}
+				@Override
+				protected void process(List<RunResult> chunks) {
+					update();
+					highlightCurrentPc();
 				}
 				@Override
 				protected void done() {
-					try { get(); } catch (Exception e) { logToGui("[Error]AllStep:"+e.getMessage());e.printStackTrace(System.err); }
-					// 최종 상태 업데이트
-					SwingUtilities.invokeLater(() -> {
-						update();
-						highlightCurrentPc();
-						if (!sicSimulator.isReadyToRun()) {
-							runOneStepButton.setEnabled(false);
-							runAllButton.setEnabled(false);
-						} else {
-							runOneStepButton.setEnabled(true); // 아직 실행 가능하면 버튼 다시 활성화
-							runAllButton.setEnabled(true);
-						}
-						logToGui("--- All Step Finished ---");
-					});
+					RunResult result = null;
+					try { result = get(); } catch (Exception e) { logToGui("[Error]AllStep:"+e.getMessage());e.printStackTrace(System.err); }
+					// 최종 상태 업데이트 (done()은 Event Dispatch Thread 에서 호출됨)
+					runCancelToken = null;
+					stopButton.setEnabled(loadCancelToken != null); // 목록을 아직 만드는 중이면 그 취소용으로 남긴다
+					reloadButton.setEnabled(loadWorker == null);
+					update();
+					highlightCurrentPc();
+					if (!sicSimulator.isReadyToRun()) {
+						runOneStepButton.setEnabled(false);
+						runAllButton.setEnabled(false);
+					} else {
+						runOneStepButton.setEnabled(true); // 아직 실행 가능하면 버튼 다시 활성화
+						runAllButton.setEnabled(true);
+					}
+					logToGui("--- All Step Finished" + (result != null ? ": " + result : "") + " ---");
 				}
 			}.execute();
 		} else { logToGui("Program not ready/finished."); }
 	}
 
+	// 히트맵 창을 연다. 창이 열려 있는 동안 실행되는 명령어의 피연산자 접근을 센다 (그동안 루프 관용구는 쓰지 않는다)
+	private void showHeatmap() {
+		if (heatmapWindow != null) { heatmapWindow.toFront(); return; }
+		heatmap = new MemoryHeatmap(resourceManager.getMemorySize());
+		heatmapPanel = new HeatmapPanel(heatmap, resourceManager);
+		sicSimulator.getEvents().addMemoryListener(heatmap);
+
+		JButton resetButton = new JButton("reset"), exportButton = new JButton("export CSV");
+		resetButton.addActionListener(e -> { heatmap.reset(); heatmapPanel.repaint(); });
+		exportButton.addActionListener(e -> {
+			JFileChooser fc = new JFileChooser(".");
+			fc.setSelectedFile(new File("heatmap.csv"));
+			if (fc.showSaveDialog(heatmapWindow) != JFileChooser.APPROVE_OPTION) return;
+			try { heatmap.writeCsv(fc.getSelectedFile().toPath(), resourceManager.getSymbolIndex()); logToGui("Heatmap saved: " + fc.getSelectedFile()); }
+			catch (java.io.IOException ex) { logToGui("[Error] Heatmap export: " + ex.getMessage()); }
+		});
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+		buttons.add(resetButton); buttons.add(exportButton);
+		buttons.add(new JLabel(String.format("%d-byte blocks, blue=read red=write", heatmap.getBlockSize())));
+
+		heatmapWindow = new JFrame("Memory heatmap");
+		heatmapWindow.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+		heatmapWindow.add(new JScrollPane(heatmapPanel), BorderLayout.CENTER);
+		heatmapWindow.add(buttons, BorderLayout.SOUTH);
+		heatmapWindow.addWindowListener(new java.awt.event.WindowAdapter() {
+			@Override
+			public void windowClosed(java.awt.event.WindowEvent e) {
+				sicSimulator.getEvents().removeMemoryListener(heatmap);
+				heatmapWindow = null; heatmap = null; heatmapPanel = null;
+			}
+		});
+		heatmapWindow.setSize(480, 420);
+		heatmapWindow.setLocationRelativeTo(this);
+		heatmapWindow.setVisible(true);
+	}
+
 	public void update() {
-		// ... (기존 update 내용 동일) ...
+		if (heatmapPanel != null) { heatmapPanel.revalidate(); heatmapPanel.repaint(); }
+		// H/E 레코드 정보는 로드 시에만 바뀌므로 ResourceManager 에서 직접 읽는다
 		progNameFieldH.setText(resourceManager.getProgramName()); startAddrObjFieldH.setText(String.format("%06X", resourceManager.getHRecordObjectProgramStartAddress())); progLengthFieldH.setText(String.format("%06X", resourceManager.getProgramTotalLength()));
 		firstInstAddrFieldE.setText(String.format("%06X", resourceManager.getFirstInstructionAddress())); startAddrMemFieldE.setText(String.format("%06X", resourceManager.getActualProgramLoadAddress()));
-		updateRegisterField(ResourceManager.REG_A, 0, 6); updateRegisterField(ResourceManager.REG_X, 1, 6); updateRegisterField(ResourceManager.REG_L, 2, 6); updateRegisterField(ResourceManager.REG_B, 3, 6); updateRegisterField(ResourceManager.REG_S, 4, 6); updateRegisterField(ResourceManager.REG_T, 5, 6);
-		double fVal = resourceManager.getRegister_F(); regDecFields[6].setText(String.format("%.5e", fVal)); regHexFields[6].setText(String.format("%012X", Double.doubleToRawLongBits(fVal)).substring(0,12));
-		updateRegisterField(ResourceManager.REG_PC, 7, 6); updateRegisterField(ResourceManager.REG_SW, 8, 6);
-		int lastTA = (sicSimulator.instLuncher != null) ? sicSimulator.instLuncher.getLastCalculatedTA() : InstLuncher.TA_NOT_CALCULATED_YET; targetAddrField.setText((lastTA != InstLuncher.TA_NOT_CALCULATED_YET) ? String.format("%06X", lastTA) : "000000");
-		deviceStatusField.setText(resourceManager.getLastAccessedDeviceName());
-
-		// LogArea 업데이트는 SicSimulator에서 직접 하지 않고, 여기서 getExecutionLog()를 통해 가져와서 표시
-		logArea.setText(""); // 기존 로그 지우기
-		if (sicSimulator.getExecutionLog() != null) {
-			for (String guiLogEntry : sicSimulator.getExecutionLog()) {
-				logArea.append(guiLogEntry + "\n");
-			}
+
+		// 실행 상태는 실행 스레드가 게시한 최신 스냅샷으로만 그린다 (새 스냅샷이 없으면 화면 유지)
+		SimulatorSnapshot snap = sicSimulator.takeSnapshot();
+		if (snap == null) return;
+		updateRegisterField(snap, ResourceManager.REG_A, 0, 6); updateRegisterField(snap, ResourceManager.REG_X, 1, 6); updateRegisterField(snap, ResourceManager.REG_L, 2, 6); updateRegisterField(snap, ResourceManager.REG_B, 3, 6); updateRegisterField(snap, ResourceManager.REG_S, 4, 6); updateRegisterField(snap, ResourceManager.REG_T, 5, 6);
+		double fVal = snap.getRegister_F(); regDecFields[6].setText(String.format("%.5e", fVal)); regHexFields[6].setText(String.format("%012X", Double.doubleToRawLongBits(fVal)).substring(0,12));
+		updateRegisterField(snap, ResourceManager.REG_PC, 7, 6); updateRegisterField(snap, ResourceManager.REG_SW, 8, 6);
+		int lastTA = snap.getTargetAddress(); targetAddrField.setText((lastTA != InstLuncher.TA_NOT_CALCULATED_YET) ? String.format("%06X", lastTA) : "000000");
+		targetSymbolField.setText((lastTA != InstLuncher.TA_NOT_CALCULATED_YET && resourceManager.getSymbolIndex().size() > 0) ? resourceManager.getSymbolIndex().format(lastTA) : "");
+		deviceStatusField.setText(snap.getDeviceName());
+		displayedPc = snap.getRegister(ResourceManager.REG_PC);
+
+		// 스냅샷에는 이전 스냅샷 이후 새로 생긴 로그만 들어 있으므로 이어 붙인다
+		if (snap.getDroppedLogEntries() > 0) logToGui("... (" + snap.getDroppedLogEntries() + " log lines skipped)");
+		if (!snap.getNewLogEntries().isEmpty()) {
+			StringBuilder sb = new StringBuilder();
+			for (String guiLogEntry : snap.getNewLogEntries()) sb.append(guiLogEntry).append('\n');
+			logArea.append(sb.toString());
+			trimLogArea();
 		}
 	}
 
-	private void updateRegisterField(int regConst, int fieldIndex, int hexDigits) { /* 이전과 동일 */
-		if (fieldIndex < 0 || fieldIndex >= regDecFields.length || fieldIndex >= regHexFields.length) { System.err.println("VS.updateRegField: Invalid fieldIdx " + fieldIndex + " for regConst " + regConst); return; } int val = resourceManager.getRegister(regConst);
+	private void updateRegisterField(SimulatorSnapshot snap, int regConst, int fieldIndex, int hexDigits) {
+		if (fieldIndex < 0 || fieldIndex >= regDecFields.length || fieldIndex >= regHexFields.length) { System.err.println("VS.updateRegField: Invalid fieldIdx " + fieldIndex + " for regConst " + regConst); return; } int val = snap.getRegister(regConst);
 		regDecFields[fieldIndex].setText(Integer.toString(val)); regHexFields[fieldIndex].setText(String.format("%0" + hexDigits + "X", val & 0xFFFFFF));
 	}
+	// 로그 창이 LOG_CHAR_LIMIT 를 넘으면 앞부분을 줄 단위로 잘라낸다
+	private void trimLogArea() {
+		int overflow = logArea.getDocument().getLength() - LOG_CHAR_LIMIT;
+		if (overflow <= 0) return;
+		try { int end = logArea.getLineEndOffset(logArea.getLineOfOffset(overflow)); logArea.replaceRange("", 0, end); } catch (Exception e) { logArea.setText(""); }
+	}
 	private void logToGui(String message) { /* 이전과 동일 */
-		if (logArea.getText().length() > 10000) { try { int end = logArea.getLineEndOffset(50); logArea.replaceRange("", 0, end); } catch (Exception e) { logArea.setText(""); } } logArea.append(message + "\n");
+		if (logArea.getDocument().getLength() > LOG_CHAR_LIMIT) { try { int end = logArea.getLineEndOffset(50); logArea.replaceRange("", 0, end); } catch (Exception e) { logArea.setText(""); } } logArea.append(message + "\n");
 	}
 	public static void main(String[] args) { /* 이전과 동일 */
 		EventQueue.invokeLater(() -> { try { UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName()); } catch (Exception e) { System.err.println("Warn: Could not set system LnF."); } VisualSimulator frame = new VisualSimulator(); frame.setVisible(true); });
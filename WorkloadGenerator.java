@@ -0,0 +1,396 @@
+package SP25_simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 벤치마크용 합성 목적 코드 생성기. 여러 컨트롤 섹션으로 된 올바른 목적 코드(H/D/R/T/M/E)를 만든다:
+ *   - 첫 섹션 MAIN 은 각 작업 섹션을 +JSUB 로 부르고 (EXTREF + M 레코드), 끝나면 프로그램 끝 바로 뒤로 +J 해서 HALT 한다.
+ *   - 작업 섹션 W00001.. 은 종류별 루프를 iterations 번 돌고, 결과를 MAIN 의 TOTAL(EXTDEF)에 더한 뒤 RSUB 한다.
+ *     자기 결과 워드는 R00001.. 로 EXTDEF 한다.
+ *   - 배열과 주소 표는 +형식(형식 4)이나 WORD 주소 상수로 참조하므로 섹션마다 M 레코드가 생기고,
+ *     relocs 개수만큼 주소 상수 표(각각 M 레코드)를 더 붙인다. T 레코드 수는 data 크기를 따라 는다.
+ * 작업 종류:
+ *   arith    LDA/ADD/MUL/SUB/DIV/STA 누적 루프 (TIXR/JLT)
+ *   copy     LDCH/STCH 인덱스 복사 루프 (원본은 T 레코드, 대상은 RESB)
+ *   io       TD/WD 로 장치에 data 바이트씩 쓴다 (장치 파일은 현재 디렉터리에 생긴다)
+ *   indirect 간접 주소(@PTR)와 인덱스 주소(TAB,X) 로 워드 표를 합산
+ *   mixed    섹션마다 위 넷을 돌아가며
+ *
+ * 사용법: WorkloadGenerator <출력 파일> [--sections N] [--iterations N] [--data 바이트] [--relocs N] [--mix 종류] [--device 16진수]
+ */
+public class WorkloadGenerator {
+	public enum Mix { ARITH, COPY, IO, INDIRECT, MIXED }
+
+	public static final int DEFAULT_IO_DEVICE = 0x0E;
+	private static final int MEMORY_SIZE = 1 << 16;
+	private static final int T_RECORD_BYTES = 30;
+
+	// 생성 설정. 값은 섹션 하나 기준
+	public static final class Config {
+		int sections = 4;
+		int iterations = 100;
+		int dataBytes = 256;
+		int relocations = 16;
+		Mix mix = Mix.MIXED;
+		int ioDevice = DEFAULT_IO_DEVICE;
+
+		public Config sections(int n) { if (n < 1 || n > 99999) throw new IllegalArgumentException("Sections out of range: " + n); sections = n; return this; }
+		public Config iterations(int n) { if (n < 1 || n > 0xFFFFF) throw new IllegalArgumentException("Iterations out of range: " + n); iterations = n; return this; }
+		public Config dataBytes(int n) { if (n < 3 || n > 0xFFFFF) throw new IllegalArgumentException("Data size out of range: " + n); dataBytes = n; return this; }
+		public Config relocations(int n) { if (n < 0) throw new IllegalArgumentException("Relocations out of range: " + n); relocations = n; return this; }
+		public Config mix(Mix m) { mix = m; return this; }
+		public Config ioDevice(int d) { if (d < 0 || d > 0xFF) throw new IllegalArgumentException("Device out of range: " + d); ioDevice = d; return this; }
+
+		public int getSections() { return sections; }
+		public int getIterations() { return iterations; }
+		public int getDataBytes() { return dataBytes; }
+		public int getRelocations() { return relocations; }
+		public Mix getMix() { return mix; }
+		public int getIoDevice() { return ioDevice; }
+	}
+
+	private static final int OP_LDA = 0x00, OP_LDX = 0x04, OP_LDT = 0x74, OP_STA = 0x0C, OP_ADD = 0x18, OP_SUB = 0x1C,
+			OP_MUL = 0x20, OP_DIV = 0x24, OP_COMP = 0x28, OP_J = 0x3C, OP_JEQ = 0x30, OP_JGT = 0x34, OP_JLT = 0x38,
+			OP_JSUB = 0x48, OP_RSUB = 0x4C, OP_LDCH = 0x50, OP_STCH = 0x54, OP_TD = 0xE0, OP_WD = 0xDC,
+			OP_ADDR = 0x90, OP_COMPR = 0xA0, OP_TIXR = 0xB8;
+	private static final int REG_A = 0, REG_X = 1, REG_T = 5;
+	// 형식 3/4 의 n,i 비트
+	private static final int SIMPLE = 3, IMMEDIATE = 1, INDIRECT = 2;
+
+	/** 섹션 하나를 조립하는 아주 작은 어셈블러. 라벨은 섹션 시작 기준 주소이고, 앞으로의 참조는 finish() 에서 채운다 */
+	static final class Section {
+		final String name;
+		private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+		private final Map<String, Integer> labels = new HashMap<>();
+		private final List<Object[]> pcRelative = new ArrayList<>(); // {명령어 주소, 라벨}
+		private final List<Object[]> absolute = new ArrayList<>();   // {필드 주소, 라벨, 필드 half-byte 수}
+		private final List<String> modifications = new ArrayList<>();
+		private final List<String> extdefs = new ArrayList<>();
+		private final List<String> extrefs = new ArrayList<>();
+		private int reserved;
+		private byte[] image;
+
+		Section(String name) { this.name = name; }
+
+		int here() { return code.size(); }
+		void label(String label) { if (labels.put(label, here() + reserved) != null) throw new IllegalStateException("Duplicate label " + label); }
+		void extdef(String label) { extdefs.add(label); }
+		void extref(String symbol) { if (!extrefs.contains(symbol)) extrefs.add(symbol); }
+
+		void f2(int op, int r1, int r2) { code.write(op); code.write((r1 << 4) | r2); }
+		void rsub() { code.write(OP_RSUB | SIMPLE); code.write(0); code.write(0); }
+
+		// 형식 3 즉시값 (0..4095)
+		void f3imm(int op, int value) {
+			if (value < 0 || value > 0xFFF) throw new IllegalArgumentException("Immediate out of range: " + value);
+			code.write(op | IMMEDIATE); code.write((value >> 8) & 0x0F); code.write(value);
+		}
+
+		// 형식 3 PC 상대 (섹션 안 라벨)
+		void f3(int op, int ni, boolean indexed, String label) {
+			pcRelative.add(new Object[]{here(), label});
+			code.write(op | ni); code.write((indexed ? 0x80 : 0) | 0x20); code.write(0);
+		}
+
+		// 형식 4. label 이 섹션 안 라벨이면 섹션 이름으로, 아니면 외부 심볼로 M 레코드를 단다
+		void f4(int op, int ni, boolean indexed, String label) {
+			int at = here();
+			code.write(op | ni); code.write((indexed ? 0x80 : 0) | 0x10); code.write(0); code.write(0);
+			absolute.add(new Object[]{at + 1, label, 5});
+		}
+
+		// 형식 4, 섹션 시작 기준 offset 을 직접 준다 (섹션 밖 주소도 된다). 섹션 이름으로 재배치
+		void f4Offset(int op, int offset) {
+			int at = here();
+			code.write(op | SIMPLE); code.write(0x10 | ((offset >> 16) & 0x0F)); code.write(offset >> 8); code.write(offset);
+			modifications.add(String.format("M%06X05+%s", at + 1, name));
+		}
+
+		// 형식 4 즉시값 (재배치 없음)
+		void f4imm(int op, int value) {
+			if (value < 0 || value > 0xFFFFF) throw new IllegalArgumentException("Immediate out of range: " + value);
+			code.write(op | IMMEDIATE); code.write(0x10 | ((value >> 16) & 0x0F)); code.write(value >> 8); code.write(value);
+		}
+
+		// 즉시값은 크기에 따라 형식 3 또는 4
+		void imm(int op, int value) { if (value <= 0xFFF) f3imm(op, value); else f4imm(op, value); }
+
+		void word(int value) { code.write(value >> 16); code.write(value >> 8); code.write(value); }
+		void wordAddress(String label) { absolute.add(new Object[]{here(), label, 6}); word(0); }
+		void bytes(byte[] data) { code.write(data, 0, data.length); }
+		void resb(int n) { reserved += n; } // RESB 는 섹션 끝에만 (T 레코드 없음)
+
+		int length() { return code.size() + reserved; }
+
+		// 라벨을 채우고 M 레코드를 만든다
+		void finish() {
+			image = code.toByteArray();
+			for (Object[] f : pcRelative) {
+				int at = (Integer) f[0];
+				int disp = address((String) f[1]) - (at + 3);
+				if (disp < -2048 || disp > 2047) throw new IllegalStateException(name + ": " + f[1] + " out of PC-relative range");
+				image[at + 1] = (byte) ((image[at + 1] & 0xF0) | ((disp >> 8) & 0x0F));
+				image[at + 2] = (byte) disp;
+			}
+			for (Object[] f : absolute) {
+				int at = (Integer) f[0], halfBytes = (Integer) f[2];
+				String label = (String) f[1];
+				Integer local = labels.get(label);
+				if (local != null) {
+					int field = (halfBytes == 5) ? ((image[at] & 0x0F) << 16) : ((image[at] & 0xFF) << 16);
+					field |= ((image[at + 1] & 0xFF) << 8) | (image[at + 2] & 0xFF);
+					field += local;
+					if (halfBytes == 5) image[at] = (byte) ((image[at] & 0xF0) | ((field >> 16) & 0x0F));
+					else image[at] = (byte) (field >> 16);
+					image[at + 1] = (byte) (field >> 8);
+					image[at + 2] = (byte) field;
+				}
+				modifications.add(String.format("M%06X%02X+%s", at, halfBytes, local != null ? name : label));
+			}
+		}
+
+		private int address(String label) {
+			Integer a = labels.get(label);
+			if (a == null) throw new IllegalStateException(name + ": undefined label " + label);
+			return a;
+		}
+
+		void write(StringBuilder out, boolean first) {
+			out.append(String.format("H%-6s%06X%06X%n", name, 0, length()));
+			for (int i = 0; i < extdefs.size(); i += 5) {
+				out.append('D');
+				for (int j = i; j < Math.min(i + 5, extdefs.size()); j++) out.append(String.format("%-6s%06X", extdefs.get(j), address(extdefs.get(j))));
+				out.append(System.lineSeparator());
+			}
+			for (int i = 0; i < extrefs.size(); i += 12) {
+				out.append('R');
+				for (int j = i; j < Math.min(i + 12, extrefs.size()); j++) out.append(String.format("%-6s", extrefs.get(j)));
+				out.append(System.lineSeparator());
+			}
+			for (int at = 0; at < image.length; at += T_RECORD_BYTES) {
+				int n = Math.min(T_RECORD_BYTES, image.length - at);
+				out.append(String.format("T%06X%02X", at, n));
+				for (int i = at; i < at + n; i++) out.append(String.format("%02X", image[i] & 0xFF));
+				out.append(System.lineSeparator());
+			}
+			for (String m : modifications) out.append(m).append(System.lineSeparator());
+			out.append(first ? String.format("E%06X%n", 0) : String.format("E%n"));
+		}
+	}
+
+	/** 설정대로 목적 코드 전체를 만든다. 전체 길이가 메모리(64KB)를 넘으면 IllegalArgumentException */
+	public static String generate(Config config) {
+		List<Section> workers = new ArrayList<>();
+		Mix[] kinds = {Mix.ARITH, Mix.COPY, Mix.IO, Mix.INDIRECT};
+		int total = 0;
+		for (int i = 1; i <= config.sections; i++) {
+			Mix kind = (config.mix == Mix.MIXED) ? kinds[(i - 1) % kinds.length] : config.mix;
+			Section s = new Section(String.format("W%05d", i));
+			s.extdef(String.format("R%05d", i));
+			s.extref("TOTAL");
+			switch (kind) {
+				case ARITH: arith(s, config, i); break;
+				case COPY: copy(s, config, i); break;
+				case IO: io(s, config, i); break;
+				default: indirect(s, config, i); break;
+			}
+			s.finish();
+			workers.add(s);
+			total += s.length();
+		}
+
+		Section main = new Section("MAIN");
+		main.extdef("TOTAL");
+		for (Section w : workers) { main.extref(w.name); main.f4(OP_JSUB, SIMPLE, false, w.name); }
+		int mainLength = main.here() + 4 + 3; // +J 와 TOTAL
+		total += mainLength;
+		if (total > MEMORY_SIZE) throw new IllegalArgumentException(String.format("Program length 0x%X exceeds memory", total));
+		// 프로그램 끝 바로 뒤로 점프: MAIN 기준 total 을 M 레코드로 재배치하면 적재 주소와 무관하게 끝 다음 주소가 된다
+		main.f4Offset(OP_J, total);
+		main.label("TOTAL");
+		main.word(0);
+		main.finish();
+
+		StringBuilder out = new StringBuilder();
+		main.write(out, true);
+		for (Section w : workers) w.write(out, false);
+		return out.toString();
+	}
+
+	// ---- 작업 섹션 ----
+
+	private static void addToTotal(Section s, String resultLabel) {
+		s.f4(OP_LDA, SIMPLE, false, "TOTAL");
+		s.f3(OP_ADD, SIMPLE, false, resultLabel);
+		s.f4(OP_STA, SIMPLE, false, "TOTAL");
+		s.rsub();
+	}
+
+	// 섹션 안 라벨들의 주소 상수 표 (WORD 마다 M 레코드 하나)
+	private static void relocationTable(Section s, Config config, String... targets) {
+		s.label("RTAB");
+		for (int i = 0; i < config.relocations; i++) s.wordAddress(targets[i % targets.length]);
+	}
+
+	private static void arith(Section s, Config config, int id) {
+		String result = String.format("R%05d", id);
+		s.label("ENTRY");
+		s.imm(OP_LDT, config.iterations);
+		s.f3imm(OP_LDX, 0);
+		s.label("LOOP");
+		s.f3(OP_LDA, SIMPLE, false, result);
+		s.f3imm(OP_ADD, 3);
+		s.f3imm(OP_MUL, 5);
+		s.f3imm(OP_SUB, 7);
+		s.f3imm(OP_DIV, 3);
+		s.f3(OP_STA, SIMPLE, false, result);
+		s.f2(OP_TIXR, REG_T, 0);
+		s.f3(OP_JLT, SIMPLE, false, "LOOP");
+		addToTotal(s, result);
+		s.label(result);
+		s.word(id);
+		relocationTable(s, config, "ENTRY", "LOOP", result);
+	}
+
+	private static void copy(Section s, Config config, int id) {
+		String result = String.format("R%05d", id);
+		s.label("ENTRY");
+		s.imm(OP_LDA, config.iterations);
+		s.f3(OP_STA, SIMPLE, false, "CNT");
+		s.label("OUTER");
+		s.f3imm(OP_LDX, 0);
+		s.imm(OP_LDT, config.dataBytes);
+		s.label("INNER");
+		s.f4(OP_LDCH, SIMPLE, true, "SRC");
+		s.f4(OP_STCH, SIMPLE, true, "DST");
+		s.f2(OP_TIXR, REG_T, 0);
+		s.f3(OP_JLT, SIMPLE, false, "INNER");
+		countDown(s, "CNT", "OUTER");
+		s.f4(OP_LDA, SIMPLE, false, "DST");
+		s.f3(OP_STA, SIMPLE, false, result);
+		addToTotal(s, result);
+		s.label("CNT");
+		s.word(0);
+		s.label(result);
+		s.word(0);
+		relocationTable(s, config, "SRC", "DST", "INNER");
+		s.label("SRC");
+		byte[] src = new byte[config.dataBytes];
+		for (int i = 0; i < src.length; i++) src[i] = (byte) (i * 7 + id);
+		s.bytes(src);
+		s.label("DST");
+		s.resb(config.dataBytes);
+	}
+
+	private static void io(Section s, Config config, int id) {
+		String result = String.format("R%05d", id);
+		s.label("ENTRY");
+		s.imm(OP_LDA, config.iterations);
+		s.f3(OP_STA, SIMPLE, false, "CNT");
+		s.label("OUTER");
+		s.f3imm(OP_LDX, 0);
+		s.imm(OP_LDT, config.dataBytes);
+		s.label("WAIT");
+		s.f3(OP_TD, SIMPLE, false, "DEV");
+		s.f3(OP_JEQ, SIMPLE, false, "WAIT");
+		s.f4(OP_LDCH, SIMPLE, true, "MSG");
+		s.f3(OP_WD, SIMPLE, false, "DEV");
+		s.f2(OP_TIXR, REG_T, 0);
+		s.f3(OP_JLT, SIMPLE, false, "WAIT");
+		countDown(s, "CNT", "OUTER");
+		s.f2(OP_ADDR, REG_X, REG_A); // A <- X + A (A 는 0)
+		s.f3(OP_STA, SIMPLE, false, result);
+		addToTotal(s, result);
+		s.label("CNT");
+		s.word(0);
+		s.label(result);
+		s.word(0);
+		s.label("DEV");
+		s.bytes(new byte[]{(byte) config.ioDevice});
+		relocationTable(s, config, "MSG", "WAIT");
+		s.label("MSG");
+		byte[] msg = new byte[config.dataBytes];
+		for (int i = 0; i < msg.length; i++) msg[i] = (byte) ((i % 64 == 63) ? '\n' : 'A' + (i + id) % 26);
+		s.bytes(msg);
+	}
+
+	private static void indirect(Section s, Config config, int id) {
+		String result = String.format("R%05d", id);
+		int words = config.dataBytes / 3;
+		s.label("ENTRY");
+		s.imm(OP_LDA, config.iterations);
+		s.f3(OP_STA, SIMPLE, false, "CNT");
+		s.label("OUTER");
+		s.f4(OP_LDA, IMMEDIATE, false, "TAB");
+		s.f3(OP_STA, SIMPLE, false, "PTR");
+		s.f3imm(OP_LDX, 0);
+		s.imm(OP_LDT, words * 3);
+		s.label("INNER");
+		s.f3(OP_LDA, INDIRECT, false, "PTR");
+		s.f3(OP_ADD, SIMPLE, false, result);
+		s.f3(OP_STA, SIMPLE, false, result);
+		s.f4(OP_LDA, SIMPLE, true, "TAB");
+		s.f3(OP_ADD, SIMPLE, false, result);
+		s.f3(OP_STA, SIMPLE, false, result);
+		s.f3(OP_LDA, SIMPLE, false, "PTR");
+		s.f3imm(OP_ADD, 3);
+		s.f3(OP_STA, SIMPLE, false, "PTR");
+		s.f3imm(OP_LDA, 3);
+		s.f2(OP_ADDR, REG_A, REG_X);
+		s.f2(OP_COMPR, REG_X, REG_T);
+		s.f3(OP_JLT, SIMPLE, false, "INNER");
+		countDown(s, "CNT", "OUTER");
+		addToTotal(s, result);
+		s.label("PTR");
+		s.wordAddress("TAB");
+		s.label("CNT");
+		s.word(0);
+		s.label(result);
+		s.word(0);
+		relocationTable(s, config, "TAB", "PTR", "INNER");
+		s.label("TAB");
+		for (int i = 0; i < words; i++) s.word(i * 3 + id);
+	}
+
+	// counter 를 1 줄이고 0 보다 크면 loop 로
+	private static void countDown(Section s, String counter, String loop) {
+		s.f3(OP_LDA, SIMPLE, false, counter);
+		s.f3imm(OP_SUB, 1);
+		s.f3(OP_STA, SIMPLE, false, counter);
+		s.f3imm(OP_COMP, 0);
+		s.f3(OP_JGT, SIMPLE, false, loop);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: WorkloadGenerator <output file> [--sections N] [--iterations N] [--data bytes] [--relocs N] [--mix arith|copy|io|indirect|mixed] [--device hex]");
+			return;
+		}
+		Config config = new Config();
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "--sections": config.sections(Integer.parseInt(args[++i])); break;
+				case "--iterations": config.iterations(Integer.parseInt(args[++i])); break;
+				case "--data": config.dataBytes(Integer.parseInt(args[++i])); break;
+				case "--relocs": config.relocations(Integer.parseInt(args[++i])); break;
+				case "--mix": config.mix(Mix.valueOf(args[++i].toUpperCase(Locale.ROOT))); break;
+				case "--device": config.ioDevice(Integer.parseInt(args[++i], 16)); break;
+				default: System.err.println("Unknown option: " + args[i]); return;
+			}
+		}
+		Path out = Paths.get(args[0]);
+		String text = generate(config);
+		Files.write(out, text.getBytes(StandardCharsets.US_ASCII));
+		System.out.printf("%s: %d sections, %d bytes%n", out, config.sections + 1, text.length());
+	}
+}
@@ -0,0 +1,54 @@
+package SP25_simulator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+
+// 테스트 실행기 (외부 라이브러리 없음). 클래스마다 새 인스턴스에서 이름이 test 로 시작하는 메소드를 이름 순으로 부른다.
+// 장치 파일은 현재 디렉터리에 생기므로 빈 작업 디렉터리에서 실행한다. 사용법:
+//   javac -encoding UTF-8 -d out/test *.java test/*.java && (cd 빈디렉터리 && java -cp <out/test 경로> SP25_simulator.AllTests [클래스 이름...])
+public class AllTests {
+	static final Class<?>[] TESTS = {
+			LazyLoadTest.class,
+			MemoryAccessTest.class,
+			SmpMachineTest.class,
+			LoopIdiomsTest.class,
+			SharedImageTest.class,
+			ChannelIoTest.class,
+			ResultCacheTest.class,
+			DebugServerTest.class,
+			SymbolIndexTest.class,
+			TraceRoundTripTest.class,
+			DisassemblerTest.class,
+			StateFingerprintTest.class,
+			ReloadTest.class,
+			CallProfilerTest.class,
+			ExecutionEventsTest.class,
+	};
+
+	public static void main(String[] args) throws Exception {
+		int run = 0, failed = 0;
+		for (Class<?> c : TESTS) {
+			if (args.length > 0 && !Arrays.asList(args).contains(c.getSimpleName())) continue;
+			Method[] methods = c.getDeclaredMethods();
+			Arrays.sort(methods, Comparator.comparing(Method::getName));
+			for (Method m : methods) {
+				if (!m.getName().startsWith("test") || m.getParameterCount() != 0 || Modifier.isStatic(m.getModifiers())) continue;
+				run++;
+				try {
+					m.setAccessible(true);
+					m.invoke(c.getDeclaredConstructor().newInstance());
+					System.out.println("ok   " + c.getSimpleName() + "." + m.getName());
+				} catch (InvocationTargetException e) {
+					failed++;
+					System.out.println("FAIL " + c.getSimpleName() + "." + m.getName() + ": " + e.getCause());
+					e.getCause().printStackTrace(System.out);
+				}
+			}
+		}
+		System.out.printf("%d tests, %d failed%n", run, failed);
+		if (failed > 0) System.exit(1);
+	}
+}
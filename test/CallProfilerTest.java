@@ -0,0 +1,98 @@
+package SP25_simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static SP25_simulator.TestSupport.*;
+
+// 호출 프로파일러: 예제 프로그램의 JSUB/RSUB 로 만든 호출 트리와 서브루틴별 수치가 손으로 센 값과 같아야 한다
+public class CallProfilerTest {
+	private static final Path INPUT = Paths.get("F1");
+	private static final Path OUTPUT = Paths.get("05");
+
+	// 입력 "sibal": RDREC 두 번(5 글자 + 끝, 끝만), WRREC 두 번(5 글자, "EOF").
+	// RDREC = 4 + 8*5 + 7 + 4 + 7 = 62, WRREC = 2 + 6*5 + 1 + 2 + 6*3 + 1 = 54, COPY 자체 17
+	void testSampleProgramCallTree() throws Exception {
+		Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+		ResourceManager rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		try {
+			SicSimulator simulator = simulator(rMgr);
+			CallProfiler profiler = new CallProfiler(rMgr);
+			simulator.setCallProfiler(profiler);
+			RunResult result = simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertEquals(StopReason.HALT, result.getReason(), "program halts");
+			int rdrec = rMgr.getExternalSymbolAddress("RDREC"), wrrec = rMgr.getExternalSymbolAddress("WRREC");
+
+			CallProfiler.Node root = profiler.getRoot();
+			assertEquals(0, root.getEntry(), "root is the first instruction");
+			assertEquals(result.getExecutedInstructions(), root.getInclusive(CallProfiler.INSTRUCTIONS), "every step counted");
+			assertEquals(17, root.getSelf(CallProfiler.INSTRUCTIONS), "COPY self");
+			assertEquals(2, root.getChildren().size(), "COPY calls two subroutines");
+			assertNode(root.getChildren().get(0), rdrec, 2, 62, 7, 7, 0);
+			assertNode(root.getChildren().get(1), wrrec, 2, 54, 8, 0, 8);
+			assertEquals(0, profiler.getDepth(), "every RSUB matched");
+			assertEquals(0, profiler.getUnmatchedReturns(), "no unmatched RSUB");
+
+			Map<Integer, CallProfiler.FunctionStats> stats = profiler.getFunctionStats();
+			assertEquals(Arrays.asList(0, rdrec, wrrec), Arrays.asList(stats.keySet().toArray()), "functions in first-seen order");
+			assertEquals(133, stats.get(0).getInclusive(CallProfiler.INSTRUCTIONS), "COPY inclusive");
+			assertEquals(15, stats.get(0).getInclusive(CallProfiler.DEVICE_TESTS), "COPY inclusive TD");
+			assertEquals(2, stats.get(wrrec).getCalls(), "WRREC calls");
+			assertEquals(Arrays.asList("COPY 17", "COPY;RDREC 62", "COPY;WRREC 54"), profiler.collapsedStacks(), "collapsed stacks");
+
+			rMgr.closeDevices();
+			Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+			new SicLoader(rMgr).load(writeObject(SAMPLE_PROGRAM));
+			simulator.programLoaded();
+			assertEquals(0, profiler.getRoot().getInclusive(CallProfiler.INSTRUCTIONS), "loading again starts over");
+		} finally {
+			rMgr.closeDevices();
+			Files.deleteIfExists(INPUT);
+			Files.deleteIfExists(OUTPUT);
+		}
+	}
+
+	// A -> B -> C 에서 C 가 A 의 복귀 주소로 바로 돌아가면 두 프레임이 한꺼번에 풀린다. 재귀 호출은 포함 비용에 한 번만 센다
+	void testNestedReturnsAndRecursion() {
+		ResourceManager rMgr = new ResourceManager();
+		CallProfiler profiler = new CallProfiler(rMgr);
+		profiler.enter(0x100, 0x003);
+		profiler.instructionRetired(0x100, 0x00, 3, 0x103);
+		profiler.enter(0x200, 0x106);
+		profiler.enter(0x300, 0x203);
+		profiler.instructionRetired(0x300, 0x00, 3, 0x303);
+		assertEquals(3, profiler.getDepth(), "three frames");
+		profiler.leave(0x106);
+		assertEquals(1, profiler.getDepth(), "C returned straight into A");
+		profiler.leave(0x999);
+		assertEquals(1, profiler.getUnmatchedReturns(), "unknown return address ignored");
+
+		profiler.enter(0x100, 0x109); // A 가 자기 자신을 부른다
+		profiler.instructionRetired(0x100, 0x00, 3, 0x103);
+		profiler.leave(0x109);
+		profiler.leave(0x003);
+		assertEquals(0, profiler.getDepth(), "back at the root");
+		CallProfiler.FunctionStats a = profiler.getFunctionStats().get(0x100);
+		assertEquals(2, a.getCalls(), "A called twice");
+		assertEquals(3, a.getInclusive(CallProfiler.INSTRUCTIONS), "recursive call not counted twice");
+		assertEquals(2, a.getSelf(CallProfiler.INSTRUCTIONS), "A self across both frames");
+		List<CallProfiler.Node> path = profiler.getRoot().getChildren().get(0).getChildren();
+		assertEquals(2, path.size(), "A calls B and A");
+	}
+
+	private static void assertNode(CallProfiler.Node node, int entry, long calls, long instructions, long tests, long reads, long writes) {
+		String name = String.format("0x%06X", entry);
+		assertEquals(entry, node.getEntry(), name + " entry");
+		assertEquals(calls, node.getCalls(), name + " calls");
+		assertEquals(instructions, node.getSelf(CallProfiler.INSTRUCTIONS), name + " instructions");
+		assertEquals(tests, node.getSelf(CallProfiler.DEVICE_TESTS), name + " TD");
+		assertEquals(reads, node.getSelf(CallProfiler.DEVICE_READS), name + " RD");
+		assertEquals(writes, node.getSelf(CallProfiler.DEVICE_WRITES), name + " WD");
+		assertTrue(node.getChildren().isEmpty(), name + " calls nothing");
+	}
+}
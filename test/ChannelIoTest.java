@@ -0,0 +1,131 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static SP25_simulator.TestSupport.*;
+
+// 채널 입출력(SIO/TIO): 전송은 시뮬레이션 시각에 맞춰 끝나고, 채널이 쓴 메모리도 명령어의 쓰기처럼 이벤트와 트레이스에 남아야 한다
+public class ChannelIoTest {
+	private static final String DEVICE = "F3";
+	private static final String INPUT = "ABCDEF";
+
+	// LDA #1 / LDS #0x100 / SIO / TIO / JLT TIO / LDA 0x200 / STA 0x300 / +J 0x800 (프로그램 밖 -> HALT)
+	// 0x100 의 채널 프로그램: F3 에서 8 바이트를 0x200 으로 읽기 (장치에는 6 바이트뿐), 끝
+	private static final String SIO_PROGRAM = String.join("\n",
+			"HCHAN  000000000400",
+			"T00000015" + "010001" + "6D0100" + "F0" + "F8" + "3B2FFC" + "0321F2" + "0F22EF" + "3F100800",
+			"T00010012" + "01F300" + "000008" + "000200" + "000000000000000000",
+			"E000000");
+
+	void testTraceMemoryMatchesLiveMemoryAcrossSio() throws Exception {
+		Path device = writeDevice();
+		File traceFile = File.createTempFile("sictest", ".trc");
+		traceFile.deleteOnExit();
+		ResourceManager rMgr = load(writeObject(SIO_PROGRAM), false);
+		try {
+			SicSimulator simulator = simulator(rMgr);
+			List<byte[]> live = new ArrayList<>();
+			try (TraceWriter trace = new TraceWriter(traceFile, rMgr, 4)) {
+				simulator.setTraceWriter(trace);
+				live.add(rMgr.getMemory(0, rMgr.getMemorySize()));
+				RunResult result;
+				do {
+					result = simulator.run(1, 0, null);
+					live.add(rMgr.getMemory(0, rMgr.getMemorySize()));
+				} while (result.getReason() == StopReason.BUDGET);
+				assertEquals(StopReason.HALT, result.getReason(), "program halts");
+			}
+			assertEquals(0x414243, rMgr.readWord(0x300), "first word of the transferred data");
+			assertEquals(6, rMgr.readWord(0x103), "CCW count updated to the bytes actually read");
+
+			try (TraceReader reader = new TraceReader(traceFile)) {
+				long steps = reader.getTotalSteps();
+				assertTrue(steps > 10, "program waits in the TIO loop: " + steps + " steps");
+				for (long s = 0; s <= steps; s++) {
+					int at = Math.min((int) s, live.size() - 1);
+					assertArrayEquals(live.get(at), reader.memoryAt(s, 0, rMgr.getMemorySize()), "trace memory after step " + s);
+				}
+				List<TraceReader.MemoryWrite> writes = reader.writesTo(0x200);
+				assertEquals(1, writes.size(), "one channel write to the buffer");
+				assertEquals(INPUT, new String(writes.get(0).getData(), StandardCharsets.US_ASCII), "transferred bytes");
+				assertEquals(1, reader.writesTo(0x105).size(), "CCW count update recorded");
+			}
+		} finally {
+			rMgr.closeDevices();
+			Files.deleteIfExists(device);
+		}
+	}
+
+	void testChannelAccessesReachMemoryListeners() throws Exception {
+		Path device = writeDevice();
+		ResourceManager rMgr = load(writeObject(SIO_PROGRAM), false);
+		try {
+			List<String> accesses = new ArrayList<>();
+			SicSimulator simulator = simulator(rMgr);
+			simulator.getEvents().addMemoryListener(new ExecutionEvents.MemoryListener() {
+				@Override public void memoryRead(int address, int length) { accesses.add(String.format("R%03X+%d", address, length)); }
+				@Override public void memoryWritten(int address, int length) { accesses.add(String.format("W%03X+%d", address, length)); }
+			});
+			assertEquals(StopReason.HALT, simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null).getReason(), "program halts");
+			assertTrue(accesses.contains("R100+9"), "CCW fetch reported: " + accesses);
+			assertTrue(accesses.contains("W200+6"), "DMA write reported: " + accesses);
+			assertTrue(accesses.contains("W103+3"), "CCW count update reported: " + accesses);
+			assertTrue(accesses.indexOf("W200+6") < accesses.indexOf("R200+3"), "transfer lands before the program reads it");
+		} finally {
+			rMgr.closeDevices();
+			Files.deleteIfExists(device);
+		}
+	}
+
+	void testTransferCompletesAfterItsCycles() throws Exception {
+		Path device = writeDevice();
+		ResourceManager rMgr = new ResourceManager();
+		try {
+			ChannelIo io = rMgr.getChannels();
+			rMgr.setMemoryHex(0x100, "01F300" + "000004" + "000200" + "000000000000000000");
+			assertTrue(io.start(1, 0x100), "idle channel starts");
+			assertTrue(!io.start(1, 0x100), "busy channel does not start again");
+			int cycles = ChannelIo.DEFAULT_COMMAND_CYCLES + 4 * ChannelIo.DEFAULT_BYTE_CYCLES;
+			for (int i = 0; i < cycles - 1; i++) io.tick();
+			assertEquals(0, rMgr.readByte(0x200), "nothing written before the transfer is due");
+			io.tick();
+			assertEquals('A', rMgr.readByte(0x200), "transfer lands when due");
+			assertEquals(ChannelIo.Status.BUSY, io.getStatus(1), "end CCW still to fetch");
+			for (int i = 0; i < ChannelIo.DEFAULT_COMMAND_CYCLES; i++) io.tick();
+			assertEquals(ChannelIo.Status.IDLE, io.getStatus(1), "channel program finished");
+			assertEquals(4, io.getBytesTransferred(1), "bytes transferred");
+			assertTrue(!io.isBusy(), "no channel busy");
+		} finally {
+			rMgr.closeDevices();
+			Files.deleteIfExists(device);
+		}
+	}
+
+	void testBadCommandAndHaltSetStatus() {
+		ResourceManager rMgr = new ResourceManager();
+		ChannelIo io = rMgr.getChannels();
+		rMgr.setMemoryHex(0x100, "07F300" + "000001" + "000200");
+		io.start(2, 0x100);
+		for (int i = 0; i < ChannelIo.DEFAULT_COMMAND_CYCLES; i++) io.tick();
+		assertEquals(ChannelIo.Status.ERROR, io.getStatus(2), "invalid command");
+		assertTrue(io.getLastError(2).startsWith("Invalid channel command"), io.getLastError(2));
+
+		rMgr.setMemoryHex(0x180, "02F300" + "0000FF" + "000200");
+		io.start(3, 0x180);
+		assertEquals(ChannelIo.Status.BUSY, io.halt(3), "state before HIO");
+		assertEquals(ChannelIo.Status.HALTED, io.getStatus(3), "state after HIO");
+		assertTrue(!io.isBusy(), "halted channel leaves nothing scheduled");
+	}
+
+	private static Path writeDevice() throws Exception {
+		Path device = Paths.get(DEVICE);
+		Files.write(device, INPUT.getBytes(StandardCharsets.US_ASCII));
+		return device;
+	}
+}
@@ -0,0 +1,142 @@
+package SP25_simulator;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static SP25_simulator.TestSupport.*;
+
+// 디버그 서버: 루프백 소켓으로 예제 프로그램을 적재하고 한 단계 실행, 레지스터 읽기, 브레이크포인트, 계속 실행을 해 본다
+public class DebugServerTest {
+	private DataOutputStream out;
+	private DataInputStream in;
+	private int nextId = 1;
+	private byte[] lastPayload; // 마지막 응답의 페이로드
+
+	void testBasicCommandsOnSampleProgram() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		int rdrec = load(program, false).getExternalSymbolAddress("RDREC");
+		withServer(() -> {
+			request(DebugServer.CMD_LOAD, program.getPath().getBytes(StandardCharsets.UTF_8));
+
+			DataInputStream step = request(DebugServer.CMD_STEP, new byte[0]);
+			assertEquals(1, step.readUnsignedByte(), "can continue after one step");
+			assertEquals(3, step.readInt(), "PC after STL");
+
+			DataInputStream regs = request(DebugServer.CMD_READ_REGISTERS, new byte[0]);
+			int[] r = new int[10];
+			for (int i = 0; i < 10; i++) r[i] = regs.readInt();
+			assertEquals(3, r[ResourceManager.REG_PC], "PC register");
+			assertEquals(0.0, regs.readDouble(), "F register");
+
+			request(DebugServer.CMD_SET_BREAKPOINT, bytes(b -> { b.writeInt(rdrec); b.writeByte(1); }));
+			DataInputStream run = request(DebugServer.CMD_RUN, bytes(b -> { b.writeLong(0); b.writeLong(0); }));
+			assertEquals(StopReason.BREAKPOINT.ordinal(), run.readUnsignedByte(), "stops at the breakpoint");
+			run.readLong();
+			assertEquals(rdrec, run.readInt(), "stopped at RDREC");
+
+			DataInputStream status = request(DebugServer.CMD_STATUS, new byte[0]);
+			assertEquals(1, status.readUnsignedByte(), "still runnable");
+			assertEquals(rdrec, status.readInt(), "status PC");
+
+			request(DebugServer.CMD_CLEAR_BREAKPOINTS, new byte[0]);
+			run = request(DebugServer.CMD_RUN, bytes(b -> { b.writeLong(0); b.writeLong(0); }));
+			assertEquals(StopReason.HALT.ordinal(), run.readUnsignedByte(), "continue runs to the end");
+		});
+	}
+
+	void testErrorsAndPipelinedRequests() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		withServer(() -> {
+			request(DebugServer.CMD_LOAD, program.getPath().getBytes(StandardCharsets.UTF_8));
+			send(DebugServer.CMD_READ_MEMORY, bytes(b -> { b.writeInt(0x10000); b.writeInt(1); }));
+			assertTrue(receive(nextId - 1) != null, "error reported");
+			for (int i = 0; i < 3; i++) { final int at = i * 3; send(DebugServer.CMD_READ_MEMORY, bytes(b -> { b.writeInt(at); b.writeInt(3); })); }
+			for (int i = 0; i < 3; i++) {
+				DataInputStream word = receiveOk(nextId - 3 + i);
+				assertEquals(load(program, false).readWord(i * 3) & 0xFFFFFF, (word.readUnsignedByte() << 16) | (word.readUnsignedByte() << 8) | word.readUnsignedByte(), "word " + i);
+			}
+		});
+	}
+
+	private interface Body { void write(DataOutputStream b) throws IOException; }
+	private interface Session { void run() throws Exception; }
+
+	private static byte[] bytes(Body body) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(buffer);
+		body.write(data);
+		data.flush();
+		return buffer.toByteArray();
+	}
+
+	// 빈 포트에서 서버를 띄우고 연결한 뒤 session 을 실행한다. 예제 프로그램이 만드는 장치 파일은 지운다
+	private void withServer(Session session) throws Exception {
+		int port;
+		try (ServerSocket probe = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) { port = probe.getLocalPort(); }
+		ResourceManager rMgr = new ResourceManager();
+		SicSimulator simulator = new SicSimulator(rMgr);
+		simulator.setConsoleLogging(false);
+		DebugServer server = new DebugServer(rMgr, new SicLoader(rMgr), simulator, port);
+		Thread thread = new Thread(() -> { try { server.serve(); } catch (IOException e) { /* 테스트가 연결하지 못해 실패한다 */ } }, "DebugServerTest");
+		thread.setDaemon(true);
+		thread.start();
+		Socket socket = null;
+		for (int tries = 0; socket == null; tries++) {
+			try { socket = new Socket(InetAddress.getLoopbackAddress(), port); }
+			catch (IOException e) { if (tries > 100) throw e; Thread.sleep(20); }
+		}
+		try {
+			out = new DataOutputStream(socket.getOutputStream());
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			session.run();
+		} finally {
+			server.stop();
+			socket.close();
+			thread.join(5000);
+			rMgr.closeDevices();
+			Files.deleteIfExists(Paths.get("F1"));
+			Files.deleteIfExists(Paths.get("05"));
+		}
+	}
+
+	private void send(int command, byte[] body) throws IOException {
+		out.writeInt(5 + body.length);
+		out.writeInt(nextId++);
+		out.writeByte(command);
+		out.write(body);
+		out.flush();
+	}
+
+	// 응답을 읽는다. 오류면 메시지, 성공이면 null 을 반환한다 (페이로드는 lastPayload)
+	private String receive(int id) throws IOException {
+		int length = in.readInt();
+		assertEquals(id, in.readInt(), "responses come back in request order");
+		int status = in.readUnsignedByte();
+		byte[] payload = new byte[length - 5];
+		in.readFully(payload);
+		lastPayload = payload;
+		return (status == 0) ? null : new String(payload, StandardCharsets.UTF_8);
+	}
+
+	private DataInputStream receiveOk(int id) throws IOException {
+		String error = receive(id);
+		assertTrue(error == null, "request " + id + " failed: " + error);
+		return new DataInputStream(new ByteArrayInputStream(lastPayload));
+	}
+
+	private DataInputStream request(int command, byte[] body) throws IOException {
+		send(command, body);
+		return receiveOk(nextId - 1);
+	}
+}
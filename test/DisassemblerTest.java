@@ -0,0 +1,102 @@
+package SP25_simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static SP25_simulator.TestSupport.*;
+
+// 역어셈블러 골든 테스트: 예제 프로그램의 알려진 바이트와 손으로 만든 명령어가 형식 1/2/3/4 와 주소 지정 방식별로 정해진 줄이 되어야 한다
+public class DisassemblerTest {
+	// 예제 프로그램의 T 레코드 구간 전체. RDREC 의 F1 (입력 장치 번호)은 형식 1 SIO 로 읽힌다
+	private static final List<String> SAMPLE_LISTING = Arrays.asList(
+			"000000 172027   STL COPY+0x2A",
+			"000003 4B101033 +JSUB RDREC",
+			"000007 032023   LDA LENGTH",
+			"00000A 290000   COMP #0",
+			"00000D 332007   JEQ COPY+0x17",
+			"000010 4B10105E +JSUB WRREC",
+			"000014 3F2FEC   J COPY+0x3",
+			"000017 032016   LDA LENGTH+0x3",
+			"00001A 0F2016   STA BUFFER",
+			"00001D 010003   LDA #3",
+			"000020 0F200A   STA LENGTH",
+			"000023 4B10105E +JSUB WRREC",
+			"000027 3E2000   J @COPY+0x2A",
+			"001033 B410     CLEAR X",
+			"001035 B400     CLEAR A",
+			"001037 B440     CLEAR S",
+			"001039 77201F   LDT RDREC+0x28",
+			"00103C E3201B   TD RDREC+0x27",
+			"00103F 332FFA   JEQ RDREC+0x9",
+			"001042 DB2015   RD RDREC+0x27",
+			"001045 A004     COMPR A,S",
+			"001047 332009   JEQ RDREC+0x20",
+			"00104A 57900033 +STCH BUFFER,X",
+			"00104E B850     TIXR T",
+			"001050 3B2FE9   JLT RDREC+0x9",
+			"001053 1310002D +STX LENGTH",
+			"001057 4F0000   RSUB",
+			"00105A F1       SIO",
+			"00105E B410     CLEAR X",
+			"001060 7710002D +LDT LENGTH",
+			"001064 E32012   TD WRREC+0x1B",
+			"001067 332FFA   JEQ WRREC+0x6",
+			"00106A 53900033 +LDCH BUFFER,X",
+			"00106E DF2008   WD WRREC+0x1B",
+			"001071 B850     TIXR T",
+			"001073 3B2FEE   JLT WRREC+0x6",
+			"001076 4F0000   RSUB");
+
+	void testSampleProgramListing() throws Exception {
+		ResourceManager rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		Disassembler disassembler = new Disassembler(rMgr);
+		List<String> listing = new ArrayList<>();
+		for (MemoryRegion region : rMgr.getTRecordLoadedRegions())
+			for (Disassembler.Line line : disassembler.disassemble(region.getStartAddress(), region.getLength())) listing.add(line.toString());
+		assertEquals(SAMPLE_LISTING, listing, "sample program listing");
+
+		Disassembler.Line jsub = disassembler.decodeAt(0x03);
+		assertEquals("JSUB", jsub.getMnemonic(), "mnemonic without the +");
+		assertTrue(jsub.isExtended(), "format 4");
+		assertEquals(4, jsub.getLength(), "format 4 length");
+		assertEquals("RDREC", jsub.getOperand(), "operand");
+		assertEquals("J @COPY+0x2A", disassembler.describe(0x27), "describe");
+	}
+
+	// 예제에 없는 주소 지정: Base 상대, 음수 변위, p/b 없는 직접 주소, SIC 형식, 형식 4 간접+인덱스, 형식 1/2 의 나머지 피연산자
+	void testAddressingModes() {
+		assertDecodes("034003", "LDA 0x003(B)");
+		assertDecodes("034FFD", "LDA -0x003(B)");
+		assertDecodes("032FFD", "LDA 0x000100");
+		assertDecodes("030100", "LDA 0x000100");
+		assertDecodes("00012C", "LDA 0x00012C");
+		assertDecodes("0F8010", "STA 0x000010,X");
+		assertDecodes("0310002D", "+LDA 0x00002D");
+		assertDecodes("02902000", "+LDA @0x002000,X");
+		assertDecodes("A431", "SHIFTL B,2");
+		assertDecodes("B0A0", "SVC 10");
+		assertDecodes("C4", "FIX");
+	}
+
+	void testUndecodableBytes() {
+		assertTrue(decode("FF0000") == null, "unknown opcode");
+		assertTrue(decode("03") == null, "format 3 cut short");
+		assertTrue(decode("0310") == null, "format 4 flag with two bytes");
+	}
+
+	private static void assertDecodes(String hex, String text) {
+		Disassembler.Line line = decode(hex);
+		assertTrue(line != null, hex + " decodes");
+		assertEquals(text, line.getText(), hex);
+		assertEquals(hex.length() / 2, line.getLength(), hex + " length");
+		assertEquals(hex, line.getHex(), hex + " hex");
+	}
+
+	// 0x100 에 있는 것으로 보고 심볼 없이 해독한다
+	private static Disassembler.Line decode(String hex) {
+		byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		return Disassembler.decode(bytes, 0, 0x100, SymbolIndex.EMPTY);
+	}
+}
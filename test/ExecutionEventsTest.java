@@ -0,0 +1,132 @@
+package SP25_simulator;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static SP25_simulator.TestSupport.*;
+
+// 실행 이벤트: 실행 중에 명령어 리스너를 붙이거나 떼면 다음 청크부터 runChunkObserved/runChunkFast 가 바뀌고,
+// 붙어 있는 동안은 한 단계도 빠짐없이 알려야 한다. 어느 경로로 돌든 결과 상태는 같다
+public class ExecutionEventsTest {
+	private static final Path INPUT = Paths.get("F1");
+	private static final Path OUTPUT = Paths.get("05");
+
+	private ResourceManager rMgr;
+	private SicSimulator simulator;
+
+	// 한 단계씩 이어지는 명령어 완료 이벤트를 모은다 (각 이벤트의 pc 는 앞 이벤트의 nextPc)
+	private static class StepRecorder implements ExecutionEvents.InstructionListener {
+		final List<Integer> pcs = new ArrayList<>();
+		int expectedPc = -1;
+		boolean chained = true;
+
+		@Override
+		public void instructionRetired(int pc, int opcodeByte, int length, int nextPc) {
+			if (expectedPc >= 0 && pc != expectedPc) chained = false;
+			pcs.add(pc);
+			expectedPc = nextPc;
+		}
+	}
+
+	void testListenerAddedMidRunSeesEveryFollowingStep() throws Exception {
+		long expected = referenceFingerprint();
+		start();
+		try {
+			StepRecorder recorder = new StepRecorder();
+			// 빠른 경로에서 도는 메모리 리스너가 첫 STL 의 쓰기를 보고 명령어 리스너를 붙인다
+			simulator.getEvents().addMemoryListener(new ExecutionEvents.MemoryListener() {
+				@Override public void memoryRead(int address, int length) {}
+				@Override public void memoryWritten(int address, int length) {
+					if (recorder.pcs.isEmpty() && !simulator.getEvents().hasInstructionListeners()) simulator.getEvents().addInstructionListener(recorder);
+				}
+			});
+			RunResult first = simulator.run(1, 0, null);
+			assertTrue(!simulator.isObservedPath(), "memory listeners alone keep the fast loop");
+			assertTrue(simulator.getEvents().hasInstructionListeners(), "attached during the first step");
+			RunResult rest = simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertTrue(simulator.isObservedPath(), "switched to the observed loop");
+			assertEquals(StopReason.HALT, rest.getReason(), "program halts");
+			assertEquals(rest.getExecutedInstructions(), recorder.pcs.size(), "every step after attaching reported");
+			assertEquals(3, (int) recorder.pcs.get(0), "first reported step is the one after STL");
+			assertTrue(recorder.chained, "no step skipped");
+			assertEquals(133, first.getExecutedInstructions() + rest.getExecutedInstructions(), "total steps");
+			assertEquals(expected, rMgr.getStateFingerprint(), "same state as a run without listeners");
+		} finally {
+			stop();
+		}
+	}
+
+	// 청크 크기 1: 리스너가 스스로 떨어지면 바로 다음 청크부터 빠른 루프로 돌아간다
+	void testListenerRemovedMidRunSwitchesBackToFast() throws Exception {
+		long expected = referenceFingerprint();
+		start();
+		try {
+			int rdrec = rMgr.getExternalSymbolAddress("RDREC");
+			simulator.setChunkSize(1);
+			List<Boolean> paths = new ArrayList<>();
+			StepRecorder recorder = new StepRecorder() {
+				@Override
+				public void instructionRetired(int pc, int opcodeByte, int length, int nextPc) {
+					super.instructionRetired(pc, opcodeByte, length, nextPc);
+					paths.add(simulator.isObservedPath());
+					if (nextPc == rdrec) simulator.getEvents().removeInstructionListener(this);
+				}
+			};
+			simulator.getEvents().addInstructionListener(recorder);
+			RunResult result = simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertEquals(StopReason.HALT, result.getReason(), "program halts");
+			assertEquals(2, recorder.pcs.size(), "STL and +JSUB RDREC reported, nothing after removal");
+			assertTrue(recorder.chained, "no step skipped");
+			assertTrue(!paths.contains(false), "every reported step ran on the observed loop");
+			assertTrue(!simulator.isObservedPath(), "back on the fast loop");
+			assertEquals(133, result.getExecutedInstructions(), "total steps");
+			assertEquals(expected, rMgr.getStateFingerprint(), "same state as a run without listeners");
+
+			// 다시 적재하고 여러 번 붙였다 떼어도 붙어 있는 구간의 단계 수만큼만 받는다
+			stop();
+			start();
+			StepRecorder again = new StepRecorder();
+			long seen = 0;
+			for (int round = 0; simulator.isReadyToRun(); round++) {
+				boolean attach = round % 2 == 1;
+				if (attach) simulator.getEvents().addInstructionListener(again);
+				int before = again.pcs.size();
+				RunResult part = simulator.run(10, 0, null);
+				if (attach) { seen += part.getExecutedInstructions(); simulator.getEvents().removeInstructionListener(again); }
+				else assertEquals(before, again.pcs.size(), "nothing reported while detached");
+			}
+			assertEquals(seen, again.pcs.size(), "every attached step reported");
+			assertEquals(expected, rMgr.getStateFingerprint(), "same state after switching every 10 steps");
+		} finally {
+			stop();
+		}
+	}
+
+	private long referenceFingerprint() throws Exception {
+		start();
+		try {
+			assertEquals(StopReason.HALT, simulator.run(SicSimulator.UNLIMITED_BUDGET, 0, null).getReason(), "reference run halts");
+			assertTrue(!simulator.isObservedPath(), "no listeners, fast loop");
+			return rMgr.getStateFingerprint();
+		} finally {
+			stop();
+		}
+	}
+
+	private void start() throws Exception {
+		Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+		Files.deleteIfExists(OUTPUT);
+		rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		simulator = simulator(rMgr);
+	}
+
+	private void stop() throws Exception {
+		rMgr.closeDevices();
+		Files.deleteIfExists(INPUT);
+		Files.deleteIfExists(OUTPUT);
+	}
+}
@@ -0,0 +1,117 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static SP25_simulator.TestSupport.*;
+
+// 지연 적재(TRecordPager): 처음 접근한 페이지 묶음만 적재하고, 결과는 한꺼번에 적재한 것과 같아야 한다
+public class LazyLoadTest {
+	// 0x0FF 의 워드가 페이지 0/1 에 걸치고 SUBB(0x500) 로 재배치된다. 0x400 은 재배치 없는 별도 페이지
+	private static final String CROSS_PAGE_PROGRAM = String.join("\n",
+			"HPROGA 000000000500",
+			"T0000FE06112233445566",
+			"T00040003778899",
+			"M0000FF06+SUBB",
+			"E000000",
+			"HSUBB  000000000010",
+			"T000000031A2B3C",
+			"E");
+
+	void testLazyMemoryMatchesEagerLoad() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager eager = load(program, false);
+		ResourceManager lazy = load(program, true);
+		assertTrue(lazy.isLazyLoading(), "lazy load should leave pages to fault in");
+		assertEquals(eager.getFirstInstructionAddress(), lazy.getFirstInstructionAddress(), "start address");
+		assertEquals(eager.getProgramTotalLength(), lazy.getProgramTotalLength(), "program length");
+		assertArrayEquals(eager.getMemory(0, 0x1100), lazy.getMemory(0, 0x1100), "loaded bytes");
+		assertEquals(eager.getStateFingerprint(), lazy.getStateFingerprint(), "state fingerprint");
+		assertTrue(!lazy.isLazyLoading(), "pager should be dropped once every page is resident");
+	}
+
+	void testRelocationAcrossPageBoundaryIsAppliedFromEitherPage() throws Exception {
+		File program = writeObject(CROSS_PAGE_PROGRAM);
+		ResourceManager eager = load(program, false);
+		assertEquals(0x223844, eager.readWord(0xFF), "relocated word (eager)");
+
+		ResourceManager fromSecondPage = load(program, true);
+		assertEquals(0x44, fromSecondPage.readByte(0x101), "last byte read first");
+		assertEquals(0x223844, fromSecondPage.readWord(0xFF), "relocated word after faulting page 1");
+
+		ResourceManager fromFirstPage = load(program, true);
+		assertEquals(0x223844, fromFirstPage.readWord(0xFF), "relocated word after faulting page 0");
+		assertEquals(0x1A2B3C, fromFirstPage.readWord(0x500), "second section");
+		assertEquals(eager.getStateFingerprint(), fromFirstPage.getStateFingerprint(), "state fingerprint");
+	}
+
+	void testPagerLoadsOnlyTheTouchedCluster() throws Exception {
+		File program = writeObject(CROSS_PAGE_PROGRAM);
+		String text = CROSS_PAGE_PROGRAM;
+		ResourceManager rMgr = new ResourceManager();
+		TRecordPager pager = new TRecordPager(program, rMgr.getMemorySize());
+		pager.addTRecord(0x0FE, 6, text.indexOf("T0000FE06") + 9);
+		pager.addTRecord(0x400, 3, text.indexOf("T00040003") + 9);
+		pager.addModification(0x0FF, 6, '+', 0x200);
+		pager.finishIndex();
+
+		pager.fault(rMgr, 0x401, 1);
+		assertTrue(pager.isResident(4), "faulted page");
+		assertTrue(!pager.isResident(0) && !pager.isResident(1), "untouched pages stay out");
+		assertEquals(0x778899, rMgr.readWord(0x400), "page 4 contents");
+
+		pager.fault(rMgr, 0x100, 1);
+		assertTrue(pager.isResident(0) && pager.isResident(1), "pages sharing a relocation load together");
+		assertTrue(!pager.isFullyResident(), "other pages are still out");
+		assertEquals(0x223544, rMgr.readWord(0xFF), "relocation applied once");
+		pager.fault(rMgr, 0x0FE, 4);
+		assertEquals(0x223544, rMgr.readWord(0xFF), "faulting a resident cluster again does not reapply the relocation");
+	}
+
+	// 적재한 뒤 파일이 바뀌면 (크기가 같아도) 페이지를 읽어 오지 않고 오류를 내며, 그 페이지는 적재되지 않은 채로 남는다
+	void testChangedFileFailsTheFault() throws Exception {
+		File program = writeObject(CROSS_PAGE_PROGRAM);
+		ResourceManager rMgr = load(program, true);
+		assertEquals(0x778899, rMgr.readWord(0x400), "page 4 before the edit");
+		Files.write(program.toPath(), CROSS_PAGE_PROGRAM.replace("112233", "AABBCC").getBytes(StandardCharsets.US_ASCII));
+		assertTrue(program.setLastModified(program.lastModified() + 2000), "mtime moved");
+		assertThrows(UncheckedIOException.class, () -> rMgr.readWord(0xFF), "same length, newer file");
+		assertTrue(rMgr.isLazyLoading(), "failed pages stay out");
+		assertEquals(0, rMgr.peek(0xFF), "nothing written from the edited file");
+
+		Files.write(program.toPath(), (CROSS_PAGE_PROGRAM + "\n").getBytes(StandardCharsets.US_ASCII));
+		assertThrows(UncheckedIOException.class, () -> rMgr.readByte(0x500), "different length");
+		assertEquals(0x778899, rMgr.readWord(0x400), "resident page still readable");
+	}
+
+	// 지연 적재는 16진수를 fault 때 해석한다. 깨진 바이트가 있으면 묶음 전체를 적재하지 않는다
+	void testBadHexFailsTheFault() throws Exception {
+		File program = writeObject(CROSS_PAGE_PROGRAM.replace("T0000FE06112233445566", "T0000FE061122334455ZZ"));
+		ResourceManager rMgr = load(program, true);
+		assertThrows(UncheckedIOException.class, () -> rMgr.readByte(0x0FE), "bad hex on page 1 of the cluster");
+		assertEquals(0, rMgr.peek(0x0FE), "page 0 of the cluster not written");
+		assertThrows(UncheckedIOException.class, () -> rMgr.readByte(0x0FE), "still fails on the next access");
+		assertEquals(0x778899, rMgr.readWord(0x400), "other clusters load");
+	}
+
+	void testModificationOutsideMemoryIsIgnored() throws Exception {
+		File program = writeObject(CROSS_PAGE_PROGRAM);
+		ResourceManager rMgr = new ResourceManager();
+		TRecordPager pager = new TRecordPager(program, rMgr.getMemorySize());
+		pager.addModification(rMgr.getMemorySize() - 2, 6, '+', 0x100);
+		pager.addModification(-1, 6, '+', 0x100);
+		pager.finishIndex();
+		pager.faultAll(rMgr);
+		assertTrue(pager.isFullyResident(), "every page loads");
+		assertEquals(0, rMgr.peek(rMgr.getMemorySize() - 1), "last byte untouched");
+	}
+
+	void testMissingFileFailsToLoad() {
+		ResourceManager rMgr = new ResourceManager();
+		SicLoader loader = new SicLoader(rMgr);
+		loader.setLazy(true);
+		assertTrue(!loader.load(new File("no-such-object-file.obj")), "missing file should not load");
+	}
+}
@@ -0,0 +1,139 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static SP25_simulator.TestSupport.*;
+
+// 루프 관용구: 한 번에 실행한 결과(멈춘 이유, 명령어 수, PC, 메모리, 레지스터)가 한 명령어씩 해석한 것과 같아야 하고,
+// 전제 조건이 맞지 않으면 해석으로 돌아가야 한다
+public class LoopIdiomsTest {
+	private static final int SRC = 0x100;
+	private final Map<SicSimulator, ResourceManager> machines = new IdentityHashMap<>();
+
+	// LDX #0 / LDT #0x200 / LDCH SRC,X / STCH DST,X / TIXR T / JLT / +J 0x800 (프로그램 밖 -> HALT)
+	private static final String COPY = "050000" + "750200" + "53A0F7" + "57A3F4" + "B850" + "3B2FF5" + "3F100800";
+	// 같은 복사지만 목적지가 SRC+1 이라 앞으로 번진다 (memmove 와 다르므로 해석해야 한다)
+	private static final String SMEAR = "050000" + "750200" + "53A0F7" + "57A0F5" + "B850" + "3B2FF5" + "3F100800";
+	// LDX #0 / LDT #0x180 / LDA #0x41 / STCH DST,X / TIXR T / JLT / +J 0x800
+	private static final String FILL = "050000" + "750180" + "010041" + "57A3F4" + "B850" + "3B2FF8" + "3F100800";
+	// 같은 채우기지만 0x000 부터 써서 루프 코드 자신을 덮어쓴다
+	private static final String FILL_OVER_CODE = "050000" + "750180" + "010041" + "57AFF4" + "B850" + "3B2FF8" + "3F100800";
+	// LDX #0 / LDT #0x200 / LDCH SRC,X / COMP #0x2A / JEQ FOUND / TIXR T / JLT / FOUND: STX 0x30 / +J 0x800
+	private static final String SCAN = "050000" + "750200" + "53A0F7" + "29002A" + "332005" + "B850" + "3B2FF2" + "132019" + "3F100800";
+
+	void testCopyFillAndScanMatchInterpretation() throws Exception {
+		for (String code : new String[]{COPY, FILL, SCAN}) {
+			SicSimulator bulk = start(code, true);
+			SicSimulator plain = start(code, false);
+			RunResult a = bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			RunResult b = plain.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertSameRun(a, b, bulk, plain, code);
+			assertEquals(StopReason.HALT, a.getReason(), "runs to the end");
+			assertTrue(bulk.getIdiomSteps() > a.getExecutedInstructions() / 2, "most steps run in bulk: " + bulk.getIdiomSteps() + " of " + a.getExecutedInstructions());
+			assertEquals(0, plain.getIdiomSteps(), "no bulk steps with idioms off");
+		}
+	}
+
+	void testScanStopsAtTheMatch() throws Exception {
+		SicSimulator bulk = start(SCAN, true);
+		bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertEquals(0x155, machine(bulk).readWord(0x30), "index of the '*' byte");
+	}
+
+	// 예산이 루프 중간에서 끊겨도, 청크가 작아도 같은 상태에서 멈추고 이어서 실행해도 같아야 한다
+	void testBudgetAndChunkBoundariesMatchInterpretation() throws Exception {
+		for (String code : new String[]{COPY, FILL, SCAN}) {
+			for (long budget : new long[]{1, 3, 4, 5, 6, 7, 13, 101, 402, 1000}) {
+				SicSimulator bulk = start(code, true);
+				bulk.setChunkSize(7);
+				SicSimulator plain = start(code, false);
+				assertSameRun(bulk.run(budget, 0, null), plain.run(budget, 0, null), bulk, plain, code + " budget " + budget);
+				assertSameRun(bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null), plain.run(SicSimulator.UNLIMITED_BUDGET, 0, null), bulk, plain, code + " after budget " + budget);
+			}
+		}
+	}
+
+	void testPreconditionFailuresFallBackToInterpretation() throws Exception {
+		for (String code : new String[]{SMEAR, FILL_OVER_CODE}) {
+			SicSimulator bulk = start(code, true);
+			SicSimulator plain = start(code, false);
+			assertSameRun(bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null), plain.run(SicSimulator.UNLIMITED_BUDGET, 0, null), bulk, plain, code);
+		}
+		SicSimulator smear = start(SMEAR, true);
+		smear.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertTrue(smear.getIdiomSteps() <= 4, "overlapping forward copy is interpreted (only a final one-byte iteration may run in bulk): " + smear.getIdiomSteps());
+		byte first = (byte) machine(smear).readByte(SRC);
+		for (int i = 1; i <= 0x200; i++) assertEquals(first, (byte) machine(smear).readByte(SRC + i), "smeared byte " + i);
+	}
+
+	void testBreakpointInsideLoopStopsLikeInterpretation() throws Exception {
+		SicSimulator bulk = start(COPY, true);
+		SicSimulator plain = start(COPY, false);
+		bulk.setBreakpoint(0x09, true); // STCH
+		plain.setBreakpoint(0x09, true);
+		for (int stop = 0; stop < 3; stop++) {
+			RunResult a = bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertEquals(StopReason.BREAKPOINT, a.getReason(), "stops at the breakpoint");
+			assertSameRun(a, plain.run(SicSimulator.UNLIMITED_BUDGET, 0, null), bulk, plain, "breakpoint stop " + stop);
+		}
+		assertEquals(0, bulk.getIdiomSteps(), "a breakpoint in the body disables the bulk path");
+	}
+
+	// 인식 결과는 캐시되지만 루프 코드가 바뀌면 다시 인식해야 한다
+	void testRewrittenLoopIsRecognisedAgain() throws Exception {
+		SicSimulator bulk = start(COPY, true);
+		bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		ResourceManager rMgr = machine(bulk);
+		rMgr.setMemoryHex(0x09, "57A0F5"); // STCH 목적지를 SRC+1 로: SMEAR 와 같은 코드
+		rMgr.setRegister(ResourceManager.REG_A, 0);
+		seed(rMgr);
+		bulk.programLoaded();
+		SicSimulator plain = start(SMEAR, false);
+		plain.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		bulk.run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertArrayEquals(machine(plain).getMemory(SRC, 0x201), rMgr.getMemory(SRC, 0x201), "rewritten loop result");
+	}
+
+	private void assertSameRun(RunResult a, RunResult b, SicSimulator bulk, SicSimulator plain, String what) {
+		assertEquals(b.getReason(), a.getReason(), what + ": stop reason");
+		assertEquals(b.getExecutedInstructions(), a.getExecutedInstructions(), what + ": instruction count");
+		assertEquals(b.getPc(), a.getPc(), what + ": PC");
+		ResourceManager x = machine(bulk), y = machine(plain);
+		for (int r = 0; r <= ResourceManager.REG_SW; r++) assertEquals(y.getRegister(r), x.getRegister(r), what + ": register " + r);
+		assertEquals(y.getStateFingerprint(), x.getStateFingerprint(), what + ": state fingerprint");
+	}
+
+	private ResourceManager machine(SicSimulator simulator) {
+		return machines.get(simulator);
+	}
+
+	private SicSimulator start(String code, boolean idioms) throws Exception {
+		File program = writeObject(program(code));
+		ResourceManager rMgr = load(program, false);
+		seed(rMgr);
+		SicSimulator simulator = simulator(rMgr);
+		simulator.setIdiomsEnabled(idioms);
+		machines.put(simulator, rMgr);
+		return simulator;
+	}
+
+	// 원본 영역에 0x2A('*')가 0x155 번째에 한 번만 나오는 데이터를 채운다
+	private static void seed(ResourceManager rMgr) {
+		byte[] data = new byte[0x200];
+		for (int i = 0; i < data.length; i++) data[i] = (byte) ('a' + i % 26);
+		data[0x155] = 0x2A;
+		rMgr.setMemory(SRC, data, data.length);
+	}
+
+	// 코드(0 번지부터)를 T 레코드로 나눈 길이 0x700 의 목적 코드
+	private static String program(String code) {
+		StringBuilder sb = new StringBuilder("HIDIOM 000000000700\n");
+		for (int at = 0; at < code.length(); at += 0x3C) {
+			String part = code.substring(at, Math.min(code.length(), at + 0x3C));
+			sb.append(String.format("T%06X%02X%s%n", at / 2, part.length() / 2, part));
+		}
+		return sb.append("E000000").toString();
+	}
+}
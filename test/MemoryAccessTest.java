@@ -0,0 +1,94 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static SP25_simulator.TestSupport.*;
+
+// 타입별 메모리 접근(readByte/readWord/writeWord/copyMemory/fillMemory)과 인터프리터의 할당 없는 실행
+public class MemoryAccessTest {
+	// X 를 0..99 로 돌며 VAL 을 1씩 늘리고 BUF,X 에 쓰는 루프를 끝없이 되풀이한다 (장치 없음, 관용구 아님)
+	private static final String COUNTER_PROGRAM = String.join("\n",
+			"HLOOP  000000000082",
+			"T0000001E0500000320121900010F200C57A00F2F20093B2FEE3F2FE8000000000064",
+			"E000000");
+
+	void testWordReadsAreSignExtendedLikeByteToInt() {
+		ResourceManager rMgr = new ResourceManager();
+		int[] values = {0x000000, 0x000001, 0x7FFFFF, 0x800000, 0xFFFFFF, 0x123456, 0xABCDEF};
+		for (int at : new int[]{0x10, ResourceManager.PAGE_SIZE - 2, ResourceManager.PAGE_SIZE - 1}) {
+			for (int v : values) {
+				rMgr.writeWord(at, v);
+				assertEquals(rMgr.byteToInt(rMgr.getMemory(at, 3)), rMgr.readWord(at), "readWord at 0x" + Integer.toHexString(at));
+				assertEquals((v << 8) >> 8, rMgr.readWord(at), "sign-extended word");
+				assertEquals(v >>> 16, rMgr.readByte(at), "unsigned high byte");
+			}
+		}
+	}
+
+	void testWordWriteAcrossPagesBumpsBothPageVersions() {
+		ResourceManager rMgr = new ResourceManager();
+		int at = ResourceManager.PAGE_SIZE - 1;
+		int v0 = rMgr.getPageVersion(0), v1 = rMgr.getPageVersion(1), v2 = rMgr.getPageVersion(2);
+		rMgr.writeWord(at, 0x010203);
+		assertTrue(rMgr.getPageVersion(0) != v0 && rMgr.getPageVersion(1) != v1, "both pages written");
+		assertEquals(v2, rMgr.getPageVersion(2), "next page untouched");
+		assertArrayEquals(new byte[]{1, 2, 3}, rMgr.getMemory(at, 3), "bytes across the boundary");
+	}
+
+	void testOutOfRangeAccessThrows() {
+		ResourceManager rMgr = new ResourceManager();
+		int size = rMgr.getMemorySize();
+		assertThrows(IndexOutOfBoundsException.class, () -> rMgr.readWord(size - 2), "word past the end");
+		assertThrows(IndexOutOfBoundsException.class, () -> rMgr.writeByte(-1, 0), "negative address");
+		assertThrows(IndexOutOfBoundsException.class, () -> rMgr.copyMemory(0, size - 4, 8), "copy past the end");
+		assertThrows(IndexOutOfBoundsException.class, () -> rMgr.fillMemory(size - 1, 2, (byte) 0), "fill past the end");
+		rMgr.writeWord(size - 3, 0x7F0000);
+		assertEquals(0x7F0000, rMgr.readWord(size - 3), "last word in memory");
+	}
+
+	// 겹치는 복사가 memmove 와 같아야 한다 (앞/뒤 방향, 페이지 경계에 걸친 경우)
+	void testCopyMemoryBehavesLikeMemmove() {
+		int span = 5 * ResourceManager.PAGE_SIZE;
+		int[][] cases = {{0x10, 0x20, 0x100}, {0x20, 0x10, 0x100}, {0xF0, 0x1F8, 0x210}, {0x1F8, 0xF0, 0x210}, {0x80, 0x81, 0x2FF}, {0x81, 0x80, 0x2FF}, {0x40, 0x40, 0x10}};
+		for (int[] c : cases) {
+			ResourceManager rMgr = new ResourceManager();
+			byte[] model = new byte[span];
+			for (int i = 0; i < span; i++) model[i] = (byte) (i * 7 + 3);
+			rMgr.setMemory(0, model, span);
+			rMgr.copyMemory(c[0], c[1], c[2]);
+			System.arraycopy(model, c[0], model, c[1], c[2]); // System.arraycopy 는 겹쳐도 임시 복사본을 쓴 것처럼 동작한다
+			assertArrayEquals(model, rMgr.getMemory(0, span), "copy " + Arrays.toString(c));
+		}
+	}
+
+	void testFillAndReadMemoryAcrossPages() {
+		ResourceManager rMgr = new ResourceManager();
+		rMgr.fillMemory(0xF8, 0x110, (byte) 0x5A);
+		byte[] dest = new byte[0x120];
+		rMgr.readMemory(0xF0, dest, 4, 0x11C);
+		for (int i = 0; i < dest.length; i++) {
+			int address = 0xF0 + i - 4;
+			byte expected = (i >= 4 && address >= 0xF8 && address < 0xF8 + 0x110) ? (byte) 0x5A : 0;
+			assertEquals(expected, dest[i], "byte at 0x" + Integer.toHexString(address));
+		}
+	}
+
+	// 데운 뒤 연속 실행이 명령어당 할당을 하지 않는지 (스레드 할당량을 재는 JVM 에서만)
+	void testSteadyStateRunDoesNotAllocatePerInstruction() throws Exception {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return;
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) return;
+		File program = writeObject(COUNTER_PROGRAM);
+		ResourceManager rMgr = load(program, false);
+		SicSimulator simulator = simulator(rMgr);
+		final long steps = 2_000_000;
+		for (int i = 0; i < 5; i++) assertEquals(StopReason.BUDGET, simulator.run(steps, 0, null).getReason(), "warm-up run");
+		long before = threads.getCurrentThreadAllocatedBytes();
+		RunResult result = simulator.run(steps, 0, null);
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		assertEquals(steps, result.getExecutedInstructions(), "steps");
+		assertTrue(allocated < steps / 16, "allocated " + allocated + " bytes over " + steps + " instructions");
+	}
+}
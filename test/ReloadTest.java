@@ -0,0 +1,68 @@
+package SP25_simulator;
+
+import java.io.File;
+
+import static SP25_simulator.TestSupport.*;
+
+// 재적재(SicLoader.reload): 바뀐 바이트만 제자리에서 덮어쓰고, 새 파일을 적재하지 못하면 아무것도 바꾸지 않으며, 브레이크포인트는 심볼 기준으로 옮긴다
+public class ReloadTest {
+	void testPatchesOnlyTheChangedBytes() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager rMgr = load(program, false);
+		File edited = writeObject(SAMPLE_PROGRAM.replace("0F200A4B1000003E2000", "0F200B4B1000003E2000")); // STA LENGTH -> STA LENGTH+0x1
+		ReloadResult result = new SicLoader(rMgr).reload(edited);
+		assertTrue(result != null, "reload succeeded");
+		assertEquals(1, result.getPatches().size(), "one patched range");
+		assertEquals(0x22, result.getPatches().get(0).getStartAddress(), "patched address");
+		assertEquals(1, result.getPatchedBytes(), "patched bytes");
+		assertTrue(!result.isLayoutChanged(), "same T record layout");
+		assertTrue(result.getSectionChanges().isEmpty(), "no section changes: " + result.getSectionChanges());
+
+		ResourceManager fresh = load(edited, false);
+		assertEquals(0, rMgr.diffPages(fresh).length, "memory equals a fresh load of the new file");
+		assertEquals(fresh.getExternalSymbolAddress("WRREC"), rMgr.getExternalSymbolAddress("WRREC"), "ESTAB");
+
+		ReloadResult again = new SicLoader(rMgr).reload(edited);
+		assertEquals(0, again.getPatchedBytes(), "reloading the same file patches nothing");
+	}
+
+	// WRREC 의 T 레코드 주소가 깨진 파일: H 레코드는 읽히므로 프로그램 이름만 보고 판단하면 반쯤 적재된 메모리로 덮어쓴다
+	void testFailedParseChangesNothing() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager rMgr = load(program, false);
+		simulator(rMgr).oneStep();
+		byte[] memory = rMgr.getMemory(0, rMgr.getMemorySize());
+		long fingerprint = rMgr.getStateFingerprint();
+		SymbolIndex symbols = rMgr.getSymbolIndex();
+
+		File broken = writeObject(SAMPLE_PROGRAM.replace("T0000001CB410", "T00Z0001CB410").replace("0F200A4B1000003E2000", "0F200B4B1000003E2000"));
+		assertTrue(new SicLoader(rMgr).reload(broken) == null, "malformed T record address");
+		assertTrue(new SicLoader(rMgr).reload(new File("no-such-program.obj")) == null, "missing file");
+		assertArrayEquals(memory, rMgr.getMemory(0, rMgr.getMemorySize()), "memory unchanged");
+		assertEquals(fingerprint, rMgr.getStateFingerprint(), "fingerprint unchanged");
+		assertTrue(symbols == rMgr.getSymbolIndex(), "symbol index unchanged");
+	}
+
+	// COPY 가 3 바이트 길어지면 RDREC/WRREC 가 밀린다. 섹션 안의 브레이크포인트는 같이 밀리고 COPY 안의 것은 그대로
+	void testBreakpointsFollowTheirSymbols() throws Exception {
+		ResourceManager rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		SicSimulator simulator = simulator(rMgr);
+		int rdrec = rMgr.getExternalSymbolAddress("RDREC"), wrrec = rMgr.getExternalSymbolAddress("WRREC");
+		simulator.setBreakpoint(0x14, true);
+		simulator.setBreakpoint(rdrec + 0x9, true);
+		simulator.setBreakpoint(wrrec + 0x6, true);
+
+		File longer = writeObject(SAMPLE_PROGRAM.replace("HCOPY  000000001033", "HCOPY  000000001036"));
+		ReloadResult result = new SicLoader(rMgr).reload(longer);
+		assertTrue(result != null, "reload succeeded");
+		assertEquals(rdrec + 3, (int) rMgr.getExternalSymbolAddress("RDREC"), "RDREC moved");
+		assertTrue(result.getSectionChanges().contains(String.format("moved RDREC 0x%06X -> 0x%06X", rdrec, rdrec + 3)), "section change: " + result.getSectionChanges());
+
+		assertEquals(3, simulator.remapBreakpoints(result.getOldSymbols(), rMgr.getSymbolIndex()), "every breakpoint kept");
+		assertTrue(simulator.hasBreakpoint(0x14), "COPY breakpoint stays");
+		assertTrue(simulator.hasBreakpoint(rdrec + 3 + 0x9), "RDREC breakpoint moved");
+		assertTrue(simulator.hasBreakpoint(wrrec + 3 + 0x6), "WRREC breakpoint moved");
+		assertTrue(!simulator.hasBreakpoint(rdrec + 0x9) && !simulator.hasBreakpoint(wrrec + 0x6), "old addresses cleared");
+		assertEquals(0, rMgr.diffPages(load(longer, false)).length, "memory equals a fresh load");
+	}
+}
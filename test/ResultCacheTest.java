@@ -0,0 +1,136 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static SP25_simulator.TestSupport.*;
+
+// 결과 캐시: 읽은 장치의 내용이 같으면 두 번째 실행부터 적중하고, 쓴 장치는 실제로 실행한 것과 같은 내용으로 되살아나야 한다
+public class ResultCacheTest {
+	private static final Path INPUT = Paths.get("F1");
+	private static final Path OUTPUT = Paths.get("05");
+	private static final String OPTIONS = "budget=" + SicSimulator.UNLIMITED_BUDGET;
+
+	void testSecondRunHitsInAFreshWorkspace() throws Exception {
+		Path dir = Files.createTempDirectory("siccache");
+		try {
+			File program = writeObject(SAMPLE_PROGRAM);
+			Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+			Files.deleteIfExists(OUTPUT);
+			ResultCache cache = new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES);
+			String key = cache.key(program, OPTIONS);
+			assertTrue(cache.lookup(key) == null, "empty cache misses");
+			long fingerprint = runAndStore(cache, key, program);
+			byte[] output = Files.readAllBytes(OUTPUT);
+			assertEquals("sibalEOF", new String(output, StandardCharsets.US_ASCII), "program copied the input and wrote EOF");
+
+			ResultCache.Entry hit = cache.lookup(key);
+			assertTrue(hit != null, "second run hits while the output device exists");
+			assertEquals(fingerprint, hit.getFingerprint(), "cached fingerprint");
+			assertEquals(StopReason.HALT, hit.getResult().getReason(), "cached stop reason");
+
+			Files.delete(OUTPUT);
+			assertTrue(cache.lookup(key) != null, "hits again without the output device");
+			assertArrayEquals(output, Files.readAllBytes(OUTPUT), "output device restored");
+		} finally {
+			cleanUp(dir);
+		}
+	}
+
+	void testChangedInputMisses() throws Exception {
+		Path dir = Files.createTempDirectory("siccache");
+		try {
+			File program = writeObject(SAMPLE_PROGRAM);
+			Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+			ResultCache cache = new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES);
+			String key = cache.key(program, OPTIONS);
+			runAndStore(cache, key, program);
+			Files.write(INPUT, "other".getBytes(StandardCharsets.US_ASCII));
+			assertTrue(cache.lookup(key) == null, "changed input misses");
+			Files.delete(INPUT);
+			assertTrue(cache.lookup(key) == null, "missing input misses");
+			assertTrue(!cache.key(program, OPTIONS).equals(cache.key(program, "budget=10")), "options are part of the key");
+		} finally {
+			cleanUp(dir);
+		}
+	}
+
+	// 장치 쓰기는 파일을 자르지 않으므로 원래 더 길던 출력 파일은 뒷부분이 남는다. 캐시도 그렇게 되살려야 한다
+	void testRestoredOutputMatchesARealRun() throws Exception {
+		Path dir = Files.createTempDirectory("siccache");
+		try {
+			File program = writeObject(SAMPLE_PROGRAM);
+			byte[] stale = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+			Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+			ResultCache cache = new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES);
+			String key = cache.key(program, OPTIONS);
+			Files.deleteIfExists(OUTPUT);
+			runAndStore(cache, key, program);
+
+			Files.write(OUTPUT, stale);
+			ResourceManager real = load(program, false);
+			simulator(real).run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			real.closeDevices();
+			byte[] expected = Files.readAllBytes(OUTPUT);
+			assertEquals("sibalEOF89ABCDEF", new String(expected, StandardCharsets.US_ASCII), "real run overwrites the start");
+
+			Files.write(OUTPUT, stale);
+			assertTrue(cache.lookup(key) != null, "hit");
+			assertArrayEquals(expected, Files.readAllBytes(OUTPUT), "restored output");
+		} finally {
+			cleanUp(dir);
+		}
+	}
+
+	void testUnrepeatableRunsAreNotStored() throws Exception {
+		Path dir = Files.createTempDirectory("siccache");
+		try {
+			File program = writeObject(SAMPLE_PROGRAM);
+			ResultCache cache = new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES);
+			ResourceManager rMgr = load(program, false);
+			String key = cache.key(program, OPTIONS);
+			for (StopReason reason : new StopReason[]{StopReason.TIMEOUT, StopReason.CANCELLED, StopReason.BREAKPOINT})
+				assertTrue(!cache.store(key, new RunResult(reason, 10, 0), rMgr, ResultCache.snapshotDevices()), reason + " is not stored");
+			rMgr.readDevice("00", 1);
+			assertTrue(!cache.store(key, new RunResult(StopReason.HALT, 10, 0), rMgr, ResultCache.snapshotDevices()), "console input is not stored");
+			assertTrue(cache.lookup(key) == null, "nothing stored");
+		} finally {
+			cleanUp(dir);
+		}
+	}
+
+	void testEngineVersionCoversEveryClassFile() throws Exception {
+		Map<String, byte[]> classes = ResultCache.engineClassFiles();
+		for (String name : new String[]{"TRecordPager.class", "ExecutionEvents.class", "ProgramImage.class", "ResultCache$Entry.class", "InstLuncher.class"})
+			assertTrue(classes.containsKey(name), "engine version covers " + name);
+		assertEquals(16, ResultCache.engineVersion().length(), "engine version " + ResultCache.engineVersion());
+	}
+
+	// HeadlessRunner --cache 가 놓쳤을 때와 같은 순서: 장치를 해시해 두고, 적재, 실행, 저장. 실행 뒤 지문을 반환
+	private static long runAndStore(ResultCache cache, String key, File program) throws Exception {
+		Map<String, String> before = ResultCache.snapshotDevices();
+		ResourceManager rMgr = load(program, false);
+		try {
+			RunResult result = simulator(rMgr).run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+			assertEquals(StopReason.HALT, result.getReason(), "program halts");
+			assertTrue(cache.store(key, result, rMgr, before), "run stored");
+			return rMgr.getStateFingerprint();
+		} finally {
+			rMgr.closeDevices();
+		}
+	}
+
+	private static void cleanUp(Path dir) throws Exception {
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+		}
+		Files.delete(dir);
+		Files.deleteIfExists(INPUT);
+		Files.deleteIfExists(OUTPUT);
+	}
+}
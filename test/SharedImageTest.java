@@ -0,0 +1,84 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static SP25_simulator.TestSupport.*;
+
+// 공유 이미지(SicLoader.loadShared): 여러 머신이 적재한 페이지를 함께 쓰고, 처음 쓰는 페이지만 자기 것으로 복사해야 한다
+public class SharedImageTest {
+	// LDX #0 / LDT #0x180 / LDA #0x41 / STCH 0x3F4+PC,X / TIXR T / JLT / +J 0x800 (프로그램 밖 -> HALT). 0x400~0x57F 를 채운다
+	private static final String FILL_PROGRAM = String.join("\n",
+			"HFILL  000000000600",
+			"T00000015" + "050000" + "750180" + "010041" + "57A3F4" + "B850" + "3B2FF8" + "3F100800",
+			"E000000");
+
+	void testSharedLoadMatchesPrivateLoad() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager eager = load(program, false);
+		ResourceManager a = loadShared(program);
+		ResourceManager b = loadShared(program);
+		assertArrayEquals(eager.getMemory(0, eager.getMemorySize()), a.getMemory(0, a.getMemorySize()), "loaded bytes");
+		assertEquals(eager.getStateFingerprint(), b.getStateFingerprint(), "state fingerprint");
+		assertEquals(eager.getProgramName(), a.getProgramName(), "program name");
+		assertEquals(eager.getExternalSymbolAddress("WRREC"), b.getExternalSymbolAddress("WRREC"), "ESTAB");
+		assertEquals(eager.getTRecordLoadedRegions().size(), a.getTRecordLoadedRegions().size(), "T record regions");
+		assertEquals(0, a.getPrivatePageCount(), "nothing copied before the first write");
+		assertEquals(0, b.getPrivatePageCount(), "nothing copied before the first write");
+	}
+
+	void testFirstWriteCopiesOnlyThatPage() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager a = loadShared(program);
+		ResourceManager b = loadShared(program);
+		int original = b.readWord(0x40);
+		a.writeWord(0x40, 0x123456);
+		assertEquals(1, a.getPrivatePageCount(), "written page copied");
+		assertEquals(0x123456, a.readWord(0x40), "writer sees its write");
+		assertEquals(original, b.readWord(0x40), "other machine still sees the image");
+		assertEquals(0, b.getPrivatePageCount(), "other machine copied nothing");
+
+		a.copyMemory(0x00, 0x1FE, 4); // 페이지 1, 2 에 걸친다
+		a.fillMemory(0x1000, 0x10, (byte) 0x7F);
+		assertEquals(4, a.getPrivatePageCount(), "pages 0, 1, 2 and 16 copied");
+		assertEquals(original, loadShared(program).readWord(0x40), "image unchanged for the next machine");
+	}
+
+	void testRunsOnSharedImagesAreIsolated() throws Exception {
+		File program = writeObject(FILL_PROGRAM);
+		ResourceManager reference = load(program, false);
+		RunResult expected = simulator(reference).run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertEquals(StopReason.HALT, expected.getReason(), "reference run halts");
+
+		ResourceManager a = loadShared(program);
+		ResourceManager b = loadShared(program);
+		RunResult first = simulator(a).run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertEquals(expected.getExecutedInstructions(), first.getExecutedInstructions(), "steps");
+		assertEquals(reference.getStateFingerprint(), a.getStateFingerprint(), "state after run");
+		assertEquals(2, a.getPrivatePageCount(), "only the filled pages are copied");
+		assertEquals(0, b.readByte(0x400), "unrun machine does not see the fill");
+
+		simulator(b).run(SicSimulator.UNLIMITED_BUDGET, 0, null);
+		assertEquals(reference.getStateFingerprint(), b.getStateFingerprint(), "second machine runs from a clean image");
+	}
+
+	void testChangedFileIsLoadedAgain() throws Exception {
+		File program = writeObject(FILL_PROGRAM);
+		assertEquals(0x05, loadShared(program).readByte(0), "first image");
+		Files.write(program.toPath(), FILL_PROGRAM.replace("T00000015050000", "T00000015010000").concat("\n").getBytes(StandardCharsets.US_ASCII));
+		assertEquals(0x01, loadShared(program).readByte(0), "edited file is not served from the old image");
+	}
+
+	void testMissingFileFailsToLoadShared() {
+		ResourceManager rMgr = new ResourceManager();
+		assertTrue(!new SicLoader(rMgr).loadShared(new File("no-such-program.obj")), "missing file");
+		assertEquals(0, rMgr.getPrivatePageCount(), "memory left untouched");
+	}
+
+	private static ResourceManager loadShared(File program) {
+		ResourceManager rMgr = new ResourceManager();
+		assertTrue(new SicLoader(rMgr).loadShared(program), "shared load failed: " + program);
+		return rMgr;
+	}
+}
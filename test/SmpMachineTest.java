@@ -0,0 +1,100 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static SP25_simulator.TestSupport.*;
+
+// SMP 모드: CPU 마다 따로인 레지스터, 공유 메모리, 워드 단위 원자적 읽기/쓰기(줄무늬 락), CPU 별 명령어 수
+public class SmpMachineTest {
+	// 0x20 * i 에서 시작하는 섹션 i 가 X 를 0..999 로 돌며 0x100 + 0x10 * i 의 워드를 1씩 늘리고 0x300 으로 점프해 멈춘다
+	private static final String COUNTERS_PROGRAM = String.join("\n",
+			"HCOUNT 000000000200",
+			"T00000017B4107503E8030100190001" + "0F0100B8503B2FF23F100300",
+			"T00002017B4107503E8030110190001" + "0F0110B8503B2FF23F100300",
+			"T00004017B4107503E8030120190001" + "0F0120B8503B2FF23F100300",
+			"T00006017B4107503E8030130190001" + "0F0130B8503B2FF23F100300",
+			"E000000");
+	private static final long STEPS_PER_CPU = 2 + 1000 * 5 + 1; // CLEAR, LDT, 반복 1000 번, J
+
+	void testEachCpuRunsWithItsOwnRegisters() throws Exception {
+		ResourceManager shared = load(writeObject(COUNTERS_PROGRAM), false);
+		SmpMachine machine = new SmpMachine(shared, 4);
+		for (int i = 0; i < 4; i++) machine.setEntry(i, 0x20 * i);
+		machine.runAll(SicSimulator.UNLIMITED_BUDGET);
+		for (int i = 0; i < 4; i++) {
+			SmpMachine.Cpu cpu = machine.getCpus().get(i);
+			assertEquals(StopReason.HALT, cpu.getResult().getReason(), "cpu" + i + " stop reason");
+			assertEquals(STEPS_PER_CPU, cpu.getExecutedInstructions(), "cpu" + i + " instruction count");
+			assertEquals(1000, cpu.getResourceManager().getRegister(ResourceManager.REG_X), "cpu" + i + " X");
+			assertEquals(1000, shared.readWord(0x100 + 0x10 * i), "cpu" + i + " counter in shared memory");
+		}
+		assertEquals(4 * STEPS_PER_CPU, machine.getTotalExecutedInstructions(), "total instruction count");
+		assertEquals(0, shared.getRegister(ResourceManager.REG_X), "shared machine registers are untouched");
+	}
+
+	void testBudgetAndStopRequest() throws Exception {
+		ResourceManager shared = load(writeObject(COUNTERS_PROGRAM), false);
+		SmpMachine machine = new SmpMachine(shared, 2);
+		machine.runAll(100);
+		for (SmpMachine.Cpu cpu : machine.getCpus()) {
+			assertEquals(StopReason.BUDGET, cpu.getResult().getReason(), "budget stop");
+			assertEquals(100, cpu.getExecutedInstructions(), "budget respected");
+		}
+
+		ResourceManager spin = load(writeObject("HSPIN  000000000003\nT000000033F2FFD\nE000000"), false); // J *
+		SmpMachine spinning = new SmpMachine(spin, 3);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread runner = new Thread(() -> {
+			try { spinning.runAll(SicSimulator.UNLIMITED_BUDGET); } catch (Throwable t) { failure.set(t); }
+		});
+		runner.start();
+		while (spinning.getTotalExecutedInstructions() == 0 && runner.isAlive()) Thread.sleep(1);
+		spinning.requestStop();
+		runner.join(10_000);
+		assertTrue(!runner.isAlive() && failure.get() == null, "runAll returns after requestStop");
+		for (SmpMachine.Cpu cpu : spinning.getCpus()) assertEquals(StopReason.CANCELLED, cpu.getResult().getReason(), "cpu" + cpu.getId() + " cancelled");
+	}
+
+	// 락 줄무늬 경계와 페이지 경계에 걸친 워드도 읽는 쪽에서 반만 바뀐 값이 보이지 않아야 한다
+	void testWordStoresAreNeverTorn() throws Exception {
+		ResourceManager shared = new ResourceManager();
+		int[] addresses = {0x40, 0x1F, 0xFF, 0x1FE};
+		int[] patterns = {0x123456, 0xEDCBA9};
+		for (int address : addresses) {
+			shared.writeWord(address, patterns[0]);
+			ResourceManager[] views = {shared.createCpuView(), shared.createCpuView(), shared.createCpuView()};
+			AtomicReference<String> torn = new AtomicReference<>();
+			Thread[] writers = new Thread[2];
+			for (int w = 0; w < 2; w++) {
+				ResourceManager view = views[w];
+				int value = patterns[w];
+				writers[w] = new Thread(() -> { for (int i = 0; i < 200_000; i++) view.writeWord(address, value); });
+			}
+			Thread reader = new Thread(() -> {
+				for (int i = 0; i < 200_000 && torn.get() == null; i++) {
+					int v = views[2].readWord(address) & 0xFFFFFF;
+					if (v != patterns[0] && v != patterns[1]) torn.set(String.format("0x%06X at 0x%X", v, address));
+				}
+			});
+			for (Thread t : writers) t.start();
+			reader.start();
+			for (Thread t : writers) t.join();
+			reader.join();
+			assertTrue(torn.get() == null, "torn word read: " + torn.get());
+		}
+	}
+
+	void testCpuViewsShareMemoryButNotRegisters() {
+		ResourceManager shared = new ResourceManager();
+		ResourceManager a = shared.createCpuView(), b = shared.createCpuView();
+		assertTrue(shared.isSmp() && a.isSmp(), "views switch the machine to SMP mode");
+		a.setRegister(ResourceManager.REG_A, 0x111111);
+		b.setRegister(ResourceManager.REG_A, 0x222222);
+		assertEquals(0x111111, a.getRegister(ResourceManager.REG_A), "view a register");
+		assertEquals(0x222222, b.getRegister(ResourceManager.REG_A), "view b register");
+		a.writeWord(0x300, 0x0ABCDE);
+		assertEquals(0x0ABCDE, b.readWord(0x300), "memory written through one view is seen by another");
+		assertEquals(0x0ABCDE, shared.readWord(0x300), "and by the shared machine");
+	}
+}
@@ -0,0 +1,88 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static SP25_simulator.TestSupport.*;
+
+// 상태 지문과 페이지 비교: 같은 실행은 같은 지문, 바이트 하나만 달라도 다른 지문, diffPages 는 건드린 페이지만 정확히 알려 준다
+public class StateFingerprintTest {
+	private static final Path INPUT = Paths.get("F1");
+	private static final Path OUTPUT = Paths.get("05");
+
+	void testIdenticalRunsHaveEqualFingerprints() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		try {
+			ResourceManager first = run(program);
+			ResourceManager second = run(program);
+			assertEquals(first.getStateFingerprint(), second.getStateFingerprint(), "fingerprint of identical runs");
+			assertEquals(0, first.diffPages(second).length, "no differing pages");
+			assertTrue(first.getStateFingerprint() != load(program, false).getStateFingerprint(), "a run changes the state");
+		} finally {
+			Files.deleteIfExists(INPUT);
+			Files.deleteIfExists(OUTPUT);
+		}
+	}
+
+	void testOneByteChangesTheFingerprint() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager a = load(program, false);
+		ResourceManager b = load(program, false);
+		long before = b.getStateFingerprint();
+		assertEquals(a.getStateFingerprint(), before, "same load");
+
+		int original = b.readByte(0x40);
+		b.writeByte(0x40, original ^ 0x01);
+		assertTrue(b.getStateFingerprint() != before, "one flipped bit changes the cached page hash");
+		assertArrayEquals(new int[]{0}, b.diffPages(a), "only page 0 differs");
+		b.writeByte(0x40, original);
+		assertEquals(before, b.getStateFingerprint(), "writing the byte back restores the fingerprint");
+
+		b.setRegister(ResourceManager.REG_X, 1);
+		assertTrue(b.getStateFingerprint() != before, "registers are part of the fingerprint");
+		assertEquals(0, b.diffPages(a).length, "registers are not pages");
+	}
+
+	void testDiffPagesReportsExactlyTheTouchedPages() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ResourceManager a = load(program, false);
+		ResourceManager b = load(program, false);
+		int last = b.getMemorySize() - 1;
+		b.writeWord(0x1FF, 0xABCDEF);       // 페이지 1, 2 에 걸친다
+		b.writeByte(0x4000, 0x11);          // 비어 있던 페이지 0x40
+		b.writeByte(last, 0x22);            // 마지막 페이지
+		b.writeByte(0x1033, b.readByte(0x1033)); // 같은 값을 쓰면 버전은 올라도 해시는 같다
+		int[] expected = {1, 2, 0x40, last >> ResourceManager.PAGE_SHIFT};
+		assertArrayEquals(expected, b.diffPages(a), "touched pages in ascending order");
+		assertArrayEquals(expected, a.diffPages(b), "symmetric");
+	}
+
+	// 같은 이미지를 공유하는 머신끼리는 복사된 페이지만 다를 수 있다
+	void testDiffPagesOnSharedImages() throws Exception {
+		File program = writeObject(SAMPLE_PROGRAM);
+		ProgramImage image = load(program, false).shareImage();
+		ResourceManager a = new ResourceManager();
+		ResourceManager b = new ResourceManager();
+		a.mapImage(image);
+		b.mapImage(image);
+		assertEquals(0, a.diffPages(b).length, "shared pages");
+		b.writeByte(0x1040, 0x99);
+		assertArrayEquals(new int[]{0x10}, a.diffPages(b), "copied page differs");
+		assertEquals(load(program, false).getStateFingerprint(), a.getStateFingerprint(), "shared image fingerprint equals a private load");
+	}
+
+	private static ResourceManager run(File program) throws Exception {
+		Files.write(INPUT, "sibal".getBytes(StandardCharsets.US_ASCII));
+		Files.deleteIfExists(OUTPUT);
+		ResourceManager rMgr = load(program, false);
+		try {
+			assertEquals(StopReason.HALT, simulator(rMgr).run(SicSimulator.UNLIMITED_BUDGET, 0, null).getReason(), "program halts");
+		} finally {
+			rMgr.closeDevices();
+		}
+		return rMgr;
+	}
+}
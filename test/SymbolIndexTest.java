@@ -0,0 +1,87 @@
+package SP25_simulator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static SP25_simulator.TestSupport.*;
+
+// 주소 -> 심볼 역방향 색인: 주소 이하의 가장 가까운 심볼, 정확히 맞는 주소, 섹션 경계에서 겹치는 심볼
+public class SymbolIndexTest {
+	void testNearestSymbolAtOrBelow() {
+		Map<String, Integer> symbols = new HashMap<>();
+		symbols.put("FIRST", 0x10);
+		symbols.put("SECOND", 0x40);
+		symbols.put("THIRD", 0x41);
+		SymbolIndex index = SymbolIndex.build(symbols, Collections.<ControlSection>emptyList());
+		assertEquals(-1, index.indexOf(0x0F), "before every symbol");
+		assertEquals("FIRST", index.symbolAt(index.indexOf(0x10)), "exact hit");
+		assertEquals("FIRST", index.symbolAt(index.indexOf(0x3F)), "just below the next symbol");
+		assertEquals("SECOND", index.symbolAt(index.indexOf(0x40)), "exact hit");
+		assertEquals("THIRD", index.symbolAt(index.indexOf(0xFFFFF)), "past the last symbol");
+
+		assertEquals("0x00000F", index.format(0x0F), "no symbol before");
+		assertEquals("FIRST", index.format(0x10), "no offset on an exact hit");
+		assertEquals("FIRST+0x2F", index.format(0x3F), "offset from the nearest symbol");
+		assertEquals("THIRD+0x1", index.format(0x42), "offset from the nearest symbol");
+		assertEquals(0x40, index.addressOf("SECOND"), "name lookup");
+		assertEquals(-1, index.addressOf("NONE"), "unknown name");
+	}
+
+	void testSectionsOnTheSampleProgram() throws Exception {
+		ResourceManager rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		SymbolIndex index = rMgr.getSymbolIndex();
+		int rdrec = rMgr.getExternalSymbolAddress("RDREC");
+		int wrrec = rMgr.getExternalSymbolAddress("WRREC");
+		assertEquals(3, index.sectionCount(), "three control sections");
+		assertEquals("COPY", index.sectionNameAt(index.csectIndexOf(rdrec - 1)), "last byte of COPY");
+		assertEquals("RDREC", index.sectionNameAt(index.csectIndexOf(rdrec)), "first byte of RDREC");
+		assertEquals("WRREC", index.sectionNameAt(index.csectIndexOf(wrrec + 0x1B)), "last byte of WRREC");
+		assertEquals(-1, index.csectIndexOf(wrrec + 0x1C), "past the last section");
+
+		assertEquals("COPY+0x3", index.format(3), "inside COPY before BUFFER");
+		assertEquals("BUFFER", index.format(0x33), "exact hit on a D record symbol");
+		assertEquals("RDREC", index.format(rdrec), "BUFEND shares the address, the section name wins");
+		assertEquals("RDREC+0x1D", index.format(rdrec + 0x1D), "inside RDREC");
+		assertEquals("0x" + String.format("%06X", wrrec + 0x1C), index.format(wrrec + 0x1C), "outside every section");
+	}
+
+	// BUFEND(COPY 의 끝)와 RDREC 시작이 같은 주소: 섹션 이름이 이겨야 하고, 앞 섹션의 심볼이 다음 섹션 이름을 가리면 안 된다
+	void testCollisionsAcrossSections() {
+		Map<String, Integer> symbols = new HashMap<>();
+		symbols.put("COPY", 0x000);
+		symbols.put("BUFFER", 0x033);
+		symbols.put("BUFEND", 0x1033);
+		symbols.put("RDREC", 0x1033);
+		symbols.put("WRREC", 0x105E);
+		SymbolIndex index = SymbolIndex.build(symbols, Arrays.asList(
+				new ControlSection("WRREC", 0x105E, 0x1C),
+				new ControlSection("COPY", 0x000, 0x1033),
+				new ControlSection("RDREC", 0x1033, 0x2B)));
+		assertEquals("RDREC", index.symbolAt(index.indexOf(0x1033)), "section name preferred at the shared address");
+		assertEquals("RDREC", index.format(0x1033), "section start");
+		assertEquals("RDREC+0x4", index.format(0x1037), "inside the next section");
+		assertEquals("BUFFER+0xFFF", index.format(0x1032), "last byte before the collision");
+		assertEquals("RDREC", index.sectionNameAt(1), "sections sorted by address");
+
+		// 섹션만 있고 심볼이 그 섹션보다 앞에만 있는 경우 섹션 기준으로 표기한다
+		SymbolIndex sectionsOnly = SymbolIndex.build(Collections.singletonMap("FIRST", 0x10), Arrays.asList(
+				new ControlSection("A", 0x00, 0x20), new ControlSection("B", 0x20, 0x20)));
+		assertEquals("B+0x5", sectionsOnly.format(0x25), "symbol from the previous section is not used");
+		assertEquals("A+0x5", sectionsOnly.format(0x05), "section before its first symbol");
+	}
+
+	void testRemapAcrossIndexes() {
+		Map<String, Integer> before = new HashMap<>();
+		before.put("MAIN", 0x000);
+		before.put("LOOP", 0x010);
+		Map<String, Integer> after = new HashMap<>(before);
+		after.put("LOOP", 0x016);
+		SymbolIndex oldIndex = SymbolIndex.build(before, Collections.<ControlSection>emptyList());
+		SymbolIndex newIndex = SymbolIndex.build(after, Collections.<ControlSection>emptyList());
+		assertEquals(0x019, oldIndex.remap(0x013, newIndex), "moves with its anchor symbol");
+		assertEquals(0x005, oldIndex.remap(0x005, newIndex), "unmoved anchor");
+		assertEquals(-1, oldIndex.remap(0x013, SymbolIndex.build(Collections.singletonMap("MAIN", 0), null)), "anchor gone");
+	}
+}
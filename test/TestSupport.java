@@ -0,0 +1,102 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+// 테스트 공용: 단언과 목적 코드 파일 만들기/적재
+final class TestSupport {
+	// 저장소의 input.txt 와 같은 예제 프로그램 (COPY/RDREC/WRREC 세 섹션, F1 에서 읽어 05 에 쓴다)
+	static final String SAMPLE_PROGRAM = String.join("\n",
+			"HCOPY  000000001033",
+			"DBUFFER000033BUFEND001033LENGTH00002D",
+			"RRDREC WRREC",
+			"T0000001D1720274B1000000320232900003320074B1000003F2FEC0320160F2016",
+			"T00001D0D0100030F200A4B1000003E2000",
+			"T00003003454F46",
+			"M00000405+RDREC",
+			"M00001105+WRREC",
+			"M00002405+WRREC",
+			"E000000",
+			"",
+			"HRDREC 00000000002B",
+			"RBUFFERLENGTHBUFEND",
+			"T0000001DB410B400B44077201FE3201B332FFADB2015A00433200957900000B850",
+			"T00001D0E3B2FE9131000004F0000F1000000",
+			"M00001805+BUFFER",
+			"M00002105+LENGTH",
+			"M00002806+BUFEND",
+			"M00002806-BUFFER",
+			"E",
+			"",
+			"HWRREC 00000000001C",
+			"RLENGTHBUFFER",
+			"T0000001CB41077100000E32012332FFA53900000DF2008B8503B2FEE4F000005",
+			"M00000305+LENGTH",
+			"M00000D05+BUFFER",
+			"E");
+
+	private TestSupport() {}
+
+	static void assertTrue(boolean condition, String message) {
+		if (!condition) throw new AssertionError(message);
+	}
+
+	static void assertEquals(long expected, long actual, String message) {
+		if (expected != actual) throw new AssertionError(message + ": expected " + expected + " (0x" + Long.toHexString(expected) + "), got " + actual + " (0x" + Long.toHexString(actual) + ")");
+	}
+
+	static void assertEquals(Object expected, Object actual, String message) {
+		if (expected == null ? actual != null : !expected.equals(actual)) throw new AssertionError(message + ": expected " + expected + ", got " + actual);
+	}
+
+	static void assertArrayEquals(byte[] expected, byte[] actual, String message) {
+		int at = Arrays.mismatch(expected, actual);
+		if (at >= 0) throw new AssertionError(message + ": arrays differ at index " + at);
+	}
+
+	static void assertArrayEquals(int[] expected, int[] actual, String message) {
+		if (!Arrays.equals(expected, actual)) throw new AssertionError(message + ": expected " + Arrays.toString(expected) + ", got " + Arrays.toString(actual));
+	}
+
+	static <T extends Throwable> T assertThrows(Class<T> type, ThrowingRunnable body, String message) {
+		try {
+			body.run();
+		} catch (Throwable t) {
+			if (type.isInstance(t)) return type.cast(t);
+			throw new AssertionError(message + ": expected " + type.getSimpleName() + ", got " + t, t);
+		}
+		throw new AssertionError(message + ": expected " + type.getSimpleName() + ", nothing thrown");
+	}
+
+	interface ThrowingRunnable {
+		void run() throws Exception;
+	}
+
+	// 임시 파일에 목적 코드를 쓴다 (JVM 이 끝나면 지움)
+	static File writeObject(String text) throws IOException {
+		File file = File.createTempFile("sictest", ".obj");
+		file.deleteOnExit();
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.US_ASCII));
+		return file;
+	}
+
+	// 새 머신에 적재한다. 적재에 실패하면 AssertionError
+	static ResourceManager load(File program, boolean lazy) {
+		ResourceManager rMgr = new ResourceManager();
+		SicLoader loader = new SicLoader(rMgr);
+		loader.setLazy(lazy);
+		assertTrue(loader.load(program), "load failed: " + program);
+		return rMgr;
+	}
+
+	// 적재한 뒤 시작 주소에서 run() 을 준비한 시뮬레이터
+	static SicSimulator simulator(ResourceManager rMgr) {
+		SicSimulator simulator = new SicSimulator(rMgr);
+		simulator.setConsoleLogging(false);
+		simulator.programLoaded();
+		return simulator;
+	}
+}
@@ -0,0 +1,101 @@
+package SP25_simulator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static SP25_simulator.TestSupport.*;
+
+// 트레이스 왕복: 예제 프로그램을 한 단계씩 실행하며 기록한 뒤, 매 스텝의 stateAt/memoryAt 이 실제 상태와 같아야 한다
+public class TraceRoundTripTest {
+	private static final Path INPUT = Paths.get("F1");
+	private static final Path OUTPUT = Paths.get("05");
+	private static final int WATCHED = 0x1100; // 세 섹션과 버퍼를 모두 덮는다
+	private static final String INPUT_TEXT = "the quick brown fox jumps over the lazy dog"; // 한 글자마다 RDREC/WRREC 루프를 돈다
+
+	private final List<int[]> liveRegisters = new ArrayList<>();
+	private final List<Double> liveF = new ArrayList<>();
+	private final List<byte[]> liveMemory = new ArrayList<>();
+
+	void testEveryStepMatchesLiveState() throws Exception {
+		File traceFile = record(TraceWriter.DEFAULT_BLOCK_STEPS);
+		try (TraceReader reader = new TraceReader(traceFile)) {
+			assertEquals(1, reader.getBlockCount(), "whole run in one block");
+			assertEquals(liveMemory.size() - 1, reader.getTotalSteps(), "recorded steps");
+			for (int s = 0; s < liveMemory.size(); s++) checkStep(reader, s);
+			assertArrayEquals(liveMemory.get(0), copyOf(reader.readInitialMemory()), "initial image");
+		} finally {
+			Files.deleteIfExists(traceFile.toPath());
+		}
+	}
+
+	// 블록이 작으면 블록과 체크포인트가 많아진다. 뒤에서부터, 건너뛰며 조회해도 체크포인트에서 같은 상태를 되살려야 한다
+	void testSeeksAcrossManyCheckpoints() throws Exception {
+		File traceFile = record(3);
+		try (TraceReader reader = new TraceReader(traceFile)) {
+			int steps = liveMemory.size() - 1;
+			assertTrue(reader.getBlockCount() > 100, "many blocks: " + reader.getBlockCount());
+			for (int s = steps; s >= 0; s -= 7) checkStep(reader, s);
+			for (int s = 0; s <= steps; s++) checkStep(reader, s);
+			for (int s = 1; s <= steps; s += 97) checkStep(reader, steps - s);
+		} finally {
+			Files.deleteIfExists(traceFile.toPath());
+		}
+	}
+
+	private void checkStep(TraceReader reader, int s) throws Exception {
+		TraceReader.RegisterState state = reader.stateAt(s);
+		for (int r = 0; r < 10; r++) {
+			if (r == ResourceManager.REG_F || r == 7) continue;
+			assertEquals(liveRegisters.get(s)[r], state.getRegister(r), "register " + r + " after step " + s);
+		}
+		assertTrue(Double.compare(liveF.get(s), state.getRegister_F()) == 0, "F after step " + s);
+		assertArrayEquals(liveMemory.get(s), reader.memoryAt(s, 0, WATCHED), "memory after step " + s);
+	}
+
+	// 예제 프로그램을 한 단계씩 실행하며 blockSteps 로 기록하고, 스텝마다 실제 레지스터와 메모리를 남겨 둔다
+	private File record(int blockSteps) throws Exception {
+		liveRegisters.clear(); liveF.clear(); liveMemory.clear();
+		File traceFile = File.createTempFile("sictest", ".trc");
+		traceFile.deleteOnExit();
+		Files.write(INPUT, INPUT_TEXT.getBytes(StandardCharsets.US_ASCII));
+		ResourceManager rMgr = load(writeObject(SAMPLE_PROGRAM), false);
+		try {
+			SicSimulator simulator = simulator(rMgr);
+			try (TraceWriter trace = new TraceWriter(traceFile, rMgr, blockSteps)) {
+				simulator.setTraceWriter(trace);
+				snapshot(rMgr);
+				RunResult result;
+				do {
+					result = simulator.run(1, 0, null);
+					if (result.getExecutedInstructions() > 0) snapshot(rMgr);
+				} while (result.getReason() == StopReason.BUDGET);
+				assertEquals(StopReason.HALT, result.getReason(), "program halts");
+			}
+			assertTrue(liveMemory.size() > 600, "sample program runs hundreds of steps: " + liveMemory.size());
+		} finally {
+			rMgr.closeDevices();
+			Files.deleteIfExists(INPUT);
+			Files.deleteIfExists(OUTPUT);
+		}
+		return traceFile;
+	}
+
+	private void snapshot(ResourceManager rMgr) {
+		int[] regs = new int[10];
+		for (int r = 0; r < 10; r++) regs[r] = rMgr.getRegister(r);
+		liveRegisters.add(regs);
+		liveF.add(rMgr.getRegister_F());
+		liveMemory.add(rMgr.getMemory(0, WATCHED));
+	}
+
+	private static byte[] copyOf(byte[] memory) {
+		byte[] watched = new byte[WATCHED];
+		System.arraycopy(memory, 0, watched, 0, WATCHED);
+		return watched;
+	}
+}